@@ -67,7 +67,7 @@ public class PhotoInfo {
         int thumbnailSize = source.getThumbnailSize();
 
         if (source.isThumbnailForceCreation() || !file.exists()) {
-            var scaledImage = mImageScaler.getScaledImage(mFile, new Dimension(thumbnailSize, thumbnailSize));
+            var scaledImage = mImageScaler.getScaledImage(readSubsampledImage(thumbnailSize), new Dimension(thumbnailSize, thumbnailSize));
             scaledImage = GraphicsHelper.rotate(scaledImage, mOrientation);
 
             mHeight = scaledImage.getHeight();
@@ -229,4 +229,35 @@ public class PhotoInfo {
             }
         }
     }
+
+    /**
+     * Decode every n:th pixel only, keeping at least twice the thumbnail size
+     * for the final scaling.
+     */
+    private BufferedImage readSubsampledImage(int thumbnailSize) throws IOException {
+        try (var inputStream = ImageIO.createImageInputStream(mFile)) {
+            var readers = inputStream == null ? null : ImageIO.getImageReaders(inputStream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("E000 %s".formatted(mFile.getAbsolutePath()));
+            }
+
+            var reader = readers.next();
+            try {
+                reader.setInput(inputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (mOriginalDimension == null) {
+                    mOriginalDimension = mOrientation == 6 || mOrientation == 8 ? new Dimension(height, width) : new Dimension(width, height);
+                }
+
+                int subsampling = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                var param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
 }
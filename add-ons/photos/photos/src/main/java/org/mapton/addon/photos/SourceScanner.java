@@ -27,15 +27,17 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOCase;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
-import org.mapton.addon.photos.api.MapoCollection;
+import org.mapton.addon.photos.api.MapoCollectionStore;
 import org.mapton.addon.photos.api.MapoPhoto;
 import org.mapton.addon.photos.api.MapoSource;
 import org.mapton.addon.photos.api.MapoSourceManager;
@@ -51,7 +53,6 @@ import se.trixon.almond.util.Dict;
  */
 public class SourceScanner {
 
-    private MapoCollection mCurrentCollection;
     private MapoSource mCurrentSource;
     private final ArrayList<File> mFiles = new ArrayList<>();
     private boolean mInterrupted = false;
@@ -135,13 +136,27 @@ public class SourceScanner {
         }
     }
 
-    private void process(File file) {
+    private boolean isChanged(MapoCollectionStore store, File file) {
+        var path = file.getAbsolutePath();
+        if (mCurrentSource.isThumbnailForceCreation() || !store.isUnchanged(path, file.length(), file.lastModified())) {
+            return true;
+        }
+
+        var photo = store.getPhoto(path);
+
+        return photo != null && !new File(mCurrentSource.getThumbnailDir(), "%s.jpg".formatted(photo.getChecksum())).isFile();
+    }
+
+    private void process(MapoCollectionStore store, File file) throws IOException {
         mPrint.out(file);
+        long size = file.length();
+        long lastModified = file.lastModified();
+        MapoPhoto mapoPhoto = null;
         try {
             var photoInfo = new PhotoInfo(file);
 
             if (!photoInfo.isZeroCoordinate()) {
-                var mapoPhoto = new MapoPhoto();
+                mapoPhoto = new MapoPhoto();
                 mapoPhoto.setPath(file.getAbsolutePath());
                 mapoPhoto.setLat(photoInfo.getLat());
                 mapoPhoto.setLon(photoInfo.getLon());
@@ -154,12 +169,12 @@ public class SourceScanner {
                 photoInfo.createThumbnail(mCurrentSource, new File(mCurrentSource.getThumbnailDir(), "%s.jpg".formatted(photoInfo.getChecksum())));
                 mapoPhoto.setHeight(photoInfo.getHeight());
                 mapoPhoto.setWidth(photoInfo.getWidth());
-
-                mCurrentCollection.getPhotos().add(mapoPhoto);
             }
         } catch (ImageProcessingException | IOException ex) {
             mPrint.err(ex);
         }
+
+        store.put(file.getAbsolutePath(), size, lastModified, mapoPhoto);
     }
 
     private void process(MapoSource source) throws IOException {
@@ -167,49 +182,82 @@ public class SourceScanner {
 
         mFiles.clear();
         mCurrentSource = source;
-        mCurrentCollection = new MapoCollection();
-        mCurrentCollection.setId(source.getId());
-        mCurrentCollection.setName(source.getName());
         source.isValid();
 
         generateFileList(source);
+        if (mInterrupted) {
+            return;
+        }
 
-        if (!mInterrupted && !mFiles.isEmpty()) {
-            mPrint.out("BEGIN PROCESSING PHOTOS");
-            FileUtils.forceMkdir(source.getThumbnailDir());
+        try (var store = source.openCollectionStore()) {
+            store.setIdAndName(source.getId(), source.getName());
 
+            var paths = new HashSet<String>();
+            var changedFiles = new ArrayList<File>();
             for (var file : mFiles) {
-                process(file);
-                try {
-                    TimeUnit.NANOSECONDS.sleep(1);
-                } catch (InterruptedException ex) {
-                    mInterrupted = true;
-                    Thread.currentThread().interrupt();
-                    return;
+                paths.add(file.getAbsolutePath());
+                if (isChanged(store, file)) {
+                    changedFiles.add(file);
                 }
             }
 
-            var photos = mCurrentCollection.getPhotos();
-            Collections.sort(photos, Comparator.comparing(MapoPhoto::getDate));
-
-            try {
-                mCurrentCollection.setDateMin(photos.get(0).getDate());
-                mCurrentCollection.setDateMax(photos.get(photos.size() - 1).getDate());
-            } catch (Exception e) {
-                var date = new Date();
-                mCurrentCollection.setDateMin(date);
-                mCurrentCollection.setDateMax(date);
+            mPrint.out("%d/%d NEW OR CHANGED".formatted(changedFiles.size(), mFiles.size()));
+            if (!changedFiles.isEmpty()) {
+                mPrint.out("BEGIN PROCESSING PHOTOS");
+                FileUtils.forceMkdir(source.getThumbnailDir());
+                process(store, changedFiles);
+                if (mInterrupted) {
+                    return;
+                }
+                mPrint.out("END PROCESSING PHOTOS");
             }
 
-            mPrint.out("END PROCESSING PHOTOS");
+            for (var path : store.getPaths()) {
+                if (!paths.contains(path)) {
+                    store.remove(path);
+                }
+            }
         }
 
-        source.save(mCurrentCollection);
-
         mPrint.out("%s: %s".formatted("SAVED", source.getCollectionFile().getAbsoluteFile()));
         mPrint.out("%s: %s".formatted("END SCAN", source));
     }
 
+    /**
+     * Process the files concurrently, every file is stored as soon as it is
+     * done so an interrupted scan can continue where it stopped.
+     */
+    private void process(MapoCollectionStore store, ArrayList<File> files) throws IOException {
+        var numOfThreads = Math.clamp(Runtime.getRuntime().availableProcessors(), 1, 8);
+        var executor = Executors.newFixedThreadPool(numOfThreads);
+        var futures = new ArrayList<Future<?>>(files.size());
+        try {
+            for (var file : files) {
+                futures.add(executor.submit(() -> {
+                    if (!Thread.currentThread().isInterrupted()) {
+                        process(store, file);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            mInterrupted = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            Exceptions.printStackTrace(ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public class FileVisitor extends SimpleFileVisitor<Path> {
 
         private final String[] mExcludePatterns;
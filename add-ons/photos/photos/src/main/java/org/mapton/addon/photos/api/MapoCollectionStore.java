@@ -0,0 +1,289 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.addon.photos.api;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import org.openide.util.Exceptions;
+
+/**
+ * Append only store of a photo collection.
+ * <p>
+ * Every line of the file is a json entry, either the id and name of the
+ * collection, a scanned file or a removed file. Later lines replace earlier
+ * ones for the same path, so a rescan only appends what changed. The file is
+ * rewritten when less than half of its lines are still in use.
+ *
+ * @author Patrik Karlström
+ */
+public class MapoCollectionStore implements Closeable {
+
+    private static final int COMPACT_MIN_LINES = 1000;
+    private static final String OP_COLLECTION = "collection";
+    private static final String OP_FILE = "file";
+    private static final String OP_REMOVE = "remove";
+    private static final Gson sGson = new GsonBuilder()
+            .setVersion(1.0)
+            .create();
+    private final HashMap<String, Entry> mEntries = new HashMap<>();
+    private final File mFile;
+    private Long mId;
+    private int mLineCount;
+    private String mName;
+    private BufferedWriter mWriter;
+
+    public MapoCollectionStore(File file) throws IOException {
+        mFile = file;
+        if (mFile.isFile()) {
+            for (var line : Files.readAllLines(mFile.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    apply(sGson.fromJson(line, Entry.class));
+                    mLineCount++;
+                } catch (JsonParseException e) {
+                    //a line cut short by an interrupted write, skip it
+                    Exceptions.printStackTrace(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (mWriter != null) {
+            mWriter.close();
+            mWriter = null;
+        }
+
+        if (mLineCount > Math.max(COMPACT_MIN_LINES, 2 * (mEntries.size() + 1))) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the file with one line per path in use.
+     *
+     * @throws IOException
+     */
+    public synchronized void compact() throws IOException {
+        if (mWriter != null) {
+            mWriter.close();
+            mWriter = null;
+        }
+
+        var tempFile = new File(mFile.getParentFile(), mFile.getName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+            var header = new Entry(OP_COLLECTION);
+            header.mId = mId;
+            header.mName = mName;
+            writer.write(sGson.toJson(header));
+            writer.newLine();
+
+            for (var entry : mEntries.values()) {
+                writer.write(sGson.toJson(entry));
+                writer.newLine();
+            }
+        }
+
+        Files.move(tempFile.toPath(), mFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mLineCount = mEntries.size() + 1;
+    }
+
+    /**
+     * @return the stored photos, sorted on date
+     */
+    public synchronized MapoCollection getCollection() {
+        var collection = new MapoCollection();
+        collection.setId(mId);
+        collection.setName(mName);
+
+        var photos = new ArrayList<MapoPhoto>();
+        for (var entry : mEntries.values()) {
+            if (entry.mPhoto != null) {
+                photos.add(entry.mPhoto);
+            }
+        }
+        photos.sort(Comparator.comparing(MapoPhoto::getDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+        collection.setPhotos(photos);
+
+        if (photos.isEmpty()) {
+            var date = new Date();
+            collection.setDateMin(date);
+            collection.setDateMax(date);
+        } else {
+            collection.setDateMin(photos.getFirst().getDate());
+            collection.setDateMax(photos.getLast().getDate());
+        }
+
+        return collection;
+    }
+
+    /**
+     * @return the paths of all scanned files, with or without a photo
+     */
+    public synchronized Set<String> getPaths() {
+        return new HashSet<>(mEntries.keySet());
+    }
+
+    /**
+     * @param path
+     * @return the photo of a scanned file, null if not scanned or without a
+     * position
+     */
+    public synchronized MapoPhoto getPhoto(String path) {
+        var entry = mEntries.get(path);
+
+        return entry == null ? null : entry.mPhoto;
+    }
+
+    /**
+     * @param path
+     * @param size
+     * @param lastModified
+     * @return true if the file was scanned with this size and modification
+     * time
+     */
+    public synchronized boolean isUnchanged(String path, long size, long lastModified) {
+        var entry = mEntries.get(path);
+
+        return entry != null && entry.mSize == size && entry.mLastModified == lastModified;
+    }
+
+    /**
+     * Store a scanned file.
+     *
+     * @param path
+     * @param size
+     * @param lastModified
+     * @param photo null for files without a position
+     * @throws IOException
+     */
+    public synchronized void put(String path, long size, long lastModified, MapoPhoto photo) throws IOException {
+        var entry = new Entry(OP_FILE);
+        entry.mPath = path;
+        entry.mSize = size;
+        entry.mLastModified = lastModified;
+        entry.mPhoto = photo;
+        append(entry);
+    }
+
+    public synchronized void remove(String path) throws IOException {
+        if (mEntries.containsKey(path)) {
+            var entry = new Entry(OP_REMOVE);
+            entry.mPath = path;
+            append(entry);
+        }
+    }
+
+    public synchronized void setIdAndName(Long id, String name) throws IOException {
+        if (!Objects.equals(mId, id) || !Objects.equals(mName, name)) {
+            var entry = new Entry(OP_COLLECTION);
+            entry.mId = id;
+            entry.mName = name;
+            append(entry);
+        }
+    }
+
+    private void append(Entry entry) throws IOException {
+        if (mWriter == null) {
+            Files.createDirectories(mFile.getParentFile().toPath());
+            var endsWithPartialLine = false;
+            if (mFile.length() > 0) {
+                try (var raf = new RandomAccessFile(mFile, "r")) {
+                    raf.seek(raf.length() - 1);
+                    endsWithPartialLine = raf.read() != '\n';
+                }
+            }
+
+            mWriter = Files.newBufferedWriter(mFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (endsWithPartialLine) {
+                //keep the next entry off a line cut short by an interrupted write
+                mWriter.newLine();
+            }
+        }
+
+        mWriter.write(sGson.toJson(entry));
+        mWriter.newLine();
+        mWriter.flush();
+        mLineCount++;
+        apply(entry);
+    }
+
+    private void apply(Entry entry) {
+        if (entry == null || entry.mOp == null) {
+            throw new JsonParseException("Missing op");
+        }
+
+        switch (entry.mOp) {
+            case OP_COLLECTION -> {
+                mId = entry.mId;
+                mName = entry.mName;
+            }
+            case OP_FILE ->
+                mEntries.put(entry.mPath, entry);
+            case OP_REMOVE ->
+                mEntries.remove(entry.mPath);
+            default ->
+                throw new JsonParseException("Unknown op: " + entry.mOp);
+        }
+    }
+
+    private static class Entry {
+
+        @SerializedName("id")
+        private Long mId;
+        @SerializedName("modified")
+        private long mLastModified;
+        @SerializedName("name")
+        private String mName;
+        @SerializedName("op")
+        private String mOp;
+        @SerializedName("path")
+        private String mPath;
+        @SerializedName("photo")
+        private MapoPhoto mPhoto;
+        @SerializedName("size")
+        private long mSize;
+
+        public Entry() {
+        }
+
+        public Entry(String op) {
+            mOp = op;
+        }
+    }
+}
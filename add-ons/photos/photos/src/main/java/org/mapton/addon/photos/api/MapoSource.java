@@ -17,7 +17,6 @@ package org.mapton.addon.photos.api;
 
 import com.google.gson.annotations.SerializedName;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.PathMatcher;
@@ -85,7 +84,7 @@ public class MapoSource {
     }
 
     public File getCollectionFile() {
-        return new File(mManager.getCacheDir(), "%d.json".formatted(getId()));
+        return new File(mManager.getCacheDir(), "%d.jsonl".formatted(getId()));
     }
 
     public String getDescriptionString() {
@@ -163,15 +162,37 @@ public class MapoSource {
     }
 
     public MapoCollection loadCollection() throws IOException {
-        try {
-            return Mapo.getGson().fromJson(FileUtils.readFileToString(getCollectionFile(), "utf-8"), MapoCollection.class);
-        } catch (FileNotFoundException e) {
+        if (getCollectionFile().isFile()) {
+            try (var store = new MapoCollectionStore(getCollectionFile())) {
+                return store.getCollection();
+            }
+        } else if (getLegacyCollectionFile().isFile()) {
+            return Mapo.getGson().fromJson(FileUtils.readFileToString(getLegacyCollectionFile(), "utf-8"), MapoCollection.class);
+        } else {
             return new MapoCollection();
         }
     }
 
-    public void save(MapoCollection collection) throws IOException {
-        FileUtils.write(getCollectionFile(), Mapo.getGson().toJson(collection), "utf-8");
+    /**
+     * Open the collection store, a collection saved by earlier versions is
+     * moved into it with its files marked as changed.
+     *
+     * @return
+     * @throws IOException
+     */
+    public MapoCollectionStore openCollectionStore() throws IOException {
+        var store = new MapoCollectionStore(getCollectionFile());
+        if (!getCollectionFile().isFile() && getLegacyCollectionFile().isFile()) {
+            var collection = loadCollection();
+            store.setIdAndName(collection.getId(), collection.getName());
+            for (var photo : collection.getPhotos()) {
+                store.put(photo.getPath(), -1, -1, photo);
+            }
+            store.compact();
+            FileUtils.deleteQuietly(getLegacyCollectionFile());
+        }
+
+        return store;
     }
 
     public void setCollection(MapoCollection collection) {
@@ -239,4 +260,8 @@ public class MapoSource {
         return "%s (%d)".formatted(mName, getCollection().getPhotos().size());
     }
 
+    private File getLegacyCollectionFile() {
+        return new File(mManager.getCacheDir(), "%d.json".formatted(getId()));
+    }
+
 }
@@ -52,6 +52,7 @@ public class VibrationLayerBundle extends BfLayerBundle {
         mOptionsView = new VibrationOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, null, mOptionsView.getGraphicCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -104,7 +105,8 @@ public class VibrationLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, p -> mAttributeManager.getPinAttributes(Color.PINK));
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
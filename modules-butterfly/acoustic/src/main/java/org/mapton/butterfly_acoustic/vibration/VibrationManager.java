@@ -17,22 +17,20 @@ package org.mapton.butterfly_acoustic.vibration;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.mapton.api.MDisruptorProvider;
 import org.mapton.api.MLatLon;
-import org.mapton.api.MTemporalRange;
 import org.mapton.butterfly_acoustic.vibration.chart.VibrationChartBuilder;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.acoustic.BAcousticVibrationPoint;
 import org.openide.util.Exceptions;
 import org.openide.util.lookup.ServiceProvider;
-import se.trixon.almond.util.CollectionHelper;
 import se.trixon.almond.util.DateHelper;
 
 /**
@@ -84,11 +82,14 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
             initAllItems(butterfly.noise().getVibrationPoints());
             initObjectToItemMap();
 
-            butterfly.noise().getVibrationPoints().forEach(p -> {
-                var channels = butterfly.noise().getVibrationChannels().stream().filter(c -> c.getPointId().equalsIgnoreCase(p.getExternalId())).toList();
-                p.ext().setChannels(new ArrayList<>(channels));
-                var limits = butterfly.noise().getVibrationLimits().stream().filter(c -> c.getPointId().equalsIgnoreCase(p.getExternalId())).toList();
-                p.ext().setLimits(new ArrayList<>(limits));
+            var pointIdToChannels = BObservationBinder.group(butterfly.noise().getVibrationChannels(), c -> BObservationBinder.normalize(c.getPointId()));
+            var pointIdToLimits = BObservationBinder.group(butterfly.noise().getVibrationLimits(), l -> BObservationBinder.normalize(l.getPointId()));
+
+            BObservationBinder.bindIgnoreCase(butterfly.noise().getVibrationPoints(), butterfly.noise().getVibrationObservations(), (p, observations) -> {
+                var pointId = BObservationBinder.normalize(p.getExternalId());
+                var channels = new ArrayList<>(pointIdToChannels.getOrDefault(pointId, new ArrayList<>()));
+                p.ext().setChannels(channels);
+                p.ext().setLimits(new ArrayList<>(pointIdToLimits.getOrDefault(pointId, new ArrayList<>())));
 
                 var status = "S5";
                 for (var channel : channels) {
@@ -99,10 +100,6 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
                 }
                 p.setStatus(status);
 
-                var observations = butterfly.noise().getVibrationObservations().stream()
-                        .filter(o -> o.getName().equalsIgnoreCase(p.getName()))
-                        .collect(Collectors.toCollection(ArrayList::new));
-
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.setDateLatest(observations.getLast().getDate());
@@ -114,13 +111,10 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
                 p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
             });
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -132,7 +126,6 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BAcousticVibrationPoint>();
 
         p:
@@ -159,11 +152,7 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
         });
 
         var latLonDisruptors = timeFilteredItems.stream().map(p -> new MLatLon(p.getLat(), p.getLon())).toList();
@@ -171,6 +160,11 @@ public class VibrationManager extends BaseManager<BAcousticVibrationPoint> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("noiseVibrationObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BAcousticVibrationPoint> items) {
         throw new UnsupportedOperationException("Not supported yet.");
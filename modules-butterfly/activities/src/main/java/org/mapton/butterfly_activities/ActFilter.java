@@ -45,11 +45,12 @@ public class ActFilter extends FormFilter<ActManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), aa -> aa.getLat(), aa -> aa.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(aa -> validateFreeText(aa.getName()))
                 .filter(aa -> validateCheck(mStatusCheckModel, ActHelper.getStatusAsString(aa.getStatus())))
                 .filter(aa -> validateCheck(mOriginCheckModel, aa.getOrigin()))
-                .filter(aa -> validateCoordinateArea(aa.getLat(), aa.getLon()))
+                .filter(areaPredicate)
                 .filter(aa -> validateCoordinateRuler(aa.getLat(), aa.getLon()))
                 .toList();
 
@@ -16,7 +16,7 @@
 package org.mapton.butterfly_core.api;
 
 import com.dlsc.gemsfx.util.SessionManager;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ResourceBundle;
@@ -30,15 +30,12 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.lang3.ObjectUtils;
-import org.apache.commons.math3.ml.clustering.DBSCANClusterer;
-import org.apache.commons.math3.ml.distance.DistanceMeasure;
 import org.mapton.api.MBaseDataManager;
 import org.mapton.api.ui.forms.FormFilter;
 import org.mapton.api.ui.forms.MBaseFilterSection;
 import org.mapton.butterfly_format.types.BXyzPoint;
 import org.openide.util.NbBundle;
 import se.trixon.almond.util.Dict;
-import se.trixon.almond.util.MathHelper;
 import se.trixon.almond.util.fx.FxHelper;
 import se.trixon.almond.util.fx.control.RangeSliderPane;
 import se.trixon.almond.util.fx.control.SliderPane;
@@ -51,9 +48,9 @@ public class BFilterSectionMisc<T extends BXyzPoint> extends MBaseFilterSection
 
     private final ResourceBundle mBundle = NbBundle.getBundle(BFilterSectionMisc.class);
     private final CheckBox mClusterCheckbox = new CheckBox("Autokluster");
+    private ClusterIndex mClusterIndex;
     private RangeSliderPane mDeltaHRangeSlider;
     private SliderPane mDeltaRSlider;
-    private final DistanceMeasure mDistanceMeasure;
     private final FormFilter<? extends MBaseDataManager> mFilter;
     private final CheckBox mInvertCheckbox = new CheckBox();
     private final CheckBox mInvisibleCheckbox = new CheckBox();
@@ -62,18 +59,6 @@ public class BFilterSectionMisc<T extends BXyzPoint> extends MBaseFilterSection
     public BFilterSectionMisc(FormFilter<? extends MBaseDataManager> filter) {
         super(Dict.MISCELLANEOUS.toString());
         mFilter = filter;
-        mDistanceMeasure = (DistanceMeasure) (double[] a, double[] b) -> {
-            var plane = Math.hypot(b[1] - a[1], b[0] - a[0]);
-            var height = Math.abs(b[2] - a[2]);
-            var hMin = mDeltaHRangeSlider.minProperty().get();
-            var hMax = mDeltaHRangeSlider.maxProperty().get();
-
-            if (MathHelper.isBetween(hMin, hMax, height)) {
-                return plane;
-            } else {
-                return Double.MAX_VALUE;
-            }
-        };
 
         createUI();
         setContent(mRoot);
@@ -209,6 +194,10 @@ public class BFilterSectionMisc<T extends BXyzPoint> extends MBaseFilterSection
         return mInvisibleCheckbox.selectedProperty();
     }
 
+    public boolean isClusterSelected() {
+        return isSelected() && mClusterCheckbox.isSelected();
+    }
+
     public void load() {
     }
 
@@ -236,29 +225,36 @@ public class BFilterSectionMisc<T extends BXyzPoint> extends MBaseFilterSection
         mDeltaRSlider.disableProperty().bind(mClusterCheckbox.selectedProperty().not());
     }
 
+    /**
+     * DBSCAN with minPoints 1, a point is part of a cluster if at least one
+     * other point is within epsilon in plane and has a height difference
+     * within the height range.
+     *
+     * @param items
+     * @param epsilon
+     * @return the clustered items, in the order of items
+     */
     private List<T> getPoints(List<T> items, double epsilon) {
-        var minPoints = 1;
-        var dbscan = new DBSCANClusterer<BXyzPoint>(epsilon, minPoints, mDistanceMeasure);
-        //Calculate and subtract min on order to use dbscan.
-        var minX = items.stream().filter(p -> p.getZeroX() != null).mapToDouble(p -> p.getZeroX()).min().getAsDouble();
-        var minY = items.stream().filter(p -> p.getZeroY() != null).mapToDouble(p -> p.getZeroY()).min().getAsDouble();
-        var minZ = items.stream().filter(p -> p.getZeroZ() != null).mapToDouble(p -> p.getZeroZ()).min().getAsDouble();
-
-        items = items.stream()
-                .filter(p -> ObjectUtils.allNotNull(p.getZeroX(), p.getZeroY(), p.getZeroZ()))
-                .filter(p -> {
-                    p.setZeroXScaled(p.getZeroX() - minX);
-                    p.setZeroYScaled(p.getZeroY() - minY);
-                    p.setZeroZScaled(p.getZeroZ() - minZ);
-                    return true;
-                }).toList();
+        var clusterIndex = mClusterIndex;
+        if (clusterIndex == null || !clusterIndex.isIndexOf(items)) {
+            clusterIndex = new ClusterIndex(items);
+            mClusterIndex = clusterIndex;
+        }
 
-        var clusters = dbscan.cluster((Collection<BXyzPoint>) items);
+        var clustered = clusterIndex.getClustered(
+                epsilon,
+                mDeltaHRangeSlider.minProperty().get(),
+                mDeltaHRangeSlider.maxProperty().get()
+        );
 
-        return (List<T>) clusters.stream()
-                .flatMap(cluster -> cluster.getPoints().stream())
-                .toList();
+        var points = new ArrayList<T>();
+        for (int i = 0; i < clustered.length; i++) {
+            if (clustered[i]) {
+                points.add((T) clusterIndex.getPoint(i));
+            }
+        }
 
+        return points;
     }
 
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_core.api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_format.types.BBasePointObservation;
+
+/**
+ * First and last date and the number of observations per day and month of a
+ * domain.
+ * <p>
+ * The counts are gathered in a single pass over the observation dates as
+ * epoch days, without collecting the dates themselves.
+ *
+ * @author Patrik Karlström
+ */
+public class BTemporalStats {
+
+    public static final BTemporalStats EMPTY = new Builder().build();
+    private final long mCount;
+    private final int[] mDayCounts;
+    private final long mFirstDay;
+    private final int mFirstMonth;
+    private final int[] mMonthCounts;
+    private final MTemporalRange mTemporalRange;
+
+    /**
+     * @param <P>
+     * @param items
+     * @param observationsFunction
+     * @return the stats of the observations of all items
+     */
+    public static <P> BTemporalStats of(Collection<P> items, Function<? super P, ? extends Collection<? extends BBasePointObservation>> observationsFunction) {
+        var builder = new Builder();
+        for (var item : items) {
+            for (var o : observationsFunction.apply(item)) {
+                builder.add(o.getDate());
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param dateTime
+     * @return the month as months since year 0
+     */
+    public static int getMonth(LocalDateTime dateTime) {
+        return dateTime.getYear() * 12 + dateTime.getMonthValue() - 1;
+    }
+
+    /**
+     * Count observations per month, the same as formatting their dates with
+     * "yyyy-MM".
+     *
+     * @param observations
+     * @return month keys in the order they first occur, with their counts
+     */
+    public static LinkedHashMap<String, Integer> getMonthCounts(Collection<? extends BBasePointObservation> observations) {
+        var monthCounts = new LinkedHashMap<String, Integer>();
+        var month = Integer.MIN_VALUE;
+        var count = 0;
+        for (var o : observations) {
+            var m = getMonth(o.getDate());
+            if (m != month) {
+                if (count > 0) {
+                    monthCounts.merge(getMonthKey(month), count, Integer::sum);
+                }
+                month = m;
+                count = 0;
+            }
+            count++;
+        }
+
+        if (count > 0) {
+            monthCounts.merge(getMonthKey(month), count, Integer::sum);
+        }
+
+        return monthCounts;
+    }
+
+    /**
+     * @param month as months since year 0
+     * @return the month formatted as "yyyy-MM"
+     */
+    public static String getMonthKey(int month) {
+        var year = month / 12;
+        var monthOfYear = month % 12 + 1;
+
+        return (year < 1000 ? StringUtils.leftPad(String.valueOf(year), 4, '0') : String.valueOf(year))
+                + (monthOfYear < 10 ? "-0" : "-") + monthOfYear;
+    }
+
+    private BTemporalStats(long firstDay, int[] dayCounts, long count) {
+        mFirstDay = firstDay;
+        mDayCounts = dayCounts;
+        mCount = count;
+
+        if (dayCounts.length == 0) {
+            mFirstMonth = 0;
+            mMonthCounts = new int[0];
+            mTemporalRange = null;
+            return;
+        }
+
+        var first = LocalDate.ofEpochDay(firstDay);
+        var last = LocalDate.ofEpochDay(firstDay + dayCounts.length - 1);
+        mFirstMonth = first.getYear() * 12 + first.getMonthValue() - 1;
+        mMonthCounts = new int[last.getYear() * 12 + last.getMonthValue() - mFirstMonth];
+
+        //walk the days month by month
+        int month = 0;
+        long nextMonthDay = first.withDayOfMonth(1).plusMonths(1).toEpochDay();
+        for (int i = 0; i < dayCounts.length; i++) {
+            if (firstDay + i == nextMonthDay) {
+                month++;
+                nextMonthDay = LocalDate.ofEpochDay(nextMonthDay).plusMonths(1).toEpochDay();
+            }
+            mMonthCounts[month] += dayCounts[i];
+        }
+
+        mTemporalRange = new MTemporalRange(first, last);
+        mTemporalRange.setDayCounts(dayCounts);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        var other = (BTemporalStats) obj;
+
+        return mCount == other.mCount
+                && mFirstDay == other.mFirstDay
+                && Arrays.equals(mDayCounts, other.mDayCounts);
+    }
+
+    /**
+     * @return the total number of observations
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param from
+     * @param to
+     * @return the number of observations from and including from to and
+     * including to
+     */
+    public long getCount(LocalDate from, LocalDate to) {
+        return isEmpty() ? 0 : mTemporalRange.getCount(from, to);
+    }
+
+    public int getDayCount(LocalDate date) {
+        long index = date.toEpochDay() - mFirstDay;
+
+        return index < 0 || index >= mDayCounts.length ? 0 : mDayCounts[(int) index];
+    }
+
+    public LocalDate getFirst() {
+        return isEmpty() ? null : mTemporalRange.getFromLocalDate();
+    }
+
+    public LocalDate getLast() {
+        return isEmpty() ? null : mTemporalRange.getToLocalDate();
+    }
+
+    /**
+     * @param month as months since year 0
+     * @return
+     */
+    public int getMonthCount(int month) {
+        int index = month - mFirstMonth;
+
+        return index < 0 || index >= mMonthCounts.length ? 0 : mMonthCounts[index];
+    }
+
+    /**
+     * @return the range from the first to the last date, with day counts, null
+     * if empty
+     */
+    public MTemporalRange getTemporalRange() {
+        return mTemporalRange;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mCount, mFirstDay) * 31 + Arrays.hashCode(mDayCounts);
+    }
+
+    public boolean isEmpty() {
+        return mDayCounts.length == 0;
+    }
+
+    /**
+     * @return a builder holding the counts of these stats, to add or remove
+     * observations from
+     */
+    public Builder toBuilder() {
+        var builder = new Builder();
+        builder.mCount = mCount;
+        builder.mDayCounts = Arrays.copyOf(mDayCounts, mDayCounts.length);
+        builder.mFirstDay = mFirstDay;
+        builder.mLength = mDayCounts.length;
+
+        return builder;
+    }
+
+    public static class Builder {
+
+        private long mCount;
+        private int[] mDayCounts = new int[0];
+        private long mFirstDay;
+        private int mLength;
+
+        public Builder add(LocalDateTime dateTime) {
+            if (dateTime != null) {
+                add(dateTime.toLocalDate().toEpochDay());
+            }
+
+            return this;
+        }
+
+        public Builder add(LocalDate date) {
+            if (date != null) {
+                add(date.toEpochDay());
+            }
+
+            return this;
+        }
+
+        public BTemporalStats build() {
+            //skip days emptied by remove
+            int from = 0;
+            int to = mLength;
+            while (from < to && mDayCounts[from] == 0) {
+                from++;
+            }
+            while (to > from && mDayCounts[to - 1] == 0) {
+                to--;
+            }
+
+            return new BTemporalStats(from == to ? 0 : mFirstDay + from, Arrays.copyOfRange(mDayCounts, from, to), mCount);
+        }
+
+        public Builder remove(LocalDateTime dateTime) {
+            if (dateTime != null) {
+                remove(dateTime.toLocalDate().toEpochDay());
+            }
+
+            return this;
+        }
+
+        private void add(long day) {
+            if (mLength == 0) {
+                mFirstDay = day;
+                mLength = 1;
+                if (mDayCounts.length == 0) {
+                    mDayCounts = new int[64];
+                }
+            } else if (day < mFirstDay) {
+                //grow towards earlier days
+                int shift = (int) (mFirstDay - day);
+                var dayCounts = new int[Math.max(mDayCounts.length * 2, mLength + shift)];
+                System.arraycopy(mDayCounts, 0, dayCounts, shift, mLength);
+                mDayCounts = dayCounts;
+                mFirstDay = day;
+                mLength += shift;
+            } else if (day - mFirstDay >= mLength) {
+                mLength = (int) (day - mFirstDay + 1);
+                if (mLength > mDayCounts.length) {
+                    mDayCounts = Arrays.copyOf(mDayCounts, Math.max(mDayCounts.length * 2, mLength));
+                }
+            }
+
+            mDayCounts[(int) (day - mFirstDay)]++;
+            mCount++;
+        }
+
+        private void remove(long day) {
+            long index = day - mFirstDay;
+            if (index >= 0 && index < mLength && mDayCounts[(int) index] > 0) {
+                mDayCounts[(int) index]--;
+                mCount--;
+            }
+        }
+    }
+}
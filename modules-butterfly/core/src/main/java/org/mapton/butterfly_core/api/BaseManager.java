@@ -19,6 +19,7 @@ import gov.nasa.worldwind.render.Renderable;
 import java.net.URLEncoder;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -35,6 +36,7 @@ import org.mapton.api.MSearchProviderManager;
 import org.mapton.api.MTemporalManager;
 import org.mapton.api.Mapton;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.ButterflyChange;
 import org.mapton.butterfly_format.types.BBase;
 import org.mapton.butterfly_format.types.BBasePoint;
 import org.mapton.butterfly_format.types.BXyzPoint;
@@ -60,6 +62,7 @@ public abstract class BaseManager<T extends BBase> extends MBaseDataManager<T> {
     private Butterfly mButterfly;
     private final ButterflyManager mButterflyManager = ButterflyManager.getInstance();
     private final BooleanProperty mDisabledSearchProperty = new SimpleBooleanProperty(true);
+    private BTemporalStats mTemporalStats = BTemporalStats.EMPTY;
 
     static {
         Mapton.getGlobalState().addListener(gsce -> {
@@ -92,6 +95,12 @@ public abstract class BaseManager<T extends BBase> extends MBaseDataManager<T> {
             FxHelper.runLater(() -> load(n));
         });
 
+        mButterflyManager.butterflyChangeProperty().addListener((p, o, n) -> {
+            if (n != null && mButterfly != null && n.isChanged(getSourceFiles())) {
+                reload(mButterfly, n);
+            }
+        });
+
         if (mButterflyManager.getButterfly() != null) {
             mButterfly = mButterflyManager.getButterfly();
             FxHelper.runLater(() -> load(mButterfly));
@@ -213,6 +222,13 @@ public abstract class BaseManager<T extends BBase> extends MBaseDataManager<T> {
         return null;
     }
 
+    /**
+     * @return the stats of the observations as of the latest load
+     */
+    public BTemporalStats getTemporalStats() {
+        return mTemporalStats;
+    }
+
     public void initObjectToItemMap() {
         synchronized (getAllItems()) {
             for (var item : getAllItems()) {
@@ -223,6 +239,20 @@ public abstract class BaseManager<T extends BBase> extends MBaseDataManager<T> {
 
     public abstract void load(Butterfly butterfly);
 
+    /**
+     * Called on the FX thread when files of the current Butterfly have been
+     * reloaded.
+     * <p>
+     * The default implementation loads everything again, override to only
+     * update the changed items.
+     *
+     * @param butterfly
+     * @param change the applied change
+     */
+    public void reload(Butterfly butterfly, ButterflyChange change) {
+        load(butterfly);
+    }
+
     public void registerLayerBundle(LayerBundle layerBundle, BOptionsView optionsView) {
         selectedItemProperty().addListener((p, o, n) -> {
             if (optionsView.isPlotSelected()) {
@@ -249,6 +279,49 @@ public abstract class BaseManager<T extends BBase> extends MBaseDataManager<T> {
         displayAnnotation(item);
     }
 
+    /**
+     * Store the stats until the next load, and set the temporal range unless
+     * empty.
+     *
+     * @param temporalStats
+     */
+    public void setTemporalStats(BTemporalStats temporalStats) {
+        mTemporalStats = temporalStats;
+        if (!temporalStats.isEmpty()) {
+            setTemporalRange(temporalStats.getTemporalRange());
+        }
+    }
+
+    /**
+     * Store stats of a reloaded domain, the range is only updated if the first
+     * or last date or any day count changed.
+     *
+     * @param temporalStats
+     */
+    public void updateTemporalStats(BTemporalStats temporalStats) {
+        if (temporalStats.equals(mTemporalStats)) {
+            return;
+        }
+
+        mTemporalStats = temporalStats;
+        if (!temporalStats.isEmpty()) {
+            updateTemporalRange(temporalStats.getTemporalRange());
+        }
+    }
+
+    /**
+     * The bundle files that are reloaded incrementally and that this manager
+     * reads, see {@link #reload(Butterfly, ButterflyChange)}.
+     * <p>
+     * Any other changed file opens the bundle again, so managers that only
+     * read such files, or follow another manager, keep the empty default.
+     *
+     * @return
+     */
+    protected Set<String> getSourceFiles() {
+        return Set.of();
+    }
+
     @Override
     protected MLatLonBox getTimeFilteredExtents() {
         var latLons = getTimeFilteredItems().stream()
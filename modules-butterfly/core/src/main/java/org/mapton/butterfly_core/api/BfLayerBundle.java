@@ -18,11 +18,22 @@ package org.mapton.butterfly_core.api;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.layers.Layer;
 import gov.nasa.worldwind.layers.RenderableLayer;
 import gov.nasa.worldwind.render.PointPlacemark;
 import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import org.apache.commons.lang3.ObjectUtils;
+import org.mapton.api.MLatLon;
+import org.mapton.api.MLatLonBox;
+import org.mapton.api.Mapton;
+import org.mapton.butterfly_format.types.BBasePoint;
 import org.mapton.worldwind.api.LayerBundle;
 import org.mapton.worldwind.api.RoundAnnotation;
 import org.mapton.worldwind.api.WWHelper;
@@ -33,6 +44,12 @@ import org.mapton.worldwind.api.WWHelper;
  */
 public abstract class BfLayerBundle extends LayerBundle {
 
+    public static final double LOD_ALTITUDE = 3000.0;
+    public static final int LOD_CELLS = 32;
+    public static final int LOD_MIN_CLUSTER_SIZE = 3;
+    public static final double LOD_VIEW_MARGIN = 0.25;
+
+    protected final RenderableLayer mClusterLayer = new RenderableLayer();
     protected final RenderableLayer mGroundConnectorLayer = new RenderableLayer();//TODO REMOVE THIS
     protected final RenderableLayer mLabelLayer = new RenderableLayer();
     protected final RenderableLayer mLayer = new RenderableLayer();
@@ -40,11 +57,36 @@ public abstract class BfLayerBundle extends LayerBundle {
     protected final RenderableLayer mPinLayer = new RenderableLayer();
     protected final RenderableLayer mSurfaceLayer = new RenderableLayer();
     protected final RenderableLayer mSymbolLayer = new RenderableLayer();
+    private volatile int mLodLevel = Integer.MIN_VALUE;
+    private volatile Sector mLodSector;
 
     public RoundAnnotation addClickArea(Position position, ArrayList<AVListImpl> mapObjects) {
         return super.addClickArea(position, mLayer, mapObjects);
     }
 
+    /**
+     * Create a pin for a cluster, labeled with the number of points, that
+     * zooms to the points when clicked.
+     *
+     * @param cluster
+     * @param attrs pin attributes of a single point, scaled by the cluster
+     * size
+     * @param layer the layer to add the pin to, or null
+     * @return
+     */
+    public PointPlacemark createClusterPlacemark(PointCluster<?> cluster, PointPlacemarkAttributes attrs, RenderableLayer layer) {
+        var position = Position.fromDegrees(cluster.lat(), cluster.lon());
+        attrs = new PointPlacemarkAttributes(attrs);
+        attrs.setScale(attrs.getScale() * (1 + 0.5 * Math.log10(cluster.points().size())));
+        var placemark = createPlacemark(position, Integer.toString(cluster.points().size()), attrs, layer);
+
+        placemark.setValue(WWHelper.KEY_RUNNABLE_LEFT_CLICK, (Runnable) () -> {
+            Mapton.getEngine().fitToBounds(cluster.latLonBox());
+        });
+
+        return placemark;
+    }
+
     public PointPlacemark createPlacemark(Position position, String text, PointPlacemarkAttributes attrs, RenderableLayer layer) {
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -62,6 +104,75 @@ public abstract class BfLayerBundle extends LayerBundle {
         return placemark;
     }
 
+    /**
+     * Split the points in those to draw one by one and clusters.
+     * <p>
+     * Points outside of the view, plus a margin, are left out. Above
+     * {@link #LOD_ALTITUDE}, the points sharing a cell of a grid of about
+     * {@link #LOD_CELLS} over the view are combined if there are at least
+     * {@link #LOD_MIN_CLUSTER_SIZE} of them. The cell size is rounded to a
+     * power of two, so the grid stays the same while zooming a little.
+     *
+     * @param <T>
+     * @param points points with a position, in draw order
+     * @param alarmLevelFunction
+     * @return all points if the view is not known yet
+     */
+    public <T extends BBasePoint> LevelOfDetail<T> getLevelOfDetail(List<T> points, ToIntFunction<T> alarmLevelFunction) {
+        var sector = getViewSector(LOD_VIEW_MARGIN);
+        mLodSector = sector;
+        if (sector == null) {
+            return new LevelOfDetail<>(points, List.of());
+        }
+
+        var minLat = sector.getMinLatitude().degrees;
+        var maxLat = sector.getMaxLatitude().degrees;
+        var minLon = sector.getMinLongitude().degrees;
+        var maxLon = sector.getMaxLongitude().degrees;
+        var visiblePoints = points.stream()
+                .filter(p -> p.getLat() >= minLat && p.getLat() <= maxLat && p.getLon() >= minLon && p.getLon() <= maxLon)
+                .toList();
+
+        var level = getLodLevel(sector, getViewAltitude());
+        mLodLevel = level;
+        if (level == Integer.MIN_VALUE || visiblePoints.size() < LOD_MIN_CLUSTER_SIZE) {
+            return new LevelOfDetail<>(visiblePoints, List.of());
+        }
+
+        var cellSize = Math.scalb(1.0, level);
+        var cellToPoints = new LinkedHashMap<Long, ArrayList<T>>();
+        for (var p : visiblePoints) {
+            long row = (long) Math.floor(p.getLat() / cellSize);
+            long col = (long) Math.floor(p.getLon() / cellSize);
+            var key = ((long) (level & 0xff) << 56) | ((row & 0xfffffffL) << 28) | (col & 0xfffffffL);
+            cellToPoints.computeIfAbsent(key, k -> new ArrayList<>()).add(p);
+        }
+
+        var singlePoints = new ArrayList<T>();
+        var clusters = new ArrayList<PointCluster<T>>();
+        for (var entry : cellToPoints.entrySet()) {
+            var cellPoints = entry.getValue();
+            if (cellPoints.size() < LOD_MIN_CLUSTER_SIZE) {
+                singlePoints.addAll(cellPoints);
+            } else {
+                var latLons = new ArrayList<MLatLon>();
+                var alarmLevel = -1;
+                for (var p : cellPoints) {
+                    latLons.add(new MLatLon(p.getLat(), p.getLon()));
+                    alarmLevel = Math.max(alarmLevel, alarmLevelFunction.applyAsInt(p));
+                }
+
+                var lat = cellPoints.stream().mapToDouble(p -> p.getLat()).average().getAsDouble();
+                var lon = cellPoints.stream().mapToDouble(p -> p.getLon()).average().getAsDouble();
+                clusters.add(new PointCluster<>(entry.getKey(), lat, lon, alarmLevel, new MLatLonBox(latLons), cellPoints));
+            }
+        }
+
+        //Keep the draw order of the single points
+        var singlePointSet = new HashSet<T>(singlePoints);
+        return new LevelOfDetail<>(visiblePoints.stream().filter(singlePointSet::contains).toList(), clusters);
+    }
+
     public void initCommons(String name, String category, String topComponentId) {
         mLayer.setName(name);
         setName(name);
@@ -75,16 +186,56 @@ public abstract class BfLayerBundle extends LayerBundle {
         mSurfaceLayer.setPickEnabled(false);
         mPassiveLayer.setPickEnabled(false);
 
-        super.setAllChildLayers(mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer, mGroundConnectorLayer);
+        super.setAllChildLayers(mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer, mGroundConnectorLayer, mClusterLayer);
     }
 
     public void initCommons() {
-        super.setAllChildLayers(mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer, mGroundConnectorLayer);
+        super.setAllChildLayers(mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer, mGroundConnectorLayer, mClusterLayer);
+    }
+
+    /**
+     * Plot the clusters of the level of detail of the view on the cluster
+     * layer and return the points to draw one by one.
+     * <p>
+     * For painters that keep their renderables between repaints, see
+     * {@link #getLevelOfDetail(List, ToIntFunction)}. Points without a
+     * position are left out.
+     *
+     * @param <T>
+     * @param points points in draw order
+     * @param selectedPoint always returned if it is in points, may be null
+     * @param alarmLevelFunction
+     * @param pinAttributesFunction the pin of a cluster is the one of its
+     * point with the worst alarm level
+     * @return
+     */
+    public <T extends BBasePoint> List<T> plotLevelOfDetail(List<T> points, T selectedPoint, ToIntFunction<T> alarmLevelFunction, Function<T, PointPlacemarkAttributes> pinAttributesFunction) {
+        var positionedPoints = points.stream()
+                .filter(p -> ObjectUtils.allNotNull(p.getLat(), p.getLon()))
+                .toList();
+        var lod = getLevelOfDetail(positionedPoints.stream().filter(p -> p != selectedPoint).toList(), alarmLevelFunction);
+
+        for (var cluster : lod.clusters()) {
+            var worstPoint = cluster.points().stream()
+                    .filter(p -> alarmLevelFunction.applyAsInt(p) == cluster.alarmLevel())
+                    .findFirst()
+                    .orElse(cluster.points().getFirst());
+            createClusterPlacemark(cluster, pinAttributesFunction.apply(worstPoint), mClusterLayer);
+        }
+
+        if (selectedPoint == null || !positionedPoints.contains(selectedPoint)) {
+            return lod.points();
+        }
+
+        var lodPoints = new ArrayList<T>(lod.points());
+        lodPoints.add(selectedPoint);
+
+        return lodPoints;
     }
 
     @Override
     public void populate() throws Exception {
-        getLayers().addAll(mLayer, mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer);
+        getLayers().addAll(mLayer, mPassiveLayer, mLabelLayer, mSymbolLayer, mPinLayer, mSurfaceLayer, mClusterLayer);
     }
 
     @Override
@@ -92,4 +243,54 @@ public abstract class BfLayerBundle extends LayerBundle {
         super.setCategory(layer, "%s/%s".formatted("Butterfly", category));
     }
 
+    /**
+     * Repaint only if the view left the sector of the last level of detail
+     * or the cell size changed.
+     *
+     * @param sector
+     * @return
+     */
+    @Override
+    protected boolean isRepaintNeededOnViewChange(Sector sector) {
+        var lodSector = mLodSector;
+
+        return lodSector == null
+                || !lodSector.contains(sector)
+                || getLodLevel(getViewSector(LOD_VIEW_MARGIN), getViewAltitude()) != mLodLevel;
+    }
+
+    /**
+     * @return the cell size as a power of two exponent, Integer.MIN_VALUE if
+     * not clustered
+     */
+    private int getLodLevel(Sector sector, double altitude) {
+        if (sector == null || Double.isNaN(altitude) || altitude < LOD_ALTITUDE) {
+            return Integer.MIN_VALUE;
+        }
+
+        var cellSize = Math.max(sector.getDeltaLatDegrees(), sector.getDeltaLonDegrees()) / LOD_CELLS;
+
+        return (int) Math.round(Math.log(cellSize) / Math.log(2));
+    }
+
+    /**
+     * The points to draw one by one and the clusters of a view.
+     */
+    public record LevelOfDetail<T>(List<T> points, List<PointCluster<T>> clusters) {
+
+    }
+
+    /**
+     * Points of a dense area drawn as one symbol.
+     *
+     * @param key identifies the cell and the cell size
+     * @param lat
+     * @param lon
+     * @param alarmLevel the worst alarm level of the points
+     * @param latLonBox
+     * @param points
+     */
+    public record PointCluster<T>(long key, double lat, double lon, int alarmLevel, MLatLonBox latLonBox, List<T> points) {
+
+    }
 }
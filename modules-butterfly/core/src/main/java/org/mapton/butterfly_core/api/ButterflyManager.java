@@ -55,6 +55,7 @@ import org.mapton.butterfly_format.BundleMode;
 import static org.mapton.butterfly_format.BundleMode.DIR;
 import static org.mapton.butterfly_format.BundleMode.ZIP;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.ButterflyChange;
 import org.mapton.butterfly_format.ButterflyLoader;
 import org.mapton.butterfly_format.ZipHelper;
 import org.mapton.butterfly_format.types.BAreaBase;
@@ -73,6 +74,7 @@ import se.trixon.almond.util.DateHelper;
 import se.trixon.almond.util.Dict;
 import se.trixon.almond.util.MathHelper;
 import se.trixon.almond.util.SystemHelper;
+import se.trixon.almond.util.fx.FxHelper;
 import se.trixon.almond.util.swing.SwingHelper;
 import se.trixon.almond.util.swing.dialogs.CredentialsPanel;
 
@@ -91,6 +93,7 @@ import se.trixon.almond.util.swing.dialogs.CredentialsPanel;
 public class ButterflyManager {
 
     private final MAreaFilterManager mAreaFilterManager = MAreaFilterManager.getInstance();
+    private final ObjectProperty<ButterflyChange> mButterflyChangeProperty = new SimpleObjectProperty<>();
     private final ButterflyLoader mButterflyLoader = ButterflyLoader.getInstance();
     private final ButterflyMonitor mButterflyMonitor = new ButterflyMonitor();
     private final ObjectProperty<Butterfly> mButterflyProperty = new SimpleObjectProperty<>();
@@ -107,49 +110,76 @@ public class ButterflyManager {
     private ButterflyManager() {
     }
 
+    /**
+     * Set, on the FX thread, after an incremental reload has been applied to
+     * the current Butterfly
+     *
+     * @return
+     */
+    public ObjectProperty<ButterflyChange> butterflyChangeProperty() {
+        return mButterflyChangeProperty;
+    }
+
     public ObjectProperty<Butterfly> butterflyProperty() {
         return mButterflyProperty;
     }
 
     public void calculateLatLons(ArrayList<? extends BXyzPoint> baseControlPoints) {
-        baseControlPoints.parallelStream().forEach(cp -> {
-            var x = cp.getZeroX();
-            var y = cp.getZeroY();
-
-            if (ObjectUtils.allNotNull(x, y)) {
-                var wgs84 = getCooTrans().toWgs84(y, x);
-                cp.setLat(MathHelper.round(wgs84.getY(), 6));
-                cp.setLon(MathHelper.round(wgs84.getX(), 6));
-                cp.setValue("MLATLON", new MLatLon(wgs84.getY(), wgs84.getX()));
+        var points = baseControlPoints.stream()
+                .filter(cp -> ObjectUtils.allNotNull(cp.getZeroX(), cp.getZeroY()))
+                .toList();
+        var ys = points.stream().mapToDouble(cp -> cp.getZeroY()).toArray();
+        var xs = points.stream().mapToDouble(cp -> cp.getZeroX()).toArray();
+        getCooTrans().toWgs84(ys, xs, xs, ys);
+
+        for (int i = 0; i < points.size(); i++) {
+            if (Double.isNaN(ys[i]) || Double.isNaN(xs[i])) {
+                continue;
             }
-        });
+
+            var cp = points.get(i);
+            cp.setLat(MathHelper.round(ys[i], 6));
+            cp.setLon(MathHelper.round(xs[i], 6));
+            cp.setValue("MLATLON", new MLatLon(ys[i], xs[i]));
+        }
     }
 
     public void calculateLatLonsTmo(ArrayList<? extends BBasObjekt> baseControlPoints) {
-        baseControlPoints.parallelStream().forEach(cp -> {
-            var x = cp.getX();
-            var y = cp.getY();
-
-            if (ObjectUtils.allNotNull(x, y)) {
-                var wgs84 = getCooTrans().toWgs84(y, x);
-                cp.setLat(MathHelper.round(wgs84.getY(), 6));
-                cp.setLon(MathHelper.round(wgs84.getX(), 6));
+        var points = baseControlPoints.stream()
+                .filter(cp -> ObjectUtils.allNotNull(cp.getX(), cp.getY()))
+                .toList();
+        var ys = points.stream().mapToDouble(cp -> cp.getY()).toArray();
+        var xs = points.stream().mapToDouble(cp -> cp.getX()).toArray();
+        getCooTrans().toWgs84(ys, xs, xs, ys);
+
+        for (int i = 0; i < points.size(); i++) {
+            if (Double.isNaN(ys[i]) || Double.isNaN(xs[i])) {
+                continue;
             }
-        });
+
+            var cp = points.get(i);
+            cp.setLat(MathHelper.round(ys[i], 6));
+            cp.setLon(MathHelper.round(xs[i], 6));
+        }
     }
 
     public void calculateLocalFromLatLons(ArrayList<? extends BXyzPoint> baseControlPoints) {
-        baseControlPoints.parallelStream().forEach(cp -> {
-            var lat = cp.getLat();
-            var lon = cp.getLon();
-
-            if (ObjectUtils.allNotNull(lat, lon)) {
-                var local = getCooTrans().fromWgs84(lat, lon);
-                cp.setZeroY(MathHelper.round(local.getY(), 3));
-                cp.setZeroX(MathHelper.round(local.getX(), 3));
-//                cp.setValue("LOCAL", new MLatLon(local.getY(), local.getX()));
+        var points = baseControlPoints.stream()
+                .filter(cp -> ObjectUtils.allNotNull(cp.getLat(), cp.getLon()))
+                .toList();
+        var lats = points.stream().mapToDouble(cp -> cp.getLat()).toArray();
+        var lons = points.stream().mapToDouble(cp -> cp.getLon()).toArray();
+        getCooTrans().fromWgs84(lats, lons, lons, lats);
+
+        for (int i = 0; i < points.size(); i++) {
+            if (Double.isNaN(lats[i]) || Double.isNaN(lons[i])) {
+                continue;
             }
-        });
+
+            var cp = points.get(i);
+            cp.setZeroY(MathHelper.round(lats[i], 3));
+            cp.setZeroX(MathHelper.round(lons[i], 3));
+        }
     }
 
     public Butterfly getButterfly() {
@@ -211,6 +241,7 @@ public class ButterflyManager {
             }
 
             if (bundleMode == DIR || unlock(mSource)) {
+                mButterflyLoader.setSnapshotDir(new File(Mapton.getCacheDir(), "butterfly"));
                 mButterflyLoader.load(bundleMode, mSource);
                 if (mLogoLoader == null) {
                     mLogoLoader = new LogoLoader();
@@ -303,6 +334,28 @@ public class ButterflyManager {
         thread.start();
     }
 
+    /**
+     * Re-read the changed files of the current bundle and patch them into the
+     * current Butterfly.
+     *
+     * @return false if the bundle has to be opened again, also when the change
+     * was made to a file that is not tracked
+     */
+    public synchronized boolean reload() {
+        var change = mButterflyLoader.reload();
+        if (change.isFullReload() || !change.hasChanges()) {
+            return false;
+        }
+
+        FxHelper.runLater(() -> {
+            change.apply();
+            mButterflyChangeProperty.set(change);
+        });
+        refreshTitle();
+
+        return true;
+    }
+
     public void setButterfly(Butterfly butterfly) {
         mButterflyProperty.set(butterfly);
     }
@@ -324,14 +377,13 @@ public class ButterflyManager {
         calculateLatLons(butterfly.rock().getConvergence());
 
         butterfly.getAlarms().parallelStream().forEach(alarm -> {
-            var points = alarm.ext().getPoints();
+            var points = alarm.ext().getPoints().stream()
+                    .filter(p -> ObjectUtils.allNotNull(p.getLat(), p.getLon()))
+                    .toList();
 
             if (!points.isEmpty()) {
-                try {
-                    alarm.setLat(points.stream().mapToDouble(p -> p.getLat()).average().getAsDouble());
-                    alarm.setLon(points.stream().mapToDouble(p -> p.getLon()).average().getAsDouble());
-                } catch (Exception e) {
-                }
+                alarm.setLat(points.stream().mapToDouble(p -> p.getLat()).average().getAsDouble());
+                alarm.setLon(points.stream().mapToDouble(p -> p.getLon()).average().getAsDouble());
             }
         });
 
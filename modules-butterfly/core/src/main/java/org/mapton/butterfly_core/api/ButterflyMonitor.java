@@ -52,7 +52,11 @@ public class ButterflyMonitor {
                             LocalTime.now(),
                             mFile.toString()
                     );
-                    ButterflyOpener.getInstance().restore();
+                    new Thread(() -> {
+                        if (!ButterflyManager.getInstance().reload()) {
+                            ButterflyOpener.getInstance().restore();
+                        }
+                    }, "ButterflyMonitor").start();
                 }
             });
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_core.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.commons.lang3.ObjectUtils;
+import org.mapton.butterfly_format.types.BXyzPoint;
+import se.trixon.almond.util.MathHelper;
+
+/**
+ * The zero coordinates of a list of points, kept as long as the points are the
+ * same, and a grid of them with cells of epsilon, kept as long as epsilon is
+ * the same.
+ *
+ * @author Patrik Karlström
+ */
+class ClusterIndex {
+
+    private double mCellSize = Double.NaN;
+    private HashMap<Long, ArrayList<Integer>> mCellToIndices;
+    private double mEpsilon = Double.NaN;
+    private final BXyzPoint[] mPoints;
+    private final Object[] mSource;
+    private final double[] mX;
+    private final double[] mY;
+    private final double[] mZ;
+
+    public ClusterIndex(List<? extends BXyzPoint> items) {
+        mSource = items.toArray();
+        mPoints = items.stream()
+                .filter(p -> ObjectUtils.allNotNull(p.getZeroX(), p.getZeroY(), p.getZeroZ()))
+                .toArray(BXyzPoint[]::new);
+
+        var n = mPoints.length;
+        mX = new double[n];
+        mY = new double[n];
+        mZ = new double[n];
+        for (int i = 0; i < n; i++) {
+            mX[i] = mPoints[i].getZeroX();
+            mY[i] = mPoints[i].getZeroY();
+            mZ[i] = mPoints[i].getZeroZ();
+        }
+    }
+
+    /**
+     * DBSCAN with minPoints 1, a point is part of a cluster if at least one
+     * other point is within epsilon in plane and has a height difference
+     * within [hMin, hMax].
+     * <p>
+     * Each point is only compared with the points of its own and the
+     * neighbouring grid cells.
+     *
+     * @param epsilon
+     * @param hMin
+     * @param hMax
+     * @return per point, in the order of getPoint, if it has a neighbour
+     */
+    public synchronized boolean[] getClustered(double epsilon, double hMin, double hMax) {
+        if (epsilon != mEpsilon) {
+            buildGrid(epsilon);
+        }
+
+        var n = mX.length;
+        var clustered = new boolean[n];
+
+        for (int i = 0; i < n; i++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    var indices = mCellToIndices.get(getCellKey(mX[i], mY[i], dx, dy));
+                    if (indices == null) {
+                        continue;
+                    }
+
+                    for (int j : indices) {
+                        if (j <= i || clustered[i] && clustered[j]) {
+                            continue;
+                        }
+
+                        var plane = Math.hypot(mX[j] - mX[i], mY[j] - mY[i]);
+                        var height = Math.abs(mZ[j] - mZ[i]);
+                        if (plane <= epsilon && MathHelper.isBetween(hMin, hMax, height)) {
+                            clustered[i] = true;
+                            clustered[j] = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return clustered;
+    }
+
+    public BXyzPoint getPoint(int index) {
+        return mPoints[index];
+    }
+
+    public boolean isIndexOf(List<? extends BXyzPoint> items) {
+        if (items.size() != mSource.length) {
+            return false;
+        }
+
+        var i = 0;
+        for (var item : items) {
+            if (item != mSource[i++]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void buildGrid(double epsilon) {
+        mEpsilon = epsilon;
+        //an epsilon of 0 only clusters coinciding points, which share a cell of any size
+        mCellSize = epsilon > 0 ? epsilon : 1.0;
+        mCellToIndices = new HashMap<>();
+        for (int i = 0; i < mX.length; i++) {
+            mCellToIndices.computeIfAbsent(getCellKey(mX[i], mY[i], 0, 0), k -> new ArrayList<>()).add(i);
+        }
+    }
+
+    private long getCellKey(double x, double y, int dx, int dy) {
+        long cx = (long) Math.floor(x / mCellSize) + dx;
+        long cy = (long) Math.floor(y / mCellSize) + dy;
+
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+}
@@ -15,19 +15,26 @@
  */
 package org.mapton.butterfly_core.api;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import org.jfree.data.function.LineFunction2D;
 import org.jfree.data.statistics.Regression;
-import org.jfree.data.time.Day;
 import org.jfree.data.time.Hour;
 import org.jfree.data.time.Minute;
 import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
+import org.mapton.butterfly_format.types.BTimeSeries;
+import org.mapton.butterfly_format.types.BTrendPeriod;
 import org.mapton.butterfly_format.types.BXyzPoint;
 import org.mapton.butterfly_format.types.BXyzPointObservation;
 import org.mapton.ce_jfreechart.api.ChartHelper;
@@ -87,44 +94,100 @@ public class TrendHelper {
     }
 
     public static Trend createTrend(BXyzPoint p, boolean dayliMean, LocalDateTime startDate, LocalDateTime endDate, Function<BXyzPointObservation, Double> function) throws IllegalArgumentException {
-        var timeSeries = new TimeSeries("-");
-
-        if (p.ext() instanceof BXyzPoint.Ext<? extends BXyzPointObservation> ext) {
-            ext.getObservationsTimeFiltered().stream()
-                    .filter(o -> DateHelper.isBetween(startDate.toLocalDate(), endDate.toLocalDate().plusDays(1), o.getDate().toLocalDate()))
-                    .forEachOrdered(o -> {
-                        timeSeries.addOrUpdate(ChartHelper.convertToMinute(o.getDate()), function.apply(o));
-                    });
-        }
+        return new Samples(p, function).createTrend(dayliMean, startDate, endDate);
+    }
 
-        var dataset = new TimeSeriesCollection();
-        if (dayliMean) {
-            var dailyValues = new HashMap<Day, ArrayList<Double>>();
-            var dailyMedians = new TimeSeries("-");
-            for (int i = 0; i < timeSeries.getItemCount(); i++) {
-                var period = ((Minute) timeSeries.getTimePeriod(i)).getDay();
-                var value = timeSeries.getValue(i).doubleValue();
-                dailyValues.computeIfAbsent(period, k -> new ArrayList<>()).add(value);
+    /**
+     * Calculate the daily median trends of all periods of a point, sampling
+     * the time filtered observations once.
+     *
+     * @param p
+     * @param periodToStartDate
+     * @param endDate
+     * @param function
+     * @return the trends of the periods with enough data
+     */
+    public static HashMap<BTrendPeriod, Trend> createTrends(BXyzPoint p, Map<BTrendPeriod, LocalDateTime> periodToStartDate, LocalDateTime endDate, Function<BXyzPointObservation, Double> function) {
+        var samples = new Samples(p, function);
+        var periodToTrend = new HashMap<BTrendPeriod, Trend>();
+        periodToStartDate.forEach((period, startDate) -> {
+            try {
+                periodToTrend.put(period, samples.createTrend(true, startDate, endDate));
+            } catch (IllegalArgumentException e) {
+                //nvm, not enough data
             }
+        });
 
-            for (var entry : dailyValues.entrySet()) {
-                var values = entry.getValue();
-                Collections.sort(values);
-                dailyMedians.add(entry.getKey(), calculateMedian(values));
-            }
-            dataset.addSeries(dailyMedians);
-        } else {
-            dataset.addSeries(timeSeries);
+        return periodToTrend;
+    }
+
+    /**
+     * The start dates of the standard trend periods, ending at the latest
+     * observation of the point.
+     *
+     * @param p
+     * @return empty if the point has no latest observation
+     */
+    public static LinkedHashMap<BTrendPeriod, LocalDateTime> getPeriodStartDates(BXyzPoint p) {
+        var periodToStartDate = new LinkedHashMap<BTrendPeriod, LocalDateTime>();
+        var ext = p.extOrNull();
+        var endDate = ext == null ? null : ext.getDateLatest();
+        if (endDate == null) {
+            return periodToStartDate;
         }
 
-        var coefficients = Regression.getOLSRegression(dataset, 0);
+        if (ext.getDateFirst() != null) {
+            periodToStartDate.put(BTrendPeriod.FIRST, ext.getDateFirst());
+        }
+        if (p.getDateZero() != null) {
+            periodToStartDate.put(BTrendPeriod.ZERO, p.getDateZero().atStartOfDay());
+        }
+        periodToStartDate.put(BTrendPeriod.HALF_YEAR, endDate.minusMonths(6));
+        periodToStartDate.put(BTrendPeriod.QUARTER, endDate.minusMonths(3));
+        periodToStartDate.put(BTrendPeriod.MONTH, endDate.minusMonths(1));
+        periodToStartDate.put(BTrendPeriod.WEEK, endDate.minusWeeks(1));
+
+        return periodToStartDate;
+    }
+
+    /**
+     * Populate the trends of all standard periods and store them as the value
+     * of key.
+     * <p>
+     * The trends are kept as long as the observations and the time filter of
+     * the point are the same.
+     *
+     * @param p
+     * @param key
+     * @param function
+     */
+    public static void populateTrends(BXyzPoint p, String key, Function<BXyzPointObservation, Double> function) {
+        var ext = p.extOrNull();
+        if (ext == null) {
+            return;
+        }
 
-        return new Trend(
-                new LineFunction2D(coefficients[0], coefficients[1]),
-                ChartHelper.convertToMinute(startDate),
-                ChartHelper.convertToMinute(endDate),
-                timeSeries.getItemCount()
+        var periodToStartDate = getPeriodStartDates(p);
+        var observations = ext.getObservationsTimeFiltered();
+        var timeSeries = ext.getTimeSeries();
+        var source = new TrendSource(
+                timeSeries,
+                timeSeries.getDeltasGeneration(),
+                observations.size(),
+                observations.isEmpty() ? null : observations.getFirst().getDate(),
+                observations.isEmpty() ? null : observations.getLast().getDate(),
+                periodToStartDate
         );
+
+        var sourceKey = key + ".source";
+        if (source.equals(p.getValue(sourceKey)) && p.getValue(key) != null) {
+            return;
+        }
+
+        var endDate = ext.getDateLatest();
+        var periodToTrend = endDate == null ? new HashMap<BTrendPeriod, Trend>() : createTrends(p, periodToStartDate, endDate, function);
+        p.setValue(key, periodToTrend);
+        p.setValue(sourceKey, source);
     }
 
     public static Double getMmPerYear(Trend trend) {
@@ -139,19 +202,173 @@ public class TrendHelper {
         return null;
     }
 
-    private static double calculateMedian(List<Double> values) {
-        int size = values.size();
-        if (size % 2 == 0) {
-            return (values.get(size / 2 - 1) + values.get(size / 2)) / 2.0;
-        } else {
-            return values.get(size / 2);
-        }
-    }
-
     private TrendHelper() {
     }
 
     public record Trend(LineFunction2D function, Minute startMinute, Minute endMinute, int numOfMeas) {
 
     }
+
+    private record TrendSource(BTimeSeries timeSeries, int deltasGeneration, int size, LocalDateTime first, LocalDateTime last, Map<BTrendPeriod, LocalDateTime> periodToStartDate) {
+
+    }
+
+    /**
+     * The time filtered values of a point, one per minute like in a JFreeChart
+     * TimeSeries with addOrUpdate, sorted on time.
+     */
+    private static class Samples {
+
+        private final LocalDate[] mDates;
+        private final long[] mDayMillis;
+        private final long[] mMinuteMillis;
+        private final double[] mValues;
+
+        public Samples(BXyzPoint p, Function<BXyzPointObservation, Double> function) {
+            var ext = p.extOrNull();
+            var observations = ext == null ? new ArrayList<BXyzPointObservation>() : new ArrayList<BXyzPointObservation>(ext.getObservationsTimeFiltered());
+            observations.sort(Comparator.comparing(o -> o.getDate().truncatedTo(ChronoUnit.MINUTES)));
+
+            var zoneId = ZoneId.systemDefault();
+            var dates = new ArrayList<LocalDate>(observations.size());
+            var dayMillis = new long[observations.size()];
+            var minuteMillis = new long[observations.size()];
+            var values = new double[observations.size()];
+            var n = 0;
+
+            for (var o : observations) {
+                var minute = o.getDate().truncatedTo(ChronoUnit.MINUTES);
+                var millis = minute.atZone(zoneId).toInstant().toEpochMilli();
+                var value = getValue(function, o);
+
+                if (n > 0 && minuteMillis[n - 1] == millis) {
+                    values[n - 1] = value;
+                } else {
+                    dates.add(minute.toLocalDate());
+                    dayMillis[n] = minute.toLocalDate().atStartOfDay(zoneId).toInstant().toEpochMilli();
+                    minuteMillis[n] = millis;
+                    values[n] = value;
+                    n++;
+                }
+            }
+
+            mDates = dates.toArray(LocalDate[]::new);
+            mDayMillis = Arrays.copyOf(dayMillis, n);
+            mMinuteMillis = Arrays.copyOf(minuteMillis, n);
+            mValues = Arrays.copyOf(values, n);
+        }
+
+        public Trend createTrend(boolean dailyMedian, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException {
+            var first = startDate.toLocalDate();
+            var last = endDate.toLocalDate().plusDays(1);
+
+            int from = binarySearch(0, i -> DateHelper.isBetween(first, last, mDates[i]) || mDates[i].isAfter(first));
+            int to = binarySearch(from, i -> !DateHelper.isBetween(first, last, mDates[i]));
+
+            for (int i = from; i < to; i++) {
+                if (Double.isNaN(mValues[i])) {
+                    throw new IllegalArgumentException("Missing value.");
+                }
+            }
+
+            double[] coefficients;
+            if (dailyMedian) {
+                var xs = new double[to - from];
+                var ys = new double[to - from];
+                var buffer = new double[to - from];
+                var numOfDays = 0;
+
+                for (int i = from; i < to;) {
+                    int j = i;
+                    while (j < to && mDayMillis[j] == mDayMillis[i]) {
+                        buffer[j - i] = mValues[j];
+                        j++;
+                    }
+
+                    var count = j - i;
+                    Arrays.sort(buffer, 0, count);
+                    xs[numOfDays] = mDayMillis[i];
+                    ys[numOfDays] = count % 2 == 0 ? (buffer[count / 2 - 1] + buffer[count / 2]) / 2.0 : buffer[count / 2];
+                    numOfDays++;
+                    i = j;
+                }
+
+                coefficients = getOLSRegression(xs, ys, numOfDays);
+            } else {
+                var xs = new double[to - from];
+                var ys = new double[to - from];
+                for (int i = from; i < to; i++) {
+                    xs[i - from] = mMinuteMillis[i];
+                    ys[i - from] = mValues[i];
+                }
+
+                coefficients = getOLSRegression(xs, ys, to - from);
+            }
+
+            return new Trend(
+                    new LineFunction2D(coefficients[0], coefficients[1]),
+                    ChartHelper.convertToMinute(startDate),
+                    ChartHelper.convertToMinute(endDate),
+                    to - from
+            );
+        }
+
+        private int binarySearch(int low, IntPredicate predicate) {
+            int high = mDates.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (predicate.test(mid)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * The same calculation as Regression.getOLSRegression of JFreeChart
+         */
+        private double[] getOLSRegression(double[] xs, double[] ys, int n) {
+            if (n < 2) {
+                throw new IllegalArgumentException("Not enough data.");
+            }
+
+            double sumX = 0;
+            double sumY = 0;
+            double sumXX = 0;
+            double sumXY = 0;
+            for (int i = 0; i < n; i++) {
+                double x = xs[i];
+                double y = ys[i];
+                sumX += x;
+                sumY += y;
+                double xx = x * x;
+                sumXX += xx;
+                double xy = x * y;
+                sumXY += xy;
+            }
+
+            double sxx = sumXX - (sumX * sumX) / n;
+            double sxy = sumXY - (sumX * sumY) / n;
+            double xbar = sumX / n;
+            double ybar = sumY / n;
+
+            var result = new double[2];
+            result[1] = sxy / sxx;
+            result[0] = ybar - result[1] * xbar;
+
+            return result;
+        }
+
+        private double getValue(Function<BXyzPointObservation, Double> function, BXyzPointObservation o) {
+            try {
+                var value = function.apply(o);
+                return value == null ? Double.NaN : value;
+            } catch (Exception e) {
+                return Double.NaN;
+            }
+        }
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_core.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.math3.ml.clustering.DBSCANClusterer;
+import org.apache.commons.math3.ml.distance.DistanceMeasure;
+import org.junit.jupiter.api.Test;
+import org.mapton.butterfly_format.types.BXyzPoint;
+import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
+import se.trixon.almond.util.MathHelper;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the grid with the DBSCANClusterer the cluster filter used before.
+ *
+ * @author Patrik Karlström
+ */
+public class ClusterIndexTest {
+
+    @Test
+    public void testClusteredMatchesDbscan() {
+        var random = new Random(42);
+        var points = new ArrayList<BXyzPoint>();
+        for (int i = 0; i < 2_000; i++) {
+            points.add(createPoint(random.nextDouble() * 500, random.nextDouble() * 500, random.nextDouble() * 10));
+        }
+
+        var clusterIndex = new ClusterIndex(points);
+        for (var epsilon : new double[]{0.5, 2.0, 5.0, 2.0, 20.0}) {
+            assertClustered(points, clusterIndex, epsilon, 0.0, 20.0);
+            assertClustered(points, clusterIndex, epsilon, 1.0, 3.0);
+        }
+    }
+
+    @Test
+    public void testClusteredOnCellBorders() {
+        //integer coordinates put pairs exactly epsilon apart on both sides of a cell border
+        var random = new Random(42);
+        var points = new ArrayList<BXyzPoint>();
+        for (int i = 0; i < 1_000; i++) {
+            points.add(createPoint(random.nextInt(100) - 50, random.nextInt(100) - 50, random.nextInt(5)));
+        }
+
+        var clusterIndex = new ClusterIndex(points);
+        for (var epsilon : new double[]{0.0, 1.0, 2.0, 3.0}) {
+            assertClustered(points, clusterIndex, epsilon, 0.0, 20.0);
+            assertClustered(points, clusterIndex, epsilon, 1.0, 2.0);
+        }
+    }
+
+    @Test
+    public void testMissingZeroIsSkipped() {
+        var p1 = createPoint(0, 0, 0);
+        var p2 = createPoint(1, 0, 0);
+        var p3 = createPoint(0, 1, 0);
+        p3.setZeroZ(null);
+        var points = List.<BXyzPoint>of(p1, p2, p3);
+
+        var clusterIndex = new ClusterIndex(points);
+        assertTrue(clusterIndex.isIndexOf(points));
+        assertFalse(clusterIndex.isIndexOf(List.of(p1, p2)));
+        assertArrayEquals(new boolean[]{true, true}, clusterIndex.getClustered(1.0, 0.0, 1.0));
+        assertArrayEquals(new boolean[]{false, false}, clusterIndex.getClustered(0.5, 0.0, 1.0));
+    }
+
+    private void assertClustered(List<BXyzPoint> points, ClusterIndex clusterIndex, double epsilon, double hMin, double hMax) {
+        var expected = getClusteredDbscan(points, epsilon, hMin, hMax);
+
+        var actual = Collections.newSetFromMap(new IdentityHashMap<BXyzPoint, Boolean>());
+        var clustered = clusterIndex.getClustered(epsilon, hMin, hMax);
+        for (int i = 0; i < clustered.length; i++) {
+            if (clustered[i]) {
+                actual.add(clusterIndex.getPoint(i));
+            }
+        }
+
+        assertEquals(expected, actual, "epsilon %s, height %s-%s".formatted(epsilon, hMin, hMax));
+    }
+
+    private BTopoControlPoint createPoint(double x, double y, double z) {
+        var p = new BTopoControlPoint();
+        p.setZeroX(x);
+        p.setZeroY(y);
+        p.setZeroZ(z);
+        p.setZeroXScaled(x);
+        p.setZeroYScaled(y);
+        p.setZeroZScaled(z);
+
+        return p;
+    }
+
+    private Set<BXyzPoint> getClusteredDbscan(List<BXyzPoint> points, double epsilon, double hMin, double hMax) {
+        var distanceMeasure = (DistanceMeasure) (double[] a, double[] b) -> {
+            var plane = Math.hypot(b[1] - a[1], b[0] - a[0]);
+            var height = Math.abs(b[2] - a[2]);
+
+            if (MathHelper.isBetween(hMin, hMax, height)) {
+                return plane;
+            } else {
+                return Double.MAX_VALUE;
+            }
+        };
+
+        var dbscan = new DBSCANClusterer<BXyzPoint>(epsilon, 1, distanceMeasure);
+        var clustered = Collections.newSetFromMap(new IdentityHashMap<BXyzPoint, Boolean>());
+        for (var cluster : dbscan.cluster(points)) {
+            clustered.addAll(cluster.getPoints());
+        }
+
+        return clustered;
+    }
+}
@@ -22,13 +22,18 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
+import org.mapton.butterfly_format.io.ColumnarSnapshot;
 import org.mapton.butterfly_format.io.ImportFromCsv;
 import org.mapton.butterfly_format.types.BAlarm;
 import org.mapton.butterfly_format.types.BAreaActivity;
@@ -95,6 +100,9 @@ import org.mapton.butterfly_format.types.topo.BTopoControlPointObservation;
 public class Butterfly {
 
     private final ArrayList<BRoi> mRois = new ArrayList<>();
+    private final ConcurrentHashMap<String, String> mFingerprints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> mLoadDurations = new ConcurrentHashMap<>();
+    private final HashMap<String, BAlarm> mAlarmIdToAlarm = new HashMap<>();
     private final ArrayList<BAlarm> mAlarms = new ArrayList<>();
     private final ArrayList<BHistory> mAlarmsHistory = new ArrayList<>();
     private final ArrayList<BAreaActivity> mAreaActivities = new ArrayList<>();
@@ -121,6 +129,7 @@ public class Butterfly {
     private final ArrayList<BRockExtensometer> mRockExtensometers = new ArrayList<>();
     private final ArrayList<BRockExtensometerPoint> mRockExtensometersPoints = new ArrayList<>();
     private final ArrayList<BRockExtensometerPointObservation> mRockExtensometersPointsObservations = new ArrayList<>();
+    private File mSnapshotDir;
     private File mSourceDir;
     private final Structural mStructural = new Structural();
     private final ArrayList<BStructuralCrackPoint> mStructuralCrackPoints = new ArrayList<>();
@@ -131,6 +140,7 @@ public class Butterfly {
     private final ArrayList<BStructuralStrainGaugePointObservation> mStructuralStrainPointsObservations = new ArrayList<>();
     private final ArrayList<BStructuralTiltPoint> mStructuralTiltPoints = new ArrayList<>();
     private final ArrayList<BStructuralTiltPointObservation> mStructuralTiltPointsObservations = new ArrayList<>();
+    private final ConcurrentHashMap<String, Source<?>> mSources = new ConcurrentHashMap<>();
     private final Sys mSys = new Sys();
     private final ArrayList<BSystemKeyVal> mSystemKeyVals = new ArrayList<>();
     private final ArrayList<BSystemSearchProvider> mSystemSearchProviders = new ArrayList<>();
@@ -159,6 +169,16 @@ public class Butterfly {
         return mGeotechnical;
     }
 
+    /**
+     * Look up an alarm by id
+     *
+     * @param id
+     * @return null if there is no such alarm
+     */
+    public BAlarm getAlarm(String id) {
+        return id == null ? null : mAlarmIdToAlarm.get(id);
+    }
+
     public ArrayList<BAlarm> getAlarms() {
         return mAlarms;
     }
@@ -175,6 +195,15 @@ public class Butterfly {
         return mAreaFilters;
     }
 
+    /**
+     * Milliseconds spent reading each file during the latest load
+     *
+     * @return
+     */
+    public Map<String, Long> getLoadDurations() {
+        return mLoadDurations;
+    }
+
     public ButterflyManipulator getManipulator() {
         return mManipulator;
     }
@@ -230,191 +259,197 @@ public class Butterfly {
         return mTopo;
     }
 
-    void load(File sourceDir) {
+    /**
+     * Load and post-process all bundle files.
+     * <p>
+     * Each file is read as a separate task on the executor and each domain is
+     * post-processed as soon as its own files are available. Pass a direct
+     * executor, like Runnable::run, for a sequential load.
+     *
+     * @param sourceDir the bundle dir, or null when reading from the zip
+     * @param executor
+     */
+    void load(File sourceDir, Executor executor) {
         mSourceDir = sourceDir;
-        new ImportFromCsv<BCoordinate>(BCoordinate.class) {
-        }.load(sourceDir, "coordinates.csv", mCoordinates);
-
-        new ImportFromCsv<BRoi>(BRoi.class) {
-        }.load(sourceDir, "roi.csv", mRois);
-
-        new ImportFromCsv<BAcousticVibrationPoint>(BAcousticVibrationPoint.class) {
-        }.load(sourceDir, "noiseVibrationPoints.csv", mVibrationPoints);
-
-        new ImportFromCsv<BAcousticVibrationChannel>(BAcousticVibrationChannel.class) {
-        }.load(sourceDir, "noiseVibrationChannels.csv", mVibrationChannels);
-
-        new ImportFromCsv<BAcousticVibrationLimit>(BAcousticVibrationLimit.class) {
-        }.load(sourceDir, "noiseVibrationLimits.csv", mVibrationLimits);
-
-        new ImportFromCsv<BAcousticVibrationObservation>(BAcousticVibrationObservation.class) {
-        }.load(sourceDir, "noiseVibrationObservations.csv", mVibrationObservations);
-
-        new ImportFromCsv<BAlarm>(BAlarm.class) {
-        }.load(sourceDir, "alarms.csv", mAlarms);
-
-        new ImportFromCsv<BHistory>(BHistory.class) {
-        }.load(sourceDir, "alarms_history.csv", mAlarmsHistory);
-
-        new ImportFromCsv<BAreaActivity>(BAreaActivity.class) {
-        }.load(sourceDir, "areaActivities.csv", mAreaActivities);
-
-        new ImportFromCsv<BAreaBase>(BAreaBase.class) {
-        }.load(sourceDir, "areaFilters.csv", mAreaFilters);
-
-        new ImportFromCsv<BTopoControlPoint>(BTopoControlPoint.class) {
-        }.load(sourceDir, "topoControlPoints.csv", mTopoControlPoints);
-
-        new ImportFromCsv<BTopoControlPointObservation>(BTopoControlPointObservation.class) {
-        }.load(sourceDir, "topoControlPointsObservations.csv", mTopoControlPointsObservations);
-
-        //Structural
-        new ImportFromCsv<BStructuralCrackPoint>(BStructuralCrackPoint.class) {
-        }.load(sourceDir, "structuralCrackPoints.csv", mStructuralCrackPoints);
-
-        new ImportFromCsv<BStructuralCrackPointObservation>(BStructuralCrackPointObservation.class) {
-        }.load(sourceDir, "structuralCrackPointsObservations.csv", mStructuralCrackPointsObservations);
-
-        new ImportFromCsv<BStructuralLoadCellPoint>(BStructuralLoadCellPoint.class) {
-        }.load(sourceDir, "structuralLoadCellPoints.csv", mStructuralLoadPoints);
-
-        new ImportFromCsv<BStructuralLoadCellPointObservation>(BStructuralLoadCellPointObservation.class) {
-        }.load(sourceDir, "structuralLoadCellPointsObservations.csv", mStructuralLoadPointsObservations);
-
-        new ImportFromCsv<BStructuralStrainGaugePoint>(BStructuralStrainGaugePoint.class) {
-        }.load(sourceDir, "structuralStrainGaugePoints.csv", mStructuralStrainPoints);
-
-        new ImportFromCsv<BStructuralStrainGaugePointObservation>(BStructuralStrainGaugePointObservation.class) {
-        }.load(sourceDir, "structuralStrainGaugePointsObservations.csv", mStructuralStrainPointsObservations);
-
-        new ImportFromCsv<BStructuralTiltPoint>(BStructuralTiltPoint.class) {
-        }.load(sourceDir, "structuralTiltPoints.csv", mStructuralTiltPoints);
-
-        new ImportFromCsv<BStructuralTiltPointObservation>(BStructuralTiltPointObservation.class) {
-        }.load(sourceDir, "structuralTiltPointsObservations.csv", mStructuralTiltPointsObservations);
-
-        //Rock
-        new ImportFromCsv<BRockBlast>(BRockBlast.class) {
-        }.load(sourceDir, "rockBlasts.csv", mRockBlasts);
-
-        new ImportFromCsv<BRockEarthquake>(BRockEarthquake.class) {
-        }.load(sourceDir, "rockEarthquakes.csv", mRockEarthquakes);
-
-        new ImportFromCsv<BRockConvergence>(BRockConvergence.class) {
-        }.load(sourceDir, "rockConvergence.csv", mRockConvergence);
-
-        new ImportFromCsv<BRockConvergenceObservation>(BRockConvergenceObservation.class) {
-        }.load(sourceDir, "rockConvergenceObservations.csv", mRockConvergenceObservations);
-
-        new ImportFromCsv<BRockExtensometer>(BRockExtensometer.class) {
-        }.load(sourceDir, "rockExtensometers.csv", mRockExtensometers);
-
-        new ImportFromCsv<BRockExtensometerPoint>(BRockExtensometerPoint.class) {
-        }.load(sourceDir, "rockExtensometersPoints.csv", mRockExtensometersPoints);
-
-        new ImportFromCsv<BRockExtensometerPointObservation>(BRockExtensometerPointObservation.class) {
-        }.load(sourceDir, "rockExtensometersPointsObservations.csv", mRockExtensometersPointsObservations);
-
-        hydro().load();
-
-        //TMO
-        new ImportFromCsv<BGrundvatten>(BGrundvatten.class) {
-        }.load(sourceDir, "tmoGrundvatten.csv", mTmo.getGrundvatten());
-
-        new ImportFromCsv<BInfiltration>(BInfiltration.class) {
-        }.load(sourceDir, "tmoInfiltration.csv", mTmo.getInfiltration());
-
-        new ImportFromCsv<BRorelse>(BRorelse.class) {
-        }.load(sourceDir, "tmoRorelse.csv", mTmo.getRorelse());
-
-        new ImportFromCsv<BTunnelvatten>(BTunnelvatten.class) {
-        }.load(sourceDir, "tmoTunnelvatten.csv", mTmo.getTunnelvatten());
-
-//        new ImportFromCsv<BVattenkemi>(BVattenkemi.class) {
-//        }.load(sourceDir, "tmoVattenkemi.csv", mTmo.getVattenkemi());
-//
-//        new ImportFromCsv<BVaderstation>(BVaderstation.class) {
-//        }.load(sourceDir, "tmoVaderstation.csv", mTmo.getVaderstation());
-        new ImportFromCsv<BGrundvattenObservation>(BGrundvattenObservation.class) {
-        }.load(sourceDir, "tmoGrundvattenObservations.csv", mTmo.getGrundvattenObservations());
-
-        new ImportFromCsv<BInfiltrationObservation>(BInfiltrationObservation.class) {
-        }.load(sourceDir, "tmoInfiltrationObservations.csv", mTmo.getInfiltrationObservations());
-
-        new ImportFromCsv<BTunnelvattenObservation>(BTunnelvattenObservation.class) {
-        }.load(sourceDir, "tmoTunnelvattenObservations.csv", mTmo.getTunnelvattenObservations());
-
-        new ImportFromCsv<BRorelseObservation>(BRorelseObservation.class) {
-        }.load(sourceDir, "tmoRorelseObservations.csv", mTmo.getRorelseObservations());
+        mLoadDurations.clear();
+
+        var base = CompletableFuture.allOf(
+                load(executor, BCoordinate.class, "coordinates.csv", mCoordinates),
+                load(executor, BRoi.class, "roi.csv", mRois),
+                load(executor, BAreaActivity.class, "areaActivities.csv", mAreaActivities),
+                load(executor, BAreaBase.class, "areaFilters.csv", mAreaFilters)
+        );
+
+        var noise = CompletableFuture.allOf(
+                load(executor, BAcousticVibrationPoint.class, "noiseVibrationPoints.csv", mVibrationPoints),
+                load(executor, BAcousticVibrationChannel.class, "noiseVibrationChannels.csv", mVibrationChannels),
+                load(executor, BAcousticVibrationLimit.class, "noiseVibrationLimits.csv", mVibrationLimits),
+                load(executor, BAcousticVibrationObservation.class, "noiseVibrationObservations.csv", mVibrationObservations)
+        );
+
+        var alarms = postLoad(executor, () -> {
+            List.of(
+                    mAlarms,
+                    mAlarmsHistory
+            ).forEach(items -> items.forEach(item -> item.setButterfly(this)));
 
-        //Geotechnical
-        new ImportFromCsv<BGeoReinforcementPoint>(BGeoReinforcementPoint.class) {
-        }.load(sourceDir, "geoReinforcementPoints.csv", mGeoReinforcementPoints);
+            mAlarmIdToAlarm.clear();
+            for (var a : mAlarms) {
+                mAlarmIdToAlarm.putIfAbsent(a.getId(), a);
+            }
+        },
+                load(executor, BAlarm.class, "alarms.csv", mAlarms),
+                load(executor, BHistory.class, "alarms_history.csv", mAlarmsHistory)
+        );
+
+        var topoFiles = CompletableFuture.allOf(
+                load(executor, BTopoControlPoint.class, "topoControlPoints.csv", mTopoControlPoints),
+                load(executor, BTopoControlPointObservation.class, "topoControlPointsObservations.csv", mTopoControlPointsObservations)
+        );
+
+        var topo = postLoad(executor, () -> {
+            mTopoControlPoints.forEach(item -> item.setButterfly(this));
+            for (var p : mTopoControlPoints) {
+                calcFreqHighBuffer(p);
+            }
+            topo().postLoad();
+        }, topoFiles);
 
-        new ImportFromCsv<BGeoInclinometerPoint>(BGeoInclinometerPoint.class) {
-        }.load(sourceDir, "geoInclinometerPoints.csv", mGeoInclinometerPoints);
+        var monmon = postLoad(executor, () -> {
+            try {
+                populateMonmon();
+            } catch (Exception e) {
+//            System.err.println(e.getMessage());
+            }
+        }, topo);
 
-        new ImportFromCsv<BGeoInclinometerPointObservationPre>(BGeoInclinometerPointObservationPre.class) {
-        }.load(sourceDir, "geoInclinometerPointsObservations.csv", mGeoInclinometerPointsObservationsPre);
+        var structural = postLoad(executor, () -> {
+            List.of(
+                    mStructuralCrackPoints,
+                    mStructuralLoadPoints,
+                    mStructuralStrainPoints,
+                    mStructuralTiltPoints
+            ).forEach(items -> items.forEach(item -> item.setButterfly(this)));
+            structural().postLoad();
+        },
+                load(executor, BStructuralCrackPoint.class, "structuralCrackPoints.csv", mStructuralCrackPoints),
+                load(executor, BStructuralCrackPointObservation.class, "structuralCrackPointsObservations.csv", mStructuralCrackPointsObservations),
+                load(executor, BStructuralLoadCellPoint.class, "structuralLoadCellPoints.csv", mStructuralLoadPoints),
+                load(executor, BStructuralLoadCellPointObservation.class, "structuralLoadCellPointsObservations.csv", mStructuralLoadPointsObservations),
+                load(executor, BStructuralStrainGaugePoint.class, "structuralStrainGaugePoints.csv", mStructuralStrainPoints),
+                load(executor, BStructuralStrainGaugePointObservation.class, "structuralStrainGaugePointsObservations.csv", mStructuralStrainPointsObservations),
+                load(executor, BStructuralTiltPoint.class, "structuralTiltPoints.csv", mStructuralTiltPoints),
+                load(executor, BStructuralTiltPointObservation.class, "structuralTiltPointsObservations.csv", mStructuralTiltPointsObservations)
+        );
+
+        var rock = postLoad(executor, () -> {
+            List.of(
+                    mRockConvergence,
+                    mRockEarthquakes,
+                    mRockExtensometers
+            ).forEach(items -> items.forEach(item -> item.setButterfly(this)));
 
-        //System
-        new ImportFromCsv<BSystemKeyVal>(BSystemKeyVal.class) {
-        }.load(sourceDir, "systemKeyValStore.csv", mSystemKeyVals);
+            for (var p : mRockExtensometers) {
+                p.setMeasurementMode(BMeasurementMode.AUTOMATIC);
+            }
+        },
+                load(executor, BRockBlast.class, "rockBlasts.csv", mRockBlasts),
+                load(executor, BRockEarthquake.class, "rockEarthquakes.csv", mRockEarthquakes),
+                load(executor, BRockConvergence.class, "rockConvergence.csv", mRockConvergence),
+                load(executor, BRockConvergenceObservation.class, "rockConvergenceObservations.csv", mRockConvergenceObservations),
+                load(executor, BRockExtensometer.class, "rockExtensometers.csv", mRockExtensometers),
+                load(executor, BRockExtensometerPoint.class, "rockExtensometersPoints.csv", mRockExtensometersPoints),
+                load(executor, BRockExtensometerPointObservation.class, "rockExtensometersPointsObservations.csv", mRockExtensometersPointsObservations)
+        );
+
+        var hydro = postLoad(executor, () -> hydro().postLoad(), hydro().load(executor));
+
+        var alarmPoints = postLoad(executor, () -> {
+            for (var a : mAlarms) {
+                a.ext().populateRanges();
+            }
+            populateAlarmPoints();
+        }, alarms, topoFiles, structural, rock, hydro);
 
-        new ImportFromCsv<BSystemSearchProvider>(BSystemSearchProvider.class) {
-        }.load(sourceDir, "systemSearchProviders.csv", mSystemSearchProviders);
+        var tmo = postLoad(executor, () -> {
+            for (var p : tmo().mGrundvatten) {
+                p.setButterfly(this);
+            }
+        },
+                load(executor, BGrundvatten.class, "tmoGrundvatten.csv", mTmo.getGrundvatten()),
+                load(executor, BInfiltration.class, "tmoInfiltration.csv", mTmo.getInfiltration()),
+                load(executor, BRorelse.class, "tmoRorelse.csv", mTmo.getRorelse()),
+                load(executor, BTunnelvatten.class, "tmoTunnelvatten.csv", mTmo.getTunnelvatten()),
+                //                load(executor, BVattenkemi.class, "tmoVattenkemi.csv", mTmo.getVattenkemi()),
+                //                load(executor, BVaderstation.class, "tmoVaderstation.csv", mTmo.getVaderstation()),
+                load(executor, BGrundvattenObservation.class, "tmoGrundvattenObservations.csv", mTmo.getGrundvattenObservations()),
+                load(executor, BInfiltrationObservation.class, "tmoInfiltrationObservations.csv", mTmo.getInfiltrationObservations()),
+                load(executor, BTunnelvattenObservation.class, "tmoTunnelvattenObservations.csv", mTmo.getTunnelvattenObservations()),
+                load(executor, BRorelseObservation.class, "tmoRorelseObservations.csv", mTmo.getRorelseObservations())
+        );
+
+        var geotechnical = postLoad(executor, () -> {
+            List.of(
+                    mGeoInclinometerPoints,
+                    mGeoReinforcementPoints
+            ).forEach(items -> items.forEach(item -> item.setButterfly(this)));
+            geotechnical().postLoad();
+        },
+                load(executor, BGeoReinforcementPoint.class, "geoReinforcementPoints.csv", mGeoReinforcementPoints),
+                load(executor, BGeoInclinometerPoint.class, "geoInclinometerPoints.csv", mGeoInclinometerPoints),
+                load(executor, BGeoInclinometerPointObservationPre.class, "geoInclinometerPointsObservations.csv", mGeoInclinometerPointsObservationsPre)
+        );
+
+        var sys = postLoad(executor, () -> sys().postLoad(),
+                load(executor, BSystemKeyVal.class, "systemKeyValStore.csv", mSystemKeyVals),
+                load(executor, BSystemSearchProvider.class, "systemSearchProviders.csv", mSystemSearchProviders)
+        );
+
+        CompletableFuture.allOf(
+                base,
+                noise,
+                alarmPoints,
+                monmon,
+                structural,
+                rock,
+                hydro,
+                tmo,
+                geotechnical,
+                sys
+        ).join();
     }
 
-    void postLoad() {
-        List.of(
-                mAlarms,
-                mAlarmsHistory,
-                mGeoInclinometerPoints,
-                mGeoReinforcementPoints,
-                mRockConvergence,
-                mRockEarthquakes,
-                mRockExtensometers,
-                mStructuralCrackPoints,
-                mStructuralLoadPoints,
-                mStructuralStrainPoints,
-                mStructuralTiltPoints,
-                mTopoControlPoints
-        ).forEach(items -> items.forEach(item -> item.setButterfly(this)));
-
-        for (var a : mAlarms) {
-            a.ext().populateRanges();
-            a.ext().getPoints().clear();
-            for (ArrayList<? extends BXyzPoint> list : List.of(mTopoControlPoints)) {
-                for (var p : list) {
-                    if (Strings.CS.equalsAny(a.getId(), p.getAlarm1Id(), p.getAlarm2Id())) {
-                        a.ext().getPoints().add(p);
-                    }
-                }
+    /**
+     * Re-read the files that changed since they were loaded.
+     * <p>
+     * Only observation files, with one point name per row, are handled
+     * incrementally. Rows of untouched points keep their current instances.
+     * Any other changed file flags the change as a full reload.
+     *
+     * @return the change, not yet applied
+     */
+    ButterflyChange reload() {
+        var change = new ButterflyChange();
+        mSources.keySet().stream().sorted().forEachOrdered(path -> {
+            var fingerprint = Objects.toString(ImportFromCsv.getFingerprint(mSourceDir, path), "");
+            if (!fingerprint.equals(mFingerprints.get(path))) {
+                change.addChangedFile(path);
             }
-        }
-        hydro().postLoad();
-        for (var p : mTopoControlPoints) {
-            calcFreqHighBuffer(p);
-        }
+        });
 
-        for (var p : tmo().mGrundvatten) {
-            p.setButterfly(this);
+        for (var path : change.getChangedFiles()) {
+            var clazz = mSources.get(path).clazz();
+            if (!BBasePointObservation.class.isAssignableFrom(clazz) || clazz == BGeoInclinometerPointObservationPre.class) {
+                change.setFullReload(true);
+                return change;
+            }
         }
 
-        for (var p : mRockExtensometers) {
-            p.setMeasurementMode(BMeasurementMode.AUTOMATIC);
+        for (var path : change.getChangedFiles()) {
+            reload(path, mSources.get(path), change);
         }
 
-        structural().postLoad();
-        topo().postLoad();
-        geotechnical().postLoad();
-        sys().postLoad();
-
-        try {
-            populateMonmon();
-        } catch (Exception e) {
-//            System.err.println(e.getMessage());
-        }
+        return change;
     }
 
     void postLoadManual() {
@@ -425,6 +460,15 @@ public class Butterfly {
         remote().postLoad();
     }
 
+    /**
+     * Where to keep binary snapshots of the parsed files, null disables them
+     *
+     * @param snapshotDir
+     */
+    void setSnapshotDir(File snapshotDir) {
+        mSnapshotDir = snapshotDir;
+    }
+
     private void calcFreqHighBuffer(BXyzPoint p) {
         var param = p.getFrequencyHighParam();
         if (param != null && p.ext() instanceof BXyzPoint.Ext<? extends BXyzPointObservation> ext) {
@@ -435,6 +479,109 @@ public class Butterfly {
         }
     }
 
+    private <T> CompletableFuture<Void> load(Executor executor, Class<T> clazz, String path, ArrayList<T> list) {
+        mSources.put(path, new Source<>(clazz, list));
+
+        return CompletableFuture.runAsync(() -> {
+            var start = System.currentTimeMillis();
+            mFingerprints.put(path, Objects.toString(ImportFromCsv.getFingerprint(mSourceDir, path), ""));
+            new ImportFromCsv<T>(clazz) {
+            }.load(mSourceDir, path, list, mSnapshotDir);
+            mLoadDurations.put(path, System.currentTimeMillis() - start);
+        }, executor);
+    }
+
+    private <T> void reload(String path, Source<T> source, ButterflyChange change) {
+        var start = System.currentTimeMillis();
+        var fingerprint = Objects.toString(ImportFromCsv.getFingerprint(mSourceDir, path), "");
+        var newItems = new ArrayList<T>();
+        new ImportFromCsv<T>(source.clazz()) {
+        }.load(mSourceDir, path, newItems, mSnapshotDir);
+        mLoadDurations.put(path, System.currentTimeMillis() - start);
+
+        var snapshot = new ColumnarSnapshot<T>(source.clazz());
+        var oldByName = new HashMap<String, ArrayList<T>>();
+        var newByName = new HashMap<String, ArrayList<T>>();
+        source.list().forEach(o -> oldByName.computeIfAbsent(((BBasePointObservation) o).getName(), k -> new ArrayList<>()).add(o));
+        newItems.forEach(o -> newByName.computeIfAbsent(((BBasePointObservation) o).getName(), k -> new ArrayList<>()).add(o));
+
+        var changedNames = new HashSet<String>(oldByName.keySet());
+        changedNames.removeAll(newByName.keySet());
+        for (var entry : newByName.entrySet()) {
+            var oldObservations = oldByName.get(entry.getKey());
+            var newObservations = entry.getValue();
+            if (oldObservations == null || oldObservations.size() != newObservations.size()) {
+                changedNames.add(entry.getKey());
+            } else {
+                for (int i = 0; i < newObservations.size(); i++) {
+                    if (!snapshot.isEqual(oldObservations.get(i), newObservations.get(i))) {
+                        changedNames.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+
+        var patchedItems = new ArrayList<T>(newItems.size());
+        var nameToIndex = new HashMap<String, Integer>();
+        for (var o : newItems) {
+            var name = ((BBasePointObservation) o).getName();
+            if (changedNames.contains(name)) {
+                patchedItems.add(o);
+            } else {
+                int index = nameToIndex.merge(name, 1, Integer::sum) - 1;
+                patchedItems.add(oldByName.get(name).get(index));
+            }
+        }
+
+        change.addPatch(path, changedNames, () -> {
+            source.list().clear();
+            source.list().addAll(patchedItems);
+            mFingerprints.put(path, fingerprint);
+        });
+    }
+
+    /**
+     * Fill the point list of every alarm, in one pass over the points of all
+     * families that refer to alarms.
+     */
+    private void populateAlarmPoints() {
+        var idToAlarms = new HashMap<String, ArrayList<BAlarm>>();
+        for (var a : mAlarms) {
+            a.ext().getPoints().clear();
+            idToAlarms.computeIfAbsent(a.getId(), k -> new ArrayList<>()).add(a);
+        }
+
+        List<ArrayList<? extends BXyzPoint>> pointLists = List.of(
+                mTopoControlPoints,
+                mHydro.getGroundwaterPoints(),
+                mHydro.getWaterLevelPoints(),
+                mStructuralCrackPoints,
+                mStructuralLoadPoints,
+                mStructuralStrainPoints,
+                mStructuralTiltPoints,
+                mRockConvergence,
+                mRockExtensometers
+        );
+
+        for (var list : pointLists) {
+            for (var p : list) {
+                var alarm1Id = p.getAlarm1Id();
+                var alarm2Id = p.getAlarm2Id();
+                if (alarm1Id != null) {
+                    idToAlarms.getOrDefault(alarm1Id, new ArrayList<>()).forEach(a -> a.ext().getPoints().add(p));
+                }
+                if (alarm2Id != null && !alarm2Id.equals(alarm1Id)) {
+                    idToAlarms.getOrDefault(alarm2Id, new ArrayList<>()).forEach(a -> a.ext().getPoints().add(p));
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Void> postLoad(Executor executor, Runnable runnable, CompletableFuture<?>... dependencies) {
+        return CompletableFuture.allOf(dependencies).thenRunAsync(runnable, executor);
+    }
+
     private void populateMonmon() {
         var list = new ArrayList<BMonmon>();
         var config = MonmonConfig.getInstance().getConfig();
@@ -460,6 +607,10 @@ public class Butterfly {
         mMonmons.addAll(list);
     }
 
+    private record Source<T>(Class<T> clazz, ArrayList<T> list) {
+
+    }
+
     public class Dev {
 
         public ArrayList<BCoordinate> getCoordinates() {
@@ -557,18 +708,13 @@ public class Butterfly {
             return mHydroWaterLevelPointsObservations;
         }
 
-        private void load() {
-            new ImportFromCsv<BHydroGroundwaterPoint>(BHydroGroundwaterPoint.class) {
-            }.load(mSourceDir, "hydroGroundwaterPoints.csv", mHydroGroundwaterPoints);
-
-            new ImportFromCsv<BHydroGroundwaterPointObservation>(BHydroGroundwaterPointObservation.class) {
-            }.load(mSourceDir, "hydroGroundwaterPointsObservations.csv", mHydroGroundwaterPointsObservations);
-
-            new ImportFromCsv<BHydroWaterLevelPoint>(BHydroWaterLevelPoint.class) {
-            }.load(mSourceDir, "hydroWaterLevelPoints.csv", mHydroWaterLevelPoints);
-
-            new ImportFromCsv<BHydroWaterLevelPointObservation>(BHydroWaterLevelPointObservation.class) {
-            }.load(mSourceDir, "hydroWaterLevelPointsObservations.csv", mHydroWaterLevelPointsObservations);
+        private CompletableFuture<Void> load(Executor executor) {
+            return CompletableFuture.allOf(
+                    Butterfly.this.load(executor, BHydroGroundwaterPoint.class, "hydroGroundwaterPoints.csv", mHydroGroundwaterPoints),
+                    Butterfly.this.load(executor, BHydroGroundwaterPointObservation.class, "hydroGroundwaterPointsObservations.csv", mHydroGroundwaterPointsObservations),
+                    Butterfly.this.load(executor, BHydroWaterLevelPoint.class, "hydroWaterLevelPoints.csv", mHydroWaterLevelPoints),
+                    Butterfly.this.load(executor, BHydroWaterLevelPointObservation.class, "hydroWaterLevelPointsObservations.csv", mHydroWaterLevelPointsObservations)
+            );
         }
 
         private void postLoad() {
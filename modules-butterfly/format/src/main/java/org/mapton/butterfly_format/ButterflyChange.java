@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_format;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The outcome of an incremental reload.
+ * <p>
+ * Holds the bundle files that changed and, per file, the names of the points
+ * whose rows differ. The lists of the Butterfly are not touched until
+ * {@link #apply()} is called, which should be done on the thread that also
+ * reads them.
+ *
+ * @author Patrik Karlström
+ */
+public class ButterflyChange {
+
+    private final TreeSet<String> mChangedFiles = new TreeSet<>();
+    private final HashMap<String, Set<String>> mFileToChangedNames = new HashMap<>();
+    private boolean mFullReload;
+    private final ArrayList<Runnable> mPatches = new ArrayList<>();
+
+    public ButterflyChange() {
+    }
+
+    /**
+     * Replace the changed rows of the Butterfly lists
+     */
+    public void apply() {
+        mPatches.forEach(Runnable::run);
+        mPatches.clear();
+    }
+
+    public Set<String> getChangedFiles() {
+        return mChangedFiles;
+    }
+
+    /**
+     * Names of added, removed or modified points in a file
+     *
+     * @param file
+     * @return
+     */
+    public Set<String> getChangedNames(String file) {
+        return mFileToChangedNames.getOrDefault(file, Set.of());
+    }
+
+    public boolean hasChanges() {
+        return !mChangedFiles.isEmpty();
+    }
+
+    public boolean isChanged(Collection<String> files) {
+        return files.stream().anyMatch(mChangedFiles::contains);
+    }
+
+    /**
+     * Files without a point name per row changed, the bundle has to be opened
+     * again.
+     *
+     * @return
+     */
+    public boolean isFullReload() {
+        return mFullReload;
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder(mFullReload ? "full reload" : "incremental");
+        for (var file : mChangedFiles) {
+            sb.append("\n  ").append(file).append(": ").append(getChangedNames(file).size()).append(" point(s)");
+        }
+
+        return sb.toString();
+    }
+
+    void addChangedFile(String file) {
+        mChangedFiles.add(file);
+    }
+
+    void addPatch(String file, Set<String> changedNames, Runnable patch) {
+        mFileToChangedNames.put(file, changedNames);
+        mPatches.add(patch);
+    }
+
+    void setFullReload(boolean fullReload) {
+        mFullReload = fullReload;
+    }
+}
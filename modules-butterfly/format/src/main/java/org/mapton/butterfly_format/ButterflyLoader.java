@@ -16,6 +16,14 @@
 package org.mapton.butterfly_format;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.io.FileUtils;
 
 /**
  *
@@ -23,8 +31,12 @@ import java.io.File;
  */
 public class ButterflyLoader {
 
+    private static final long SNAPSHOT_MAX_AGE = TimeUnit.DAYS.toMillis(30);
+    private static final int SNAPSHOT_MAX_BUNDLES = 8;
     private BundleMode mBundleMode;
     private Butterfly mButterfly;
+    private boolean mParallel = true;
+    private File mSnapshotDir;
     private File mSource;
     private final ZipHelper mZipHelper = ZipHelper.getInstance();
 
@@ -47,6 +59,10 @@ public class ButterflyLoader {
         return mSource;
     }
 
+    public boolean isParallel() {
+        return mParallel;
+    }
+
     public void load(BundleMode bundleMode, File source) {
         mBundleMode = bundleMode;
         mSource = source;
@@ -58,9 +74,116 @@ public class ButterflyLoader {
             mZipHelper.init(source);
         }
 
+        var start = System.currentTimeMillis();
         mButterfly = new Butterfly();
-        mButterfly.load(dir);
-        mButterfly.postLoad();
+        if (mSnapshotDir != null) {
+            var bundleKey = "%s-%08x".formatted(source.getName(), source.getAbsolutePath().hashCode());
+            var bundleSnapshotDir = new File(mSnapshotDir, bundleKey);
+            bundleSnapshotDir.mkdirs();
+            bundleSnapshotDir.setLastModified(System.currentTimeMillis());
+            mButterfly.setSnapshotDir(bundleSnapshotDir);
+            evictSnapshots(bundleSnapshotDir);
+        }
+
+        if (mParallel) {
+            var numOfThreads = Math.clamp(Runtime.getRuntime().availableProcessors(), 2, 8);
+            var executor = Executors.newFixedThreadPool(numOfThreads);
+            try {
+                mButterfly.load(dir, executor);
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            mButterfly.load(dir, Runnable::run);
+        }
+
+        var logger = Logger.getLogger(ButterflyLoader.class.getName());
+        logger.info("Loaded %s in %d ms (%s)".formatted(
+                source.getName(),
+                System.currentTimeMillis() - start,
+                mParallel ? "parallel" : "sequential"
+        ));
+
+        if (logger.isLoggable(Level.FINE)) {
+            mButterfly.getLoadDurations().entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEachOrdered(entry -> logger.fine("%8d ms  %s".formatted(entry.getValue(), entry.getKey())));
+        }
+    }
+
+    /**
+     * Re-read the bundle files that changed since the last load.
+     * <p>
+     * The returned change has to be applied before the Butterfly reflects it,
+     * see {@link ButterflyChange#apply()}.
+     *
+     * @return a change flagged as a full reload if nothing has been loaded yet
+     */
+    public ButterflyChange reload() {
+        if (mButterfly == null) {
+            var change = new ButterflyChange();
+            change.setFullReload(true);
+
+            return change;
+        }
+
+        if (mBundleMode == BundleMode.ZIP) {
+            mZipHelper.init(mSource);
+        }
+
+        var start = System.currentTimeMillis();
+        var change = mButterfly.reload();
+        Logger.getLogger(ButterflyLoader.class.getName()).info("Reloaded %s in %d ms, %s".formatted(
+                mSource.getName(),
+                System.currentTimeMillis() - start,
+                change
+        ));
+
+        return change;
+    }
+
+    /**
+     * Read the bundle files concurrently, and post-process each domain as soon
+     * as its own files are loaded.
+     *
+     * @param parallel
+     */
+    public void setParallel(boolean parallel) {
+        mParallel = parallel;
+    }
+
+    /**
+     * Keep binary snapshots of the parsed csv files in a sub dir of
+     * snapshotDir, one per bundle. Unchanged files are then restored from
+     * their snapshot instead of being parsed again.
+     *
+     * @param snapshotDir null to always parse the csv files
+     */
+    public void setSnapshotDir(File snapshotDir) {
+        mSnapshotDir = snapshotDir;
+    }
+
+    /**
+     * Delete the snapshots of bundles not loaded for a long time, and of all
+     * but the most recently loaded ones.
+     */
+    private void evictSnapshots(File bundleSnapshotDir) {
+        var dirs = mSnapshotDir.listFiles(File::isDirectory);
+        if (dirs == null) {
+            return;
+        }
+
+        Arrays.sort(dirs, Comparator.comparingLong(File::lastModified).reversed());
+        var now = System.currentTimeMillis();
+        var kept = 0;
+        for (var dir : dirs) {
+            if (dir.equals(bundleSnapshotDir)
+                    || (++kept < SNAPSHOT_MAX_BUNDLES && now - dir.lastModified() < SNAPSHOT_MAX_AGE)) {
+                continue;
+            }
+
+            FileUtils.deleteQuietly(dir);
+        }
     }
 
     private static class Holder {
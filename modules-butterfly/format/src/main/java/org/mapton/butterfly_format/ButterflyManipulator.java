@@ -16,7 +16,7 @@
 package org.mapton.butterfly_format;
 
 import java.time.LocalDate;
-import javafx.collections.ObservableList;
+import java.util.List;
 import org.mapton.butterfly_format.types.BXyzPoint;
 import se.trixon.almond.util.DateHelper;
 
@@ -26,7 +26,7 @@ import se.trixon.almond.util.DateHelper;
  */
 public class ButterflyManipulator {
 
-    public void updateMultipleObservationsPerDay(ObservableList<? extends BXyzPoint> points) {
+    public void updateMultipleObservationsPerDay(List<? extends BXyzPoint> points) {
         var now = LocalDate.now();
         points.forEach(p -> {
             var observations = p.extOrNull().getObservationsAllRaw();
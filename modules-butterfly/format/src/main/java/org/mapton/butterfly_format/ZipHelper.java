@@ -42,7 +42,7 @@ public class ZipHelper {
     private ZipHelper() {
     }
 
-    public void extract(String internalPath, String destination) {
+    public synchronized void extract(String internalPath, String destination) {
         try {
             mZipFile.extractFile(internalPath, destination);
         } catch (ZipException ex) {
@@ -72,7 +72,15 @@ public class ZipHelper {
         }
     }
 
-    public ZipInputStream getStream(String path) {
+    /**
+     * Synchronized since it is called from several loader threads, and
+     * opening a stream modifies the state of the shared ZipFile. Each stream
+     * reads from a file of its own once opened.
+     *
+     * @param path
+     * @return
+     */
+    public synchronized ZipInputStream getStream(String path) {
         try {
             var fileHeader = mZipFile.getFileHeader(path);
             if (fileHeader == null) {
@@ -111,8 +119,14 @@ public class ZipHelper {
         return mZipFile;
     }
 
-    public void init(File file) {
+    public synchronized void init(File file) {
         mZipFile = new ZipFile(file, mPassword);
+        try {
+            //Read the central directory now, getStream is called from several loader threads
+            mZipFile.getFileHeaders();
+        } catch (ZipException ex) {
+            Exceptions.printStackTrace(ex);
+        }
     }
 
     public void setPassword(char[] password) {
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_format.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binary, column oriented copy of a parsed csv file.
+ * <p>
+ * Every persistent field of T is stored as one typed primitive column with a
+ * presence bitmap for nulls. Strings and enums are dictionary encoded. The
+ * header carries a fingerprint of the source, a stale snapshot is never read.
+ * <p>
+ * Classes with fields of other types than the supported ones are not
+ * snapshotted at all, see {@link #isSupported()}.
+ *
+ * @author Patrik Karlström
+ * @param <T>
+ */
+public class ColumnarSnapshot<T> {
+
+    private static final ConcurrentHashMap<Class<?>, Columns> CLASS_TO_COLUMNS = new ConcurrentHashMap<>();
+    private static final int MAGIC = 0x42465353;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_ENUM = 3;
+    private static final byte TYPE_INTEGER = 4;
+    private static final byte TYPE_LOCAL_DATE = 5;
+    private static final byte TYPE_LOCAL_DATE_TIME = 6;
+    private static final byte TYPE_LONG = 7;
+    private static final byte TYPE_STRING = 8;
+    private static final int VERSION = 1;
+    private final Class<T> classOfT;
+    private final ArrayList<Field> mFields;
+    private final String mLayout;
+    private final boolean mSupported;
+    private final ArrayList<Byte> mTypes;
+
+    private static byte getType(Class<?> c) {
+        if (c == Boolean.class || c == boolean.class) {
+            return TYPE_BOOLEAN;
+        } else if (c == Double.class || c == double.class) {
+            return TYPE_DOUBLE;
+        } else if (c.isEnum()) {
+            return TYPE_ENUM;
+        } else if (c == Integer.class || c == int.class) {
+            return TYPE_INTEGER;
+        } else if (c == LocalDate.class) {
+            return TYPE_LOCAL_DATE;
+        } else if (c == LocalDateTime.class) {
+            return TYPE_LOCAL_DATE_TIME;
+        } else if (c == Long.class || c == long.class) {
+            return TYPE_LONG;
+        } else if (c == String.class) {
+            return TYPE_STRING;
+        } else {
+            return 0;
+        }
+    }
+
+    public ColumnarSnapshot(Class<T> clazz) {
+        classOfT = clazz;
+        var columns = CLASS_TO_COLUMNS.computeIfAbsent(clazz, Columns::new);
+        mFields = columns.mFields;
+        mLayout = columns.mLayout;
+        mSupported = columns.mSupported;
+        mTypes = columns.mTypes;
+    }
+
+    /**
+     * Compare the persistent fields of two items
+     *
+     * @param a
+     * @param b
+     * @return false if they differ or if T is not supported
+     */
+    public boolean isEqual(T a, T b) {
+        if (!mSupported) {
+            return false;
+        }
+
+        try {
+            for (var field : mFields) {
+                if (!Objects.equals(field.get(a), field.get(b))) {
+                    return false;
+                }
+            }
+        } catch (IllegalAccessException ex) {
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean isSupported() {
+        return mSupported;
+    }
+
+    /**
+     * Populate the list from the snapshot file.
+     *
+     * @param file
+     * @param fingerprint of the source the snapshot has to be created from
+     * @param list
+     * @return false if the snapshot is missing, stale or unreadable
+     */
+    public boolean read(File file, String fingerprint, ArrayList<T> list) {
+        if (!mSupported || !file.isFile()) {
+            return false;
+        }
+
+        long dataOffset;
+        try (var dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (dis.readInt() != MAGIC
+                    || dis.readInt() != VERSION
+                    || !readString(dis).equals(mLayout)
+                    || !readString(dis).equals(fingerprint)) {
+                return false;
+            }
+            dataOffset = 4 + 4 + 4 + mLayout.getBytes(StandardCharsets.UTF_8).length + 4 + fingerprint.getBytes(StandardCharsets.UTF_8).length;
+        } catch (IOException ex) {
+            return false;
+        }
+
+        //Read into the heap, a mapped file can not be replaced on all platforms until it is unmapped by gc
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            var buffer = ByteBuffer.allocate(Math.toIntExact(channel.size() - dataOffset));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, dataOffset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of snapshot");
+                }
+            }
+            buffer.flip();
+            var items = readColumns(buffer);
+            list.clear();
+            list.addAll(items);
+
+            return true;
+        } catch (Exception ex) {
+            Logger.getLogger(ColumnarSnapshot.class.getName()).log(Level.WARNING, "Invalid snapshot: " + file, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Write the list to a temp file and move it in place
+     *
+     * @param file
+     * @param fingerprint of the source the list was loaded from
+     * @param list
+     */
+    public void write(File file, String fingerprint, List<T> list) {
+        if (!mSupported) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            var tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            try (var dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                writeString(dos, mLayout);
+                writeString(dos, fingerprint);
+                writeColumns(dos, list);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalAccessException ex) {
+            Logger.getLogger(ColumnarSnapshot.class.getName()).log(Level.WARNING, "Failed to write snapshot: " + file, ex);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ArrayList<T> readColumns(ByteBuffer buffer) throws ReflectiveOperationException {
+        var strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            var bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int size = buffer.getInt();
+        var constructor = classOfT.getDeclaredConstructor();
+        var items = new ArrayList<T>(size);
+        for (int row = 0; row < size; row++) {
+            items.add(constructor.newInstance());
+        }
+
+        var present = new byte[(size + 7) / 8];
+        for (int col = 0; col < mFields.size(); col++) {
+            var field = mFields.get(col);
+            var primitive = field.getType().isPrimitive();
+            buffer.get(present);
+
+            switch (mTypes.get(col)) {
+                case TYPE_BOOLEAN -> {
+                    var values = new byte[size];
+                    buffer.get(values);
+                    for (int row = 0; row < size; row++) {
+                        if (isPresent(present, row)) {
+                            field.set(items.get(row), values[row] != 0);
+                        }
+                    }
+                }
+
+                case TYPE_DOUBLE -> {
+                    var values = new double[size];
+                    buffer.asDoubleBuffer().get(values);
+                    buffer.position(buffer.position() + size * Double.BYTES);
+                    for (int row = 0; row < size; row++) {
+                        if (isPresent(present, row)) {
+                            if (primitive) {
+                                field.setDouble(items.get(row), values[row]);
+                            } else {
+                                field.set(items.get(row), values[row]);
+                            }
+                        }
+                    }
+                }
+
+                case TYPE_INTEGER, TYPE_LOCAL_DATE, TYPE_STRING, TYPE_ENUM -> {
+                    var values = new int[size];
+                    buffer.asIntBuffer().get(values);
+                    buffer.position(buffer.position() + size * Integer.BYTES);
+                    var type = mTypes.get(col);
+                    for (int row = 0; row < size; row++) {
+                        if (!isPresent(present, row)) {
+                            continue;
+                        }
+
+                        var item = items.get(row);
+                        var value = values[row];
+                        switch (type) {
+                            case TYPE_INTEGER -> {
+                                if (primitive) {
+                                    field.setInt(item, value);
+                                } else {
+                                    field.set(item, value);
+                                }
+                            }
+                            case TYPE_LOCAL_DATE ->
+                                field.set(item, LocalDate.ofEpochDay(value));
+                            case TYPE_STRING ->
+                                field.set(item, strings[value]);
+                            default ->
+                                field.set(item, Enum.valueOf((Class<? extends Enum>) field.getType(), strings[value]));
+                        }
+                    }
+                }
+
+                case TYPE_LOCAL_DATE_TIME -> {
+                    var seconds = new long[size];
+                    buffer.asLongBuffer().get(seconds);
+                    buffer.position(buffer.position() + size * Long.BYTES);
+                    var nanos = new int[size];
+                    buffer.asIntBuffer().get(nanos);
+                    buffer.position(buffer.position() + size * Integer.BYTES);
+                    for (int row = 0; row < size; row++) {
+                        if (isPresent(present, row)) {
+                            field.set(items.get(row), LocalDateTime.ofEpochSecond(seconds[row], nanos[row], ZoneOffset.UTC));
+                        }
+                    }
+                }
+
+                case TYPE_LONG -> {
+                    var values = new long[size];
+                    buffer.asLongBuffer().get(values);
+                    buffer.position(buffer.position() + size * Long.BYTES);
+                    for (int row = 0; row < size; row++) {
+                        if (isPresent(present, row)) {
+                            if (primitive) {
+                                field.setLong(items.get(row), values[row]);
+                            } else {
+                                field.set(items.get(row), values[row]);
+                            }
+                        }
+                    }
+                }
+
+                default ->
+                    throw new AssertionError();
+            }
+        }
+
+        return items;
+    }
+
+    private boolean isPresent(byte[] present, int row) {
+        return (present[row >> 3] & (1 << (row & 7))) != 0;
+    }
+
+    private String readString(DataInputStream dis) throws IOException {
+        var length = dis.readInt();
+        if (length < 0 || length > 1 << 20) {
+            throw new IOException("Invalid string length: " + length);
+        }
+
+        return new String(dis.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private void writeColumns(DataOutputStream dos, List<T> list) throws IOException, IllegalAccessException {
+        int size = list.size();
+        var stringToIndex = new HashMap<String, Integer>();
+        var strings = new ArrayList<String>();
+        var columns = new ArrayList<Object[]>();
+
+        for (int col = 0; col < mFields.size(); col++) {
+            var field = mFields.get(col);
+            var values = new Object[size];
+            for (int row = 0; row < size; row++) {
+                var value = field.get(list.get(row));
+                if (value instanceof String s) {
+                    values[row] = stringToIndex.computeIfAbsent(s, k -> {
+                        strings.add(k);
+                        return strings.size() - 1;
+                    });
+                } else if (value instanceof Enum<?> e) {
+                    values[row] = stringToIndex.computeIfAbsent(e.name(), k -> {
+                        strings.add(k);
+                        return strings.size() - 1;
+                    });
+                } else {
+                    values[row] = value;
+                }
+            }
+            columns.add(values);
+        }
+
+        dos.writeInt(strings.size());
+        for (var s : strings) {
+            writeString(dos, s);
+        }
+
+        dos.writeInt(size);
+        for (int col = 0; col < mFields.size(); col++) {
+            var values = columns.get(col);
+            var present = new byte[(size + 7) / 8];
+            for (int row = 0; row < size; row++) {
+                if (values[row] != null) {
+                    present[row >> 3] |= (byte) (1 << (row & 7));
+                }
+            }
+            dos.write(present);
+
+            switch (mTypes.get(col)) {
+                case TYPE_BOOLEAN -> {
+                    for (var value : values) {
+                        dos.writeByte(Boolean.TRUE.equals(value) ? 1 : 0);
+                    }
+                }
+
+                case TYPE_DOUBLE -> {
+                    for (var value : values) {
+                        dos.writeDouble(value == null ? Double.NaN : (Double) value);
+                    }
+                }
+
+                case TYPE_INTEGER, TYPE_STRING, TYPE_ENUM -> {
+                    for (var value : values) {
+                        dos.writeInt(value == null ? -1 : (Integer) value);
+                    }
+                }
+
+                case TYPE_LOCAL_DATE -> {
+                    for (var value : values) {
+                        dos.writeInt(value == null ? 0 : Math.toIntExact(((LocalDate) value).toEpochDay()));
+                    }
+                }
+
+                case TYPE_LOCAL_DATE_TIME -> {
+                    for (var value : values) {
+                        dos.writeLong(value == null ? 0 : ((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC));
+                    }
+                    for (var value : values) {
+                        dos.writeInt(value == null ? 0 : ((LocalDateTime) value).getNano());
+                    }
+                }
+
+                case TYPE_LONG -> {
+                    for (var value : values) {
+                        dos.writeLong(value == null ? 0 : (Long) value);
+                    }
+                }
+
+                default ->
+                    throw new AssertionError();
+            }
+        }
+    }
+
+    private void writeString(DataOutputStream dos, String s) throws IOException {
+        var bytes = s.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    /**
+     * The persistent fields of a class, scanned once per class.
+     */
+    private static class Columns {
+
+        private final ArrayList<Field> mFields = new ArrayList<>();
+        private final String mLayout;
+        private boolean mSupported = true;
+        private final ArrayList<Byte> mTypes = new ArrayList<>();
+
+        public Columns(Class<?> clazz) {
+            var layout = new StringBuilder(clazz.getName());
+
+            for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (var field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+
+                    var type = getType(field.getType());
+                    if (type == 0) {
+                        mSupported = false;
+                        break;
+                    }
+
+                    field.setAccessible(true);
+                    mFields.add(field);
+                    mTypes.add(type);
+                    layout.append(';').append(field.getName()).append(':').append(type);
+                }
+            }
+
+            mLayout = layout.toString();
+        }
+    }
+}
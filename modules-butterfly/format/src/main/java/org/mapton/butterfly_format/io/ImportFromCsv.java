@@ -71,6 +71,30 @@ public abstract class ImportFromCsv<T> {
                 .withColumnReordering(true);
     }
 
+    /**
+     * Load from a binary snapshot when one exists for the current source,
+     * otherwise parse the csv file and write a snapshot for the next time.
+     *
+     * @param sourceDir the bundle dir, or null when reading from the zip
+     * @param path
+     * @param list
+     * @param snapshotDir where to keep snapshots, null to always parse the csv
+     */
+    public void load(File sourceDir, String path, ArrayList<T> list, File snapshotDir) {
+        var snapshot = new ColumnarSnapshot<T>(classOfT);
+        var fingerprint = snapshotDir == null ? null : getFingerprint(sourceDir, path);
+        if (fingerprint == null || !snapshot.isSupported()) {
+            load(sourceDir, path, list);
+            return;
+        }
+
+        var file = new File(snapshotDir, path + ".bfs");
+        if (!snapshot.read(file, fingerprint, list)) {
+            load(sourceDir, path, list);
+            snapshot.write(file, fingerprint, list);
+        }
+    }
+
     public void load(File sourceDir, String path, ArrayList<T> list) {
         list.clear();
 
@@ -98,4 +122,31 @@ public abstract class ImportFromCsv<T> {
             Logger.getLogger(ImportFromCsv.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
+
+    /**
+     * A cheap identity of the current content of a bundle file
+     *
+     * @param sourceDir the bundle dir, or null when reading from the zip
+     * @param path
+     * @return null if the file is missing
+     */
+    public static String getFingerprint(File sourceDir, String path) {
+        if (sourceDir == null) {
+            try {
+                var fileHeader = ZIP_HELPER.getZipFile().getFileHeader(path);
+                if (fileHeader != null) {
+                    return "%d:%d:%d".formatted(fileHeader.getCrc(), fileHeader.getUncompressedSize(), fileHeader.getLastModifiedTime());
+                }
+            } catch (IOException ex) {
+                //nvm
+            }
+        } else {
+            var file = new File(sourceDir, path);
+            if (file.isFile()) {
+                return "%d:%d".formatted(file.length(), file.lastModified());
+            }
+        }
+
+        return null;
+    }
 }
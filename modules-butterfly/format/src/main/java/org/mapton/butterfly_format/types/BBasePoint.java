@@ -76,6 +76,7 @@ public abstract class BBasePoint extends BBase {
         private transient ArrayList<T> observationsAllCalculated;
         private transient ArrayList<T> observationsAllRaw;
         private transient ArrayList<T> observationsTimeFiltered;
+        private transient BTimeSeries mTimeSeries;
         private transient LocalDateTime storedZeroDateTime;
         private transient boolean zeroUnset = true;
 
@@ -237,10 +238,33 @@ public abstract class BBasePoint extends BBase {
             return observationsTimeFiltered;
         }
 
+        /**
+         * A packed view of all raw observations, built on first access after
+         * they were set or changed.
+         *
+         * @return
+         */
+        public synchronized BTimeSeries getTimeSeries() {
+            var observations = getObservationsAllRaw();
+            if (mTimeSeries == null || !mTimeSeries.isBuiltFrom(observations)) {
+                mTimeSeries = new BTimeSeries(observations);
+            }
+
+            return mTimeSeries;
+        }
+
         public LocalDateTime getStoredZeroDateTime() {
             return storedZeroDateTime;
         }
 
+        /**
+         * Build the time series again on next access, call after changing the
+         * raw observations in place.
+         */
+        public synchronized void invalidateTimeSeries() {
+            mTimeSeries = null;
+        }
+
         public boolean isMultipleObservationsPerDay() {
             return mMultipleObservationsPerDay;
         }
@@ -271,6 +295,7 @@ public abstract class BBasePoint extends BBase {
 
         public void setObservationsAllRaw(ArrayList<T> observationsAllRaw) {
             this.observationsAllRaw = observationsAllRaw;
+            invalidateTimeSeries();
         }
 
         public void setObservationsTimeFiltered(ArrayList<T> observationsTimeFiltered) {
@@ -285,6 +310,12 @@ public abstract class BBasePoint extends BBase {
             this.zeroUnset = zeroUnset;
         }
 
+        protected synchronized void invalidateTimeSeriesDeltas() {
+            if (mTimeSeries != null) {
+                mTimeSeries.invalidateDeltas();
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_format.types;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Hash join of points and their observations.
+ * <p>
+ * The observations are grouped on their point key in one pass, each group is
+ * sorted on date and handed to the point with the same key. Every point gets
+ * a list of its own, empty if there are no observations.
+ *
+ * @author Patrik Karlström
+ */
+public class BObservationBinder {
+
+    private static final Comparator<BBasePointObservation> DATE_COMPARATOR = Comparator.comparing(BBasePointObservation::getDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Bind on equal names.
+     *
+     * @param <P>
+     * @param <O>
+     * @param points
+     * @param observations
+     * @param binder called once per point with its date sorted observations
+     */
+    public static <P extends BBase, O extends BBasePointObservation> void bind(Collection<P> points, Collection<? extends O> observations, BiConsumer<P, ArrayList<O>> binder) {
+        bind(points, p -> p.getName(), observations, o -> o.getName(), binder);
+    }
+
+    /**
+     * @param <P>
+     * @param <O>
+     * @param points
+     * @param pointKeyFunction
+     * @param observations
+     * @param observationKeyFunction
+     * @param binder called once per point with its date sorted observations
+     */
+    public static <P, O extends BBasePointObservation> void bind(Collection<P> points, Function<? super P, String> pointKeyFunction, Collection<? extends O> observations, Function<? super O, String> observationKeyFunction, BiConsumer<P, ArrayList<O>> binder) {
+        var keyToObservations = BObservationBinder.<O>group(observations, observationKeyFunction);
+        for (var list : keyToObservations.values()) {
+            sort(list);
+        }
+
+        var boundKeys = new HashSet<String>();
+        for (var p : points) {
+            var key = pointKeyFunction.apply(p);
+            var observationsOfPoint = keyToObservations.get(key);
+            if (observationsOfPoint == null) {
+                observationsOfPoint = new ArrayList<>();
+            } else if (!boundKeys.add(key)) {
+                //points sharing a key get copies
+                observationsOfPoint = new ArrayList<>(observationsOfPoint);
+            }
+            binder.accept(p, observationsOfPoint);
+        }
+    }
+
+    /**
+     * Bind on names that are equal when case is ignored.
+     *
+     * @param <P>
+     * @param <O>
+     * @param points
+     * @param observations
+     * @param binder called once per point with its date sorted observations
+     */
+    public static <P extends BBase, O extends BBasePointObservation> void bindIgnoreCase(Collection<P> points, Collection<? extends O> observations, BiConsumer<P, ArrayList<O>> binder) {
+        bind(points, p -> normalize(p.getName()), observations, o -> normalize(o.getName()), binder);
+    }
+
+    /**
+     * Group items on key in one pass, keeping their order within each group.
+     *
+     * @param <T>
+     * @param items
+     * @param keyFunction
+     * @return
+     */
+    public static <T> HashMap<String, ArrayList<T>> group(Collection<? extends T> items, Function<? super T, String> keyFunction) {
+        var keyToItems = new HashMap<String, ArrayList<T>>();
+        for (var item : items) {
+            keyToItems.computeIfAbsent(keyFunction.apply(item), k -> new ArrayList<>()).add(item);
+        }
+
+        return keyToItems;
+    }
+
+    /**
+     * @param key
+     * @return a key that is equal for keys that are equal ignoring case, null
+     * for null
+     */
+    public static String normalize(String key) {
+        return key == null ? null : key.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stable sort on date with missing dates first, a no-op for the common
+     * case of an already sorted list.
+     *
+     * @param observations
+     */
+    public static void sort(ArrayList<? extends BBasePointObservation> observations) {
+        for (int i = 1; i < observations.size(); i++) {
+            if (DATE_COMPARATOR.compare(observations.get(i - 1), observations.get(i)) > 0) {
+                observations.sort(DATE_COMPARATOR);
+                return;
+            }
+        }
+    }
+}
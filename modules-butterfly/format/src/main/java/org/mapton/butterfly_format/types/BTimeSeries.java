@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_format.types;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Packed, date sorted copy of the observations of a point.
+ * <p>
+ * Dates are stored as epoch seconds (UTC) and nanos, and values as doubles,
+ * with NaN for missing values. Only the dates are copied up front, measured
+ * values are copied the first time they are read, and deltas the first time
+ * they are read after {@link #invalidateDeltas()}.
+ * <p>
+ * The series refers to the observation list it was built from, see
+ * {@link #isBuiltFrom(List)} for detecting a list changed in place.
+ * <p>
+ * A series obtained from {@link #range(LocalDateTime, LocalDateTime)} or
+ * {@link #subSeries(int, int)} is a view that shares the arrays of its
+ * parent.
+ *
+ * @author Patrik Karlström
+ */
+public class BTimeSeries {
+
+    private final Data mData;
+    private final int mFrom;
+    private final int mTo;
+
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * @param observations sorted on date
+     */
+    public BTimeSeries(List<? extends BBasePointObservation> observations) {
+        this(new Data(observations), 0, observations.size());
+    }
+
+    private BTimeSeries(Data data, int from, int to) {
+        mData = data;
+        mFrom = from;
+        mTo = to;
+    }
+
+    public LocalDateTime getDate(int index) {
+        return LocalDateTime.ofEpochSecond(getEpochSecond(index), getNano(index), ZoneOffset.UTC);
+    }
+
+    public double getDeltaX(int index) {
+        return mData.getDeltas()[0][mFrom + index];
+    }
+
+    public double getDeltaY(int index) {
+        return mData.getDeltas()[1][mFrom + index];
+    }
+
+    public double getDeltaZ(int index) {
+        return mData.getDeltas()[2][mFrom + index];
+    }
+
+    /**
+     * @return a number that changes every time the deltas are invalidated
+     */
+    public int getDeltasGeneration() {
+        return mData.mDeltasGeneration;
+    }
+
+    public long getEpochSecond(int index) {
+        return mData.mEpochSeconds[mFrom + index];
+    }
+
+    public double getMeasuredX(int index) {
+        return mData.getMeasured()[0][mFrom + index];
+    }
+
+    public double getMeasuredY(int index) {
+        return mData.getMeasured()[1][mFrom + index];
+    }
+
+    public double getMeasuredZ(int index) {
+        return mData.getMeasured()[2][mFrom + index];
+    }
+
+    public int getNano(int index) {
+        return mData.mNanos == null ? 0 : mData.mNanos[mFrom + index];
+    }
+
+    /**
+     * @param index
+     * @return the observation the values at index were copied from
+     */
+    public BBasePointObservation getObservation(int index) {
+        return mData.mObservations.get(mFrom + index);
+    }
+
+    /**
+     * @param epochSecond
+     * @return the index of the first item at or after epochSecond, size() if
+     * none
+     */
+    public int indexOf(long epochSecond) {
+        int low = mFrom;
+        int high = mTo;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mData.mEpochSeconds[mid] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low - mFrom;
+    }
+
+    /**
+     * @param dateTime
+     * @return the index of the first item at or after dateTime, size() if
+     * none
+     */
+    public int indexOf(LocalDateTime dateTime) {
+        var epochSecond = toEpochSecond(dateTime);
+        var nano = dateTime.getNano();
+        var index = indexOf(epochSecond);
+        if (nano > 0) {
+            while (index < size() && getEpochSecond(index) == epochSecond && getNano(index) < nano) {
+                index++;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Copy the deltas again on next read, call when the observations have
+     * been recalculated.
+     */
+    public void invalidateDeltas() {
+        mData.mDeltasValid = false;
+        mData.mDeltasGeneration++;
+    }
+
+    /**
+     * A cheap check that does not detect every change, lists changed in
+     * place should also invalidate their series explicitly.
+     *
+     * @param observations
+     * @return true if this series was built from observations, and their
+     * size, first and last item are unchanged
+     */
+    public boolean isBuiltFrom(List<? extends BBasePointObservation> observations) {
+        var data = mData;
+        var n = observations.size();
+
+        return observations == data.mObservations
+                && n == data.mEpochSeconds.length
+                && (n == 0 || (observations.get(0) == data.mFirst && observations.get(n - 1) == data.mLast));
+    }
+
+    public boolean isEmpty() {
+        return mTo == mFrom;
+    }
+
+    /**
+     * @param from inclusive
+     * @param to exclusive
+     * @return a view of the items within [from, to)
+     */
+    public BTimeSeries range(LocalDateTime from, LocalDateTime to) {
+        return subSeries(indexOf(from), Math.max(indexOf(from), indexOf(to)));
+    }
+
+    /**
+     * @param from inclusive
+     * @param to inclusive
+     * @return a view of the items dated from the start of from to the end of
+     * to
+     */
+    public BTimeSeries range(LocalDate from, LocalDate to) {
+        return range(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    public int size() {
+        return mTo - mFrom;
+    }
+
+    /**
+     * @param from inclusive
+     * @param to exclusive
+     * @return a view sharing the arrays of this series
+     */
+    public BTimeSeries subSeries(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("[%d, %d) of %d".formatted(from, to, size()));
+        }
+
+        return new BTimeSeries(mData, mFrom + from, mFrom + to);
+    }
+
+    private static class Data {
+
+        private volatile double[][] mDeltas;
+        private volatile int mDeltasGeneration;
+        private volatile boolean mDeltasValid;
+        private final long[] mEpochSeconds;
+        private final BBasePointObservation mFirst;
+        private final BBasePointObservation mLast;
+        private volatile double[][] mMeasured;
+        private final int[] mNanos;
+        private final List<? extends BBasePointObservation> mObservations;
+
+        public Data(List<? extends BBasePointObservation> observations) {
+            mObservations = observations;
+            var n = observations.size();
+            mFirst = n == 0 ? null : observations.get(0);
+            mLast = n == 0 ? null : observations.get(n - 1);
+            mEpochSeconds = new long[n];
+
+            int[] nanos = null;
+            for (int i = 0; i < n; i++) {
+                var date = observations.get(i).getDate();
+                if (date == null) {
+                    mEpochSeconds[i] = Long.MIN_VALUE;
+                } else {
+                    mEpochSeconds[i] = toEpochSecond(date);
+                    if (date.getNano() != 0) {
+                        if (nanos == null) {
+                            nanos = new int[n];
+                        }
+                        nanos[i] = date.getNano();
+                    }
+                }
+            }
+
+            mNanos = nanos;
+        }
+
+        private double[][] getDeltas() {
+            if (!mDeltasValid) {
+                synchronized (this) {
+                    if (!mDeltasValid) {
+                        var n = mEpochSeconds.length;
+                        var deltas = mDeltas == null ? new double[3][n] : mDeltas;
+                        for (int i = 0; i < n; i++) {
+                            if (mObservations.get(i) instanceof BXyzPointObservation o) {
+                                deltas[0][i] = toDouble(o.ext().getDeltaX());
+                                deltas[1][i] = toDouble(o.ext().getDeltaY());
+                                deltas[2][i] = toDouble(o.ext().getDeltaZ());
+                            } else {
+                                deltas[0][i] = Double.NaN;
+                                deltas[1][i] = Double.NaN;
+                                deltas[2][i] = Double.NaN;
+                            }
+                        }
+                        mDeltas = deltas;
+                        mDeltasValid = true;
+                    }
+                }
+            }
+
+            return mDeltas;
+        }
+
+        private double[][] getMeasured() {
+            var measured = mMeasured;
+            if (measured == null) {
+                synchronized (this) {
+                    measured = mMeasured;
+                    if (measured == null) {
+                        var n = mEpochSeconds.length;
+                        measured = new double[3][n];
+                        for (int i = 0; i < n; i++) {
+                            if (mObservations.get(i) instanceof BXyzPointObservation o) {
+                                measured[0][i] = toDouble(o.getMeasuredX());
+                                measured[1][i] = toDouble(o.getMeasuredY());
+                                measured[2][i] = toDouble(o.getMeasuredZ());
+                            } else {
+                                measured[0][i] = Double.NaN;
+                                measured[1][i] = Double.NaN;
+                                measured[2][i] = Double.NaN;
+                            }
+                        }
+                        mMeasured = measured;
+                    }
+                }
+            }
+
+            return measured;
+        }
+
+        private double toDouble(Double value) {
+            return value == null ? Double.NaN : value;
+        }
+    }
+}
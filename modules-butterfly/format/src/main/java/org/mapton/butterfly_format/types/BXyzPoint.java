@@ -22,8 +22,8 @@ import java.util.Objects;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Strings;
 import org.apache.commons.math3.ml.clustering.Clusterable;
+import org.mapton.butterfly_format.Butterfly;
 import static org.mapton.butterfly_format.types.BDimension._1d;
 import static org.mapton.butterfly_format.types.BDimension._2d;
 import static org.mapton.butterfly_format.types.BDimension._3d;
@@ -161,10 +161,12 @@ public abstract class BXyzPoint extends BBaseControlPoint implements Clusterable
 
     public void setAlarm1Id(String alarm1Id) {
         this.alarm1Id = alarm1Id;
+        clearAlarmCache();
     }
 
     public void setAlarm2Id(String alarm2Id) {
         this.alarm2Id = alarm2Id;
+        clearAlarmCache();
     }
 
     public void setDimension(BDimension dimension) {
@@ -243,11 +245,19 @@ public abstract class BXyzPoint extends BBaseControlPoint implements Clusterable
         this.zeroZScaled = zeroZScaled;
     }
 
+    private void clearAlarmCache() {
+        var ext = extOrNull();
+        if (ext != null) {
+            ext.clearAlarmCache();
+        }
+    }
+
     public abstract class Ext<T extends BXyzPointObservation> extends BBasePoint.Ext<T> {
 
         private transient final DeltaFirst deltaFirst = new DeltaFirst();
         private transient final DeltaRolling deltaRolling = new DeltaRolling();
         private transient final DeltaZero deltaZero = new DeltaZero();
+        private transient AlarmCache mAlarmCache;
         private transient Double mFrequenceHighBuffer;
 
         public void calculateObservations(List<T> observations) {
@@ -351,6 +361,8 @@ public abstract class BXyzPoint extends BBaseControlPoint implements Clusterable
                 o.ext().setAccuY(accumulatedReplacementsY);
                 o.ext().setAccuZ(accumulatedReplacementsZ);
             }
+
+            invalidateTimeSeriesDeltas();
         }
 
         public DeltaFirst deltaFirst() {
@@ -373,17 +385,26 @@ public abstract class BXyzPoint extends BBaseControlPoint implements Clusterable
             }
         }
 
+        /**
+         * Clear the resolved alarms, they are resolved again on next access.
+         * This happens automatically when the point gets a new Butterfly or
+         * new alarm ids.
+         */
+        public void clearAlarmCache() {
+            mAlarmCache = null;
+        }
+
         public BAlarm getAlarm(BComponent component) {
-            var alarm = getButterfly().getAlarms().stream()
-                    .filter(a -> {
-                        if (component == BComponent.HEIGHT) {
-                            return Strings.CS.equals(a.getId(), getAlarm1Id());
-                        } else {
-                            return Strings.CS.equals(a.getId(), getAlarm2Id());
-                        }
-                    }).findAny().orElse(null);
+            var butterfly = getButterfly();
+            var alarmCache = mAlarmCache;
+            if (alarmCache == null || alarmCache.butterfly() != butterfly) {
+                alarmCache = butterfly == null
+                        ? new AlarmCache(null, null, null)
+                        : new AlarmCache(butterfly, butterfly.getAlarm(getAlarm1Id()), butterfly.getAlarm(getAlarm2Id()));
+                mAlarmCache = alarmCache;
+            }
 
-            return alarm;
+            return component == BComponent.HEIGHT ? alarmCache.height() : alarmCache.plane();
         }
 
         public int getAlarmLevel(BComponent component, BXyzPointObservation o) {
@@ -947,5 +968,9 @@ public abstract class BXyzPoint extends BBaseControlPoint implements Clusterable
             }
         }
 
+        private record AlarmCache(Butterfly butterfly, BAlarm height, BAlarm plane) {
+
+        }
+
     }
 }
@@ -16,11 +16,9 @@
 package org.mapton.butterfly_format.types.topo;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.stream.DoubleStream;
@@ -44,7 +42,6 @@ import org.mapton.butterfly_format.types.BXyzPoint;
 public class BTopoGrade extends BXyzPoint {
 
 //    private static final String DATE_PATTERN = "YYYY-'W'ww";
-    private static final String DATE_PATTERN = "yyyy-MM-dd";
     private final BAxis mAxis;
     private final TreeMap<LocalDate, BTopoGradeObservation> mCommonObservations = new TreeMap<>();
     private transient Ext mExt;
@@ -54,8 +51,6 @@ public class BTopoGrade extends BXyzPoint {
 //            .appendPattern(DATE_PATTERN)
 //            .parseDefaulting(ChronoField.DAY_OF_WEEK, DayOfWeek.MONDAY.getValue())
 //            .toFormatter(Locale.getDefault());
-    private final DateTimeFormatter mWeeklyAvgFormatterFrom = DateTimeFormatter.ofPattern(DATE_PATTERN, Locale.getDefault());
-    private final DateTimeFormatter mWeeklyAvgFormatterTo = DateTimeFormatter.ofPattern(DATE_PATTERN, Locale.getDefault());
 
     public BTopoGrade(BAxis axis, BTopoControlPoint p1, BTopoControlPoint p2) {
         mAxis = axis;
@@ -67,13 +62,25 @@ public class BTopoGrade extends BXyzPoint {
         var map1 = createObservationMap(mP1);
         var map2 = createObservationMap(mP2);
 
-        for (var entry : map1.entrySet()) {
-            LocalDate date = entry.getKey();
-            if (map2.containsKey(date)) {
-                var gradeObservation = new BTopoGradeObservation(this, map1.get(date), map2.get(date));
+        //Sorted merge of the dates of both points
+        var iterator1 = map1.entrySet().iterator();
+        var iterator2 = map2.entrySet().iterator();
+        var entry1 = iterator1.hasNext() ? iterator1.next() : null;
+        var entry2 = iterator2.hasNext() ? iterator2.next() : null;
+        while (entry1 != null && entry2 != null) {
+            int compare = entry1.getKey().compareTo(entry2.getKey());
+            if (compare == 0) {
+                var date = entry1.getKey();
+                var gradeObservation = new BTopoGradeObservation(this, entry1.getValue(), entry2.getValue());
                 gradeObservation.setDate(date.atStartOfDay());
                 mCommonObservations.put(date, gradeObservation);
             }
+            if (compare <= 0) {
+                entry1 = iterator1.hasNext() ? iterator1.next() : null;
+            }
+            if (compare >= 0) {
+                entry2 = iterator2.hasNext() ? iterator2.next() : null;
+            }
         }
 
         recalc1(mP1);
@@ -141,10 +148,10 @@ public class BTopoGrade extends BXyzPoint {
         return "%s → %s".formatted(getFirstDate(), getLastDate());
     }
 
-    private HashMap<LocalDate, Point3D> createObservationMap(BTopoControlPoint p) {
-        var map1 = new HashMap<LocalDate, Point3D>();
+    private TreeMap<LocalDate, Point3D> createObservationMap(BTopoControlPoint p) {
+        var map1 = new TreeMap<LocalDate, Point3D>();
 
-        var weekToObservations = new HashMap<String, ArrayList<Point3D>>();
+        var weekToObservations = new HashMap<LocalDate, ArrayList<Point3D>>();
         var beforeZero1 = true;
         var beforeZero3 = true;
         if (p.getDimension() == BDimension._1d) {
@@ -163,7 +170,7 @@ public class BTopoGrade extends BXyzPoint {
                 if (hasZero && beforeZero1 || ObjectUtils.anyNull(o.ext().getDeltaZ())) {
                     continue;
                 }
-                var yyyyww = o.getDate().toLocalDate().format(mWeeklyAvgFormatterTo);
+                var yyyyww = o.getDate().toLocalDate();
                 var point3D = new Point3D(0, 0, o.ext().getDeltaZ());
                 weekToObservations.computeIfAbsent(yyyyww, k -> new ArrayList<>()).add(point3D);
             }
@@ -183,7 +190,7 @@ public class BTopoGrade extends BXyzPoint {
                 if (hasZero && beforeZero3 || ObjectUtils.anyNull(o.ext().getDeltaX(), o.ext().getDeltaY(), o.ext().getDeltaZ())) {
                     continue;
                 }
-                var key = o.getDate().toLocalDate().format(mWeeklyAvgFormatterTo);
+                var key = o.getDate().toLocalDate();
                 var point3D = new Point3D(o.ext().getDeltaX(), o.ext().getDeltaY(), o.ext().getDeltaZ());
                 weekToObservations.computeIfAbsent(key, k -> new ArrayList<>()).add(point3D);
             }
@@ -201,7 +208,7 @@ public class BTopoGrade extends BXyzPoint {
             double z = getMedian(observations.stream().mapToDouble(o -> o.getZ()));
             var point3D = new Point3D(x, y, z);
 
-            map1.put(LocalDate.parse(yyyyww, mWeeklyAvgFormatterFrom), point3D);
+            map1.put(yyyyww, point3D);
         }
 
         return map1;
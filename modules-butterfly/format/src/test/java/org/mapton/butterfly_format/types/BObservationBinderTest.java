@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_format.types;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.mapton.butterfly_format.types.hydro.BHydroGroundwaterPoint;
+import org.mapton.butterfly_format.types.hydro.BHydroGroundwaterPointObservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the binder with the nested scans it replaced.
+ *
+ * @author Patrik Karlström
+ */
+public class BObservationBinderTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Test
+    public void testBindMatchesNestedScan() {
+        var points = createPoints("P1", "P2", "P3", "P4");
+        var observations = createObservations(new Random(1), 200, "P1", "P2", "P3", "P5");
+
+        var expected = bindNested(points, observations, false);
+        var actual = bind(points, observations, false);
+
+        assertEquals(expected, actual);
+        assertTrue(actual.get(points.get(3)).isEmpty());
+    }
+
+    @Test
+    public void testBindIgnoreCaseMatchesNestedScan() {
+        var points = createPoints("p1", "P2", "Å3");
+        var observations = createObservations(new Random(2), 200, "P1", "p2", "å3", "P4");
+
+        var expected = bindNested(points, observations, true);
+        var actual = bind(points, observations, true);
+
+        assertEquals(expected, actual);
+        assertFalse(actual.get(points.get(2)).isEmpty());
+    }
+
+    @Test
+    public void testBindSortsOnDate() {
+        var points = createPoints("P1", "P2");
+        var observations = createObservations(new Random(3), 100, "P1", "P2");
+        Collections.shuffle(observations, new Random(4));
+
+        var expected = bindNested(points, observations, false);
+        expected.values().forEach(list -> list.sort(Comparator.comparing(BBasePointObservation::getDate)));
+        var actual = bind(points, observations, false);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testPointsGetListsOfTheirOwn() {
+        var points = createPoints("P1", "P1", "P2", "P3");
+        var observations = createObservations(new Random(5), 10, "P1", "P2");
+
+        var lists = new ArrayList<ArrayList<BHydroGroundwaterPointObservation>>();
+        BObservationBinder.bind(points, observations, (p, list) -> lists.add(list));
+
+        assertEquals(lists.get(0), lists.get(1));
+        assertNotSame(lists.get(0), lists.get(1));
+        lists.get(3).add(new BHydroGroundwaterPointObservation());
+        assertEquals(1, lists.get(3).size());
+    }
+
+    private HashMap<BHydroGroundwaterPoint, ArrayList<BHydroGroundwaterPointObservation>> bind(List<BHydroGroundwaterPoint> points, List<BHydroGroundwaterPointObservation> observations, boolean ignoreCase) {
+        var pointToObservations = new HashMap<BHydroGroundwaterPoint, ArrayList<BHydroGroundwaterPointObservation>>();
+        if (ignoreCase) {
+            BObservationBinder.bindIgnoreCase(points, observations, pointToObservations::put);
+        } else {
+            BObservationBinder.bind(points, observations, pointToObservations::put);
+        }
+
+        return pointToObservations;
+    }
+
+    /**
+     * The per point scan used by the managers before the binder.
+     */
+    private HashMap<BHydroGroundwaterPoint, ArrayList<BHydroGroundwaterPointObservation>> bindNested(List<BHydroGroundwaterPoint> points, List<BHydroGroundwaterPointObservation> observations, boolean ignoreCase) {
+        var pointToObservations = new HashMap<BHydroGroundwaterPoint, ArrayList<BHydroGroundwaterPointObservation>>();
+        for (var p : points) {
+            var list = observations.stream()
+                    .filter(o -> ignoreCase ? o.getName().equalsIgnoreCase(p.getName()) : o.getName().equals(p.getName()))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            pointToObservations.put(p, list);
+        }
+
+        return pointToObservations;
+    }
+
+    private List<BHydroGroundwaterPointObservation> createObservations(Random random, int count, String... names) {
+        var observations = new ArrayList<BHydroGroundwaterPointObservation>();
+        for (int i = 0; i < count; i++) {
+            var o = new BHydroGroundwaterPointObservation();
+            o.setName(names[random.nextInt(names.length)]);
+            o.setDate(DATE.plusHours(i));
+            observations.add(o);
+        }
+
+        return observations;
+    }
+
+    private List<BHydroGroundwaterPoint> createPoints(String... names) {
+        var points = new ArrayList<BHydroGroundwaterPoint>();
+        for (var name : names) {
+            var p = new BHydroGroundwaterPoint();
+            p.setName(name);
+            points.add(p);
+        }
+
+        return points;
+    }
+}
@@ -76,11 +76,12 @@ public class InclinoFilter extends ButterflyFormFilter<InclinoManager> implement
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), p -> p.getLat(), p -> p.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(p -> p.isVisible() != mInvisibleProperty.get())
                 .filter(p -> validateFreeText(p.getName(), p.getGroup(), p.getComment()))
                 .filter(p -> validateCoordinateCircle(p.getLat(), p.getLon()))
-                .filter(p -> validateCoordinateArea(p.getLat(), p.getLon()))
+                .filter(areaPredicate)
                 .filter(p -> validateCoordinateRuler(p.getLat(), p.getLon()))
                 .filter(p -> mFilterSectionPoint.filter(p, p.ext().getMeasurementUntilNext(ChronoUnit.DAYS)))
                 .filter(p -> mFilterSectionDate.filter(p, p.ext().getDateFirst()))
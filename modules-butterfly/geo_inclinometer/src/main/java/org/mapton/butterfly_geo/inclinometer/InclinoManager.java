@@ -16,19 +16,16 @@
 package org.mapton.butterfly_geo.inclinometer;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
-import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.geo.BGeoInclinometerPoint;
-import org.mapton.butterfly_format.types.geo.BGeoInclinometerPointObservation;
 import org.mapton.butterfly_geo.inclinometer.chart.InclinoChartBuilder;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 import se.trixon.almond.util.MathHelper;
 
 /**
@@ -64,13 +61,7 @@ public class InclinoManager extends BaseManager<BGeoInclinometerPoint> {
             initAllItems(butterfly.geotechnical().getInclinometerPoints());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BGeoInclinometerPointObservation>>();
-            for (var o : butterfly.geotechnical().getInclinometerPointsObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.geotechnical().getInclinometerPoints()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
+            BObservationBinder.bind(butterfly.geotechnical().getInclinometerPoints(), butterfly.geotechnical().getInclinometerPointsObservations(), (p, observations) -> {
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.setDateLatest(observations.getLast().getDate());
@@ -87,7 +78,7 @@ public class InclinoManager extends BaseManager<BGeoInclinometerPoint> {
                         break;
                     }
                 }
-            }
+            });
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -96,13 +87,10 @@ public class InclinoManager extends BaseManager<BGeoInclinometerPoint> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -114,7 +102,6 @@ public class InclinoManager extends BaseManager<BGeoInclinometerPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BGeoInclinometerPoint>();
 
         p:
@@ -141,11 +128,7 @@ public class InclinoManager extends BaseManager<BGeoInclinometerPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
         });
 
         double offsetZ;
@@ -19,6 +19,7 @@ import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.awt.Color;
 import java.util.ArrayList;
 import javafx.scene.Node;
@@ -54,6 +55,7 @@ public class ReinforcementLayerBundle extends BfLayerBundle {
         mOptionsView = new ReinforcementOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -69,6 +71,14 @@ public class ReinforcementLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BGeoReinforcementPoint p) {
+        var attrs = mAttributeManager.getPinAttributes(Color.WHITE);
+//        var attrs = mAttributeManager.getPinAttributes(p);
+        attrs = PinPaddle.E_STAR.applyToCopy(attrs);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Mapton.addWarning(Bundle.CTL_ReinforcementAction(), 0), SDict.GEOTECHNICAL.toString(), "ReinforcementTopComponent");
 
@@ -106,7 +116,8 @@ public class ReinforcementLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -152,9 +163,7 @@ public class ReinforcementLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BGeoReinforcementPoint p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(Color.WHITE);
-//        var attrs = mAttributeManager.getPinAttributes(p);
-        attrs = PinPaddle.E_STAR.applyToCopy(attrs);
+        var attrs = getPinAttributes(p);
         p.setValue(BKey.PIN_URL, attrs.getImageAddress());
         p.setValue(BKey.PIN_COLOR, attrs.getImageColor());
 
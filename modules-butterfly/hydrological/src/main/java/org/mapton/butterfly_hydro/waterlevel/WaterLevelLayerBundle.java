@@ -19,6 +19,7 @@ import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.awt.Color;
 import java.util.ArrayList;
 import javafx.scene.Node;
@@ -53,6 +54,7 @@ public class WaterLevelLayerBundle extends BfLayerBundle {
         mOptionsView = new WaterLevelOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -68,6 +70,14 @@ public class WaterLevelLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BHydroWaterLevelPoint p) {
+        var attrs = mAttributeManager.getPinAttributes(p);
+        attrs = PinPaddle.S_BLANK.applyToCopy(attrs);
+        attrs.setImageColor(Color.BLUE.brighter());
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_WaterLevelAction(), SDict.HYDROGEOLOGY.toString(), "WaterLevelTopComponent");
     }
@@ -98,7 +108,8 @@ public class WaterLevelLayerBundle extends BfLayerBundle {
             }
             mGraphicRenderer.init();
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -147,9 +158,7 @@ public class WaterLevelLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BHydroWaterLevelPoint p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(p);
-        attrs = PinPaddle.S_BLANK.applyToCopy(attrs);
-        attrs.setImageColor(Color.BLUE.brighter());
+        var attrs = getPinAttributes(p);
 
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -18,28 +18,26 @@ package org.mapton.butterfly_hydro.waterlevel;
 import com.sun.jna.platform.KeyboardUtils;
 import java.awt.event.KeyEvent;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.mapton.api.MDisruptorProvider;
 import org.mapton.api.MLatLon;
-import org.mapton.api.MTemporalRange;
 import org.mapton.butterfly_core.api.BMeasurementReport;
 import org.mapton.butterfly_core.api.BMeasurementTab;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.hydro.BHydroWaterLevelPoint;
-import org.mapton.butterfly_format.types.hydro.BHydroWaterLevelPointObservation;
 import org.mapton.butterfly_hydro.waterlevel.chart.ChartAggregate;
 import org.mapton.butterfly_hydro.waterlevel.chart.GroundwaterChartBuilder;
 import org.mapton.butterfly_hydro.waterlevel.chart.MultiChartAggregate;
 import org.mapton.butterfly_hydro.waterlevel.table.StandardMeasurementPopulator;
 import org.openide.util.Exceptions;
 import org.openide.util.lookup.ServiceProvider;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -104,13 +102,7 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
             initAllItems(butterfly.hydro().getWaterLevelPoints());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BHydroWaterLevelPointObservation>>();
-            for (var o : butterfly.hydro().getWaterLevelPointsObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.hydro().getWaterLevelPoints()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
+            BObservationBinder.bind(butterfly.hydro().getWaterLevelPoints(), butterfly.hydro().getWaterLevelPointsObservations(), (p, observations) -> {
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.setDateLatest(observations.getLast().getDate());
@@ -127,7 +119,7 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
                         break;
                     }
                 }
-            }
+            });
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -136,13 +128,10 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -156,7 +145,6 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BHydroWaterLevelPoint>();
 
         p:
@@ -183,11 +171,7 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             //p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
         });
 
         var latLonDisruptors = timeFilteredItems.stream().map(p -> new MLatLon(p.getLat(), p.getLon())).toList();
@@ -196,6 +180,11 @@ public class WaterLevelManager extends BaseManager<BHydroWaterLevelPoint> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("hydroWaterLevelPointsObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BHydroWaterLevelPoint> items) {
         throw new UnsupportedOperationException("Not supported yet.");
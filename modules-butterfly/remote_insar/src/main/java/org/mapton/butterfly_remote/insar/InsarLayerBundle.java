@@ -20,6 +20,7 @@ import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.LatLon;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import gov.nasa.worldwind.render.airspaces.Polygon;
 import java.util.ArrayList;
 import javafx.scene.Node;
@@ -63,6 +64,7 @@ public class InsarLayerBundle extends BfLayerBundle {
         mOptionsView = new InsarOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -78,6 +80,13 @@ public class InsarLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BRemoteInsarPoint p) {
+        var attrs = mAttributeManager.getPinAttributes(p);
+        attrs = PinPaddle.W_CIRCLE.applyToCopy(attrs);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Mapton.addWarning(Bundle.CTL_InsarAction(), 0), RemoteHelper.CAT_REMOTE, "InsarTopComponent");
 
@@ -120,7 +129,8 @@ public class InsarLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -188,8 +198,7 @@ public class InsarLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BRemoteInsarPoint p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(p);
-        attrs = PinPaddle.W_CIRCLE.applyToCopy(attrs);
+        var attrs = getPinAttributes(p);
 
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -18,13 +18,11 @@ package org.mapton.butterfly_remote.insar;
 import com.sun.jna.platform.KeyboardUtils;
 import java.awt.event.KeyEvent;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.TreeSet;
-import java.util.function.Function;
+import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Point;
@@ -32,22 +30,23 @@ import org.mapton.api.MDisruptorProvider;
 import org.mapton.api.MLatLon;
 import org.mapton.api.MOptions;
 import org.mapton.api.MSimpleObjectStorageManager;
-import org.mapton.api.MTemporalRange;
 import org.mapton.butterfly_core.api.BKey;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_core.api.ButterflyManager;
 import org.mapton.butterfly_core.api.TrendHelper;
 import org.mapton.butterfly_format.Butterfly;
-import org.mapton.butterfly_format.types.BTrendPeriod;
-import org.mapton.butterfly_format.types.BXyzPointObservation;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.remote.BRemoteInsarPoint;
 import org.mapton.butterfly_format.types.remote.BRemoteInsarPointObservation;
 import org.mapton.butterfly_remote.insar.chart.ChartAggregate;
 import org.mapton.butterfly_remote.insar.chart.InsarChartBuilder;
 import org.mapton.butterfly_remote.insar.chart.MultiChartAggregate;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.util.Cancellable;
 import org.openide.util.Exceptions;
 import org.openide.util.lookup.ServiceProvider;
-import se.trixon.almond.util.CollectionHelper;
+import se.trixon.almond.util.Dict;
 import se.trixon.almond.util.SystemHelper;
 import se.trixon.almond.util.fx.FxHelper;
 
@@ -58,10 +57,12 @@ import se.trixon.almond.util.fx.FxHelper;
 public class InsarManager extends BaseManager<BRemoteInsarPoint> {
 
     private final static String DISRUPTOR_NAME = Bundle.CTL_InsarAction();
+    private static final int PUBLISH_CHUNK_SIZE = 20_000;
 
     private final ChartAggregate mChartAggregate = new ChartAggregate();
     private final InsarChartBuilder mChartBuilder = new InsarChartBuilder();
     private Runnable mFilterPopoverPopulateRunnable;
+    private volatile Loader mLoader;
     private final MultiChartAggregate mMultiChartAggregate = new MultiChartAggregate();
     private final InsarPropertiesBuilder mPropertiesBuilder = new InsarPropertiesBuilder();
     private final InsarTrendsBuilder mTrendsBuilder = new InsarTrendsBuilder();
@@ -112,14 +113,23 @@ public class InsarManager extends BaseManager<BRemoteInsarPoint> {
         }
     }
 
-    public void putLatLons(List<? extends BRemoteInsarPoint> list) {
+    public void putLatLons(List<? extends BRemoteInsarPoint> allPoints) {
         var cooTrans = MOptions.getInstance().getMapCooTrans();
-        for (var p : list) {
-            var latLon = p.<MLatLon>getValue("MLATLON");
-            var pp = cooTrans.fromWgs84(latLon.getLatitude(), latLon.getLongitude());
-            var coordinate = new Coordinate(pp.getY(), pp.getX());
+        var list = allPoints.stream()
+                .filter(p -> p.getValue("MLATLON") != null)
+                .toList();
+        var lats = list.stream().mapToDouble(p -> p.<MLatLon>getValue("MLATLON").getLatitude()).toArray();
+        var lons = list.stream().mapToDouble(p -> p.<MLatLon>getValue("MLATLON").getLongitude()).toArray();
+        cooTrans.fromWgs84(lats, lons, lons, lats);
+
+        for (int i = 0; i < list.size(); i++) {
+            if (Double.isNaN(lats[i]) || Double.isNaN(lons[i])) {
+                continue;
+            }
+
+            var coordinate = new Coordinate(lats[i], lons[i]);
             var point = mGeometryFactory.createPoint(coordinate);
-            p.setValue("POINT", point);
+            list.get(i).setValue("POINT", point);
         }
 
 //        putGeometries(disruptorName, geometries);
@@ -131,7 +141,6 @@ public class InsarManager extends BaseManager<BRemoteInsarPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BRemoteInsarPoint>();
 
         p:
@@ -158,14 +167,13 @@ public class InsarManager extends BaseManager<BRemoteInsarPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
         });
 
-        var pointDisruptors = timeFilteredItems.stream().map(p -> p.<Point>getValue("POINT")).toList();
+        var pointDisruptors = timeFilteredItems.stream()
+                .map(p -> p.<Point>getValue("POINT"))
+                .filter(Objects::nonNull)
+                .toList();
         mDisruptorManager.putGeometries(DISRUPTOR_NAME, pointDisruptors);
 //        Thread.ofVirtual().start(() -> {
 
@@ -196,104 +204,65 @@ public class InsarManager extends BaseManager<BRemoteInsarPoint> {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Load the InSAR points and observations on a background thread.
+     * <p>
+     * A load in progress is cancelled.
+     *
+     * @param butterfly
+     */
     void load2(Butterfly butterfly) {
         mFirstLoad = false;
-        clear();
-        SystemHelper.runGcDelayed(50);
-
-        Runnable task = () -> {
-            butterfly.loadManual();
-            ButterflyManager.getInstance().calculateLatLons(butterfly.remote().getInsarPoints());
-            putLatLons(butterfly.remote().getInsarPoints());
-
-            FxHelper.runLater(() -> {
-                try {
-                    initAllItems(butterfly.remote().getInsarPoints());
-                    initObjectToItemMap();
-
-                    var nameToObservations = new LinkedHashMap<String, ArrayList<BRemoteInsarPointObservation>>();
-                    for (var o : butterfly.remote().getInsarPointsObservations()) {
-                        nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-                    }
+        var previousLoader = mLoader;
+        if (previousLoader != null) {
+            previousLoader.cancel();
+        }
 
-                    for (var p : butterfly.remote().getInsarPoints()) {
-                        var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
-                        if (!observations.isEmpty()) {
-                            p.ext().setDateFirst(observations.getFirst().getDate());
-                            p.setDateLatest(observations.getLast().getDate());
-                        } else {
-                            p.ext().setDateFirst(LocalDateTime.MIN);
-                        }
-
-                        p.ext().setDateLatest(p.getDateLatest());
-                        p.ext().setObservationsAllRaw(observations);
-                        p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
-                        for (var o : p.ext().getObservationsAllRaw()) {
-                            o.setMeasuredZ(p.getZeroZ() + o.getMeasuredZ() / 1000d);
-                            if (o.isZeroMeasurement()) {
-                                p.ext().setStoredZeroDateTime(o.getDate());
-                                break;
-                            }
-                        }
-                    }
+        var loader = new Loader(butterfly, previousLoader);
+        mLoader = loader;
+        SystemHelper.runLaterDelayed(1000, loader);
+    }
 
-                    var origins = getAllItems()
-                            .stream().map(p -> p.getOrigin())
-                            .collect(Collectors.toCollection(TreeSet::new))
-                            .stream()
-                            .collect(Collectors.toCollection(ArrayList<String>::new));
-                    setValue("origins", origins);
-
-                    var dates = new TreeSet<LocalDateTime>();
-                    getAllItems().stream().forEachOrdered(p -> {
-                        dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-                    });
-
-                    if (!dates.isEmpty()) {
-                        setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
-                        boolean layerBundleEnabled = isLayerBundleEnabled();
-                        updateTemporal(!layerBundleEnabled);
-                        updateTemporal(layerBundleEnabled);
-                    }
-                } catch (Exception e) {
-                    Exceptions.printStackTrace(e);
-                }
-            });
-            if (mFilterPopoverPopulateRunnable != null) {
-                mFilterPopoverPopulateRunnable.run();
+    /**
+     * Append points to all and filtered items, called on the FX thread.
+     *
+     * @param items
+     */
+    private void addItems(List<BRemoteInsarPoint> items) {
+        synchronized (getAllItems()) {
+            getAllItems().addAll(items);
+            for (var item : items) {
+                getAllItemsMap().put(item.getName(), item);
             }
-            SystemHelper.runGcDelayed(50);
-        };
+        }
 
-        SystemHelper.runLaterDelayed(1000, task);
+        synchronized (getFilteredItems()) {
+            getFilteredItems().addAll(items);
+        }
     }
 
-    private void populateTrend(BRemoteInsarPoint p, BTrendPeriod period, LocalDateTime startDate, LocalDateTime endDate) {
-        populateTrend(p, BKey.TRENDS_H, period, startDate, endDate, o -> o.ext().getDelta1d());
-    }
+    private void bindObservations(BRemoteInsarPoint p, ArrayList<BRemoteInsarPointObservation> observations) {
+        if (!observations.isEmpty()) {
+            p.ext().setDateFirst(observations.getFirst().getDate());
+            p.setDateLatest(observations.getLast().getDate());
+        } else {
+            p.ext().setDateFirst(LocalDateTime.MIN);
+        }
 
-    private void populateTrend(BRemoteInsarPoint p, String mode, BTrendPeriod period, LocalDateTime startDate, LocalDateTime endDate, Function<BXyzPointObservation, Double> function) {
-        var trend = TrendHelper.createTrend(p, true, startDate, endDate, function);
-        HashMap<BTrendPeriod, TrendHelper.Trend> map = (HashMap<BTrendPeriod, TrendHelper.Trend>) p.getValue(mode, new HashMap<>());
-        map.put(period, trend);
-        p.setValue(mode, map);
+        p.ext().setDateLatest(p.getDateLatest());
+        p.ext().setObservationsAllRaw(observations);
+        p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
+        for (var o : p.ext().getObservationsAllRaw()) {
+            o.setMeasuredZ(p.getZeroZ() + o.getMeasuredZ() / 1000d);
+            if (o.isZeroMeasurement()) {
+                p.ext().setStoredZeroDateTime(o.getDate());
+                break;
+            }
+        }
     }
 
     private void populateTrends(BRemoteInsarPoint p) {
-        var startDateFirst = p.ext().getDateFirst();
-        var startDateZero = p.getDateZero().atStartOfDay();
-        var endDate = p.ext().getDateLatest();
-        var startDateMinus6m = endDate.minusMonths(6);
-        var startDateMinus3m = endDate.minusMonths(3);
-        var startDateMinus1m = endDate.minusMonths(1);
-        var startDateMinus1w = endDate.minusWeeks(1);
-
-        populateTrend(p, BTrendPeriod.FIRST, startDateFirst, endDate);
-        populateTrend(p, BTrendPeriod.ZERO, startDateZero, endDate);
-        populateTrend(p, BTrendPeriod.HALF_YEAR, startDateMinus6m, endDate);
-        populateTrend(p, BTrendPeriod.QUARTER, startDateMinus3m, endDate);
-        populateTrend(p, BTrendPeriod.MONTH, startDateMinus1m, endDate);
-        populateTrend(p, BTrendPeriod.WEEK, startDateMinus1w, endDate);
+        TrendHelper.populateTrends(p, BKey.TRENDS_H, o -> o.ext().getDelta1d());
     }
 
     @ServiceProvider(service = MDisruptorProvider.class)
@@ -309,4 +278,138 @@ public class InsarManager extends BaseManager<BRemoteInsarPoint> {
 
         private static final InsarManager INSTANCE = new InsarManager();
     }
+
+    /**
+     * Reads, binds and indexes the points off the FX thread, and publishes
+     * them in chunks so that the map and lists fill in while loading.
+     */
+    private class Loader implements Cancellable, Runnable {
+
+        private final Butterfly mButterfly;
+        private volatile boolean mCancelled;
+        private final CountDownLatch mDoneLatch = new CountDownLatch(1);
+        private final Loader mPreviousLoader;
+        private final ProgressHandle mProgressHandle;
+
+        public Loader(Butterfly butterfly, Loader previousLoader) {
+            mButterfly = butterfly;
+            mPreviousLoader = previousLoader;
+            mProgressHandle = ProgressHandle.createHandle(Dict.OPENING_S.toString().formatted(DISRUPTOR_NAME), this);
+        }
+
+        @Override
+        public boolean cancel() {
+            mCancelled = true;
+
+            return true;
+        }
+
+        @Override
+        public void run() {
+            mProgressHandle.start();
+            mProgressHandle.switchToIndeterminate();
+            try {
+                if (mPreviousLoader != null) {
+                    //the points and observations lists are shared
+                    mPreviousLoader.mDoneLatch.await();
+                }
+                load();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                Exceptions.printStackTrace(e);
+            } finally {
+                mProgressHandle.finish();
+                mDoneLatch.countDown();
+            }
+
+            SystemHelper.runGcDelayed(50);
+        }
+
+        private boolean isActive() {
+            return !mCancelled && mLoader == this;
+        }
+
+        private void load() throws InterruptedException {
+            publish(() -> clear());
+            if (!isActive()) {
+                return;
+            }
+
+            var remote = mButterfly.remote();
+            mButterfly.loadManual();
+            if (!isActive()) {
+                return;
+            }
+
+            var points = remote.getInsarPoints();
+            ButterflyManager.getInstance().calculateLatLons(points);
+            putLatLons(points);
+            if (!isActive()) {
+                return;
+            }
+
+            BObservationBinder.bind(points, remote.getInsarPointsObservations(), InsarManager.this::bindObservations);
+            var origins = points.stream()
+                    .map(p -> p.getOrigin())
+                    .collect(Collectors.toCollection(TreeSet::new))
+                    .stream()
+                    .collect(Collectors.toCollection(ArrayList<String>::new));
+            var temporalStats = BTemporalStats.of(points, p -> p.ext().getObservationsAllRaw());
+            if (!isActive()) {
+                return;
+            }
+
+            publish(() -> {
+                setValue("origins", origins);
+                setTemporalStats(temporalStats);
+            });
+
+            mProgressHandle.switchToDeterminate(points.size());
+            for (int from = 0; from < points.size(); from += PUBLISH_CHUNK_SIZE) {
+                if (!isActive()) {
+                    return;
+                }
+
+                int to = Math.min(from + PUBLISH_CHUNK_SIZE, points.size());
+                var chunk = new ArrayList<>(points.subList(from, to));
+                publish(() -> addItems(chunk));
+                mProgressHandle.progress(to);
+            }
+
+            publish(() -> {
+                //populate trends for the complete set, not just the first chunks
+                mTrendLoadCounter = 0;
+                if (!temporalStats.isEmpty()) {
+                    boolean layerBundleEnabled = isLayerBundleEnabled();
+                    updateTemporal(!layerBundleEnabled);
+                    updateTemporal(layerBundleEnabled);
+                }
+            });
+
+            if (isActive() && mFilterPopoverPopulateRunnable != null) {
+                mFilterPopoverPopulateRunnable.run();
+            }
+        }
+
+        /**
+         * Run on the FX thread and wait for it, skipped if no longer active.
+         */
+        private void publish(Runnable runnable) throws InterruptedException {
+            var latch = new CountDownLatch(1);
+            FxHelper.runLater(() -> {
+                try {
+                    if (isActive()) {
+                        runnable.run();
+                    }
+                } catch (Exception e) {
+                    Exceptions.printStackTrace(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+
+            latch.await();
+        }
+    }
 }
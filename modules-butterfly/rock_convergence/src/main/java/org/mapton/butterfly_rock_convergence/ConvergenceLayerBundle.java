@@ -56,6 +56,7 @@ public class ConvergenceLayerBundle extends BfLayerBundle {
         mOptionsView = new ConvergenceOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -72,6 +73,15 @@ public class ConvergenceLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BRockConvergence p) {
+        var attrs = mAttributeManager.getPinAttributes(Color.WHITE);
+        attrs = new PointPlacemarkAttributes(attrs);
+        var color = ButterflyHelper.getAlarmColorAwt(p.ext().getAlarmLevel(BRockConvergenceObservation.FUNCTION_3D));
+        attrs.setImageColor(color);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_ConvergenceAction(), SDict.ROCK_MECHANICS.toString(), "ConvergenceTopComponent");
 
@@ -109,7 +119,8 @@ public class ConvergenceLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> p.ext().getAlarmLevel(BRockConvergenceObservation.FUNCTION_3D), this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -154,10 +165,7 @@ public class ConvergenceLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BRockConvergence p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(Color.WHITE);
-        attrs = new PointPlacemarkAttributes(attrs);
-        var color = ButterflyHelper.getAlarmColorAwt(p.ext().getAlarmLevel(BRockConvergenceObservation.FUNCTION_3D));
-        attrs.setImageColor(color);
+        var attrs = getPinAttributes(p);
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
         placemark.setAttributes(attrs);
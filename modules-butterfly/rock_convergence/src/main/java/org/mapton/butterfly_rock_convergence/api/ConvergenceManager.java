@@ -22,14 +22,15 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.math3.util.FastMath;
-import org.mapton.api.MTemporalRange;
 import org.mapton.api.Mapton;
 import org.mapton.butterfly_core.api.BCoordinatrix;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
 import org.mapton.butterfly_format.types.BMeasurementMode;
@@ -115,7 +116,7 @@ public class ConvergenceManager extends BaseManager<BRockConvergence> {
             var convergenceToObservations = butterfly.rock().getConvergenceObservations().stream()
                     .collect(Collectors.groupingBy(o -> o.getName()));
 
-            var dates = new TreeSet<LocalDateTime>();
+            var temporalStatsBuilder = new BTemporalStats.Builder();
             for (var g : butterfly.rock().getConvergence()) {
                 g.ext().getObservationsAllRaw().clear();
                 var controlPoints = Arrays.stream(StringUtils.split(g.getRef(), ","))
@@ -151,7 +152,7 @@ public class ConvergenceManager extends BaseManager<BRockConvergence> {
                         for (var o : observations) {
                             o.ext().setParent(g);
                             o.ext().setPair(pair);
-                            dates.add(o.getDate());
+                            temporalStatsBuilder.add(o.getDate());
                             o.ext().setDeltaX(o.getCalculatedConvergence1d());
                             o.ext().setDeltaY(o.getCalculatedConvergence2d());
                             o.ext().setDeltaZ(o.getCalculatedConvergence3d());
@@ -190,6 +191,7 @@ public class ConvergenceManager extends BaseManager<BRockConvergence> {
                         .collect(Collectors.toList());
                 maxObservationsPerDate.forEach(o -> o.ext().setDeltaZ(o.ext().getDeltaZ()));
                 g.ext().getObservationsAllRaw().addAll(maxObservationsPerDate);
+                g.ext().invalidateTimeSeries();
                 var minDate = maxObservationsPerDate.stream().map(gg -> gg.getDate()).min(LocalDateTime::compareTo);
                 var maxDate = maxObservationsPerDate.stream().map(gg -> gg.getDate()).max(LocalDateTime::compareTo);
                 g.ext().setDateFirst(minDate.orElse(LocalDateTime.MIN));
@@ -204,8 +206,10 @@ public class ConvergenceManager extends BaseManager<BRockConvergence> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            var temporalStats = temporalStatsBuilder.build();
+            setTemporalStats(temporalStats);
+
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -251,6 +255,11 @@ public class ConvergenceManager extends BaseManager<BRockConvergence> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("rockConvergenceObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BRockConvergence> items) {
         throw new UnsupportedOperationException("Not supported yet.");
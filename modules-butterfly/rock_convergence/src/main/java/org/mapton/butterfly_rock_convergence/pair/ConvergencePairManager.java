@@ -137,12 +137,7 @@ public class ConvergencePairManager extends BaseManager<BRockConvergencePair> {
 
                     existingPairs.add("%s-%s".formatted(p1.getName(), p2.getName()));
                     try {
-                        var pair = new BRockConvergencePair(convergence, p1, p2, offset);
-                        var point = cooTrans.toWgs84(pair.getZeroY(), pair.getZeroX());
-                        pair.setLat(point.getY());
-                        pair.setLon(point.getX());
-
-                        pairs.add(pair);
+                        pairs.add(new BRockConvergencePair(convergence, p1, p2, offset));
                     } catch (NullPointerException e) {
                         System.err.println("NPE  ConvergencePairManager 1 " + p1.getName() + " " + p2.getName());
                     }
@@ -150,6 +145,16 @@ public class ConvergencePairManager extends BaseManager<BRockConvergencePair> {
             }
         }
 
+        var ys = pairs.stream().mapToDouble(pair -> pair.getZeroY()).toArray();
+        var xs = pairs.stream().mapToDouble(pair -> pair.getZeroX()).toArray();
+        cooTrans.toWgs84(ys, xs, xs, ys);
+        for (int i = 0; i < pairs.size(); i++) {
+            if (!Double.isNaN(ys[i]) && !Double.isNaN(xs[i])) {
+                pairs.get(i).setLat(ys[i]);
+                pairs.get(i).setLon(xs[i]);
+            }
+        }
+
         for (var pair : pairs) {
             var observations = new ArrayList<BRockConvergencePairObservation>();
             var dateToObservation1 = new HashMap<LocalDateTime, BXyzPointObservation>();
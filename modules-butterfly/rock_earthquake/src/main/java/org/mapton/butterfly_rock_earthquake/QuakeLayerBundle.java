@@ -53,6 +53,7 @@ public class QuakeLayerBundle extends BfLayerBundle {
         mOptionsView = new QuakeOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -68,6 +69,13 @@ public class QuakeLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BRockEarthquake p) {
+        var attrs = new PointPlacemarkAttributes(mAttributeManager.getPinAttributes(Color.WHITE));
+        attrs.setImageColor(QuakeHelper.getColor(p));
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_EarthquakeAction(), SDict.ROCK_MECHANICS.toString(), "QuakeTopComponent");
     }
@@ -99,7 +107,8 @@ public class QuakeLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems().reversed()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems().reversed(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -144,8 +153,7 @@ public class QuakeLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BRockEarthquake p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = new PointPlacemarkAttributes(mAttributeManager.getPinAttributes(Color.WHITE));
-        attrs.setImageColor(QuakeHelper.getColor(p));
+        var attrs = getPinAttributes(p);
         p.setValue(BKey.PIN_URL, attrs.getImageAddress());
         p.setValue(BKey.PIN_COLOR, attrs.getImageColor());
 
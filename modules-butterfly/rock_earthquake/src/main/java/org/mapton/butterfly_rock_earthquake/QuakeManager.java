@@ -16,11 +16,14 @@
 package org.mapton.butterfly_rock_earthquake;
 
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ListChangeListener;
+import org.mapton.api.MLatLon;
+import org.mapton.api.MLatLonBox;
 import org.mapton.api.MTemporalRange;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_core.api.ButterflyManager;
@@ -36,6 +39,12 @@ import org.openide.util.Exceptions;
  */
 public class QuakeManager extends BaseManager<BRockEarthquake> {
 
+    /**
+     * Earthquakes within this distance, in meters, of the control points of
+     * the loaded Butterfly are shown.
+     */
+    public static final double FILTER_DISTANCE = 500_000;
+
     private final ObjectProperty<Butterfly> mButterflyProperty = new SimpleObjectProperty<>();
     private final EarthquakeGenerator mEarthquakeGenerator = EarthquakeGenerator.getInstance();
     private final QuakeMultiChartAggregate mMultiChartAggregate = new QuakeMultiChartAggregate();
@@ -56,8 +65,14 @@ public class QuakeManager extends BaseManager<BRockEarthquake> {
             mButterflyProperty.set(butterfly);
         });
 
+        butterflyManager.butterflyProperty().addListener((p, o, n) -> {
+            setFilter(n);
+        });
+
         if (butterflyManager.getButterfly() == null) {
             mEarthquakeGenerator.parse();
+        } else {
+            setFilter(butterflyManager.getButterfly());
         }
     }
 
@@ -116,6 +131,48 @@ public class QuakeManager extends BaseManager<BRockEarthquake> {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Limit the earthquakes to the extent of the control points, plus
+     * {@link #FILTER_DISTANCE}, from their first zero date.
+     *
+     * @param butterfly
+     */
+    private void setFilter(Butterfly butterfly) {
+        if (butterfly == null) {
+            mEarthquakeGenerator.setFilter(null, null, null);
+            return;
+        }
+
+        var points = butterfly.topo().getControlPoints().stream()
+                .filter(p -> p.getLat() != null && p.getLon() != null)
+                .toList();
+        if (points.isEmpty()) {
+            mEarthquakeGenerator.setFilter(null, null, null);
+            return;
+        }
+
+        var latLonBox = new MLatLonBox(points.stream().map(p -> new MLatLon(p.getLat(), p.getLon())).toList());
+        var southWest = latLonBox.getSouthWest();
+        var northEast = latLonBox.getNorthEast();
+        var region = new MLatLonBox(
+                new MLatLon(
+                        Math.max(-90, southWest.getDestinationPoint(180, FILTER_DISTANCE).getLatitude()),
+                        Math.max(-180, southWest.getDestinationPoint(270, FILTER_DISTANCE).getLongitude())),
+                new MLatLon(
+                        Math.min(90, northEast.getDestinationPoint(0, FILTER_DISTANCE).getLatitude()),
+                        Math.min(180, northEast.getDestinationPoint(90, FILTER_DISTANCE).getLongitude()))
+        );
+
+        var from = points.stream()
+                .map(p -> p.getDateZero())
+                .filter(Objects::nonNull)
+                .min(Comparable::compareTo)
+                .map(d -> d.atStartOfDay())
+                .orElse(null);
+
+        mEarthquakeGenerator.setFilter(region, from, null);
+    }
+
     private static class Holder {
 
         private static final QuakeManager INSTANCE = new QuakeManager();
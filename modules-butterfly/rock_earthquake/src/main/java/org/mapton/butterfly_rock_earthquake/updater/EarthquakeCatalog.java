@@ -0,0 +1,409 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_rock_earthquake.updater;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.mapton.api.MLatLonBox;
+import org.mapton.butterfly_format.types.BDimension;
+import org.mapton.butterfly_format.types.rock.BRockEarthquake;
+import org.openide.util.Exceptions;
+
+/**
+ * Persistent catalog of earthquakes, keyed by external id.
+ * <p>
+ * The catalog remembers the size and modification time of every ingested
+ * feed file and only parses files that are new or changed. Events of a later
+ * file replace earlier ones with the same id, and events are kept when the
+ * feed files they came from are removed. Files that fail to parse are not
+ * retried until they change. Only the {@link #MAX_SIZE} latest events are
+ * kept. Queries on region and time window are served by a one degree grid of
+ * time sorted cells.
+ *
+ * @author Patrik Karlström
+ */
+public class EarthquakeCatalog {
+
+    public static final int MAX_SIZE = 250_000;
+    private static final int MAGIC = 0x4551_4331;
+    private static final int MAX_QUERY_CELLS = 4096;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private long[] mEpochSeconds;
+    private final File mFile;
+    private HashMap<Integer, int[]> mGrid;
+    private final HashMap<String, BRockEarthquake> mIdToEarthquake = new HashMap<>();
+    private boolean mLoaded;
+    private final HashMap<String, long[]> mPathToSizeAndModified = new HashMap<>();
+    private BRockEarthquake[] mTimeSorted;
+
+    /**
+     * @return a new earthquake with the values not taken from the feeds set
+     */
+    public static BRockEarthquake createEarthquake() {
+        var q = new BRockEarthquake();
+        q.setDimension(BDimension._1d);
+        q.setAlarm2Id("");
+        q.setRollingFormula("");
+        q.setSparse("");
+        q.setUnitDiff("");
+        q.setFrequencyDefault(0);
+        q.setFrequencyHigh(0);
+        q.setFrequencyHighParam("");
+
+        return q;
+    }
+
+    private static int getCell(double lat, double lon) {
+        int row = (int) Math.floor(Math.clamp(lat, -90.0, 89.999999) + 90);
+        int col = (int) Math.floor(Math.clamp(lon, -180.0, 179.999999) + 180);
+
+        return row * 360 + col;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public EarthquakeCatalog(File file) {
+        mFile = file;
+    }
+
+    /**
+     * Parse the new and changed files of dir into the catalog, and save it if
+     * anything changed.
+     *
+     * @param dir
+     * @param filter
+     * @param parser
+     * @return true if the catalog changed
+     */
+    public synchronized boolean ingest(File dir, Predicate<File> filter, FeedParser parser) {
+        load();
+        var changed = false;
+        var existingPaths = new HashSet<String>();
+
+        try (var paths = Files.walk(dir.toPath())) {
+            var files = paths.filter(Files::isRegularFile)
+                    .map(path -> path.toFile())
+                    .filter(filter)
+                    .sorted(Comparator.comparingLong(File::lastModified))
+                    .toList();
+
+            for (var file : files) {
+                var path = file.getAbsolutePath();
+                existingPaths.add(path);
+                var sizeAndModified = new long[]{file.length(), file.lastModified()};
+                if (Arrays.equals(sizeAndModified, mPathToSizeAndModified.get(path))) {
+                    continue;
+                }
+
+                try {
+                    for (var q : parser.parse(file)) {
+                        if (q.getExternalId() != null) {
+                            mIdToEarthquake.put(q.getExternalId(), q);
+                        }
+                    }
+                } catch (Exception ex) {
+                    Logger.getLogger(EarthquakeCatalog.class.getName()).log(Level.WARNING, "Failed to parse " + file, ex);
+                }
+                //Failed files are seen too, they are parsed again once changed
+                mPathToSizeAndModified.put(path, sizeAndModified);
+                changed = true;
+            }
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+        }
+
+        var dirPath = dir.getAbsolutePath() + File.separator;
+        changed = mPathToSizeAndModified.keySet().removeIf(path -> path.startsWith(dirPath) && !existingPaths.contains(path)) || changed;
+
+        if (mIdToEarthquake.size() > MAX_SIZE) {
+            mIdToEarthquake.values().stream()
+                    .sorted(Comparator.comparingLong(q -> toEpochSecond(q.getDateLatest())))
+                    .limit(mIdToEarthquake.size() - MAX_SIZE)
+                    .toList()
+                    .forEach(q -> mIdToEarthquake.remove(q.getExternalId()));
+            changed = true;
+        }
+
+        if (changed) {
+            mTimeSorted = null;
+            save();
+        }
+
+        return changed;
+    }
+
+    /**
+     * @param region null for all
+     * @param from inclusive, null for no lower limit
+     * @param to inclusive, null for no upper limit
+     * @return the earthquakes within region and time window, latest first
+     */
+    public synchronized ArrayList<BRockEarthquake> query(MLatLonBox region, LocalDateTime from, LocalDateTime to) {
+        load();
+        if (mTimeSorted == null) {
+            index();
+        }
+
+        long fromSecond = from == null ? NO_DATE : toEpochSecond(from);
+        long toSecond = to == null ? Long.MAX_VALUE : toEpochSecond(to);
+        var result = new ArrayList<BRockEarthquake>();
+
+        if (region == null) {
+            for (int i = lowerBound(null, fromSecond); i < mTimeSorted.length && mEpochSeconds[i] <= toSecond; i++) {
+                result.add(mTimeSorted[i]);
+            }
+        } else {
+            var south = region.getSouthWest().getLatitude();
+            var west = region.getSouthWest().getLongitude();
+            var north = region.getNorthEast().getLatitude();
+            var east = region.getNorthEast().getLongitude();
+            int southWestCell = getCell(south, west);
+            int northEastCell = getCell(north, east);
+            int rows = northEastCell / 360 - southWestCell / 360 + 1;
+            int cols = northEastCell % 360 - southWestCell % 360 + 1;
+
+            if ((long) rows * cols > MAX_QUERY_CELLS) {
+                for (int i = lowerBound(null, fromSecond); i < mTimeSorted.length && mEpochSeconds[i] <= toSecond; i++) {
+                    addIfWithin(result, mTimeSorted[i], south, west, north, east);
+                }
+            } else {
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        var indices = mGrid.get(southWestCell + row * 360 + col);
+                        if (indices == null) {
+                            continue;
+                        }
+                        for (int i = lowerBound(indices, fromSecond); i < indices.length && mEpochSeconds[indices[i]] <= toSecond; i++) {
+                            addIfWithin(result, mTimeSorted[indices[i]], south, west, north, east);
+                        }
+                    }
+                }
+            }
+        }
+
+        result.sort(Comparator.comparing(BRockEarthquake::getDateLatest, Comparator.nullsLast(Comparator.naturalOrder())).reversed());
+
+        return result;
+    }
+
+    public synchronized int size() {
+        load();
+
+        return mIdToEarthquake.size();
+    }
+
+    private void addIfWithin(ArrayList<BRockEarthquake> result, BRockEarthquake q, double south, double west, double north, double east) {
+        if (q.getLat() >= south && q.getLat() <= north && q.getLon() >= west && q.getLon() <= east) {
+            result.add(q);
+        }
+    }
+
+    private void index() {
+        var earthquakes = new ArrayList<>(mIdToEarthquake.values());
+        earthquakes.removeIf(q -> q.getLat() == null || q.getLon() == null);
+        earthquakes.sort(Comparator.comparingLong(q -> toEpochSecond(q.getDateLatest())));
+        mTimeSorted = earthquakes.toArray(BRockEarthquake[]::new);
+        mEpochSeconds = new long[mTimeSorted.length];
+
+        var cellToIndices = new HashMap<Integer, ArrayList<Integer>>();
+        for (int i = 0; i < mTimeSorted.length; i++) {
+            var q = mTimeSorted[i];
+            mEpochSeconds[i] = toEpochSecond(q.getDateLatest());
+            cellToIndices.computeIfAbsent(getCell(q.getLat(), q.getLon()), k -> new ArrayList<>()).add(i);
+        }
+
+        mGrid = new HashMap<>();
+        cellToIndices.forEach((cell, indices) -> mGrid.put(cell, indices.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private void load() {
+        if (mLoaded) {
+            return;
+        }
+
+        mLoaded = true;
+        if (!mFile.isFile()) {
+            return;
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(mFile.toPath())))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not an earthquake catalog: " + mFile);
+            }
+
+            int fileCount = input.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                mPathToSizeAndModified.put(input.readUTF(), new long[]{input.readLong(), input.readLong()});
+            }
+
+            int earthquakeCount = input.readInt();
+            for (int i = 0; i < earthquakeCount; i++) {
+                var q = read(input);
+                mIdToEarthquake.put(q.getExternalId(), q);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(EarthquakeCatalog.class.getName()).log(Level.WARNING, "Rebuilding " + mFile, ex);
+            mPathToSizeAndModified.clear();
+            mIdToEarthquake.clear();
+        }
+    }
+
+    /**
+     * @param indices into the time sorted arrays, null for all
+     * @param epochSecond
+     * @return the position of the first item at or after epochSecond
+     */
+    private int lowerBound(int[] indices, long epochSecond) {
+        int low = 0;
+        int high = indices == null ? mEpochSeconds.length : indices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mEpochSeconds[indices == null ? mid : indices[mid]] < epochSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private BRockEarthquake read(DataInputStream input) throws IOException {
+        var q = createEarthquake();
+        q.setExternalId(readString(input));
+        q.setName(readString(input));
+        q.setClassification(readString(input));
+        q.setCategory(readString(input));
+        q.setStatus(readString(input));
+        q.setTag(readString(input));
+        q.setMag(readDouble(input));
+        q.setMagType(readString(input));
+        q.setSig(input.readBoolean() ? input.readInt() : null);
+        q.setLat(readDouble(input));
+        q.setLon(readDouble(input));
+        q.setZeroZ(readDouble(input));
+        long epochSecond = input.readLong();
+        q.setDateLatest(epochSecond == NO_DATE ? null : LocalDateTime.ofEpochSecond(epochSecond, input.readInt(), ZoneOffset.UTC));
+        q.setUnit(q.getMagType());
+        q.setOrigin(readString(input));
+        q.setOperator(readString(input));
+        q.setGroup(readString(input));
+        q.setAlarm1Id(readString(input));
+        q.setFrequency(input.readInt());
+
+        return q;
+    }
+
+    private Double readDouble(DataInputStream input) throws IOException {
+        double value = input.readDouble();
+
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private void save() {
+        var tempFile = new File(mFile.getParentFile(), mFile.getName() + ".tmp");
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+            output.writeInt(MAGIC);
+            output.writeInt(mPathToSizeAndModified.size());
+            for (var entry : mPathToSizeAndModified.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue()[0]);
+                output.writeLong(entry.getValue()[1]);
+            }
+
+            output.writeInt(mIdToEarthquake.size());
+            for (var q : mIdToEarthquake.values()) {
+                write(output, q);
+            }
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+            return;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), mFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+        }
+    }
+
+    private void write(DataOutputStream output, BRockEarthquake q) throws IOException {
+        writeString(output, q.getExternalId());
+        writeString(output, q.getName());
+        writeString(output, q.getClassification());
+        writeString(output, q.getCategory());
+        writeString(output, q.getStatus());
+        writeString(output, q.getTag());
+        writeDouble(output, q.getMag());
+        writeString(output, q.getMagType());
+        output.writeBoolean(q.getSig() != null);
+        if (q.getSig() != null) {
+            output.writeInt(q.getSig());
+        }
+        writeDouble(output, q.getLat());
+        writeDouble(output, q.getLon());
+        writeDouble(output, q.getZeroZ());
+        output.writeLong(toEpochSecond(q.getDateLatest()));
+        if (q.getDateLatest() != null) {
+            output.writeInt(q.getDateLatest().getNano());
+        }
+        writeString(output, q.getOrigin());
+        writeString(output, q.getOperator());
+        writeString(output, q.getGroup());
+        writeString(output, q.getAlarm1Id());
+        output.writeInt(q.getFrequency() == null ? 0 : q.getFrequency());
+    }
+
+    private void writeDouble(DataOutputStream output, Double value) throws IOException {
+        output.writeDouble(value == null ? Double.NaN : value);
+    }
+
+    private void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    @FunctionalInterface
+    public interface FeedParser {
+
+        List<BRockEarthquake> parse(File file) throws Exception;
+    }
+}
@@ -20,13 +20,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -37,14 +34,13 @@ import javafx.collections.ObservableList;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
+import org.mapton.api.MLatLonBox;
 import org.mapton.api.MPrint;
 import org.mapton.api.Mapton;
 import org.mapton.butterfly_format.external.usgs.earthquake.EqFeature;
 import org.mapton.butterfly_format.external.usgs.earthquake.EqResponse;
-import org.mapton.butterfly_format.types.BDimension;
 import org.mapton.butterfly_format.types.rock.BRockEarthquake;
 import org.n52.jackson.datatype.jts.JtsModule;
-import org.openide.util.Exceptions;
 import se.trixon.almond.util.DateHelper;
 import se.trixon.almond.util.SystemHelper;
 import se.trixon.almond.util.fx.FxHelper;
@@ -60,6 +56,10 @@ public class EarthquakeGenerator {
     private final File mCacheDir;
     private final File mCacheDirSnsn;
     private final File mCacheDirUsgs;
+    private final EarthquakeCatalog mCatalog;
+    private volatile LocalDateTime mFilterFrom;
+    private volatile MLatLonBox mFilterRegion;
+    private volatile LocalDateTime mFilterTo;
     private final ObjectProperty<ObservableList<BRockEarthquake>> mItemsProperty = new SimpleObjectProperty<>();
     private MPrint mPrint;
     private final File mTrackerFile;
@@ -82,6 +82,7 @@ public class EarthquakeGenerator {
         mCacheDirSnsn.mkdirs();
         mCacheDirUsgs.mkdirs();
         mTrackerFile = new File(mCacheDirUsgs, "tracker");
+        mCatalog = new EarthquakeCatalog(new File(mCacheDir, "catalog.bin"));
     }
 
     public ObservableList<BRockEarthquake> getItems() {
@@ -97,134 +98,105 @@ public class EarthquakeGenerator {
     }
 
     public void parseGeoJson() {
-        var earthquakes = new ArrayList<BRockEarthquake>();
-        var existingIds = new HashSet<String>();
-
         var mapper = new ObjectMapper();
         mapper.registerModule(new JtsModule());
 
-        try (var paths = Files.walk(Paths.get(mCacheDirUsgs.toURI()))) {
-            paths.filter(Files::isRegularFile)
-                    .map(path -> path.toFile())
-                    .filter(file -> file.getName().endsWith(".geojson"))
-                    .forEach(file -> {
-                        try {
-                            var data = mapper.readValue(file, EqResponse.class);
-                            var earthquakeFileItems = data.getFeatures().stream()
-                                    .filter(f -> !existingIds.contains(f.getId()))
-                                    .map(f -> {
-                                        var q = new BRockEarthquake();
-                                        var place = f.getProperty("place", String.class);
-                                        var region = StringUtils.substringAfterLast(place, ", ");
-                                        var placeMinusRegion = Strings.CI.removeEnd(place, ", " + region);
-                                        region = replace(region);
-                                        var polar = StringUtils.substringBefore(place, " of ");
-                                        var town = StringUtils.substringAfter(place, " of ");
-                                        var name = "%s (%s of)".formatted(town, polar);
-                                        if (Strings.CI.contains(place, ",")) {
-                                            q.setName("%s, %s".formatted(region, placeMinusRegion));
-                                        } else {
-                                            q.setName(place);
-                                        }
-                                        q.setClassification(Objects.toString(getCapitalized(f, "alert"), "-"));
-                                        q.setCategory(getCapitalized(f, "type"));
-                                        q.setStatus(getCapitalized(f, "status"));
-                                        var types = f.getProperty("types", String.class);
-                                        types = StringUtils.mid(types, 1, types.length() - 2);
-                                        q.setTag(types);
-                                        q.setMag(f.getProperty("mag", Double.class));
-                                        q.setMagType(f.getProperty("magType", String.class));
-                                        q.setSig(f.getProperty("sig", Integer.class));
-                                        q.setExternalId(f.getId());
-                                        q.setLon(f.getGeometry().getX());
-                                        q.setLat(f.getGeometry().getY());
-                                        q.setZeroZ(f.getGeometry().getCoordinate().getZ());
-                                        existingIds.add(f.getId());
-                                        var time = f.getProperty("time", Long.class);
-                                        q.setDateLatest(DateHelper.convertUtcMillisToLocalDateTime(time, ZoneId.of("Z")));
-                                        q.setUnit(q.getMagType());
-                                        q.setOrigin(getUpper(f, "net"));
-                                        var sources = f.getProperty("sources", String.class);
-                                        sources = StringUtils.mid(sources, 1, sources.length() - 2);
-                                        q.setOperator(sources);
-                                        var group = StringUtils.substringAfterLast(place, ", ");
-                                        group = replace(group);
-                                        q.setGroup(group);
-                                        var tsunami = f.getProperty("tsunami", Integer.class);
-                                        q.setAlarm1Id(tsunami == 1 ? "Tsunami" : "");
-                                        var felt = f.getProperty("felt", Integer.class);
-                                        q.setFrequency(felt == null ? 0 : felt);
-//
-                                        q.setDimension(BDimension._1d);
-                                        q.setAlarm2Id("");
-                                        q.setRollingFormula("");
-                                        q.setSparse("");
-                                        q.setUnitDiff("");
-                                        q.setFrequencyDefault(0);
-                                        q.setFrequencyHigh(0);
-                                        q.setFrequencyHighParam("");
-
-                                        return q;
-                                    })
-                                    .toList();
-                            earthquakes.addAll(earthquakeFileItems);
-                        } catch (IOException ex) {
-                            Exceptions.printStackTrace(ex);
+        mCatalog.ingest(mCacheDirUsgs, file -> file.getName().endsWith(".geojson"), file -> {
+            return mapper.readValue(file, EqResponse.class).getFeatures().stream()
+                    .map(f -> {
+                        var q = EarthquakeCatalog.createEarthquake();
+                        var place = f.getProperty("place", String.class);
+                        var region = StringUtils.substringAfterLast(place, ", ");
+                        var placeMinusRegion = Strings.CI.removeEnd(place, ", " + region);
+                        region = replace(region);
+                        if (Strings.CI.contains(place, ",")) {
+                            q.setName("%s, %s".formatted(region, placeMinusRegion));
+                        } else {
+                            q.setName(place);
                         }
-
-                    });
-        } catch (IOException ex) {
-            Exceptions.printStackTrace(ex);
-        }
-
-        earthquakes.sort(Comparator.comparing(BRockEarthquake::getDateLatest).reversed());
-        FxHelper.runLater(() -> mItemsProperty.get().setAll(earthquakes));
+                        q.setClassification(Objects.toString(getCapitalized(f, "alert"), "-"));
+                        q.setCategory(getCapitalized(f, "type"));
+                        q.setStatus(getCapitalized(f, "status"));
+                        var types = f.getProperty("types", String.class);
+                        types = StringUtils.mid(types, 1, types.length() - 2);
+                        q.setTag(types);
+                        q.setMag(f.getProperty("mag", Double.class));
+                        q.setMagType(f.getProperty("magType", String.class));
+                        q.setSig(f.getProperty("sig", Integer.class));
+                        q.setExternalId(f.getId());
+                        q.setLon(f.getGeometry().getX());
+                        q.setLat(f.getGeometry().getY());
+                        q.setZeroZ(f.getGeometry().getCoordinate().getZ());
+                        var time = f.getProperty("time", Long.class);
+                        q.setDateLatest(DateHelper.convertUtcMillisToLocalDateTime(time, ZoneId.of("Z")));
+                        q.setUnit(q.getMagType());
+                        q.setOrigin(getUpper(f, "net"));
+                        var sources = f.getProperty("sources", String.class);
+                        sources = StringUtils.mid(sources, 1, sources.length() - 2);
+                        q.setOperator(sources);
+                        var group = StringUtils.substringAfterLast(place, ", ");
+                        group = replace(group);
+                        q.setGroup(group);
+                        var tsunami = f.getProperty("tsunami", Integer.class);
+                        q.setAlarm1Id(tsunami == 1 ? "Tsunami" : "");
+                        var felt = f.getProperty("felt", Integer.class);
+                        q.setFrequency(felt == null ? 0 : felt);
+
+                        return q;
+                    })
+                    .toList();
+        });
+
+        publish();
     }
 
     public void parseXml() {
-        var earthquakes = new ArrayList<BRockEarthquake>();
-        var existingIds = new HashSet<String>();
         var parser = new QuakeParser();
-        var quakes = parser.parseRecursive(mCacheDirSnsn).stream()
-                .filter(q -> q.getMagnitude().getValue() != null)
-                .map(xmlQuake -> {
-                    var q = new BRockEarthquake();
-                    q.setName(xmlQuake.getPlace());
-                    q.setClassification("TODO");
-                    q.setCategory(xmlQuake.getType().value());
-                    q.setStatus("status");
-                    q.setTag("tag");
-                    q.setMag(xmlQuake.getMagnitude().getValue());
-                    q.setMagType(xmlQuake.getMagnitude().getType());
-                    q.setSig(666);
-                    q.setExternalId(xmlQuake.getPublicId());
-                    q.setLat(xmlQuake.getOrigin().getLatitude());
-                    q.setLon(xmlQuake.getOrigin().getLongitude());
-                    q.setZeroZ(xmlQuake.getOrigin().getDepth());
-                    existingIds.add(xmlQuake.getPublicId());
-                    q.setDateLatest(xmlQuake.getOrigin().getTime().toLocalDateTime());
-                    q.setUnit(q.getMagType());
-                    q.setOrigin(xmlQuake.getCreationInfo().getAgencyId());
-                    q.setOperator(xmlQuake.getCreationInfo().getAuthor());
-                    q.setGroup("TODO");
-                    q.setAlarm1Id("TODO");
-                    q.setFrequency(666);
-//
-                    q.setDimension(BDimension._1d);
-                    q.setAlarm2Id("");
-                    q.setRollingFormula("");
-                    q.setSparse("");
-                    q.setUnitDiff("");
-                    q.setFrequencyDefault(0);
-                    q.setFrequencyHigh(0);
-                    q.setFrequencyHighParam("");
-
-                    return q;
-                })
-                .sorted(
-                        Comparator.comparing(BRockEarthquake::getDateLatest, Comparator.nullsLast(Comparator.naturalOrder())).reversed()
-                ).toList();
-        FxHelper.runLater(() -> mItemsProperty.get().setAll(quakes));
+        mCatalog.ingest(mCacheDirSnsn, file -> true, file -> {
+            return parser.parse(file).stream()
+                    .filter(q -> q.getMagnitude().getValue() != null)
+                    .map(xmlQuake -> {
+                        var q = EarthquakeCatalog.createEarthquake();
+                        q.setName(xmlQuake.getPlace());
+                        q.setClassification("TODO");
+                        q.setCategory(xmlQuake.getType().value());
+                        q.setStatus("status");
+                        q.setTag("tag");
+                        q.setMag(xmlQuake.getMagnitude().getValue());
+                        q.setMagType(xmlQuake.getMagnitude().getType());
+                        q.setSig(666);
+                        q.setExternalId(xmlQuake.getPublicId());
+                        q.setLat(xmlQuake.getOrigin().getLatitude());
+                        q.setLon(xmlQuake.getOrigin().getLongitude());
+                        q.setZeroZ(xmlQuake.getOrigin().getDepth());
+                        q.setDateLatest(xmlQuake.getOrigin().getTime().toLocalDateTime());
+                        q.setUnit(q.getMagType());
+                        q.setOrigin(xmlQuake.getCreationInfo().getAgencyId());
+                        q.setOperator(xmlQuake.getCreationInfo().getAuthor());
+                        q.setGroup("TODO");
+                        q.setAlarm1Id("TODO");
+                        q.setFrequency(666);
+
+                        return q;
+                    })
+                    .toList();
+        });
+
+        publish();
+    }
+
+    /**
+     * Limit the published earthquakes to a region and time window.
+     *
+     * @param region null for all
+     * @param from null for no lower limit
+     * @param to null for no upper limit
+     */
+    public void setFilter(MLatLonBox region, LocalDateTime from, LocalDateTime to) {
+        mFilterRegion = region;
+        mFilterFrom = from;
+        mFilterTo = to;
+        Thread.ofVirtual().start(() -> publish());
     }
 
     public void update(MPrint print) throws IOException {
@@ -285,6 +257,11 @@ public class EarthquakeGenerator {
         return false;
     }
 
+    private void publish() {
+        var earthquakes = mCatalog.query(mFilterRegion, mFilterFrom, mFilterTo);
+        FxHelper.runLater(() -> mItemsProperty.get().setAll(earthquakes));
+    }
+
     private String replace(String s) {
         return StringUtils.replaceEach(s,
                 new String[]{"CA", "NV", "MX"},
@@ -19,6 +19,7 @@ import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.util.ArrayList;
 import javafx.scene.Node;
 import org.apache.commons.lang3.ObjectUtils;
@@ -52,6 +53,7 @@ public class ExtensoLayerBundle extends BfLayerBundle {
         mOptionsView = new ExtensoOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -67,6 +69,13 @@ public class ExtensoLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BRockExtensometer extenso) {
+        var attrs = mAttributeManager.getPinAttributes(0);
+        attrs = PinPaddle.E_BLANK.applyToCopy(attrs);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_ExtensometerAction(), SDict.ROCK_MECHANICS.toString(), "ExtensoTopComponent");
 
@@ -101,7 +110,8 @@ public class ExtensoLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var extenso : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var extenso : points) {
                     var mapObjects = new ArrayList<AVListImpl>();
 
                     if (ObjectUtils.allNotNull(extenso.getLat(), extenso.getLon())) {
@@ -148,8 +158,7 @@ public class ExtensoLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BRockExtensometer extenso, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(0);
-        attrs = PinPaddle.E_BLANK.applyToCopy(attrs);
+        var attrs = getPinAttributes(extenso);
         var placemark = new PointPlacemark(position);
 
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -18,16 +18,16 @@ package org.mapton.butterfly_rock_extensometer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.TreeSet;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.math3.util.FastMath;
-import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_core.api.ButterflyManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.rock.BRockExtensometer;
 import org.mapton.butterfly_format.types.rock.BRockExtensometerPoint;
 import org.mapton.butterfly_format.types.rock.BRockExtensometerPointObservation;
@@ -84,51 +84,52 @@ public class ExtensoManager extends BaseManager<BRockExtensometer> {
             }
 
             var nameToPoint = extensometersPoints.stream().collect(Collectors.toMap(BRockExtensometerPoint::getName, Function.identity()));
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BRockExtensometerPointObservation>>();
-            for (var o : extensometersPointsObservations) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
+            BObservationBinder.bind(extensometersPoints, extensometersPointsObservations, (p, observations) -> {
+                if (!observations.isEmpty()) {
+                    p.ext().setDateFirst(observations.getFirst().getDate());
+                    p.setDateLatest(observations.getLast().getDate());
+                } else {
+                    p.ext().setDateFirst(LocalDateTime.MIN);
+                }
+
+                p.ext().setDateLatest(p.getDateLatest());
+                p.ext().setObservationsAllRaw(observations);
+                p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
+                for (var o : p.ext().getObservationsAllRaw()) {
+                    if (o.isZeroMeasurement()) {
+                        p.ext().setStoredZeroDateTime(o.getDate());
+                        break;
+                    }
+                }
+            });
 
             extensometers.forEach(ext -> {
                 var refPoint = ButterflyManager.getInstance().getButterfly().topo().getControlPointByName(ext.getReferencePointName());
                 ext.ext().setReferencePoint(refPoint);
 
                 for (var pointName : StringUtils.split(ext.getSensors(), ",")) {
-                    var p = nameToPoint.get(pointName);
-                    ext.getPoints().add(p);
-
-                    var observations = nameToObservations.getOrDefault(pointName, new ArrayList<>());
-                    if (!observations.isEmpty()) {
-                        p.ext().setDateFirst(observations.getFirst().getDate());
-                        p.setDateLatest(observations.getLast().getDate());
-                    } else {
-                        p.ext().setDateFirst(LocalDateTime.MIN);
-                    }
-
-                    p.ext().setDateLatest(p.getDateLatest());
-                    p.ext().setObservationsAllRaw(observations);
-                    p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
-                    for (var o : p.ext().getObservationsAllRaw()) {
-                        if (o.isZeroMeasurement()) {
-                            p.ext().setStoredZeroDateTime(o.getDate());
-                            break;
-                        }
-                    }
+                    ext.getPoints().add(nameToPoint.get(pointName));
                 }
             });
 
-            var allDates = new TreeSet<LocalDateTime>();
+            var temporalStatsBuilder = new BTemporalStats.Builder();
             extensometers.forEach(ext -> {
                 ext.ext().getObservationsAllRaw().clear();
                 ext.ext().getObservationsTimeFiltered().clear();
+                ext.ext().invalidateTimeSeries();
                 var minLastDate = LocalDateTime.MAX;
                 for (var p : ext.getPoints()) {
                     var last = p.ext().getDateLatest();
                     if (last != null && last.isBefore(minLastDate) && p.getFrequency() > 0) {
                         minLastDate = last;
                     }
-                    var dates = new TreeSet<LocalDateTime>(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-                    allDates.addAll(dates);
+                    LocalDateTime first = null;
+                    for (var o : p.ext().getObservationsAllRaw()) {
+                        temporalStatsBuilder.add(o.getDate());
+                        if (first == null || o.getDate().isBefore(first)) {
+                            first = o.getDate();
+                        }
+                    }
                     ext.ext().getObservationsAllRaw().addAll(p.ext().getObservationsAllRaw());
                     ext.ext().getObservationsTimeFiltered().addAll(p.ext().getObservationsTimeFiltered());
                     ext.setDateRolling(p.getDateRolling());
@@ -136,8 +137,8 @@ public class ExtensoManager extends BaseManager<BRockExtensometer> {
                     ext.setDateValidTo(p.getDateValidTo());
                     ext.setDateZero(p.getDateZero());
 
-                    if (!dates.isEmpty()) {
-                        ext.ext().setDateFirst(dates.first());
+                    if (first != null) {
+                        ext.ext().setDateFirst(first);
                     }
                 }
 
@@ -145,8 +146,10 @@ public class ExtensoManager extends BaseManager<BRockExtensometer> {
                 ext.ext().setDateLatest(minLastDate);
             });
 
-            if (!allDates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(allDates.first(), allDates.last()));
+            var temporalStats = temporalStatsBuilder.build();
+            setTemporalStats(temporalStats);
+
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -203,6 +206,11 @@ public class ExtensoManager extends BaseManager<BRockExtensometer> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("rockExtensometersPointsObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BRockExtensometer> items) {
         throw new UnsupportedOperationException("Not supported yet.");
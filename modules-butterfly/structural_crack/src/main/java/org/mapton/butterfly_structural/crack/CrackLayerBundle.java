@@ -20,6 +20,7 @@ import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.Cylinder;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.util.ArrayList;
 import javafx.scene.Node;
 import org.apache.commons.lang3.ObjectUtils;
@@ -57,6 +58,7 @@ public class CrackLayerBundle extends BfLayerBundle {
         mOptionsView = new CrackOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -72,6 +74,13 @@ public class CrackLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BStructuralCrackPoint p) {
+        var attrs = mAttributeManager.getPinAttributes(p);
+        attrs = PinPaddle.W_CIRCLE.applyToCopy(attrs);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Mapton.addWarning(Bundle.CTL_CrackAction(), 5), SDict.STRUCTURAL.toString(), "CrackTopComponent");
 
@@ -114,7 +123,8 @@ public class CrackLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), CrackHelper::getAlarmLevel, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -164,8 +174,7 @@ public class CrackLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BStructuralCrackPoint p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(p);
-        attrs = PinPaddle.W_CIRCLE.applyToCopy(attrs);
+        var attrs = getPinAttributes(p);
 
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -18,21 +18,19 @@ package org.mapton.butterfly_structural.crack;
 import com.sun.jna.platform.KeyboardUtils;
 import java.awt.event.KeyEvent;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
-import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.structural.BStructuralCrackPoint;
-import org.mapton.butterfly_format.types.structural.BStructuralCrackPointObservation;
 import org.mapton.butterfly_structural.crack.chart.ChartAggregate;
 import org.mapton.butterfly_structural.crack.chart.CrackChartBuilder;
 import org.mapton.butterfly_structural.crack.chart.MultiChartAggregate;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -78,13 +76,7 @@ public class CrackManager extends BaseManager<BStructuralCrackPoint> {
             initAllItems(butterfly.structural().getCrackPoints());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BStructuralCrackPointObservation>>();
-            for (var o : butterfly.structural().getCrackPointsObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.structural().getCrackPoints()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
+            BObservationBinder.bind(butterfly.structural().getCrackPoints(), butterfly.structural().getCrackPointsObservations(), (p, observations) -> {
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.setDateLatest(observations.getLast().getDate());
@@ -101,7 +93,7 @@ public class CrackManager extends BaseManager<BStructuralCrackPoint> {
                         break;
                     }
                 }
-            }
+            });
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -110,13 +102,10 @@ public class CrackManager extends BaseManager<BStructuralCrackPoint> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -128,7 +117,6 @@ public class CrackManager extends BaseManager<BStructuralCrackPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BStructuralCrackPoint>();
 
         p:
@@ -155,16 +143,17 @@ public class CrackManager extends BaseManager<BStructuralCrackPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
         });
 
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("structuralCrackPointsObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BStructuralCrackPoint> items) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -20,6 +20,7 @@ import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
 import gov.nasa.worldwind.render.Cylinder;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.PointPlacemarkAttributes;
 import java.util.ArrayList;
 import javafx.scene.Node;
 import org.apache.commons.lang3.ObjectUtils;
@@ -56,6 +57,7 @@ public class TiltLayerBundle extends BfLayerBundle {
         mOptionsView = new TiltOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -71,6 +73,13 @@ public class TiltLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BStructuralTiltPoint p) {
+        var attrs = mAttributeManager.getPinAttributes(TiltHelper.getAlarmLevel(p));
+        attrs = PinPaddle.W_STAR.applyToCopy(attrs);
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_TiltAction(), SDict.STRUCTURAL.toString(), "TiltTopComponent");
 
@@ -114,7 +123,8 @@ public class TiltLayerBundle extends BfLayerBundle {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), TiltHelper::getAlarmLevel, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
                         var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
@@ -160,8 +170,7 @@ public class TiltLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BStructuralTiltPoint p, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(TiltHelper.getAlarmLevel(p));
-        attrs = PinPaddle.W_STAR.applyToCopy(attrs);
+        var attrs = getPinAttributes(p);
 
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
@@ -18,22 +18,20 @@ package org.mapton.butterfly_structural.tilt;
 import com.sun.jna.platform.KeyboardUtils;
 import java.awt.event.KeyEvent;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.apache.commons.math3.util.FastMath;
-import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.structural.BStructuralTiltPoint;
-import org.mapton.butterfly_format.types.structural.BStructuralTiltPointObservation;
 import org.mapton.butterfly_structural.tilt.chart.ChartAggregate;
 import org.mapton.butterfly_structural.tilt.chart.MultiChartAggregate;
 import org.mapton.butterfly_structural.tilt.chart.TiltChartBuilder;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -75,13 +73,7 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
             initAllItems(butterfly.structural().getTiltPoints());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BStructuralTiltPointObservation>>();
-            for (var o : butterfly.structural().getTiltPointsObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.structural().getTiltPoints()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
+            BObservationBinder.bind(butterfly.structural().getTiltPoints(), butterfly.structural().getTiltPointsObservations(), (p, observations) -> {
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.setDateLatest(observations.getLast().getDate());
@@ -98,7 +90,7 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
                         break;
                     }
                 }
-            }
+            });
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -107,13 +99,10 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -127,7 +116,6 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BStructuralTiltPoint>();
 
         p:
@@ -154,10 +142,8 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
             p.ext().setObservationsTimeFiltered(timeFilteredObservations);
             p.ext().calculateObservations(timeFilteredObservations);
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
             timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
                 o.ext().setDeltaZ(FastMath.hypot(o.ext().getDeltaX(), o.ext().getDeltaY()));
             });
         });
@@ -175,6 +161,11 @@ public class TiltManager extends BaseManager<BStructuralTiltPoint> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("structuralTiltPointsObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BStructuralTiltPoint> items) {
         throw new UnsupportedOperationException("Not supported yet.");
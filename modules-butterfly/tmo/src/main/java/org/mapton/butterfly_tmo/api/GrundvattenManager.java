@@ -15,20 +15,19 @@
  */
 package org.mapton.butterfly_tmo.api;
 
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.tmo.BGrundvatten;
-import org.mapton.butterfly_format.types.tmo.BGrundvattenObservation;
 import org.mapton.butterfly_tmo.grundvatten.GrundvattenPropertiesBuilder;
 import org.mapton.butterfly_tmo.grundvatten.chart.GrundvattenChartBuilder;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -63,21 +62,15 @@ public class GrundvattenManager extends BaseManager<BGrundvatten> {
             initAllItems(butterfly.tmo().getGrundvatten());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BGrundvattenObservation>>();
-            for (var o : butterfly.tmo().getGrundvattenObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.tmo().getGrundvatten()) {
-                p.ext().setObservationsAllRaw(nameToObservations.get(p.getName()));
+            BObservationBinder.bind(butterfly.tmo().getGrundvatten(), butterfly.tmo().getGrundvattenObservations(), (p, observations) -> {
+                p.ext().setObservationsAllRaw(observations);
                 p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
 
-                var grundvattenObservations = p.ext().getObservationsAllRaw();
-                if (!grundvattenObservations.isEmpty()) {
-                    p.ext().setDateFirst(grundvattenObservations.getFirst().getDate());
-                    p.ext().setDateLatest(grundvattenObservations.getLast().getDate());
+                if (!observations.isEmpty()) {
+                    p.ext().setDateFirst(observations.getFirst().getDate());
+                    p.ext().setDateLatest(observations.getLast().getDate());
                 }
-            }
+            });
 
             var dates = new TreeSet<>(getAllItems().stream()
                     .map(p -> p.ext().getDateLatest())
@@ -101,7 +94,6 @@ public class GrundvattenManager extends BaseManager<BGrundvatten> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BGrundvatten>();
 
         p:
@@ -124,17 +116,18 @@ public class GrundvattenManager extends BaseManager<BGrundvatten> {
                     .toList();
             p.ext().setObservationsTimeFiltered(new ArrayList<>(timefilteredObservations));
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timefilteredObservations));
             //p.ext().calculateObservations(timefilteredObservations);
-            timefilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
         });
 
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("tmoGrundvattenObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BGrundvatten> items) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -15,20 +15,19 @@
  */
 package org.mapton.butterfly_tmo.api;
 
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.tmo.BInfiltration;
-import org.mapton.butterfly_format.types.tmo.BInfiltrationObservation;
 import org.mapton.butterfly_tmo.infiltration.InfiltrationPropertiesBuilder;
 import org.mapton.butterfly_tmo.infiltration.chart.InfiltrationChartBuilder;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -67,21 +66,15 @@ public class InfiltrationManager extends BaseManager<BInfiltration> {
             initAllItems(butterfly.tmo().getInfiltration());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BInfiltrationObservation>>();
-            for (var o : butterfly.tmo().getInfiltrationObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.tmo().getInfiltration()) {
-                p.ext().setObservationsAllRaw(nameToObservations.get(p.getName()));
+            BObservationBinder.bind(butterfly.tmo().getInfiltration(), butterfly.tmo().getInfiltrationObservations(), (p, observations) -> {
+                p.ext().setObservationsAllRaw(observations);
                 p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
 
-                var observations = p.ext().getObservationsAllRaw();
                 if (!observations.isEmpty()) {
                     p.ext().setDateFirst(observations.getFirst().getDate());
                     p.ext().setDateLatest(observations.getLast().getDate());
                 }
-            }
+            });
 
             var dates = new TreeSet<>(getAllItems().stream()
                     .map(p -> p.ext().getDateLatest())
@@ -105,7 +98,6 @@ public class InfiltrationManager extends BaseManager<BInfiltration> {
 
     @Override
     protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
         var timeFilteredItems = new ArrayList<BInfiltration>();
 
         p:
@@ -128,17 +120,18 @@ public class InfiltrationManager extends BaseManager<BInfiltration> {
                     .toList();
             p.ext().setObservationsTimeFiltered(new ArrayList<>(timefilteredObservations));
 
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
+            p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timefilteredObservations));
             //p.ext().calculateObservations(timefilteredObservations);
-            timefilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
         });
 
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("tmoInfiltrationObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BInfiltration> items) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -17,14 +17,15 @@ package org.mapton.butterfly_tmo.api;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import org.mapton.api.MTemporalRange;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.types.BObservationBinder;
 import org.mapton.butterfly_format.types.tmo.BRorelse;
-import org.mapton.butterfly_format.types.tmo.BRorelseObservation;
 import org.mapton.butterfly_tmo.rorelse.RorelsePropertiesBuilder;
 import org.openide.util.Exceptions;
 
@@ -59,12 +60,7 @@ public class RorelseManager extends BaseManager<BRorelse> {
             initAllItems(butterfly.tmo().getRorelse());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BRorelseObservation>>();
-            for (var o : butterfly.tmo().getRorelseObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-            for (var p : butterfly.tmo().getRorelse()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
+            BObservationBinder.bind(butterfly.tmo().getRorelse(), butterfly.tmo().getRorelseObservations(), (p, observations) -> {
                 if (!observations.isEmpty()) {
                     p.ext().setDateLatest(observations.getLast().getDate());
                 }
@@ -78,7 +74,7 @@ public class RorelseManager extends BaseManager<BRorelse> {
 //                        break;
 //                    }
                 }
-            }
+            });
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -87,13 +83,10 @@ public class RorelseManager extends BaseManager<BRorelse> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("origins", origins);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -125,6 +118,11 @@ public class RorelseManager extends BaseManager<BRorelse> {
         setItemsTimeFiltered(getFilteredItems());
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of("tmoRorelseObservations.csv");
+    }
+
     @Override
     protected void load(ArrayList<BRorelse> items) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -45,6 +45,7 @@ public class GrundvattenFilter extends FormFilter<GrundvattenManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), g -> g.getLat(), g -> g.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(g -> validateFreeText(g.getBenämning(), g.getName(), g.getGroup(), g.getComment()))
                 .filter(g -> validateCheck(mGrundvattenmagasinCheckModel, g.getGrundvattenmagasin()))
@@ -55,7 +56,7 @@ public class GrundvattenFilter extends FormFilter<GrundvattenManager> {
                 .filter(g -> validateCheck(mSpetstypCheckModel, g.getSpetstyp()))
                 .filter(g -> validateCheck(mStatusCheckModel, g.getStatus()))
                 .filter(g -> validateCoordinateCircle(g.getLat(), g.getLon()))
-                .filter(g -> validateCoordinateArea(g.getLat(), g.getLon()))
+                .filter(areaPredicate)
                 .filter(g -> validateCoordinateRuler(g.getLat(), g.getLon()))
                 .toList();
 
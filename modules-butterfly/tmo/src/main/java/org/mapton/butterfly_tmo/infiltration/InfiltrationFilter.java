@@ -44,10 +44,11 @@ public class InfiltrationFilter extends FormFilter<InfiltrationManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), b -> b.getLat(), b -> b.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(b -> validateFreeText(b.getName(), b.getGroup(), b.getComment()))
                 .filter(b -> validateCoordinateCircle(b.getLat(), b.getLon()))
-                .filter(b -> validateCoordinateArea(b.getLat(), b.getLon()))
+                .filter(areaPredicate)
                 .filter(b -> validateCoordinateRuler(b.getLat(), b.getLon()))
                 .toList();
 
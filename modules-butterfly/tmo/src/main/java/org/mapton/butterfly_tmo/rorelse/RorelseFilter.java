@@ -43,6 +43,7 @@ public class RorelseFilter extends FormFilter<RorelseManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), r -> r.getLat(), r -> r.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(r -> validateFreeText(r.getBenämning(), r.getLägesbeskrivning(), r.getPlacering(), r.getPlacering_kommentar(), r.getGroup(), r.getComment()))
                 .filter(r -> validateCheck(mPlaceringCheckModel, r.getPlacering()))
@@ -51,7 +52,7 @@ public class RorelseFilter extends FormFilter<RorelseManager> {
                 .filter(r -> validateCheck(mInformationskallorCheckModel, r.getInformationskällor()))
                 //                .filter(r -> !r.ext().getObservationsAllRaw().isEmpty())
                 .filter(r -> validateCoordinateCircle(r.getLat(), r.getLon()))
-                .filter(r -> validateCoordinateArea(r.getLat(), r.getLon()))
+                .filter(areaPredicate)
                 .filter(r -> validateCoordinateRuler(r.getLat(), r.getLon()))
                 .toList();
 
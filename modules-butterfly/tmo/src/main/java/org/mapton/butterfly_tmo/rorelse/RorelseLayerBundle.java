@@ -54,6 +54,7 @@ public class RorelseLayerBundle extends BfLayerBundle {
         mOptionsView = new RorelseOptionsView(this);
         mComponentRenderer = new ComponentRenderer(mLayer, mGroundConnectorLayer, mSurfaceLayer);
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -69,6 +70,23 @@ public class RorelseLayerBundle extends BfLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    private PointPlacemarkAttributes getPinAttributes(BRorelse r) {
+        var attrs = mAttributeManager.getPinAttributes(Color.ORANGE);
+        if (r.ext().getObservationsAllRaw() != null && r.ext().getObservationsAllRaw().isEmpty()) {
+            attrs = new PointPlacemarkAttributes(attrs);
+            attrs.setImageColor(Color.CYAN);
+        }
+
+        if (!StringUtils.equalsIgnoreCase(r.getStatus(), "Aktiv")) {
+            attrs = new PointPlacemarkAttributes(attrs);
+            //attrs.setImageColor(Color.RED);
+        }
+        attrs.setScale(Mapton.getScalePinImage());
+        attrs.setLabelScale(Mapton.getScalePinLabel());
+
+        return attrs;
+    }
+
     private void init() {
         initCommons(Bundle.CTL_RorelseAction(), "TMO", "RorelseTopComponent");
     }
@@ -114,7 +132,8 @@ public class RorelseLayerBundle extends BfLayerBundle {
 //            }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                for (var p : mManager.getTimeFilteredItems()) {
+                var points = plotLevelOfDetail(mManager.getTimeFilteredItems(), mManager.getSelectedItem(), p -> -1, this::getPinAttributes);
+                for (var p : points) {
                     if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
                         var position = Position.fromDegrees(p.getLat(), p.getLon());
 
@@ -160,18 +179,7 @@ public class RorelseLayerBundle extends BfLayerBundle {
     }
 
     private PointPlacemark plotPin(BRorelse r, Position position, PointPlacemark labelPlacemark) {
-        var attrs = mAttributeManager.getPinAttributes(Color.ORANGE);
-        if (r.ext().getObservationsAllRaw() != null && r.ext().getObservationsAllRaw().isEmpty()) {
-            attrs = new PointPlacemarkAttributes(attrs);
-            attrs.setImageColor(Color.CYAN);
-        }
-
-        if (!StringUtils.equalsIgnoreCase(r.getStatus(), "Aktiv")) {
-            attrs = new PointPlacemarkAttributes(attrs);
-            //attrs.setImageColor(Color.RED);
-        }
-        attrs.setScale(Mapton.getScalePinImage());
-        attrs.setLabelScale(Mapton.getScalePinLabel());
+        var attrs = getPinAttributes(r);
 
         var placemark = new PointPlacemark(position);
         placemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
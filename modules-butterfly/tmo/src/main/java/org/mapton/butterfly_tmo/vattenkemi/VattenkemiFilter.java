@@ -43,10 +43,11 @@ public class VattenkemiFilter extends FormFilter<VattenkemiManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), b -> b.getLat(), b -> b.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(b -> validateFreeText(b.getBenämning(), b.getName(), b.getGroup(), b.getComment()))
                 .filter(b -> validateCoordinateCircle(b.getLat(), b.getLon()))
-                .filter(b -> validateCoordinateArea(b.getLat(), b.getLon()))
+                .filter(areaPredicate)
                 .filter(b -> validateCoordinateRuler(b.getLat(), b.getLon()))
                 .toList();
 
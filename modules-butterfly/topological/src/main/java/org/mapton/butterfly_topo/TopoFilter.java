@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -73,7 +74,8 @@ public class TopoFilter extends ButterflyFormFilter<TopoManager> implements
         BFilterSectionPointProvider,
         BFilterSectionDateProvider,
         BFilterSectionTrendProvider,
-        BFilterSectionDisruptorProvider {
+        BFilterSectionDisruptorProvider,
+        TopoManager.ItemFilter {
 
     IndexedCheckModel<AlarmLevelFilter> mAlarmLevelCheckModel;
     DoubleProperty mMeasBearingMaxProperty = new SimpleDoubleProperty();
@@ -122,6 +124,7 @@ public class TopoFilter extends ButterflyFormFilter<TopoManager> implements
         super(TopoManager.getInstance());
 
         initListeners();
+        mManager.setItemFilter(this);
     }
 
     public SimpleBooleanProperty closeToAutoProperty() {
@@ -140,6 +143,25 @@ public class TopoFilter extends ButterflyFormFilter<TopoManager> implements
         return mDimens3Property;
     }
 
+    /**
+     * The clustering, same alarm and top list filters depend on other points,
+     * there is no predicate of a single point while they are active.
+     *
+     * @return
+     */
+    @Override
+    public Predicate<BTopoControlPoint> getItemPredicate() {
+        if (mSameAlarmProperty.get()
+                || mMeasTopListProperty.get()
+                || (mFilterSectionMisc != null && mFilterSectionMisc.isClusterSelected())) {
+            return null;
+        }
+
+        boolean invert = mInvertProperty.get();
+
+        return p -> isValid(p, validateCoordinateArea(p.getLat(), p.getLon())) != invert;
+    }
+
     public void initCheckModelListeners() {
         List.of(
                 mAlarmLevelCheckModel,
@@ -304,46 +326,9 @@ public class TopoFilter extends ButterflyFormFilter<TopoManager> implements
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), p -> p.getLat(), p -> p.getLon());
         var filteredItems = mManager.getAllItems().stream()
-                .filter(p -> p.isVisible() != mInvisibleProperty.get())
-                .filter(p -> {
-                    var alarmH = p.ext().getAlarm(BComponent.HEIGHT);
-                    var alarmP = p.ext().getAlarm(BComponent.PLANE);
-
-                    var nameH = alarmH == null ? "" : alarmH.getName();
-                    var nameP = alarmP == null ? "" : alarmP.getName();
-
-                    return validateFreeText(p.getName(), p.getCategory(), p.getGroup(), p.getAlarm1Id(), p.getAlarm2Id(), nameH, nameP, p.getTag());
-                })
-                .filter(p -> validateCoordinateCircle(p.getLat(), p.getLon()))
-                .filter(p -> validateCoordinateArea(p.getLat(), p.getLon()))
-                .filter(p -> validateCoordinateRuler(p.getLat(), p.getLon()))
-                .filter(p -> mFilterSectionPoint.isSelected() && validateDimension(p.getDimension()))
-                .filter(p -> validate1dCloseToAuto(p))
-                .filter(p -> mFilterSectionPoint.filter(p, p.ext().getMeasurementUntilNext(ChronoUnit.DAYS)))
-                .filter(p -> mFilterSectionDate.filter(p, p.ext().getDateFirst()))
-                .filter(p -> mFilterSectionDisruptor.filter(p))
-                .filter(p -> mFilterSectionTrend.filter(p))
-                .filter(p -> {
-                    if (mSectionMeasProperty.get()) {
-                        return validateAlarm(p)
-                                && validateMeasAlarmLevelAge(p)
-                                && validateMeasAlarmLevelChange(p)
-                                && validateMeasDisplacementAll(p)
-                                && validateMeasDisplacementLatest(p)
-                                && validateMeasDisplacementPercentH(p)
-                                && validateMeasDisplacementPercentP(p)
-                                //                                && validateMeasDateDiff(p)
-                                && validateMeasCount(p)
-                                && validateMeasCode(p)
-                                && validateMeasOperators(p)
-                                && validateMeasYoyo(p)
-                                && validateMeasBearing(p);
-                    } else {
-                        return true;
-                    }
-                })
-                .filter(p -> validateMeasWithout(p))
+                .filter(p -> isValid(p, areaPredicate.test(p)))
                 .toList();
 
         filteredItems = mFilterSectionMisc.filterCluster(filteredItems);
@@ -508,6 +493,52 @@ public class TopoFilter extends ButterflyFormFilter<TopoManager> implements
         ).forEach(propertyBase -> propertyBase.addListener(mChangeListenerObject));
     }
 
+    /**
+     * @param p
+     * @param withinArea if the point is within the checked areas
+     * @return true if the point passes all filters that only depend on the
+     * point itself
+     */
+    private boolean isValid(BTopoControlPoint p, boolean withinArea) {
+        if (p.isVisible() == mInvisibleProperty.get()) {
+            return false;
+        }
+
+        var alarmH = p.ext().getAlarm(BComponent.HEIGHT);
+        var alarmP = p.ext().getAlarm(BComponent.PLANE);
+        var nameH = alarmH == null ? "" : alarmH.getName();
+        var nameP = alarmP == null ? "" : alarmP.getName();
+
+        var valid = validateFreeText(p.getName(), p.getCategory(), p.getGroup(), p.getAlarm1Id(), p.getAlarm2Id(), nameH, nameP, p.getTag())
+                && validateCoordinateCircle(p.getLat(), p.getLon())
+                && withinArea
+                && validateCoordinateRuler(p.getLat(), p.getLon())
+                && mFilterSectionPoint.isSelected() && validateDimension(p.getDimension())
+                && validate1dCloseToAuto(p)
+                && mFilterSectionPoint.filter(p, p.ext().getMeasurementUntilNext(ChronoUnit.DAYS))
+                && mFilterSectionDate.filter(p, p.ext().getDateFirst())
+                && mFilterSectionDisruptor.filter(p)
+                && mFilterSectionTrend.filter(p);
+
+        if (valid && mSectionMeasProperty.get()) {
+            valid = validateAlarm(p)
+                    && validateMeasAlarmLevelAge(p)
+                    && validateMeasAlarmLevelChange(p)
+                    && validateMeasDisplacementAll(p)
+                    && validateMeasDisplacementLatest(p)
+                    && validateMeasDisplacementPercentH(p)
+                    && validateMeasDisplacementPercentP(p)
+                    //                    && validateMeasDateDiff(p)
+                    && validateMeasCount(p)
+                    && validateMeasCode(p)
+                    && validateMeasOperators(p)
+                    && validateMeasYoyo(p)
+                    && validateMeasBearing(p);
+        }
+
+        return valid && validateMeasWithout(p);
+    }
+
     private String makeInfoDimension() {
         var d1 = mDimens1Property.get();
         var d2 = mDimens2Property.get();
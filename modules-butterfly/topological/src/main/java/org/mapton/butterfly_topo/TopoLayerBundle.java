@@ -18,11 +18,14 @@ package org.mapton.butterfly_topo;
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.layers.RenderableLayer;
 import gov.nasa.worldwind.render.AbstractShape;
 import gov.nasa.worldwind.render.Cylinder;
 import gov.nasa.worldwind.render.Ellipsoid;
 import gov.nasa.worldwind.render.PointPlacemark;
+import gov.nasa.worldwind.render.Renderable;
 import gov.nasa.worldwind.render.Pyramid;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import javafx.scene.Node;
 import org.apache.commons.lang3.ObjectUtils;
@@ -35,7 +38,9 @@ import static org.mapton.butterfly_format.types.BDimension._1d;
 import static org.mapton.butterfly_format.types.BDimension._2d;
 import static org.mapton.butterfly_format.types.BDimension._3d;
 import org.mapton.butterfly_format.types.BMeasurementMode;
+import org.mapton.butterfly_format.types.BTimeSeries;
 import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
+import org.mapton.butterfly_format.types.topo.BTopoControlPointObservation;
 import org.mapton.butterfly_topo.api.TopoManager;
 import org.mapton.butterfly_topo.graphics.GraphicItem;
 import org.mapton.butterfly_topo.graphics.GraphicRenderer;
@@ -61,6 +66,7 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
     private final double SYMBOL_HEIGHT = 4.0;
     private final double SYMBOL_RADIUS = 1.5;
     private final TopoAttributeManager mAttributeManager = TopoAttributeManager.getInstance();
+    private final RenderableLayer mClickAreaLayer = new RenderableLayer();
     private final ArrayList<AVListImpl> mEmptyDummyList = new ArrayList<>();
     private final GraphicRenderer mGraphicRenderer;
     private final TopoOptionsView mOptionsView;
@@ -76,6 +82,7 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
         mOptionsView = new TopoOptionsView(this);
         mGraphicRenderer = new GraphicRenderer(mLayer, mPassiveLayer, mOptionsView.getGraphicsCheckModel());
         initListeners();
+        setRepaintOnViewChange(1000);
 
         mManager.setInitialTemporalState(WWHelper.isStoredAsVisible(mLayer, mLayer.isEnabled()));
     }
@@ -88,6 +95,7 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
     @Override
     public void populate() throws Exception {
         super.populate();
+        getLayers().addAll(mClickAreaLayer);
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
@@ -104,6 +112,7 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
         initCommons(Bundle.CTL_ControlPointAction(), SDict.TOPOGRAPHY.toString(), "TopoTopComponent");
 
         mLabelLayer.setMaxActiveAltitude(2000);
+        addAllChildLayers(mClickAreaLayer);
     }
 
     private void initListeners() {
@@ -113,7 +122,8 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
 
     private void initRepaint() {
         setPainter(() -> {
-            removeAllRenderables();
+            //Labels, pins, symbols and click areas are keyed and only updated for changed points
+            removeAllRenderables(mLayer, mPassiveLayer, mSurfaceLayer, mGroundConnectorLayer);
             mGraphicRenderer.reset();
 
             if (!mLayer.isEnabled()) {
@@ -150,40 +160,51 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
             }
 
             synchronized (mManager.getTimeFilteredItems()) {
-                mManager.getTimeFilteredItems().stream()
+                var points = mManager.getTimeFilteredItems().stream()
+                        .filter(p -> ObjectUtils.allNotNull(p.getLat(), p.getLon()))
                         .sorted((o1, o2) -> Double.compare(o1.ext().getAlarmLevel(), o2.ext().getAlarmLevel()))
-                        .forEachOrdered(p -> {
-//                for (var p : mManager.getTimeFilteredItems()) {
-                            if (ObjectUtils.allNotNull(p.getLat(), p.getLon())) {
-                                var position = BCoordinatrix.toPositionWW2d(p);
-                                var labelPlacemark = plotLabel(p, mOptions.getLabelBy(), position);
-                                var mapObjects = new ArrayList<AVListImpl>();
-
-                                mapObjects.add(labelPlacemark);
-                                mapObjects.add(plotPin(p, position, labelPlacemark));
-                                mapObjects.addAll(plotSymbol(p, position, labelPlacemark));
-
-                                mGraphicRenderer.plot(p, mManager.getSelectedItem(), position, mapObjects, mOptions);
-                                addClickArea(position, mapObjects);
-
-                                var leftClickRunnable = (Runnable) () -> {
-                                    mManager.setSelectedItemAfterReset(p, true);
-                                };
-
-                                var leftDoubleClickRunnable = (Runnable) () -> {
-                                    Almond.openAndActivateTopComponent((String) mLayer.getValue(WWHelper.KEY_FAST_OPEN));
-                                    mGraphicRenderer.addToAllowList(p);
-                                    resetPaintDelayedResetRunner();
-                                };
-
-                                mapObjects.stream().filter(r -> r != null).forEach(r -> {
-                                    r.setValue(WWHelper.KEY_RUNNABLE_LEFT_CLICK, leftClickRunnable);
-                                    r.setValue(WWHelper.KEY_RUNNABLE_LEFT_DOUBLE_CLICK, leftDoubleClickRunnable);
-                                });
+                        .toList();
+                var labelBy = mOptions.getLabelBy();
+                var colorBy = mOptions.getColorBy();
+
+                //Only points in view, dense areas are clustered when zoomed out. The selected point is always drawn
+                var selectedPoint = mManager.getSelectedItem();
+                var lod = getLevelOfDetail(points.stream().filter(p -> p != selectedPoint).toList(), p -> p.ext().getAlarmLevel());
+                var lodPoints = new ArrayList<BTopoControlPoint>(lod.points());
+                if (selectedPoint != null && points.contains(selectedPoint)) {
+                    lodPoints.add(selectedPoint);
+                }
+
+                var items = new ArrayList<Object>(lodPoints);
+                items.addAll(lod.clusters());
+                //Labels and colours may depend on the age of a measurement
+                var today = LocalDate.now();
+                updateKeyedRenderables(items,
+                        o -> o instanceof BTopoControlPoint p ? p.getName() : ((PointCluster<?>) o).key(),
+                        o -> o instanceof BTopoControlPoint p ? getVersion(p, labelBy, colorBy, today) : getVersion((PointCluster<?>) o),
+                        (o, keyedRenderables) -> {
+                            if (o instanceof BTopoControlPoint p) {
+                                plotPoint(p, labelBy, keyedRenderables);
+                            } else {
+                                plotCluster((PointCluster<?>) o, keyedRenderables);
                             }
-//                }
                         });
 
+                for (var p : lodPoints) {
+                    var position = BCoordinatrix.toPositionWW2d(p);
+                    var pointObjects = getKeyedRenderables(p.getName()).getRenderables();
+                    var mapObjects = new ArrayList<AVListImpl>();
+                    pointObjects.forEach(r -> mapObjects.add((AVListImpl) r));
+
+                    mGraphicRenderer.plot(p, mManager.getSelectedItem(), position, mapObjects, mOptions);
+
+                    var pointObject = mapObjects.getFirst();
+                    mapObjects.stream().skip(pointObjects.size()).filter(r -> r != null).forEach(r -> {
+                        r.setValue(WWHelper.KEY_RUNNABLE_LEFT_CLICK, pointObject.getValue(WWHelper.KEY_RUNNABLE_LEFT_CLICK));
+                        r.setValue(WWHelper.KEY_RUNNABLE_LEFT_DOUBLE_CLICK, pointObject.getValue(WWHelper.KEY_RUNNABLE_LEFT_DOUBLE_CLICK));
+                    });
+                }
+
                 mGraphicRenderer.postPlot();
             }
 
@@ -223,11 +244,39 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
         });
     }
 
+    private ClusterVersion getVersion(PointCluster<?> cluster) {
+        return new ClusterVersion(cluster.lat(), cluster.lon(), cluster.alarmLevel(), cluster.points().size());
+    }
+
+    private PointVersion getVersion(BTopoControlPoint p, TopoLabelBy labelBy, TopoColorBy colorBy, LocalDate today) {
+        var timeSeries = p.ext().getTimeSeries();
+        var observations = p.ext().getObservationsTimeFiltered();
+
+        return new PointVersion(
+                p,
+                labelBy,
+                colorBy,
+                today,
+                p.getLat(),
+                p.getLon(),
+                p.ext().getAlarmLevel(),
+                timeSeries,
+                timeSeries.getDeltasGeneration(),
+                observations.size(),
+                observations.isEmpty() ? null : observations.getLast()
+        );
+    }
+
+    private void plotCluster(PointCluster<?> cluster, KeyedRenderables keyedRenderables) {
+        var attrs = mAttributeManager.getPinAttributes(Math.clamp(cluster.alarmLevel(), -1, 3));
+        keyedRenderables.add(mClusterLayer, createClusterPlacemark(cluster, attrs, null));
+    }
+
     private PointPlacemark plotLabel(BTopoControlPoint p, TopoLabelBy labelBy, Position position) {
         if (labelBy == TopoLabelBy.NONE) {
             return null;
         } else {
-            var placemark = createPlacemark(position, "", mAttributeManager.getLabelPlacemarkAttributes(), mLabelLayer);
+            var placemark = createPlacemark(position, "", mAttributeManager.getLabelPlacemarkAttributes(), null);
             Runnable task = () -> {
                 var label = labelBy.getLabel(p);
                 p.setValue(BKey.PIN_NAME, label);
@@ -239,6 +288,29 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
         }
     }
 
+    private void plotPoint(BTopoControlPoint p, TopoLabelBy labelBy, KeyedRenderables keyedRenderables) {
+        var position = BCoordinatrix.toPositionWW2d(p);
+        var labelPlacemark = keyedRenderables.add(mLabelLayer, plotLabel(p, labelBy, position));
+        keyedRenderables.add(mPinLayer, plotPin(p, position, labelPlacemark));
+        plotSymbol(p, position, labelPlacemark).forEach(symbol -> keyedRenderables.add(mSymbolLayer, (Renderable) symbol));
+        keyedRenderables.add(mClickAreaLayer, createClickArea(position));
+
+        var leftClickRunnable = (Runnable) () -> {
+            mManager.setSelectedItemAfterReset(p, true);
+        };
+
+        var leftDoubleClickRunnable = (Runnable) () -> {
+            Almond.openAndActivateTopComponent((String) mLayer.getValue(WWHelper.KEY_FAST_OPEN));
+            mGraphicRenderer.addToAllowList(p);
+            resetPaintDelayedResetRunner();
+        };
+
+        keyedRenderables.getRenderables().forEach(r -> {
+            ((AVListImpl) r).setValue(WWHelper.KEY_RUNNABLE_LEFT_CLICK, leftClickRunnable);
+            ((AVListImpl) r).setValue(WWHelper.KEY_RUNNABLE_LEFT_DOUBLE_CLICK, leftDoubleClickRunnable);
+        });
+    }
+
     private PointPlacemark plotPin(BTopoControlPoint p, Position position, PointPlacemark labelPlacemark) {
         var attrs = mAttributeManager.getPinAttributes(p);
         switch (p.getDimension()) {
@@ -266,7 +338,6 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
         placemark.setAttributes(attrs);
         placemark.setHighlightAttributes(WWHelper.createHighlightAttributes(attrs, 1.5));
 
-        mPinLayer.addRenderable(placemark);
         if (labelPlacemark != null) {
             placemark.setValue(WWHelper.KEY_RUNNABLE_HOOVER_ON, (Runnable) () -> {
                 labelPlacemark.setHighlighted(true);
@@ -317,7 +388,6 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
 
         abstractShape.setAttributes(attrs);
         mapObjects.add(abstractShape);
-        mSymbolLayer.addRenderable(abstractShape);
 
         if (labelPlacemark != null) {
             abstractShape.setValue(WWHelper.KEY_RUNNABLE_HOOVER_ON, (Runnable) () -> {
@@ -330,4 +400,13 @@ public class TopoLayerBundle extends TopoBaseLayerBundle implements MRunnable {
 
         return mapObjects;
     }
+
+    private record ClusterVersion(double lat, double lon, int alarmLevel, int size) {
+
+    }
+
+    private record PointVersion(BTopoControlPoint p, TopoLabelBy labelBy, TopoColorBy colorBy, LocalDate today, Double lat, Double lon, int alarmLevel,
+            BTimeSeries timeSeries, int deltasGeneration, int numOfObservations, BTopoControlPointObservation lastObservation) {
+
+    }
 }
@@ -18,31 +18,30 @@ package org.mapton.butterfly_topo.api;
 import com.sun.jna.platform.KeyboardUtils;
 import java.awt.event.KeyEvent;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
-import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.math3.util.FastMath;
 import org.mapton.api.MSimpleObjectStorageManager;
-import org.mapton.api.MTemporalRange;
 import org.mapton.api.Mapton;
 import org.mapton.butterfly_core.api.BKey;
 import org.mapton.butterfly_core.api.BMeasurementReport;
 import org.mapton.butterfly_core.api.BMeasurementTab;
+import org.mapton.butterfly_core.api.BTemporalStats;
 import org.mapton.butterfly_core.api.BaseManager;
 import org.mapton.butterfly_core.api.ButterflyManager;
 import org.mapton.butterfly_core.api.TrendHelper;
-import org.mapton.butterfly_core.api.TrendHelper.Trend;
 import org.mapton.butterfly_core.api.sos.ScalePlot3dHSosi;
 import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.ButterflyChange;
 import static org.mapton.butterfly_format.types.BDimension._1d;
-import org.mapton.butterfly_format.types.BTrendPeriod;
-import org.mapton.butterfly_format.types.BXyzPointObservation;
+import org.mapton.butterfly_format.types.BObservationBinder;
+import org.mapton.butterfly_format.types.BTimeSeries;
 import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
 import org.mapton.butterfly_format.types.topo.BTopoControlPointObservation;
 import org.mapton.butterfly_topo.TopoOptions;
@@ -52,7 +51,6 @@ import org.mapton.butterfly_topo.chart.ChartAggregate;
 import org.mapton.butterfly_topo.chart.MultiChartAggregate;
 import org.mapton.butterfly_topo.table.StandardMeasurementPopulator;
 import org.openide.util.Exceptions;
-import se.trixon.almond.util.CollectionHelper;
 
 /**
  *
@@ -61,7 +59,10 @@ import se.trixon.almond.util.CollectionHelper;
 public class TopoManager extends BaseManager<BTopoControlPoint> {
 
     public static final String KEY_TOPO_POINTS_LOADED = "TopoPointsLoaded";
+    private static final String FILE_OBSERVATIONS = "topoControlPointsObservations.csv";
+    private static final String FILE_POINTS = "topoControlPoints.csv";
     private final ChartAggregate mChartAggregate = new ChartAggregate();
+    private ItemFilter mItemFilter;
     private double mMinimumZscaled = 0.0;
     private final MultiChartAggregate mMultiChartAggregate = new MultiChartAggregate();
     private final TopoOptions mOptions = TopoOptions.getInstance();
@@ -124,30 +125,7 @@ public class TopoManager extends BaseManager<BTopoControlPoint> {
             initAllItems(butterfly.topo().getControlPoints());
             initObjectToItemMap();
 
-            var nameToObservations = new LinkedHashMap<String, ArrayList<BTopoControlPointObservation>>();
-            for (var o : butterfly.topo().getControlPointsObservations()) {
-                nameToObservations.computeIfAbsent(o.getName(), k -> new ArrayList<>()).add(o);
-            }
-
-            for (var p : butterfly.topo().getControlPoints()) {
-                var observations = nameToObservations.getOrDefault(p.getName(), new ArrayList<>());
-                if (!observations.isEmpty()) {
-                    p.ext().setDateFirst(observations.getFirst().getDate());
-                    p.setDateLatest(observations.getLast().getDate());
-                } else {
-                    p.ext().setDateFirst(LocalDateTime.MIN);
-                }
-
-                p.ext().setDateLatest(p.getDateLatest());
-                p.ext().setObservationsAllRaw(observations);
-                p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
-                for (var o : p.ext().getObservationsAllRaw()) {
-                    if (o.isZeroMeasurement()) {
-                        p.ext().setStoredZeroDateTime(o.getDate());
-                        break;
-                    }
-                }
-            }
+            BObservationBinder.bind(butterfly.topo().getControlPoints(), butterfly.topo().getControlPointsObservations(), this::bindObservations);
 
             var origins = getAllItems()
                     .stream().map(p -> p.getOrigin())
@@ -163,13 +141,10 @@ public class TopoManager extends BaseManager<BTopoControlPoint> {
                     .collect(Collectors.toCollection(ArrayList<String>::new));
             setValue("classifications", classifications);
 
-            var dates = new TreeSet<LocalDateTime>();
-            getAllItems().stream().forEachOrdered(p -> {
-                dates.addAll(p.ext().getObservationsAllRaw().stream().map(o -> o.getDate()).toList());
-            });
+            var temporalStats = BTemporalStats.of(getAllItems(), p -> p.ext().getObservationsAllRaw());
+            setTemporalStats(temporalStats);
 
-            if (!dates.isEmpty()) {
-                setTemporalRange(new MTemporalRange(dates.first(), dates.last()));
+            if (!temporalStats.isEmpty()) {
                 boolean layerBundleEnabled = isLayerBundleEnabled();
                 updateTemporal(!layerBundleEnabled);
                 updateTemporal(layerBundleEnabled);
@@ -190,56 +165,118 @@ public class TopoManager extends BaseManager<BTopoControlPoint> {
         Mapton.getGlobalState().put(KEY_TOPO_POINTS_LOADED, ButterflyManager.getInstance().getButterfly());
     }
 
+    /**
+     * Only changed observations are handled incrementally, the observations
+     * of the touched points are bound and filtered again while all other
+     * points are left as they are.
+     * <p>
+     * All points are filtered again if the item filter depends on other
+     * points than the one filtered.
+     *
+     * @param butterfly
+     * @param change
+     */
     @Override
-    protected void applyTemporalFilter() {
-        var measCountStatsDateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        var timeFilteredItems = new ArrayList<BTopoControlPoint>();
+    public void reload(Butterfly butterfly, ButterflyChange change) {
+        if (change.isChanged(List.of(FILE_POINTS)) || getAllItems().isEmpty()) {
+            load(butterfly);
+            return;
+        }
+
+        var changedNames = change.getChangedNames(FILE_OBSERVATIONS);
+        var changedPoints = new ArrayList<BTopoControlPoint>();
+        for (var name : changedNames) {
+            var p = getAllItemsMap().get(name);
+            if (p != null) {
+                changedPoints.add(p);
+            }
+        }
+
+        if (changedPoints.isEmpty()) {
+            return;
+        }
+
+        var temporalStatsBuilder = getTemporalStats().toBuilder();
+        for (var p : changedPoints) {
+            for (var o : p.ext().getObservationsAllRaw()) {
+                temporalStatsBuilder.remove(o.getDate());
+            }
+        }
 
-        p:
-        for (var p : getFilteredItems()) {
-            if (p.getDateLatest() == null || p.ext().getObservationsAllRaw().isEmpty()) {
-                timeFilteredItems.add(p);
-            } else {
-                for (var o : p.ext().getObservationsAllRaw()) {
-                    if (getTemporalManager().isValid(o.getDate())) {
+        var changedObservations = butterfly.topo().getControlPointsObservations().stream()
+                .filter(o -> changedNames.contains(o.getName()))
+                .toList();
+        BObservationBinder.bind(changedPoints, changedObservations, this::bindObservations);
+
+        butterfly.getManipulator().updateMultipleObservationsPerDay(changedPoints);
+
+        for (var p : changedPoints) {
+            for (var o : p.ext().getObservationsAllRaw()) {
+                temporalStatsBuilder.add(o.getDate());
+            }
+        }
+
+        updateTemporalStats(temporalStatsBuilder.build());
+
+        var window = getTemporalWindow();
+        for (var p : changedPoints) {
+            applyTemporalFilter(p, window);
+            try {
+                populateTrends(p);
+            } catch (Exception e) {
+                //System.err.println(e);
+            }
+        }
+
+        Predicate<BTopoControlPoint> itemPredicate = mItemFilter == null ? p -> true : mItemFilter.getItemPredicate();
+        if (itemPredicate == null) {
+            mItemFilter.update();
+            return;
+        }
+
+        var changedPointSet = new HashSet<>(changedPoints);
+        var filteredPointSet = new HashSet<>(getFilteredItems());
+        var filteredItems = new ArrayList<BTopoControlPoint>();
+        var timeFilteredItems = new ArrayList<BTopoControlPoint>();
+        for (var p : getAllItems()) {
+            if (changedPointSet.contains(p)) {
+                if (itemPredicate.test(p)) {
+                    filteredItems.add(p);
+                    if (isTimeValid(p, window)) {
                         timeFilteredItems.add(p);
-                        continue p;
                     }
                 }
+            } else if (filteredPointSet.contains(p)) {
+                filteredItems.add(p);
+                if (getTimeFilteredItemsMap().containsKey(p.getName())) {
+                    timeFilteredItems.add(p);
+                }
             }
         }
 
+        if (!filteredItems.equals(getFilteredItems())) {
+            setItemsFiltered(filteredItems, false);
+        }
+
+        getTimeFilteredItemsMap().clear();
+        timeFilteredItems.forEach(p -> getTimeFilteredItemsMap().put(p.getName(), p));
+        setItemsTimeFiltered(timeFilteredItems);
+    }
+
+    public void setItemFilter(ItemFilter itemFilter) {
+        mItemFilter = itemFilter;
+    }
+
+    @Override
+    protected void applyTemporalFilter() {
+        var window = getTemporalWindow();
+        var timeFilteredItems = new ArrayList<>(getFilteredItems()).parallelStream()
+                .filter(p -> isTimeValid(p, window))
+                .collect(Collectors.toCollection(ArrayList::new));
+
         getTimeFilteredItemsMap().clear();
-        timeFilteredItems.stream().forEach(p -> {
-            getTimeFilteredItemsMap().put(p.getName(), p);
-            var timeFilteredObservations = p.ext().getObservationsAllRaw().stream()
-                    .filter(o -> getTemporalManager().isValid(o.getDate()))
-                    .filter(o -> {
-                        switch (p.getDimension()) {
-                            case _1d -> {
-                                return ObjectUtils.allNotNull(o.getMeasuredZ());
-                            }
-                            case _2d -> {
-                                return ObjectUtils.allNotNull(o.getMeasuredX(), o.getMeasuredY());
-                            }
-                            case _3d -> {
-                                return ObjectUtils.allNotNull(o.getMeasuredX(), o.getMeasuredY(), o.getMeasuredZ());
-                            }
-                            default ->
-                                throw new AssertionError();
-                        }
-                    })
-                    .collect(Collectors.toCollection(ArrayList::new));
-
-            p.ext().setObservationsTimeFiltered(timeFilteredObservations);
-            p.ext().calculateObservations(timeFilteredObservations);
-
-            var measCountStats = new LinkedHashMap<String, Integer>();
-            p.ext().setMeasurementCountStats(measCountStats);
-            timeFilteredObservations.forEach(o -> {
-                CollectionHelper.incInteger(measCountStats, o.getDate().format(measCountStatsDateTimeFormatter));
-            });
-        });
+        timeFilteredItems.forEach(p -> getTimeFilteredItemsMap().put(p.getName(), p));
+        timeFilteredItems.parallelStream().forEach(p -> applyTemporalFilter(p, window));
 
         var mScale3dH = MSimpleObjectStorageManager.getInstance().getInteger(ScalePlot3dHSosi.class, 500);
 
@@ -265,46 +302,138 @@ public class TopoManager extends BaseManager<BTopoControlPoint> {
         setItemsTimeFiltered(timeFilteredItems);
     }
 
+    @Override
+    protected Set<String> getSourceFiles() {
+        return Set.of(FILE_POINTS, FILE_OBSERVATIONS);
+    }
+
     @Override
     protected void load(ArrayList<BTopoControlPoint> items) {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
-    private void populateTrend(BTopoControlPoint p, BTrendPeriod period, LocalDateTime startDate, LocalDateTime endDate) {
+    /**
+     * Filter the observations of a point, they have to be sorted on date.
+     *
+     * @param p
+     * @param window
+     */
+    private void applyTemporalFilter(BTopoControlPoint p, TemporalWindow window) {
+        var observations = p.ext().getObservationsAllRaw();
+        var timeSeries = p.ext().getTimeSeries();
+        var first = timeSeries.indexOf(window.from());
+        var last = timeSeries.indexOf(window.to());
+        var timeFilteredObservations = new ArrayList<BTopoControlPointObservation>(last - first);
+
+        for (int i = first; i < last; i++) {
+            var o = observations.get(i);
+            var valid = switch (p.getDimension()) {
+                case _1d ->
+                    o.getMeasuredZ() != null;
+                case _2d ->
+                    ObjectUtils.allNotNull(o.getMeasuredX(), o.getMeasuredY());
+                case _3d ->
+                    ObjectUtils.allNotNull(o.getMeasuredX(), o.getMeasuredY(), o.getMeasuredZ());
+                default ->
+                    throw new AssertionError();
+            };
+
+            if (valid) {
+                timeFilteredObservations.add(o);
+            }
+        }
+
+        p.ext().setObservationsTimeFiltered(timeFilteredObservations);
+        p.ext().calculateObservations(timeFilteredObservations);
+
+        p.ext().setMeasurementCountStats(BTemporalStats.getMonthCounts(timeFilteredObservations));
+    }
+
+    private void bindObservations(BTopoControlPoint p, ArrayList<BTopoControlPointObservation> observations) {
+        if (!observations.isEmpty()) {
+            p.ext().setDateFirst(observations.getFirst().getDate());
+            p.setDateLatest(observations.getLast().getDate());
+        } else {
+            p.ext().setDateFirst(LocalDateTime.MIN);
+        }
+
+        p.ext().setDateLatest(p.getDateLatest());
+        p.ext().setObservationsAllRaw(observations);
+        p.ext().getObservationsAllRaw().forEach(o -> o.ext().setParent(p));
+        for (var o : p.ext().getObservationsAllRaw()) {
+            if (o.isZeroMeasurement()) {
+                p.ext().setStoredZeroDateTime(o.getDate());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Read the temporal selection once per filter pass, a reversed selection
+     * is treated as its normal counterpart just like
+     * MTemporalManager.isValid does.
+     *
+     * @return
+     */
+    private TemporalWindow getTemporalWindow() {
+        var low = getTemporalManager().getLowDate();
+        var high = getTemporalManager().getHighDate();
+        if (low == null || high == null) {
+            return new TemporalWindow(Long.MIN_VALUE, Long.MAX_VALUE);
+        } else if (low.isAfter(high)) {
+            var temp = low;
+            low = high;
+            high = temp;
+        }
+
+        return new TemporalWindow(
+                BTimeSeries.toEpochSecond(low.atStartOfDay()),
+                BTimeSeries.toEpochSecond(high.plusDays(1).atStartOfDay())
+        );
+    }
+
+    private boolean isTimeValid(BTopoControlPoint p, TemporalWindow window) {
+        if (p.getDateLatest() == null || p.ext().getObservationsAllRaw().isEmpty()) {
+            return true;
+        }
+
+        var timeSeries = p.ext().getTimeSeries();
+
+        return timeSeries.indexOf(window.from()) < timeSeries.indexOf(window.to());
+    }
+
+    private void populateTrends(BTopoControlPoint p) {
         switch (p.getDimension()) {
             case _1d ->
-                populateTrend(p, BKey.TRENDS_H, period, startDate, endDate, o -> o.ext().getDelta1d());
+                TrendHelper.populateTrends(p, BKey.TRENDS_H, o -> o.ext().getDelta1d());
             case _2d ->
-                populateTrend(p, BKey.TRENDS_P, period, startDate, endDate, o -> o.ext().getDelta2d());
+                TrendHelper.populateTrends(p, BKey.TRENDS_P, o -> o.ext().getDelta2d());
             case _3d -> {
-                populateTrend(p, BKey.TRENDS_H, period, startDate, endDate, o -> o.ext().getDelta1d());
-                populateTrend(p, BKey.TRENDS_P, period, startDate, endDate, o -> o.ext().getDelta2d());
+                TrendHelper.populateTrends(p, BKey.TRENDS_H, o -> o.ext().getDelta1d());
+                TrendHelper.populateTrends(p, BKey.TRENDS_P, o -> o.ext().getDelta2d());
             }
         }
     }
 
-    private void populateTrend(BTopoControlPoint p, String mode, BTrendPeriod period, LocalDateTime startDate, LocalDateTime endDate, Function<BXyzPointObservation, Double> function) {
-        var trend = TrendHelper.createTrend(p, true, startDate, endDate, function);
-        HashMap<BTrendPeriod, Trend> map = (HashMap<BTrendPeriod, Trend>) p.getValue(mode, new HashMap<>());
-        map.put(period, trend);
-        p.setValue(mode, map);
+    /**
+     * The attribute filter of the points.
+     */
+    public interface ItemFilter {
+
+        /**
+         * @return the filter of a single point, null if the filter also
+         * depends on other points
+         */
+        Predicate<BTopoControlPoint> getItemPredicate();
+
+        /**
+         * Filter all points.
+         */
+        void update();
     }
 
-    private void populateTrends(BTopoControlPoint p) {
-        var startDateFirst = p.ext().getDateFirst();
-        var startDateZero = p.getDateZero().atStartOfDay();
-        var endDate = p.ext().getDateLatest();
-        var startDateMinus6m = endDate.minusMonths(6);
-        var startDateMinus3m = endDate.minusMonths(3);
-        var startDateMinus1m = endDate.minusMonths(1);
-        var startDateMinus1w = endDate.minusWeeks(1);
-
-        populateTrend(p, BTrendPeriod.FIRST, startDateFirst, endDate);
-        populateTrend(p, BTrendPeriod.ZERO, startDateZero, endDate);
-        populateTrend(p, BTrendPeriod.HALF_YEAR, startDateMinus6m, endDate);
-        populateTrend(p, BTrendPeriod.QUARTER, startDateMinus3m, endDate);
-        populateTrend(p, BTrendPeriod.MONTH, startDateMinus1m, endDate);
-        populateTrend(p, BTrendPeriod.WEEK, startDateMinus1w, endDate);
+    private record TemporalWindow(long from, long to) {
+
     }
 
     private static class TopoManagerHolder {
@@ -15,11 +15,18 @@
  */
 package org.mapton.butterfly_topo.grade;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javafx.collections.ListChangeListener;
 import org.mapton.butterfly_core.api.BaseManager;
+import org.mapton.butterfly_format.types.BAxis;
 import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
 import org.mapton.butterfly_format.types.topo.BTopoGrade;
 import org.mapton.butterfly_topo.api.TopoManager;
+import org.mapton.butterfly_topo.grade.GradePairFinder.Pair;
 import se.trixon.almond.util.fx.DelayedResetRunner;
 
 /**
@@ -49,4 +56,26 @@ public abstract class GradeManagerBase extends BaseManager<BTopoGrade> {
     }
 
     public abstract void load();
+
+    /**
+     * Create the grades of the pairs in parallel.
+     *
+     * @param axis
+     * @param pairs
+     * @param predicate applied to grades with more than one common observation
+     * @return the grades of the pairs, in pair order
+     */
+    protected ArrayList<BTopoGrade> createGrades(BAxis axis, List<Pair> pairs, Predicate<BTopoGrade> predicate) {
+        return pairs.parallelStream()
+                .map(pair -> new BTopoGrade(axis, pair.p1(), pair.p2()))
+                .filter(grade -> grade.getCommonObservations().size() > 1 && predicate.test(grade))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * @see GradePairFinder#getPairs(List, double, double, BiPredicate)
+     */
+    protected List<Pair> getPairs(List<BTopoControlPoint> points, double minDistance, double maxDistance, BiPredicate<BTopoControlPoint, BTopoControlPoint> predicate) {
+        return GradePairFinder.getPairs(points, minDistance, maxDistance, predicate);
+    }
 }
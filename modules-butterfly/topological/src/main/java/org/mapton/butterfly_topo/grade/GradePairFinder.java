@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_topo.grade;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.stream.IntStream;
+import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
+
+/**
+ *
+ * @author Patrik Karlström
+ */
+public class GradePairFinder {
+
+    /**
+     * Find the point pairs with a horizontal distance within
+     * [minDistance, maxDistance].
+     * <p>
+     * The points are put in a grid with cells of maxDistance, so only the
+     * points of the surrounding cells are compared. Each pair is returned
+     * once, with the point that comes first in points as p1.
+     *
+     * @param points points with zero coordinates
+     * @param minDistance
+     * @param maxDistance
+     * @param predicate additional test of the pairs within the distance
+     * @return
+     */
+    public static List<Pair> getPairs(List<BTopoControlPoint> points, double minDistance, double maxDistance, BiPredicate<BTopoControlPoint, BTopoControlPoint> predicate) {
+        int n = points.size();
+        var xs = new double[n];
+        var ys = new double[n];
+        var cellSize = maxDistance > 0 ? maxDistance : 1.0;
+        var cellToIndices = new HashMap<Long, ArrayList<Integer>>();
+
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i).getZeroX();
+            ys[i] = points.get(i).getZeroY();
+            cellToIndices.computeIfAbsent(getCellKey(xs[i], ys[i], cellSize, 0, 0), k -> new ArrayList<>()).add(i);
+        }
+
+        return IntStream.range(0, n).parallel()
+                .boxed()
+                .flatMap(i -> {
+                    var pairs = new ArrayList<Pair>();
+                    for (int dx = -1; dx <= 1; dx++) {
+                        for (int dy = -1; dy <= 1; dy++) {
+                            var indices = cellToIndices.get(getCellKey(xs[i], ys[i], cellSize, dx, dy));
+                            if (indices == null) {
+                                continue;
+                            }
+
+                            for (int j : indices) {
+                                if (j <= i) {
+                                    continue;
+                                }
+
+                                double distance = Math.sqrt((xs[j] - xs[i]) * (xs[j] - xs[i]) + (ys[j] - ys[i]) * (ys[j] - ys[i]));
+                                if (distance >= minDistance && distance <= maxDistance && predicate.test(points.get(i), points.get(j))) {
+                                    pairs.add(new Pair(points.get(i), points.get(j)));
+                                }
+                            }
+                        }
+                    }
+
+                    return pairs.stream();
+                })
+                .toList();
+    }
+
+    private static long getCellKey(double x, double y, double cellSize, int dx, int dy) {
+        long cx = (long) Math.floor(x / cellSize) + dx;
+        long cy = (long) Math.floor(y / cellSize) + dy;
+
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+
+    private GradePairFinder() {
+    }
+
+    public record Pair(BTopoControlPoint p1, BTopoControlPoint p2) {
+
+    }
+}
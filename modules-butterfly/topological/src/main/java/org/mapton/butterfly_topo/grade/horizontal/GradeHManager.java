@@ -17,10 +17,7 @@ package org.mapton.butterfly_topo.grade.horizontal;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
-import javafx.geometry.Point2D;
 import org.apache.commons.lang3.ObjectUtils;
 import org.mapton.butterfly_core.api.BCoordinatrix;
 import org.mapton.butterfly_format.Butterfly;
@@ -61,36 +58,14 @@ public class GradeHManager extends GradeManagerBase {
 
     @Override
     public void load() {
-        var pointToPoints = new TreeMap<String, HashSet<String>>();
         var sourcePoints = mTopoManager.getTimeFilteredItems().stream()
                 .filter(p -> p.getDimension() != BDimension._2d)
                 .filter(p -> ObjectUtils.allNotNull(p.getZeroX(), p.getZeroY(), p.getZeroZ()))
                 .filter(p -> p.ext().getNumOfObservationsFiltered() >= 2)
                 .toList();
 
-        for (var p1 : sourcePoints) {
-            var point = new Point2D(p1.getZeroX(), p1.getZeroY());
-            for (var p2 : sourcePoints) {
-                double distance = point.distance(p2.getZeroX(), p2.getZeroY());
-                if (p1 != p2 && distance >= MIN_RADIAL_DISTANCE && distance <= MAX_RADIAL_DISTANCE) {
-                    if (!pointToPoints.computeIfAbsent(p2.getName(), k -> new HashSet<>()).contains(p1.getName())) {//Skip A-B, B-A
-                        pointToPoints.computeIfAbsent(p1.getName(), k -> new HashSet<>()).add(p2.getName());
-                    }
-                }
-            }
-        }
-
-        var gradesAll = new ArrayList<BTopoGrade>();
-        for (var entry : pointToPoints.entrySet()) {
-            var p1 = mTopoManager.getItemForKey(entry.getKey());
-            for (var n2 : entry.getValue()) {
-                var p2 = mTopoManager.getItemForKey(n2);
-                var grade = new BTopoGrade(BAxis.HORIZONTAL, p1, p2);
-                if (grade.getCommonObservations().size() > 1 && Math.abs(grade.ext().getDiff().getZQuota()) >= MIN_GRADE_H) {
-                    gradesAll.add(grade);
-                }
-            }
-        }
+        var pairs = getPairs(sourcePoints, MIN_RADIAL_DISTANCE, MAX_RADIAL_DISTANCE, (p1, p2) -> true);
+        var gradesAll = createGrades(BAxis.HORIZONTAL, pairs, grade -> Math.abs(grade.ext().getDiff().getZQuota()) >= MIN_GRADE_H);
 
         Comparator<BTopoGrade> c1 = (o1, o2)
                 -> Integer.valueOf(o1.ext().getAlarmLevelHeight(Math.abs(o1.ext().getDiff().getZQuota())))
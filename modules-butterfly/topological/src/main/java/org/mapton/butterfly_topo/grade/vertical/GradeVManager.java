@@ -17,9 +17,6 @@ package org.mapton.butterfly_topo.grade.vertical;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.TreeMap;
-import javafx.geometry.Point2D;
 import org.apache.commons.lang3.ObjectUtils;
 import org.mapton.butterfly_core.api.BCoordinatrix;
 import org.mapton.butterfly_format.Butterfly;
@@ -63,73 +60,44 @@ public class GradeVManager extends GradeManagerBase {
     @Override
     public void load() {
         synchronized (this) {
-            var pointToPoints = new TreeMap<String, HashSet<String>>();
             var sourcePoints = mTopoManager.getTimeFilteredItems().stream()
                     .filter(p -> p.getDimension() == BDimension._3d)
                     .filter(p -> ObjectUtils.allNotNull(p.getZeroX(), p.getZeroY(), p.getZeroZ()))
                     .filter(p -> p.ext().getNumOfObservationsFiltered() >= 2)
                     .toList();
 
-            for (var p1 : sourcePoints) {
-                if (ObjectUtils.anyNull(p1.getZeroX(), p1.getZeroY())) {
-                    continue;
-                }
-                var point = new Point2D(p1.getZeroX(), p1.getZeroY());
-                for (var p2 : sourcePoints) {
-                    if (ObjectUtils.anyNull(p2.getZeroX(), p2.getZeroY())) {
-                        continue;
-                    }
-
-                    double distanceR = point.distance(p2.getZeroX(), p2.getZeroY());
-                    double distanceH = Math.abs(p2.getZeroZ() - p1.getZeroZ());
-
-                    if (p1 != p2
-                            && MathHelper.isBetween(MIN_HORIZONTAL_DISTANCE, MAX_HORIZONTAL_DISTANCE, distanceR)
-                            && MathHelper.isBetween(MIN_VERTICAL_DISTANCE, MAX_VERTICAL_DISTANCE, distanceH)) {
-                        if (!pointToPoints.computeIfAbsent(p2.getName(), k -> new HashSet<>()).contains(p1.getName())) {//Skip A-B, B-A
-                            pointToPoints.computeIfAbsent(p1.getName(), k -> new HashSet<>()).add(p2.getName());
-                        }
-                    }
-                }
-            }
-
-            var grades = new ArrayList<BTopoGrade>();
-            for (var entry : pointToPoints.entrySet()) {
-                var p1 = mTopoManager.getItemForKey(entry.getKey());
-                for (var n2 : entry.getValue()) {
-                    var p2 = mTopoManager.getItemForKey(n2);
-                    var grade = new BTopoGrade(BAxis.VERTICAL, p1, p2);
-                    if (grade.getCommonObservations().size() > 1
-                            //                            && ( Math.abs(pair.getZQuota()) > 0.00001)) {
-                            && (Math.abs(grade.ext().getDiff().getRQuota()) > 0.00001 || Math.abs(grade.ext().getDiff().getZQuota()) > 0.00001)) {
-                        grades.add(grade);
-                    }
-                }
-
-                Comparator<BTopoGrade> c1 = (o1, o2)
-                        -> Integer.valueOf(o1.ext().getAlarmLevelPlane(Math.abs(o1.ext().getDiff().getRQuota())))
-                                .compareTo(o2.ext().getAlarmLevelPlane(Math.abs(o2.ext().getDiff().getRQuota())));
-                Comparator<BTopoGrade> c2 = (o1, o2)
-                        -> Double.valueOf(Math.abs(o1.ext().getDiff().getRQuota()))
-                                .compareTo(Math.abs(o2.ext().getDiff().getRQuota()));
-                grades.sort(c1.reversed().thenComparing(c2.reversed()));
-
-                grades.forEach(g -> {
-                    var first = BCoordinatrix.toLatLon(g.getP1());
-                    var second = BCoordinatrix.toLatLon(g.getP2());
-                    var d = first.distance(second);
-                    var b = first.getBearing(second);
-                    var mid = first.getDestinationPoint(b, d * .5);
-                    g.setLat(mid.getLatitude());
-                    g.setLon(mid.getLongitude());
-                });
-
-                FxHelper.runLater(() -> {
-                    setItemsAll(grades);
-                    setItemsFiltered(grades);
-                    setItemsTimeFiltered(grades);
-                });
-            }
+            var pairs = getPairs(sourcePoints, MIN_HORIZONTAL_DISTANCE, MAX_HORIZONTAL_DISTANCE, (p1, p2) -> {
+                double distanceH = Math.abs(p2.getZeroZ() - p1.getZeroZ());
+                return MathHelper.isBetween(MIN_VERTICAL_DISTANCE, MAX_VERTICAL_DISTANCE, distanceH);
+            });
+
+            var grades = createGrades(BAxis.VERTICAL, pairs, grade
+                    -> Math.abs(grade.ext().getDiff().getRQuota()) > 0.00001 || Math.abs(grade.ext().getDiff().getZQuota()) > 0.00001
+            );
+
+            Comparator<BTopoGrade> c1 = (o1, o2)
+                    -> Integer.valueOf(o1.ext().getAlarmLevelPlane(Math.abs(o1.ext().getDiff().getRQuota())))
+                            .compareTo(o2.ext().getAlarmLevelPlane(Math.abs(o2.ext().getDiff().getRQuota())));
+            Comparator<BTopoGrade> c2 = (o1, o2)
+                    -> Double.valueOf(Math.abs(o1.ext().getDiff().getRQuota()))
+                            .compareTo(Math.abs(o2.ext().getDiff().getRQuota()));
+            grades.sort(c1.reversed().thenComparing(c2.reversed()));
+
+            grades.forEach(g -> {
+                var first = BCoordinatrix.toLatLon(g.getP1());
+                var second = BCoordinatrix.toLatLon(g.getP2());
+                var d = first.distance(second);
+                var b = first.getBearing(second);
+                var mid = first.getDestinationPoint(b, d * .5);
+                g.setLat(mid.getLatitude());
+                g.setLon(mid.getLongitude());
+            });
+
+            FxHelper.runLater(() -> {
+                setItemsAll(grades);
+                setItemsFiltered(grades);
+                setItemsTimeFiltered(grades);
+            });
         }
     }
 
@@ -17,6 +17,7 @@ package org.mapton.butterfly_topo.heatmap;
 
 import gov.nasa.worldwind.WorldWind;
 import java.util.ArrayList;
+import java.util.Arrays;
 import javafx.collections.ListChangeListener;
 import javafx.scene.Node;
 import org.apache.commons.lang3.ObjectUtils;
@@ -41,6 +42,10 @@ import se.trixon.almond.util.SDict;
 @ServiceProvider(service = LayerBundle.class)
 public class HeatMapLayerBundle extends TopoBaseLayerBundle {
 
+    private static final int MAX_GRID_SIZE = 200;
+    private static final double POINTS_PER_CELL = 4.0;
+    private GridData mGridData;
+    private double[] mGridKey;
     private HeatMapOptionsView mOptionsView;
 
     public HeatMapLayerBundle() {
@@ -70,6 +75,29 @@ public class HeatMapLayerBundle extends TopoBaseLayerBundle {
         repaint(DEFAULT_REPAINT_DELAY);
     }
 
+    /**
+     * Reuse the grid as long as the positions and values are the same, a
+     * repaint triggered by the layer or the options will then only recolour
+     * it.
+     */
+    private GridData getGridData(ArrayList<GridValue> values) {
+        var key = new double[values.size() * 3];
+        for (int i = 0; i < values.size(); i++) {
+            var gridValue = values.get(i);
+            key[i * 3] = gridValue.getLatLon().getLatitude();
+            key[i * 3 + 1] = gridValue.getLatLon().getLongitude();
+            key[i * 3 + 2] = gridValue.getValue();
+        }
+
+        if (mGridData == null || !Arrays.equals(key, mGridKey)) {
+            var dimension = GridData.getAdaptiveDimension(values, POINTS_PER_CELL, MAX_GRID_SIZE);
+            mGridData = new GridData(dimension.width, dimension.height, values, CellAggregate.SUM);
+            mGridKey = key;
+        }
+
+        return mGridData;
+    }
+
     private void init() {
         initCommons(SDict.HEAT_MAP.toString(), SDict.TOPOGRAPHY.toString(), "TopoTopComponent");
 
@@ -119,27 +147,9 @@ public class HeatMapLayerBundle extends TopoBaseLayerBundle {
                 return;
             }
 
-            var latLon = values.get(0).getLatLon();
-            var northLatLon = new MLatLon(latLon.getLatitude() + 0.01, latLon.getLongitude());
-            var eastLatLon = new MLatLon(latLon.getLatitude(), latLon.getLongitude() + 0.01);
-            var nortDistance = latLon.distance(northLatLon);
-            var eastDistance = latLon.distance(eastLatLon);
-//TODO
-//TODO plus optionsview checkbox restore
-            int width = 20;
-            int height = (int) (width * nortDistance / eastDistance * 2);
-            System.out.println("WH");
-            System.out.println(width);
-            System.out.println(height);
-            var gridData = new GridData(width, height, values, CellAggregate.SUM);
-
-            var minValue = values.stream()
-                    .map(g -> g.getValue())
-                    .mapToDouble(Double::doubleValue).min().orElse(0);
-
-            var maxValue = values.stream()
-                    .map(g -> g.getValue())
-                    .mapToDouble(Double::doubleValue).max().orElse(0);
+            var gridData = getGridData(values);
+            var minValue = gridData.getMin();
+            var maxValue = gridData.getMax();
 
             var analyticGrid = new AnalyticGrid(mLayer, 50.0, minValue, maxValue);
             analyticGrid.setNullOpacity(0.0);
@@ -70,6 +70,7 @@ public class MonFilter extends FormFilter<MonManager> {
 
     @Override
     public void update() {
+        var areaPredicate = validateCoordinateArea(mManager.getAllItems(), mon -> mon.getLat(), mon -> mon.getLon());
         var filteredItems = mManager.getAllItems().stream()
                 .filter(mon -> validateFreeText(mon.getName(), mon.getStationName()))
                 .filter(mon -> mTopoManager.getTimeFilteredItemsMap().containsKey(mon.getName()))
@@ -78,7 +79,7 @@ public class MonFilter extends FormFilter<MonManager> {
                 .filter(mon -> validateQuota(mLatest14Property, mLatest14ValueProperty, mon.getQuota(14)))
                 //                .filter(mon -> validateCheck(mStatusCheckModel, ActHelper.getStatusAsString(mon.getStatus())))
                 .filter(mon -> validateCoordinateCircle(mon.getLat(), mon.getLon()))
-                .filter(mon -> validateCoordinateArea(mon.getLat(), mon.getLon()))
+                .filter(areaPredicate)
                 .filter(mon -> validateCoordinateRuler(mon.getLat(), mon.getLon()))
                 .toList();
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_topo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import org.mapton.butterfly_format.Butterfly;
+import org.mapton.butterfly_format.ButterflyLoader;
+import org.mapton.butterfly_format.BundleMode;
+import org.mapton.butterfly_format.types.BAlarm;
+import org.mapton.butterfly_format.types.BComponent;
+import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
+
+/**
+ * Times the alarm lookups of the alarm level age filter, the linear scan over
+ * all alarms that getAlarm used to do against the indexed and cached lookup,
+ * and checks that both give the same levels.
+ * <p>
+ * Each point looks up its height and plane alarm once per observation, the
+ * same way getAlarmLevelAge does. Run with the number of alarms, points and
+ * observations per point as arguments, 2 000, 5 000 and 50 by default.
+ *
+ * @author Patrik Karlström
+ */
+public class AlarmLookupBenchmark {
+
+    private static final int NUM_OF_ALARMS = 2_000;
+    private static final int NUM_OF_OBSERVATIONS = 50;
+    private static final int NUM_OF_POINTS = 5_000;
+    private static final int NUM_OF_WARMUPS = 2;
+
+    public static void main(String[] args) throws IOException {
+        var numOfAlarms = args.length > 0 ? Integer.parseInt(args[0]) : NUM_OF_ALARMS;
+        var numOfPoints = args.length > 1 ? Integer.parseInt(args[1]) : NUM_OF_POINTS;
+        var numOfObservations = args.length > 2 ? Integer.parseInt(args[2]) : NUM_OF_OBSERVATIONS;
+        var random = new Random(42);
+
+        var butterfly = loadAlarms(numOfAlarms, random);
+        System.out.println("Loaded %d alarms".formatted(butterfly.getAlarms().size()));
+
+        var points = new ArrayList<BTopoControlPoint>(numOfPoints);
+        var deltas = new double[numOfPoints][numOfObservations];
+        for (int i = 0; i < numOfPoints; i++) {
+            var p = new BTopoControlPoint();
+            p.setName("P" + i);
+            //some points refer to alarms that do not exist
+            p.setAlarm1Id("A" + random.nextInt(numOfAlarms + numOfAlarms / 10));
+            p.setAlarm2Id("A" + random.nextInt(numOfAlarms + numOfAlarms / 10));
+            p.setButterfly(butterfly);
+            points.add(p);
+
+            for (int j = 0; j < numOfObservations; j++) {
+                deltas[i][j] = (random.nextDouble() - 0.5) * 0.1;
+            }
+        }
+
+        long linearSum = 0;
+        long indexedSum = 0;
+        for (int i = 0; i < NUM_OF_WARMUPS; i++) {
+            linearSum = sumLevelsLinear(butterfly, points, deltas);
+            indexedSum = sumLevelsIndexed(points, deltas);
+        }
+
+        var numOfLookups = 2L * numOfPoints * numOfObservations;
+
+        var t0 = System.nanoTime();
+        linearSum = sumLevelsLinear(butterfly, points, deltas);
+        var elapsed = System.nanoTime() - t0;
+        System.out.println("Linear:  %d lookups in %d ms, %.1f ns/lookup".formatted(numOfLookups, elapsed / 1_000_000, (double) elapsed / numOfLookups));
+
+        t0 = System.nanoTime();
+        indexedSum = sumLevelsIndexed(points, deltas);
+        elapsed = System.nanoTime() - t0;
+        System.out.println("Indexed: %d lookups in %d ms, %.1f ns/lookup".formatted(numOfLookups, elapsed / 1_000_000, (double) elapsed / numOfLookups));
+
+        int mismatches = 0;
+        for (var p : points) {
+            for (var component : List.of(BComponent.HEIGHT, BComponent.PLANE)) {
+                if (getAlarmLinear(butterfly, p, component) != p.ext().getAlarm(component)) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.println("Level sums %d and %d, %d alarm mismatches".formatted(linearSum, indexedSum, mismatches));
+    }
+
+    /**
+     * The lookup used by BXyzPoint.Ext.getAlarm before the index.
+     */
+    private static BAlarm getAlarmLinear(Butterfly butterfly, BTopoControlPoint p, BComponent component) {
+        var id = component == BComponent.HEIGHT ? p.getAlarm1Id() : p.getAlarm2Id();
+
+        return butterfly.getAlarms().stream()
+                .filter(a -> Objects.equals(a.getId(), id))
+                .findAny().orElse(null);
+    }
+
+    private static int getLevel(BAlarm alarm, double delta) {
+        return alarm == null ? -1 : alarm.ext().getLevel(delta);
+    }
+
+    private static Butterfly loadAlarms(int numOfAlarms, Random random) throws IOException {
+        var dir = Files.createTempDirectory("alarms").toFile();
+        dir.deleteOnExit();
+        var file = new File(dir, "alarms.csv");
+        file.deleteOnExit();
+
+        var lines = new ArrayList<String>();
+        lines.add("\"id\",\"name\",\"type\",\"limit1\",\"limit2\",\"limit3\"");
+        for (int i = 0; i < numOfAlarms; i++) {
+            var limit1 = 0.005 + random.nextInt(20) * 0.001;
+            lines.add(String.format(Locale.ROOT, "\"A%d\",\"A%d\",\"+\",\"%.3f\",\"%.3f\",\"%.3f\"", i, i, limit1, limit1 * 2, limit1 * 3));
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        var loader = ButterflyLoader.getInstance();
+        loader.load(BundleMode.DIR, new File(dir, "bundle"));
+
+        return loader.getButterfly();
+    }
+
+    private static long sumLevelsIndexed(List<BTopoControlPoint> points, double[][] deltas) {
+        long sum = 0;
+        for (int i = 0; i < points.size(); i++) {
+            var p = points.get(i);
+            for (var delta : deltas[i]) {
+                sum += getLevel(p.ext().getAlarm(BComponent.HEIGHT), delta);
+                sum += getLevel(p.ext().getAlarm(BComponent.PLANE), delta);
+            }
+        }
+
+        return sum;
+    }
+
+    private static long sumLevelsLinear(Butterfly butterfly, List<BTopoControlPoint> points, double[][] deltas) {
+        long sum = 0;
+        for (int i = 0; i < points.size(); i++) {
+            var p = points.get(i);
+            for (var delta : deltas[i]) {
+                sum += getLevel(getAlarmLinear(butterfly, p, BComponent.HEIGHT), delta);
+                sum += getLevel(getAlarmLinear(butterfly, p, BComponent.PLANE), delta);
+            }
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.butterfly_topo.grade;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
+import org.mapton.butterfly_format.types.topo.BTopoControlPoint;
+import se.trixon.almond.util.MathHelper;
+
+/**
+ * Compares the grid search of GradePairFinder with the nested loops the grade
+ * managers used before, on the same generated points. Prints both timings and
+ * checks that the pair sets are identical.
+ * <p>
+ * The points are spread over a square and along a long narrow alignment. Run
+ * with the number of points as argument, 10 000 by default.
+ *
+ * @author Patrik Karlström
+ */
+public class GradePairFinderBenchmark {
+
+    //the distances of GradeHManager, GradeDManager and GradeVManager
+    private static final double MAX_HORIZONTAL_DISTANCE = 10.0;
+    private static final double MAX_RADIAL_DISTANCE = 50.0;
+    private static final double MAX_VERTICAL_DISTANCE = 50.0;
+    private static final double MIN_HORIZONTAL_DISTANCE = 0.0;
+    private static final double MIN_RADIAL_DISTANCE = 0.050;
+    private static final double MIN_VERTICAL_DISTANCE = 0.5;
+    private static final int NUM_OF_POINTS = 10_000;
+
+    public static void main(String[] args) {
+        var numOfPoints = args.length > 0 ? Integer.parseInt(args[0]) : NUM_OF_POINTS;
+        var random = new Random(42);
+
+        BiPredicate<BTopoControlPoint, BTopoControlPoint> all = (p1, p2) -> true;
+        BiPredicate<BTopoControlPoint, BTopoControlPoint> vertical = (p1, p2) -> {
+            double distanceH = Math.abs(p2.getZeroZ() - p1.getZeroZ());
+            return MathHelper.isBetween(MIN_VERTICAL_DISTANCE, MAX_VERTICAL_DISTANCE, distanceH);
+        };
+
+        var square = createPoints(random, numOfPoints, 1_000, 1_000);
+        var alignment = createPoints(random, numOfPoints, 20_000, 30);
+
+        run("Square, radial", square, MIN_RADIAL_DISTANCE, MAX_RADIAL_DISTANCE, all);
+        run("Square, vertical", square, MIN_HORIZONTAL_DISTANCE, MAX_HORIZONTAL_DISTANCE, vertical);
+        run("Alignment, radial", alignment, MIN_RADIAL_DISTANCE, MAX_RADIAL_DISTANCE, all);
+        run("Alignment, vertical", alignment, MIN_HORIZONTAL_DISTANCE, MAX_HORIZONTAL_DISTANCE, vertical);
+    }
+
+    private static List<BTopoControlPoint> createPoints(Random random, int numOfPoints, double width, double height) {
+        var points = new ArrayList<BTopoControlPoint>(numOfPoints);
+        for (int i = 0; i < numOfPoints; i++) {
+            var p = new BTopoControlPoint();
+            p.setName("P" + i);
+            p.setZeroX(6_580_000 + random.nextDouble() * height);
+            p.setZeroY(150_000 + random.nextDouble() * width);
+            p.setZeroZ(random.nextDouble() * 100);
+            points.add(p);
+        }
+
+        return points;
+    }
+
+    /**
+     * The nested loops used by the grade managers before the grid.
+     */
+    private static HashSet<String> getPairsNested(List<BTopoControlPoint> points, double minDistance, double maxDistance, BiPredicate<BTopoControlPoint, BTopoControlPoint> predicate) {
+        var pointToPoints = new TreeMap<String, HashSet<String>>();
+        for (var p1 : points) {
+            for (var p2 : points) {
+                var dx = p2.getZeroX() - p1.getZeroX();
+                var dy = p2.getZeroY() - p1.getZeroY();
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (p1 != p2 && MathHelper.isBetween(minDistance, maxDistance, distance) && predicate.test(p1, p2)) {
+                    if (!pointToPoints.computeIfAbsent(p2.getName(), k -> new HashSet<>()).contains(p1.getName())) {//Skip A-B, B-A
+                        pointToPoints.computeIfAbsent(p1.getName(), k -> new HashSet<>()).add(p2.getName());
+                    }
+                }
+            }
+        }
+
+        var keys = new HashSet<String>();
+        for (var entry : pointToPoints.entrySet()) {
+            for (var n2 : entry.getValue()) {
+                keys.add(getKey(entry.getKey(), n2));
+            }
+        }
+
+        return keys;
+    }
+
+    private static String getKey(String name1, String name2) {
+        return name1.compareTo(name2) < 0 ? name1 + "|" + name2 : name2 + "|" + name1;
+    }
+
+    private static void run(String title, List<BTopoControlPoint> points, double minDistance, double maxDistance, BiPredicate<BTopoControlPoint, BTopoControlPoint> predicate) {
+        //warm up
+        GradePairFinder.getPairs(points, minDistance, maxDistance, predicate);
+
+        var t0 = System.nanoTime();
+        var nestedKeys = getPairsNested(points, minDistance, maxDistance, predicate);
+        var nestedElapsed = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        var pairs = GradePairFinder.getPairs(points, minDistance, maxDistance, predicate);
+        var gridElapsed = System.nanoTime() - t0;
+
+        var gridKeys = new HashSet<String>();
+        for (var pair : pairs) {
+            gridKeys.add(getKey(pair.p1().getName(), pair.p2().getName()));
+        }
+
+        System.out.println("%s: %d points".formatted(title, points.size()));
+        System.out.println("  Nested: %d pairs in %d ms".formatted(nestedKeys.size(), nestedElapsed / 1_000_000));
+        System.out.println("  Grid:   %d pairs in %d ms".formatted(pairs.size(), gridElapsed / 1_000_000));
+        System.out.println("  %s".formatted(nestedKeys.equals(gridKeys) && pairs.size() == gridKeys.size() ? "Identical pair sets" : "PAIR SETS DIFFER"));
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.mapton.api;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import javafx.geometry.Point2D;
 import org.apache.commons.lang3.Strings;
 import org.geotools.api.geometry.MismatchedDimensionException;
@@ -38,6 +41,7 @@ import se.trixon.almond.util.Dict;
  */
 public class GeoToolsCooTrans implements MCooTrans {
 
+    private static final int CHUNK_SIZE = 1024;
     private final String mCrsCode;
     private MathTransform mInverseMathTransform;
     private MathTransform mMathTransform;
@@ -46,6 +50,56 @@ public class GeoToolsCooTrans implements MCooTrans {
     private MBounds mTargetBounds;
     private CoordinateReferenceSystem mTargetCrs;
 
+    /**
+     * Transform points stored as consecutive ordinates, in chunks that are run
+     * in parallel for larger batches.
+     * <p>
+     * The math transforms of GeoTools are immutable and can be shared between
+     * threads. A chunk that fails is retried point by point, and points that
+     * still can not be transformed are set to NaN.
+     *
+     * @param mathTransform
+     * @param source
+     * @param result may be the same array as the source if the dimensions are
+     * equal
+     * @param numPoints
+     */
+    public static void transform(MathTransform mathTransform, double[] source, double[] result, int numPoints) {
+        int sourceDimension = mathTransform.getSourceDimensions();
+        int targetDimension = mathTransform.getTargetDimensions();
+        int chunkCount = (numPoints + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        var firstException = new AtomicReference<TransformException>();
+
+        var chunks = IntStream.range(0, chunkCount);
+        if (chunkCount > 1) {
+            chunks = chunks.parallel();
+        }
+
+        chunks.forEach(chunk -> {
+            int first = chunk * CHUNK_SIZE;
+            int count = Math.min(CHUNK_SIZE, numPoints - first);
+            //copy the chunk since a failed transform may have written to the result
+            var buffer = Arrays.copyOfRange(source, first * sourceDimension, (first + count) * sourceDimension);
+
+            try {
+                mathTransform.transform(buffer, 0, result, first * targetDimension, count);
+            } catch (TransformException ex) {
+                for (int i = 0; i < count; i++) {
+                    try {
+                        mathTransform.transform(buffer, i * sourceDimension, result, (first + i) * targetDimension, 1);
+                    } catch (TransformException pointEx) {
+                        firstException.compareAndSet(null, pointEx);
+                        Arrays.fill(result, (first + i) * targetDimension, (first + i + 1) * targetDimension, Double.NaN);
+                    }
+                }
+            }
+        });
+
+        if (firstException.get() != null) {
+            Exceptions.printStackTrace(firstException.get());
+        }
+    }
+
     public GeoToolsCooTrans(String crsCode) {
         mCrsCode = crsCode;
 
@@ -65,6 +119,22 @@ public class GeoToolsCooTrans implements MCooTrans {
         return new Point2D(position.getCoordinate()[1], position.getCoordinate()[0]);
     }
 
+    @Override
+    public void fromWgs84(double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        var coordinates = new double[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            coordinates[i * 2] = longitudes[i];
+            coordinates[i * 2 + 1] = latitudes[i];
+        }
+
+        transform(mMathTransform, coordinates, coordinates, latitudes.length);
+
+        for (int i = 0; i < latitudes.length; i++) {
+            resultX[i] = coordinates[i * 2 + 1];
+            resultY[i] = coordinates[i * 2];
+        }
+    }
+
     @Override
     public MBounds getBoundsProjected() {
         return mTargetBounds;
@@ -147,6 +217,22 @@ public class GeoToolsCooTrans implements MCooTrans {
         return new Point2D(position.getCoordinate()[0], position.getCoordinate()[1]);
     }
 
+    @Override
+    public void toWgs84(double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        var coordinates = new double[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            coordinates[i * 2] = latitudes[i];
+            coordinates[i * 2 + 1] = longitudes[i];
+        }
+
+        transform(mInverseMathTransform, coordinates, coordinates, latitudes.length);
+
+        for (int i = 0; i < latitudes.length; i++) {
+            resultX[i] = coordinates[i * 2];
+            resultY[i] = coordinates[i * 2 + 1];
+        }
+    }
+
     @Override
     public Geometry transform(Geometry geometry) throws MismatchedDimensionException, TransformException {
         return JTS.transform(geometry, mMathTransform);
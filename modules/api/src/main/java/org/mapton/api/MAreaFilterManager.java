@@ -18,10 +18,12 @@ package org.mapton.api;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.prefs.Preferences;
+import java.util.stream.IntStream;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
@@ -36,6 +38,9 @@ import org.controlsfx.control.CheckModel;
 import org.controlsfx.control.CheckTreeView;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.openide.util.Exceptions;
@@ -50,6 +55,7 @@ public class MAreaFilterManager {
 
     private final Set<MArea> mAreaEnabledListenerSet;
     private final Map<String, CheckBoxTreeItem<MArea>> mAreaParents;
+    private volatile CheckedIndex mCheckedIndex;
     private CheckModel<TreeItem<MArea>> mCheckModel;
     private final Preferences mExpandedPreferences;
     private final GeometryFactory mGeometryFactory = new GeometryFactory();
@@ -119,22 +125,7 @@ public class MAreaFilterManager {
         if (ObjectUtils.anyNull(lat, lon)) {
             return false;
         } else {
-            if (mCheckModel.getCheckedItems().isEmpty()) {
-                return true;
-            } else {
-                var point = mGeometryFactory.createPoint(new Coordinate(lon, lat));
-
-                for (var checkedTreeItem : mCheckModel.getCheckedItems()) {
-                    if (checkedTreeItem.isLeaf()) {
-                        var areaGeometry = checkedTreeItem.getValue().getGeometry();
-                        if (areaGeometry.contains(point)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-
-            return false;
+            return isValidCoordinate(getCheckedIndex(), lat, lon);
         }
     }
 
@@ -142,6 +133,41 @@ public class MAreaFilterManager {
         return isValidCoordinate(latLon.getLatitude(), latLon.getLongitude());
     }
 
+    /**
+     * Classify many coordinates at once, in parallel.
+     *
+     * @param lats
+     * @param lons
+     * @return one result per coordinate, NaN coordinates are invalid
+     */
+    public boolean[] isValidCoordinates(double[] lats, double[] lons) {
+        var checkedIndex = getCheckedIndex();
+        var result = new boolean[lats.length];
+        IntStream.range(0, lats.length).parallel().forEach(i -> {
+            result[i] = !Double.isNaN(lats[i]) && !Double.isNaN(lons[i]) && isValidCoordinate(checkedIndex, lats[i], lons[i]);
+        });
+
+        return result;
+    }
+
+    /**
+     * Classify many coordinates at once, in parallel.
+     *
+     * @param latLons
+     * @return one result per coordinate, null coordinates are invalid
+     */
+    public boolean[] isValidCoordinates(List<MLatLon> latLons) {
+        var lats = new double[latLons.size()];
+        var lons = new double[latLons.size()];
+        for (int i = 0; i < lats.length; i++) {
+            var latLon = latLons.get(i);
+            lats[i] = latLon == null ? Double.NaN : latLon.getLatitude();
+            lons[i] = latLon == null ? Double.NaN : latLon.getLongitude();
+        }
+
+        return isValidCoordinates(lats, lons);
+    }
+
     public final ObjectProperty<ObservableList<MArea>> itemsProperty() {
         return mItemsProperty;
     }
@@ -162,6 +188,35 @@ public class MAreaFilterManager {
         return StringUtils.substringBeforeLast(area.getKey(), "/");
     }
 
+    /**
+     * Lock free unless the index has to be built again.
+     */
+    private CheckedIndex getCheckedIndex() {
+        var checkedIndex = mCheckedIndex;
+        if (checkedIndex == null) {
+            synchronized (this) {
+                checkedIndex = mCheckedIndex;
+                if (checkedIndex == null) {
+                    var checkedItems = List.copyOf(mCheckModel.getCheckedItems());
+                    var tree = new STRtree();
+                    for (var checkedTreeItem : checkedItems) {
+                        if (checkedTreeItem.isLeaf()) {
+                            var areaGeometry = checkedTreeItem.getValue().getGeometry();
+                            if (areaGeometry != null) {
+                                tree.insert(areaGeometry.getEnvelopeInternal(), PreparedGeometryFactory.prepare(areaGeometry));
+                            }
+                        }
+                    }
+                    tree.build();
+                    checkedIndex = new CheckedIndex(checkedItems.isEmpty(), tree);
+                    mCheckedIndex = checkedIndex;
+                }
+            }
+        }
+
+        return checkedIndex;
+    }
+
     private CheckBoxTreeItem<MArea> getParent(CheckBoxTreeItem<MArea> parent, String category) {
         String[] categorySegments = StringUtils.split(category, "/");
         StringBuilder sb = new StringBuilder();
@@ -203,6 +258,7 @@ public class MAreaFilterManager {
         });
 
         mCheckModel.getCheckedItems().addListener((ListChangeListener.Change<? extends TreeItem<MArea>> c) -> {
+            invalidateCheckedIndex();
             while (c.next()) {
                 if (c.wasAdded()) {
                     c.getAddedSubList().forEach(treeItem -> {
@@ -296,6 +352,29 @@ public class MAreaFilterManager {
         }
     }
 
+    private synchronized void invalidateCheckedIndex() {
+        mCheckedIndex = null;
+    }
+
+    private boolean isValidCoordinate(CheckedIndex checkedIndex, double lat, double lon) {
+        if (checkedIndex.noneChecked()) {
+            return true;
+        }
+
+        var point = mGeometryFactory.createPoint(new Coordinate(lon, lat));
+        for (var item : checkedIndex.tree().query(point.getEnvelopeInternal())) {
+            if (((PreparedGeometry) item).contains(point)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private record CheckedIndex(boolean noneChecked, STRtree tree) {
+
+    }
+
     private static class Holder {
 
         private static final MAreaFilterManager INSTANCE = new MAreaFilterManager();
@@ -61,6 +61,7 @@ public abstract class MBaseDataManager<T> {
     private final LinkedHashMap<Object, T> mFilteredItemsMap = new LinkedHashMap<>();
     private final ObjectProperty<ObservableList<T>> mFilteredItemsProperty = new SimpleObjectProperty<>();
     private final HashSet<T> mFilteredItemsSet = new HashSet<>();
+    private boolean mFilteredItemsTemporalFilter = true;
     private Boolean mInitialTemporalState = null;
     private boolean mLayerBundleEnabled;
     private T mOldSelectedValue;
@@ -348,6 +349,20 @@ public abstract class MBaseDataManager<T> {
         }
     }
 
+    /**
+     * @param items
+     * @param applyTemporalFilter false for managers that update the time
+     * filtered items themselves
+     */
+    public void setItemsFiltered(List<T> items, boolean applyTemporalFilter) {
+        mFilteredItemsTemporalFilter = applyTemporalFilter;
+        try {
+            setItemsFiltered(items);
+        } finally {
+            mFilteredItemsTemporalFilter = true;
+        }
+    }
+
     public void setItemsTimeFiltered(List<T> items) {
         synchronized (getTimeFilteredItems()) {
             getTimeFilteredItems().setAll(items);
@@ -418,6 +433,21 @@ public abstract class MBaseDataManager<T> {
         mTemporalManager.refresh();
     }
 
+    /**
+     * Replace the range of an already loaded domain, put and refresh only if
+     * the layer bundle is enabled.
+     *
+     * @param temporalRange
+     */
+    public void updateTemporalRange(MTemporalRange temporalRange) {
+        mStoredTemporalRange = temporalRange;
+        mTemporalRangeProperty.set(temporalRange);
+        if (mLayerBundleEnabled) {
+            mTemporalManager.put(TEMPORAL_PREFIX, temporalRange);
+            mTemporalManager.refresh();
+        }
+    }
+
     protected abstract void applyTemporalFilter();
 
     protected MLatLonBox getTimeFilteredExtents() {
@@ -439,7 +469,9 @@ public abstract class MBaseDataManager<T> {
         });
 
         getFilteredItems().addListener((ListChangeListener.Change<? extends T> c) -> {
-            mDelayedResetRunner.reset();
+            if (mFilteredItemsTemporalFilter) {
+                mDelayedResetRunner.reset();
+            }
         });
 
         mSelectedItemProperty.addListener((p, o, n) -> {
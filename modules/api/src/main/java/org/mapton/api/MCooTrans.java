@@ -27,14 +27,12 @@ import org.locationtech.jts.geom.Geometry;
 public interface MCooTrans {
 
     public static MCooTrans getCooTrans(String name) {
-        var items = MCrsManager.getInstance().getItems();
-        for (var cooTrans : items) {
-            if (cooTrans.getName().equalsIgnoreCase(name)) {
-                return cooTrans;
-            }
+        var cooTrans = MCrsManager.getInstance().getCooTrans(name);
+        if (cooTrans != null) {
+            return cooTrans;
         }
 
-        var cooTrans = items.get(0);
+        cooTrans = MCrsManager.getInstance().getItems().get(0);
         MOptions.getInstance().setMapCooTrans(cooTrans.getName());
 
         return cooTrans;
@@ -42,6 +40,26 @@ public interface MCooTrans {
 
     Point2D fromWgs84(double latitude, double longitude);
 
+    /**
+     * Batch version of {@link #fromWgs84(double, double)}, the result arrays
+     * may be the same as the source arrays.
+     * <p>
+     * Points that can not be transformed are set to NaN, unlike the point
+     * version, and should be skipped by the caller.
+     *
+     * @param latitudes
+     * @param longitudes
+     * @param resultX
+     * @param resultY
+     */
+    default void fromWgs84(double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        for (int i = 0; i < latitudes.length; i++) {
+            var p = fromWgs84(latitudes[i], longitudes[i]);
+            resultX[i] = p.getX();
+            resultY[i] = p.getY();
+        }
+    }
+
     MBounds getBoundsProjected();
 
     MBounds getBoundsWgs84();
@@ -68,6 +86,26 @@ public interface MCooTrans {
 
     Point2D toWgs84(double latitude, double longitude);
 
+    /**
+     * Batch version of {@link #toWgs84(double, double)}, the result arrays may
+     * be the same as the source arrays.
+     * <p>
+     * Points that can not be transformed are set to NaN, unlike the point
+     * version, and should be skipped by the caller.
+     *
+     * @param latitudes
+     * @param longitudes
+     * @param resultX
+     * @param resultY
+     */
+    default void toWgs84(double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        for (int i = 0; i < latitudes.length; i++) {
+            var p = toWgs84(latitudes[i], longitudes[i]);
+            resultX[i] = p.getX();
+            resultY[i] = p.getY();
+        }
+    }
+
     default Geometry transform(Geometry geometry) throws MismatchedDimensionException, TransformException {
         throw new UnsupportedOperationException("Not supported yet.");
     }
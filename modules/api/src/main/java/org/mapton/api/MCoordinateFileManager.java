@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javafx.application.Platform;
 import javafx.beans.property.LongProperty;
@@ -46,6 +47,7 @@ public class MCoordinateFileManager {
 
     private File mConfigDir;
     private final MFileWatcher mFileWatcher = MFileWatcher.getInstance();
+    private final ConcurrentHashMap<File, MFileWatcherListener> mFileToWatcherListener = new ConcurrentHashMap<>();
     private ObjectProperty<ObservableList<MCoordinateFile>> mItemsProperty = new SimpleObjectProperty<>();
     private File mSourcesFile;
     private final LongProperty mUpdatedProperty = new SimpleLongProperty();
@@ -163,8 +165,12 @@ public class MCoordinateFileManager {
         FxHelper.runLater(() -> {
             try {
                 if (coordinateFiles == null || coordinateFiles.length == 0) {
+                    mItemsProperty.get().forEach(this::removeWatcher);
                     mItemsProperty.get().clear();
                 } else {
+                    for (var coordinateFile : coordinateFiles) {
+                        removeWatcher(coordinateFile);
+                    }
                     mItemsProperty.get().removeAll(coordinateFiles);
                 }
             } catch (Exception e) {
@@ -209,7 +215,7 @@ public class MCoordinateFileManager {
     }
 
     private void addWatcher(MCoordinateFile coordinateFile) {
-        mFileWatcher.addWatch(coordinateFile.getFile(), TimeUnit.SECONDS.toMillis(1), new MFileWatcherListener() {
+        var listener = new MFileWatcherListener() {
             @Override
             public void onFileChange(File file) {
                 FxHelper.runLater(() -> {
@@ -225,7 +231,11 @@ public class MCoordinateFileManager {
                 removeAll(coordinateFile);
                 refresh();
             }
-        });
+        };
+
+        if (mFileToWatcherListener.putIfAbsent(coordinateFile.getFile(), listener) == null) {
+            mFileWatcher.addWatch(coordinateFile.getFile(), TimeUnit.SECONDS.toMillis(1), listener);
+        }
     }
 
     private File getSourcesFile() {
@@ -244,6 +254,13 @@ public class MCoordinateFileManager {
         }, getFileOpenerKeys());
     }
 
+    private void removeWatcher(MCoordinateFile coordinateFile) {
+        var listener = mFileToWatcherListener.remove(coordinateFile.getFile());
+        if (listener != null) {
+            mFileWatcher.removeWatch(coordinateFile.getFile(), listener);
+        }
+    }
+
     private static class Holder {
 
         private static final MCoordinateFileManager INSTANCE = new MCoordinateFileManager();
@@ -19,13 +19,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.apache.commons.lang3.StringUtils;
 import org.geotools.api.referencing.FactoryException;
@@ -46,6 +49,7 @@ public class MCrsManager {
     private final String KEY_SELECTED = "crs.selected";
     private final ObservableList<CoordinateReferenceSystem> mAllSystems = FXCollections.observableArrayList();
     private final ObjectProperty<ObservableList<MCooTrans>> mItemsProperty = new SimpleObjectProperty<>();
+    private volatile HashMap<String, MCooTrans> mNameToCooTrans = new HashMap<>();
     private final Preferences mPreferences = NbPreferences.forModule(MCrsManager.class);
     private final ObjectProperty<CoordinateReferenceSystem> mSelectedSystemProperty = new SimpleObjectProperty<>();
     private final ObservableList<CoordinateReferenceSystem> mSelectedSystems = FXCollections.observableArrayList();
@@ -56,6 +60,13 @@ public class MCrsManager {
 
     private MCrsManager() {
         mItemsProperty.setValue(FXCollections.observableArrayList());
+        getItems().addListener((ListChangeListener.Change<? extends MCooTrans> c) -> {
+            var nameToCooTrans = new HashMap<String, MCooTrans>();
+            for (var cooTrans : getItems()) {
+                nameToCooTrans.putIfAbsent(getKey(cooTrans.getName()), cooTrans);
+            }
+            mNameToCooTrans = nameToCooTrans;
+        });
         new Thread(() -> {
             init();
             initListeners();
@@ -68,6 +79,14 @@ public class MCrsManager {
         return mAllSystems;
     }
 
+    /**
+     * @param name
+     * @return the item with the name, ignoring case, null if missing
+     */
+    public MCooTrans getCooTrans(String name) {
+        return name == null ? null : mNameToCooTrans.get(getKey(name));
+    }
+
     public final ObservableList<MCooTrans> getItems() {
         return mItemsProperty.get();
     }
@@ -103,6 +122,10 @@ public class MCrsManager {
         mSelectedSystemProperty.set(crs);
     }
 
+    private String getKey(String name) {
+        return name.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
     private void init() {
         var defaultSystems = """
                              EPSG:3007
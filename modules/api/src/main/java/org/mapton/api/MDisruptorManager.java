@@ -15,17 +15,22 @@
  */
 package org.mapton.api;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javafx.beans.property.SimpleLongProperty;
 import org.apache.commons.lang3.ObjectUtils;
 import org.controlsfx.control.IndexedCheckModel;
 import org.geotools.geometry.jts.JTSFactoryFinder;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.openide.util.Lookup;
 
 /**
@@ -34,8 +39,11 @@ import org.openide.util.Lookup;
  */
 public class MDisruptorManager {
 
+    private static final int DISTANCE_CACHE_MAX_SIZE = 1_000_000;
+    private final ConcurrentHashMap<DistanceKey, Boolean> mDistanceCache = new ConcurrentHashMap<>();
     private final GeometryFactory mGeometryFactory = JTSFactoryFinder.getGeometryFactory();
-    private final Map<String, List<? extends Geometry>> mIdToGeometries = new HashMap<>();
+    private final AtomicLong mGeneration = new AtomicLong();
+    private final Map<String, STRtree> mIdToIndex = new ConcurrentHashMap<>();
     private final Map<String, List<MLatLon>> mIdToPoints = new HashMap<>();
     private final SimpleLongProperty mLastChangedProperty = new SimpleLongProperty();
 
@@ -61,30 +69,46 @@ public class MDisruptorManager {
             return false;
         }
 
-        var point = mGeometryFactory.createPoint(new Coordinate(y, x));
-
-        for (var entry : mIdToGeometries.entrySet()) {
-            if (!checkModel.isChecked(entry.getKey())) {
-                continue;
+        var checkedIds = new ArrayList<String>();
+        for (var id : mIdToIndex.keySet()) {
+            if (checkModel.isChecked(id)) {
+                checkedIds.add(id);
             }
+        }
+        checkedIds.sort(null);
 
-            for (var geometry : entry.getValue()) {
-                var distance = geometry.distance(point);
-                if (distance <= limitDistance) {
-                    return min;
-                }
-            }
+        if (mDistanceCache.size() > DISTANCE_CACHE_MAX_SIZE) {
+            mDistanceCache.clear();
         }
 
-        return !min;
+        var key = new DistanceKey(mGeneration.get(), checkedIds, limitDistance, x, y);
+        var near = mDistanceCache.computeIfAbsent(key, k -> isNear(checkedIds, limitDistance, x, y));
+
+        return near ? min : !min;
     }
 
     public SimpleLongProperty lastChangedProperty() {
         return mLastChangedProperty;
     }
 
+    /**
+     * Set the geometries of a disruptor and rebuild its spatial index
+     *
+     * @param id
+     * @param list
+     */
     public void putGeometries(String id, List<? extends Geometry> list) {
-        mIdToGeometries.put(id, list);
+        var index = new STRtree();
+        for (var geometry : list) {
+            if (geometry != null) {
+                index.insert(geometry.getEnvelopeInternal(), geometry);
+            }
+        }
+        index.build();
+
+        mIdToIndex.put(id, index);
+        mGeneration.incrementAndGet();
+        mDistanceCache.clear();
         mLastChangedProperty.set(System.currentTimeMillis());
     }
 
@@ -104,6 +128,31 @@ public class MDisruptorManager {
         return mIdToPoints.remove(id);
     }
 
+    private boolean isNear(List<String> ids, double limitDistance, double x, double y) {
+        var point = mGeometryFactory.createPoint(new Coordinate(y, x));
+        var searchEnvelope = new Envelope(point.getCoordinate());
+        searchEnvelope.expandBy(limitDistance);
+
+        for (var id : ids) {
+            var index = mIdToIndex.get(id);
+            if (index == null) {
+                continue;
+            }
+
+            for (var item : index.query(searchEnvelope)) {
+                if (((Geometry) item).isWithinDistance(point, limitDistance)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private record DistanceKey(long generation, List<String> ids, double distance, double x, double y) {
+
+    }
+
     private static class Holder {
 
         private static final MDisruptorManager INSTANCE = new MDisruptorManager();
@@ -17,96 +17,396 @@ package org.mapton.api;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.codec.digest.MessageDigestAlgorithms;
-import org.apache.commons.io.filefilter.FileFilterUtils;
-import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.apache.commons.io.monitor.FileAlterationObserver;
-import org.apache.commons.lang3.Strings;
+import java.util.zip.CRC32C;
 import org.openide.util.Exceptions;
 
 /**
+ * Watches files for changes and deletions on one shared thread.
+ * <p>
+ * The directories of the watched files are registered with a
+ * {@link WatchService}, and all files are also polled for size and
+ * modification time, which covers file systems without native events. Events
+ * are coalesced per file and delivered when a listener's debounce time has
+ * passed without further events. A file with a new modification time but the
+ * same size is only reported if the CRC of one of its chunks differs.
+ * Listeners are called on a single dispatch thread.
  *
  * @author Patrik Karlström
  */
 public class MFileWatcher {
 
-    private final DigestUtils mDigestUtils = new DigestUtils(MessageDigestAlgorithms.SHA_256);
-    private final HashMap<File, String> mFileToDigest = new HashMap<>();
-    private final HashMap<File, Boolean> mFileToBoolean = new HashMap<>();
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final long POLL_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private final HashMap<Path, WatchKey> mDirToWatchKey = new HashMap<>();
+    private final ExecutorService mDispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, MFileWatcher.class.getName() + ": dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<File, Boolean> mFileToBoolean = new ConcurrentHashMap<>();
+    private final HashMap<Path, WatchedFile> mPathToWatchedFile = new HashMap<>();
+    private Thread mThread;
+    private WatchService mWatchService;
 
-    public void enable(File file) {
-        mFileToBoolean.put(file, Boolean.TRUE);
+    public static MFileWatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private MFileWatcher() {
+        try {
+            mWatchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException ex) {
+            //nvm Polling only
+        }
+    }
+
+    /**
+     * @param file
+     * @param debounce milliseconds without changes before the listener is
+     * notified
+     * @param fileWatcherListener
+     */
+    public synchronized void addWatch(File file, long debounce, MFileWatcherListener fileWatcherListener) {
+        var path = file.toPath().toAbsolutePath().normalize();
+        var watchedFile = mPathToWatchedFile.computeIfAbsent(path, k -> new WatchedFile(file, k));
+        watchedFile.mWatches.add(new Watch(fileWatcherListener, Math.max(0, debounce), watchedFile.mGeneration));
+
+        var dir = path.getParent();
+        if (mWatchService != null && dir != null && !mDirToWatchKey.containsKey(dir)) {
+            try {
+                mDirToWatchKey.put(dir, dir.register(mWatchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY
+                ));
+            } catch (IOException | UnsupportedOperationException ex) {
+                //nvm Polled
+            }
+        }
+
+        if (mThread == null) {
+            mThread = new Thread(this::run, MFileWatcher.class.getName());
+            mThread.setDaemon(true);
+            mThread.start();
+        } else {
+            notifyAll();
+        }
     }
 
     public void disable(File file) {
         mFileToBoolean.put(file, Boolean.FALSE);
     }
 
-    public static MFileWatcher getInstance() {
-        return Holder.INSTANCE;
+    /**
+     * Changes made while disabled are not reported, not even after enabling.
+     *
+     * @param file
+     */
+    public void enable(File file) {
+        mFileToBoolean.put(file, Boolean.TRUE);
     }
 
-    private MFileWatcher() {
+    public synchronized void removeWatch(File file, MFileWatcherListener fileWatcherListener) {
+        var path = file.toPath().toAbsolutePath().normalize();
+        var watchedFile = mPathToWatchedFile.get(path);
+        if (watchedFile == null) {
+            return;
+        }
+
+        watchedFile.mWatches.removeIf(watch -> watch.mListener == fileWatcherListener);
+        if (watchedFile.mWatches.isEmpty()) {
+            mPathToWatchedFile.remove(path);
+            var dir = path.getParent();
+            if (mPathToWatchedFile.keySet().stream().noneMatch(p -> Objects.equals(p.getParent(), dir))) {
+                var watchKey = mDirToWatchKey.remove(dir);
+                if (watchKey != null) {
+                    watchKey.cancel();
+                }
+            }
+        }
     }
 
-    public void addWatch(File file, long interval, MFileWatcherListener fileWatcherListener) {
-        var directory = file.getParentFile();
-
-        var directoryFilter = FileFilterUtils.and(
-                FileFilterUtils.directoryFileFilter(),
-                FileFilterUtils.nameFileFilter(directory.getName()));
-
-        var fileFilter = FileFilterUtils.and(
-                FileFilterUtils.fileFileFilter(),
-                FileFilterUtils.nameFileFilter(file.getName()));
-
-        var filter = FileFilterUtils.or(directoryFilter, fileFilter);
-
-        var observer = new FileAlterationObserver(directory, filter);
-        var monitor = new FileAlterationMonitor(TimeUnit.SECONDS.toMillis(1), observer);
-        var listener = new FileAlterationListenerAdaptor() {
-            private final File fileToMonitor = file;
-
-            @Override
-            public void onFileChange(File file) {
-                if (file.equals(fileToMonitor) && mFileToBoolean.getOrDefault(file, Boolean.TRUE)) {
-                    var oldValue = mFileToDigest.get(file);
-                    try {
-                        var newValue = mDigestUtils.digestAsHex(file);
-                        if (!Strings.CS.equals(newValue, oldValue)) {
-                            mFileToDigest.put(file, newValue);
-                            fileWatcherListener.onFileChange(file);
+    private void deliver(long now) {
+        var dueFiles = new ArrayList<WatchedFile>();
+        synchronized (this) {
+            for (var watchedFile : mPathToWatchedFile.values()) {
+                if (watchedFile.mWatches.stream().anyMatch(watch -> watch.isDue(now))) {
+                    dueFiles.add(watchedFile);
+                }
+            }
+        }
+
+        //Read and hash outside of the lock, the file state is only used by this thread
+        var changedFiles = new HashSet<WatchedFile>();
+        for (var watchedFile : dueFiles) {
+            if (watchedFile.evaluate()) {
+                changedFiles.add(watchedFile);
+            }
+        }
+
+        synchronized (this) {
+            for (var watchedFile : dueFiles) {
+                if (changedFiles.contains(watchedFile)) {
+                    watchedFile.mGeneration++;
+                }
+
+                for (var watch : watchedFile.mWatches) {
+                    if (!watch.isDue(now)) {
+                        continue;
+                    }
+
+                    watch.mDueTime = 0;
+                    if (watch.mGeneration != watchedFile.mGeneration) {
+                        watch.mGeneration = watchedFile.mGeneration;
+                        if (mFileToBoolean.getOrDefault(watchedFile.mFile, Boolean.TRUE)) {
+                            var file = watchedFile.mFile;
+                            var listener = watch.mListener;
+                            boolean exists = watchedFile.mExists;
+                            mDispatcher.execute(() -> {
+                                try {
+                                    if (exists) {
+                                        listener.onFileChange(file);
+                                    } else {
+                                        listener.onFileDelete(file);
+                                    }
+                                } catch (Exception ex) {
+                                    Exceptions.printStackTrace(ex);
+                                }
+                            });
                         }
-                    } catch (IOException ex) {
-                        Exceptions.printStackTrace(ex);
                     }
                 }
             }
+        }
+    }
 
-            @Override
-            public void onFileDelete(File file) {
-                if (file.equals(fileToMonitor)) {
-                    fileWatcherListener.onFileDelete(file);
+    private synchronized long getNextDueTime() {
+        long dueTime = Long.MAX_VALUE;
+        for (var watchedFile : mPathToWatchedFile.values()) {
+            for (var watch : watchedFile.mWatches) {
+                if (watch.mDueTime != 0) {
+                    dueTime = Math.min(dueTime, watch.mDueTime);
+                }
+            }
+        }
+
+        return dueTime;
+    }
+
+    private synchronized void handle(WatchKey watchKey, long now) {
+        var dir = (Path) watchKey.watchable();
+        for (var event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (var watchedFile : mPathToWatchedFile.values()) {
+                    if (dir.equals(watchedFile.mPath.getParent())) {
+                        watchedFile.schedule(now);
+                    }
                 }
+            } else if (event.context() instanceof Path name) {
+                var watchedFile = mPathToWatchedFile.get(dir.resolve(name));
+                if (watchedFile != null) {
+                    watchedFile.schedule(now);
+                }
+            }
+        }
+
+        if (!watchKey.reset()) {
+            mDirToWatchKey.remove(dir);
+        }
+    }
+
+    private void poll(long now) {
+        ArrayList<WatchedFile> watchedFiles;
+        synchronized (this) {
+            watchedFiles = new ArrayList<>(mPathToWatchedFile.values());
+        }
+
+        var changedFiles = watchedFiles.stream()
+                .filter(watchedFile -> watchedFile.isStatChanged())
+                .toList();
+
+        synchronized (this) {
+            changedFiles.forEach(watchedFile -> watchedFile.schedule(now));
+        }
+    }
+
+    private void run() {
+        long nextPoll = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long now = System.currentTimeMillis();
+            if (now >= nextPoll) {
+                poll(now);
+                nextPoll = now + POLL_INTERVAL;
             }
-        };
+            deliver(now);
 
-        new Thread(() -> {
-            observer.addListener(listener);
+            long timeout = Math.max(1, Math.min(nextPoll, getNextDueTime()) - System.currentTimeMillis());
             try {
-                monitor.start();
-            } catch (Exception ex) {
-                Exceptions.printStackTrace(ex);
+                if (mWatchService != null) {
+                    var watchKey = mWatchService.poll(timeout, TimeUnit.MILLISECONDS);
+                    if (watchKey != null) {
+                        handle(watchKey, System.currentTimeMillis());
+                    }
+                } else {
+                    synchronized (this) {
+                        wait(timeout);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException ex) {
+                mWatchService = null;
             }
-        }, "%s: %s".formatted(MFileWatcher.class.getName(), file.getName())).start();
+        }
     }
 
     private static class Holder {
 
         private static final MFileWatcher INSTANCE = new MFileWatcher();
     }
+
+    private static class Watch {
+
+        private final long mDebounce;
+        private long mDueTime;
+        private long mGeneration;
+        private final MFileWatcherListener mListener;
+
+        public Watch(MFileWatcherListener listener, long debounce, long generation) {
+            mListener = listener;
+            mDebounce = debounce;
+            mGeneration = generation;
+        }
+
+        private boolean isDue(long now) {
+            return mDueTime != 0 && mDueTime <= now;
+        }
+    }
+
+    private static class WatchedFile {
+
+        private long[] mChunkChecksums;
+        private boolean mExists;
+        private final File mFile;
+        private long mGeneration;
+        private long mLastModified;
+        private final Path mPath;
+        private long mSize;
+        private boolean mStatExists;
+        private long mStatLastModified;
+        private long mStatSize;
+        private final ArrayList<Watch> mWatches = new ArrayList<>();
+
+        public WatchedFile(File file, Path path) {
+            mFile = file;
+            mPath = path;
+            isStatChanged();
+            mExists = mStatExists;
+            mSize = mStatSize;
+            mLastModified = mStatLastModified;
+        }
+
+        /**
+         * Compare the file with its last known content.
+         *
+         * @return true if it differs, a new generation should be started
+         */
+        private boolean evaluate() {
+            boolean changed = false;
+            isStatChanged();
+            if (mStatExists != mExists || mStatSize != mSize) {
+                mChunkChecksums = null;
+                changed = true;
+            } else if (mStatExists && mStatLastModified != mLastModified) {
+                var chunkChecksums = getChunkChecksums();
+                changed = chunkChecksums == null || !Arrays.equals(chunkChecksums, mChunkChecksums);
+                mChunkChecksums = chunkChecksums;
+            }
+
+            mExists = mStatExists;
+            mSize = mStatSize;
+            mLastModified = mStatLastModified;
+
+            return changed;
+        }
+
+        private long[] getChunkChecksums() {
+            try (var channel = FileChannel.open(mPath, StandardOpenOption.READ)) {
+                var chunkChecksums = new long[(int) ((channel.size() + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+                var buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+                var crc = new CRC32C();
+                for (int i = 0; i < chunkChecksums.length; i++) {
+                    buffer.clear();
+                    while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                        //fill the chunk
+                    }
+                    buffer.flip();
+                    crc.reset();
+                    crc.update(buffer);
+                    chunkChecksums[i] = crc.getValue();
+                }
+
+                return chunkChecksums;
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * Read size and modification time, cheap enough to run on every poll.
+         *
+         * @return true if they differ from the previous read
+         */
+        private boolean isStatChanged() {
+            boolean exists;
+            long size;
+            long lastModified;
+            try {
+                var attributes = Files.readAttributes(mPath, BasicFileAttributes.class);
+                exists = true;
+                size = attributes.size();
+                lastModified = attributes.lastModifiedTime().toMillis();
+            } catch (IOException ex) {
+                exists = false;
+                size = -1;
+                lastModified = -1;
+            }
+
+            boolean changed = exists != mStatExists || size != mStatSize || lastModified != mStatLastModified;
+            mStatExists = exists;
+            mStatSize = size;
+            mStatLastModified = lastModified;
+
+            return changed;
+        }
+
+        /**
+         * Restart the debounce time of every watch.
+         */
+        private void schedule(long now) {
+            for (var watch : mWatches) {
+                watch.mDueTime = now + watch.mDebounce;
+            }
+        }
+    }
 }
@@ -104,6 +104,27 @@ public class MTemporalManager {
         return subSet;
     }
 
+    /**
+     * @return the number of observations between the low and high date in
+     * all ranges with day counts, -1 if there are none
+     */
+    public long getCount() {
+        long count = -1;
+        var low = getLowDate();
+        var high = getHighDate();
+        if (low == null || high == null) {
+            return count;
+        }
+
+        for (var range : mRanges.values()) {
+            if (range.hasCounts()) {
+                count = Math.max(count, 0) + range.getCount(low, high);
+            }
+        }
+
+        return count;
+    }
+
     public DateSelectionMode getDateSelectionMode() {
         return mDateSelectionModeProperty.getValue();
     }
@@ -148,27 +169,27 @@ public class MTemporalManager {
         return mHighDateProperty;
     }
 
-    public synchronized boolean isValid(String string) {
+    public boolean isValid(String string) {
         return isValid(LocalDate.parse(string));
     }
 
-    public synchronized boolean isValid(LocalDate localDate) {
+    public boolean isValid(LocalDate localDate) {
         return getLowDate().compareTo(localDate) * localDate.compareTo(getHighDate()) >= 0;
     }
 
-    public synchronized boolean isValid(LocalDateTime localDateTime) {
+    public boolean isValid(LocalDateTime localDateTime) {
         return isValid(localDateTime.toLocalDate());
     }
 
-    public synchronized boolean isValid(Timestamp timestamp) {
+    public boolean isValid(Timestamp timestamp) {
         return isValid(timestamp.toLocalDateTime().toLocalDate());
     }
 
-    public synchronized boolean isValid(java.sql.Date date) {
+    public boolean isValid(java.sql.Date date) {
         return isValid(date.toLocalDate());
     }
 
-    public synchronized boolean isValid(java.util.Date date) {
+    public boolean isValid(java.util.Date date) {
         return isValid(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
     }
 
@@ -26,6 +26,7 @@ import java.util.Date;
  */
 public class MTemporalRange {
 
+    private long[] mCumulativeCounts;
     private LocalDate mFromLocalDate;
     private LocalDate mToLocalDate;
 
@@ -47,6 +48,24 @@ public class MTemporalRange {
         mToLocalDate = toDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
+    /**
+     * @param from
+     * @param to
+     * @return the number of observations from and including from to and
+     * including to, -1 if there are no day counts
+     */
+    public long getCount(LocalDate from, LocalDate to) {
+        if (mCumulativeCounts == null) {
+            return -1;
+        }
+
+        long first = mFromLocalDate.toEpochDay();
+        int fromIndex = (int) Math.max(0, Math.min(mCumulativeCounts.length - 1, from.toEpochDay() - first));
+        int toIndex = (int) Math.max(0, Math.min(mCumulativeCounts.length - 1, to.toEpochDay() - first + 1));
+
+        return Math.max(0, mCumulativeCounts[toIndex] - mCumulativeCounts[fromIndex]);
+    }
+
     public LocalDate getFromLocalDate() {
         return mFromLocalDate;
     }
@@ -55,6 +74,26 @@ public class MTemporalRange {
         return mToLocalDate;
     }
 
+    public boolean hasCounts() {
+        return mCumulativeCounts != null;
+    }
+
+    /**
+     * @param dayCounts the number of observations per day, starting at the
+     * from date
+     */
+    public void setDayCounts(int[] dayCounts) {
+        if (dayCounts == null) {
+            mCumulativeCounts = null;
+            return;
+        }
+
+        mCumulativeCounts = new long[dayCounts.length + 1];
+        for (int i = 0; i < dayCounts.length; i++) {
+            mCumulativeCounts[i + 1] = mCumulativeCounts[i] + dayCounts[i];
+        }
+    }
+
     public void setFromLocalDate(LocalDate fromLocalDate) {
         mFromLocalDate = fromLocalDate;
     }
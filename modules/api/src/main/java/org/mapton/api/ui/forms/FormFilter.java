@@ -29,8 +29,13 @@ import static j2html.TagCreator.td;
 import static j2html.TagCreator.title;
 import static j2html.TagCreator.tr;
 import j2html.tags.ContainerTag;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
@@ -190,6 +195,38 @@ public abstract class FormFilter<ManagerType extends MBaseDataManager> {
         return valid;
     }
 
+    /**
+     * Classify all items against the checked areas in one parallel call, for
+     * filter streams over many items.
+     *
+     * @param <T>
+     * @param items
+     * @param latFunction
+     * @param lonFunction
+     * @return a predicate that is true for the items within a checked area
+     */
+    public <T> Predicate<T> validateCoordinateArea(List<? extends T> items, Function<? super T, Double> latFunction, Function<? super T, Double> lonFunction) {
+        var lats = new double[items.size()];
+        var lons = new double[items.size()];
+        for (int i = 0; i < lats.length; i++) {
+            var item = items.get(i);
+            var lat = latFunction.apply(item);
+            var lon = lonFunction.apply(item);
+            lats[i] = lat == null ? Double.NaN : lat;
+            lons[i] = lon == null ? Double.NaN : lon;
+        }
+
+        var valid = mAreaFilterManager.isValidCoordinates(lats, lons);
+        var validItems = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+        for (int i = 0; i < valid.length; i++) {
+            if (valid[i]) {
+                validItems.add(items.get(i));
+            }
+        }
+
+        return validItems::contains;
+    }
+
     public boolean validateCoordinateCircle(Double lat, Double lon) {
         return mCircleFilterManager.isWithinCircle(lat, lon);
     }
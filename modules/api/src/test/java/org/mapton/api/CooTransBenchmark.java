@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.api;
+
+import java.util.Random;
+
+/**
+ * Times transforms one point at a time and in batches, for the SWEREF99 and
+ * RT90 zones, and checks that both give the same result.
+ * <p>
+ * Run with the number of points as argument, 200 000 by default.
+ *
+ * @author Patrik Karlström
+ */
+public class CooTransBenchmark {
+
+    private static final String[] CRS_CODES = {
+        "EPSG:3006",
+        "EPSG:3007",
+        "EPSG:3008",
+        "EPSG:3009",
+        "EPSG:3010",
+        "EPSG:3011",
+        "EPSG:3012",
+        "EPSG:3013",
+        "EPSG:3014",
+        "EPSG:3015",
+        "EPSG:3016",
+        "EPSG:3017",
+        "EPSG:3018",
+        "EPSG:3019",
+        "EPSG:3020",
+        "EPSG:3021",
+        "EPSG:3022",
+        "EPSG:3023",
+        "EPSG:3024"
+    };
+    private static final int NUM_OF_POINTS = 200_000;
+    private static final int NUM_OF_WARMUPS = 3;
+
+    public static void main(String[] args) {
+        var numOfPoints = args.length > 0 ? Integer.parseInt(args[0]) : NUM_OF_POINTS;
+        var random = new Random(42);
+
+        System.out.println("%-40s %12s %12s %12s %12s %10s".formatted("CRS", "from us/pt", "batch us/pt", "to us/pt", "batch us/pt", "max diff"));
+        for (var crsCode : CRS_CODES) {
+            var cooTrans = new GeoToolsCooTrans(crsCode);
+            var bounds = cooTrans.getBoundsWgs84();
+            var latitudes = new double[numOfPoints];
+            var longitudes = new double[numOfPoints];
+            for (int i = 0; i < numOfPoints; i++) {
+                latitudes[i] = bounds.getMinY() + random.nextDouble() * bounds.getHeight();
+                longitudes[i] = bounds.getMinX() + random.nextDouble() * bounds.getWidth();
+            }
+
+            var pointX = new double[numOfPoints];
+            var pointY = new double[numOfPoints];
+            var batchX = new double[numOfPoints];
+            var batchY = new double[numOfPoints];
+            var wgs84PointX = new double[numOfPoints];
+            var wgs84PointY = new double[numOfPoints];
+            var wgs84BatchX = new double[numOfPoints];
+            var wgs84BatchY = new double[numOfPoints];
+
+            for (int i = 0; i < NUM_OF_WARMUPS; i++) {
+                fromWgs84(cooTrans, latitudes, longitudes, pointX, pointY);
+                cooTrans.fromWgs84(latitudes, longitudes, batchX, batchY);
+                toWgs84(cooTrans, pointY, pointX, wgs84PointX, wgs84PointY);
+                cooTrans.toWgs84(batchY, batchX, wgs84BatchX, wgs84BatchY);
+            }
+
+            var t0 = System.nanoTime();
+            fromWgs84(cooTrans, latitudes, longitudes, pointX, pointY);
+            var fromPoint = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            cooTrans.fromWgs84(latitudes, longitudes, batchX, batchY);
+            var fromBatch = System.nanoTime() - t0;
+
+            //the northing is passed as latitude
+            t0 = System.nanoTime();
+            toWgs84(cooTrans, pointY, pointX, wgs84PointX, wgs84PointY);
+            var toPoint = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            cooTrans.toWgs84(batchY, batchX, wgs84BatchX, wgs84BatchY);
+            var toBatch = System.nanoTime() - t0;
+
+            var maxDiff = Math.max(
+                    Math.max(getMaxDiff(pointX, batchX), getMaxDiff(pointY, batchY)),
+                    Math.max(getMaxDiff(wgs84PointX, wgs84BatchX), getMaxDiff(wgs84PointY, wgs84BatchY))
+            );
+
+            System.out.println("%-40s %12.3f %12.3f %12.3f %12.3f %10.1e".formatted(
+                    cooTrans.getName(),
+                    fromPoint / 1000.0 / numOfPoints,
+                    fromBatch / 1000.0 / numOfPoints,
+                    toPoint / 1000.0 / numOfPoints,
+                    toBatch / 1000.0 / numOfPoints,
+                    maxDiff
+            ));
+        }
+    }
+
+    private static void fromWgs84(MCooTrans cooTrans, double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        for (int i = 0; i < latitudes.length; i++) {
+            var p = cooTrans.fromWgs84(latitudes[i], longitudes[i]);
+            resultX[i] = p.getX();
+            resultY[i] = p.getY();
+        }
+    }
+
+    private static double getMaxDiff(double[] a, double[] b) {
+        var maxDiff = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            maxDiff = Math.max(maxDiff, Math.abs(a[i] - b[i]));
+        }
+
+        return maxDiff;
+    }
+
+    private static void toWgs84(MCooTrans cooTrans, double[] latitudes, double[] longitudes, double[] resultX, double[] resultY) {
+        for (int i = 0; i < latitudes.length; i++) {
+            var p = cooTrans.toWgs84(latitudes[i], longitudes[i]);
+            resultX[i] = p.getX();
+            resultY[i] = p.getY();
+        }
+    }
+}
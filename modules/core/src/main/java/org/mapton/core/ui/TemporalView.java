@@ -91,6 +91,11 @@ public class TemporalView extends BorderPane {
                     mManager.getHighDate()
             );
 
+            var count = mManager.getCount();
+            if (count >= 0) {
+                text = "%s (%d)".formatted(text, count);
+            }
+
             mTitleProperty.set(isDisabled() ? Dict.DATE.toString() : text);
         });
     }
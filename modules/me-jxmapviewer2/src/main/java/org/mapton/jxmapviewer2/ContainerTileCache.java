@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.jxmapviewer2;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import org.jxmapviewer.viewer.TileCache;
+import org.openide.util.Exceptions;
+
+/**
+ * Tile cache backed by a {@link TileContainer}, with the most recently used
+ * tiles kept decoded in memory. Decoded tiles expire with the max age of the
+ * container, counted from when they were stored.
+ *
+ * @author Patrik Karlström
+ */
+public class ContainerTileCache extends TileCache {
+
+    private final TileContainer mContainer;
+    private final LinkedHashMap<URI, DecodedTile> mUriToImage;
+
+    /**
+     * @param container
+     * @param maxImages number of decoded tiles to keep in memory
+     */
+    public ContainerTileCache(TileContainer container, int maxImages) {
+        mContainer = container;
+        mUriToImage = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, DecodedTile> eldest) {
+                return size() > maxImages;
+            }
+        };
+    }
+
+    @Override
+    public BufferedImage get(URI uri) throws IOException {
+        synchronized (mUriToImage) {
+            var decodedTile = mUriToImage.get(uri);
+            if (decodedTile != null) {
+                if (!isExpired(decodedTile.time())) {
+                    return decodedTile.image();
+                }
+                mUriToImage.remove(uri);
+            }
+        }
+
+        var key = uri.toString();
+        var time = mContainer.getTime(key);
+        var bytes = mContainer.get(key);
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+            var image = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (image != null) {
+                synchronized (mUriToImage) {
+                    mUriToImage.put(uri, new DecodedTile(image, time));
+                }
+            }
+
+            return image;
+        } catch (IOException e) {
+            // nvm - download it again
+            return null;
+        }
+    }
+
+    @Override
+    public void needMoreMemory() {
+        synchronized (mUriToImage) {
+            mUriToImage.clear();
+        }
+    }
+
+    @Override
+    public void put(URI uri, byte[] bimg, BufferedImage bufferedImage) {
+        if (bufferedImage != null) {
+            synchronized (mUriToImage) {
+                mUriToImage.put(uri, new DecodedTile(bufferedImage, System.currentTimeMillis()));
+            }
+        }
+
+        try {
+            mContainer.put(uri.toString(), bimg);
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+        }
+    }
+
+    private boolean isExpired(long time) {
+        return System.currentTimeMillis() - time > mContainer.getMaxAge();
+    }
+
+    private record DecodedTile(BufferedImage image, long time) {
+
+    }
+}
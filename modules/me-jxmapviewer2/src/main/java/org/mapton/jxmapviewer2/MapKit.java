@@ -20,7 +20,6 @@ import java.awt.Cursor;
 import java.awt.GridBagConstraints;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -33,8 +32,8 @@ import org.jxmapviewer.JXMapKit;
 import org.jxmapviewer.JXMapViewer;
 import org.jxmapviewer.OSMTileFactoryInfo;
 import org.jxmapviewer.viewer.DefaultTileFactory;
-import org.jxmapviewer.viewer.TileCache;
 import org.jxmapviewer.viewer.TileFactoryInfo;
+import org.mapton.api.MSimpleObjectStorageManager;
 import org.mapton.api.Mapton;
 import org.openide.util.Exceptions;
 import se.trixon.almond.util.SystemHelper;
@@ -45,6 +44,7 @@ import se.trixon.almond.util.SystemHelper;
  */
 public class MapKit extends JXMapKit {
 
+    private static final int MAX_DECODED_TILES = 256;
     private JLabel mCopyrightNoticeLabel;
     private JXMapViewer mMap = getMainMap();
     private DefaultTileFactory mTileFactory;
@@ -55,61 +55,20 @@ public class MapKit extends JXMapKit {
 
         mTileFactoryInfo = new OSMTileFactoryInfo("OpenStreetMap", "https://tile.openstreetmap.org");
         mTileFactory = new DefaultTileFactory(mTileFactoryInfo);
-        mTileFactory.setThreadPoolSize(2);
+        var sosManager = MSimpleObjectStorageManager.getInstance();
+        mTileFactory.setThreadPoolSize(Math.max(1, sosManager.getInteger(TileLoaderThreadsSosi.class, TileLoaderThreadsSosi.DEFAULT_VALUE)));
         mTileFactory.setUserAgent(getClass().getName());
 
-        mTileFactory.setTileCache(new TileCache() {
-            private File mCacheDir;
-
-            @Override
-            public BufferedImage get(URI uri) throws IOException {
-                File tileFile = getCachedFile(uri);
-
-                if (tileFile.isFile()) {
-                    long tileAge = System.currentTimeMillis() - tileFile.lastModified();
-                    if (tileAge < TimeUnit.DAYS.toMillis(14)) {
-                        try {
-                            // Tile exists in cache and has a valid age.
-                            return ImageIO.read(tileFile);
-                        } catch (Exception e) {
-                            // nvm - fallback to osm
-                        }
-                    }
-                }
-
-                // Tile did not exist, was too old, or failed to load
-                return super.get(uri);
-            }
-
-            @Override
-            public void put(URI uri, byte[] bimg, BufferedImage bufferedImage) {
-                try {
-                    super.put(uri, bimg, bufferedImage);
-                    File tileFile = getCachedFile(uri);
-                    FileUtils.forceMkdirParent(tileFile);
-                    ImageIO.write(bufferedImage, "png", tileFile);
-                } catch (IOException ex) {
-                    Exceptions.printStackTrace(ex);
-                } catch (NullPointerException ex) {
-                    System.err.println(ex.getMessage());
-                }
-            }
-
-            private File getCacheDir() {
-                if (mCacheDir == null) {
-                    mCacheDir = new File(Mapton.getCacheDir(), "jxmapviewer2");
-                }
-
-                return mCacheDir;
-            }
-
-            private File getCachedFile(URI uri) {
-                String uriString = uri.toString().replace("?", "$");
-                int beginIndex = uriString.indexOf("//") + 2;
-
-                return new File(getCacheDir(), uriString.substring(beginIndex));
-            }
-        });
+        try {
+            var maxSize = Math.max(1L, sosManager.getInteger(TileCacheSizeSosi.class, TileCacheSizeSosi.DEFAULT_VALUE)) << 20;
+            var container = new TileContainer(new File(Mapton.getCacheDir(), "jxmapviewer2.tiles"), maxSize, TimeUnit.DAYS.toMillis(14));
+            mTileFactory.setTileCache(new ContainerTileCache(container, MAX_DECODED_TILES));
+            deleteLegacyCache();
+        } catch (TileContainer.LockedException ex) {
+            //nvm - used by another instance, keep the tiles in memory only
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(ex);
+        }
 
         setTileFactory(mTileFactory);
         try {
@@ -161,6 +120,20 @@ public class MapKit extends JXMapKit {
         mMap.add(mCopyrightNoticeLabel, gridBagConstraints);
     }
 
+    /**
+     * Remove the tile per file cache of earlier versions, in the background
+     * since it may hold a lot of files.
+     */
+    private void deleteLegacyCache() {
+        var legacyCacheDir = new File(Mapton.getCacheDir(), "jxmapviewer2");
+        if (legacyCacheDir.isDirectory()) {
+            var thread = new Thread(() -> FileUtils.deleteQuietly(legacyCacheDir), getClass().getName() + ": legacy cache");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+    }
+
     private void init() {
         getZoomSlider().setVisible(false);
         getZoomInButton().setVisible(false);
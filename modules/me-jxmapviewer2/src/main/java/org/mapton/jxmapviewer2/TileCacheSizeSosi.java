@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.jxmapviewer2;
+
+import org.mapton.api.MSimpleObjectStorageInteger;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ *
+ * @author Patrik Karlström
+ */
+@ServiceProvider(service = MSimpleObjectStorageInteger.Misc.class)
+public class TileCacheSizeSosi extends MSimpleObjectStorageInteger.Misc {
+
+    public static final int DEFAULT_VALUE = 1024;
+
+    public TileCacheSizeSosi() {
+        setGroup("JXMapViewer2");
+        setName("JXMapViewer2/Tile cache size (MB)");
+        setTooltipText("Max size of the tile cache file in MB");
+        setDefaultValue(DEFAULT_VALUE);
+    }
+
+}
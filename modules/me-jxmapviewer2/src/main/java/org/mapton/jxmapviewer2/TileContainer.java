@@ -0,0 +1,364 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.jxmapviewer2;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single file store of tile bytes, kept as they were downloaded.
+ * <p>
+ * Tiles are appended to the file as records of key, time and data, and an
+ * index of all records is read into memory on open. When the file grows past
+ * its max size the least recently used tiles are dropped and the file is
+ * rewritten, which also reclaims the space of replaced tiles.
+ * <p>
+ * The file is locked, through a lock file next to it, for as long as the
+ * container is open, so only one instance at a time can use it.
+ *
+ * @author Patrik Karlström
+ */
+public class TileContainer implements Closeable {
+
+    private static final int MAGIC = 0x4D54_4331;
+    private static final int MAX_KEY_LENGTH = 4096;
+    private static final int MAX_TILE_LENGTH = 16 << 20;
+    private FileChannel mChannel;
+    private long mDeadBytes;
+    private final File mFile;
+    private FileLock mFileLock;
+    private final LinkedHashMap<String, Entry> mKeyToEntry = new LinkedHashMap<>(16, 0.75f, true);
+    private long mLiveBytes;
+    private final ReentrantReadWriteLock mLock = new ReentrantReadWriteLock();
+    private FileChannel mLockChannel;
+    private final long mMaxAge;
+    private final long mMaxSize;
+
+    /**
+     * @param file
+     * @param maxSize in bytes
+     * @param maxAge in milliseconds, older tiles are not returned
+     * @throws LockedException if the file is used by another container
+     * @throws IOException
+     */
+    public TileContainer(File file, long maxSize, long maxAge) throws IOException {
+        mFile = file;
+        mMaxSize = maxSize;
+        mMaxAge = maxAge;
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        lock();
+        try {
+            open();
+        } catch (IOException ex) {
+            if (mChannel != null) {
+                mChannel.close();
+            }
+            unlock();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mLock.writeLock().lock();
+        try {
+            mChannel.close();
+        } finally {
+            unlock();
+            mLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param key
+     * @return the stored bytes, null if missing or too old
+     * @throws IOException
+     */
+    public byte[] get(String key) throws IOException {
+        mLock.readLock().lock();
+        try {
+            Entry entry;
+            synchronized (mKeyToEntry) {
+                entry = mKeyToEntry.get(key);
+            }
+
+            if (entry == null || System.currentTimeMillis() - entry.mTime > mMaxAge) {
+                return null;
+            }
+
+            var buffer = ByteBuffer.allocate(entry.mLength);
+            long position = entry.mOffset;
+            while (buffer.hasRemaining()) {
+                int read = mChannel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException(mFile.getPath());
+                }
+                position += read;
+            }
+
+            return buffer.array();
+        } finally {
+            mLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return in milliseconds
+     */
+    public long getMaxAge() {
+        return mMaxAge;
+    }
+
+    /**
+     * @return the size in bytes of the tiles in use
+     */
+    public long getSize() {
+        synchronized (mKeyToEntry) {
+            return mLiveBytes;
+        }
+    }
+
+    /**
+     * @param key
+     * @return the time the tile was stored, Long.MIN_VALUE if missing
+     */
+    public long getTime(String key) {
+        synchronized (mKeyToEntry) {
+            var entry = mKeyToEntry.get(key);
+
+            return entry == null ? Long.MIN_VALUE : entry.mTime;
+        }
+    }
+
+    public void put(String key, byte[] data) throws IOException {
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (data == null || keyBytes.length > MAX_KEY_LENGTH || data.length > MAX_TILE_LENGTH) {
+            return;
+        }
+
+        long time = System.currentTimeMillis();
+        var record = ByteBuffer.allocate(recordLength(keyBytes.length, data.length));
+        record.putInt(keyBytes.length).put(keyBytes).putLong(time).putInt(data.length).put(data).flip();
+
+        mLock.writeLock().lock();
+        try {
+            long offset = mChannel.size();
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += mChannel.write(record, position);
+            }
+
+            synchronized (mKeyToEntry) {
+                add(key, new Entry(offset + record.limit() - data.length, data.length, time, record.limit()));
+            }
+
+            if (mLiveBytes + mDeadBytes > mMaxSize) {
+                evict();
+            }
+        } finally {
+            mLock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        synchronized (mKeyToEntry) {
+            return mKeyToEntry.size();
+        }
+    }
+
+    private void add(String key, Entry entry) {
+        var previous = mKeyToEntry.put(key, entry);
+        mLiveBytes += entry.mRecordLength;
+        if (previous != null) {
+            mLiveBytes -= previous.mRecordLength;
+            mDeadBytes += previous.mRecordLength;
+        }
+    }
+
+    /**
+     * Drop the least recently used tiles down to three quarters of the max
+     * size, and rewrite the file with the remaining ones, least recently used
+     * first.
+     */
+    private void evict() throws IOException {
+        var keys = new ArrayList<String>();
+        var entries = new ArrayList<Entry>();
+        synchronized (mKeyToEntry) {
+            var iterator = mKeyToEntry.entrySet().iterator();
+            long liveBytes = mLiveBytes;
+            while (iterator.hasNext()) {
+                var keyEntry = iterator.next();
+                if (liveBytes > mMaxSize / 4 * 3) {
+                    liveBytes -= keyEntry.getValue().mRecordLength;
+                    iterator.remove();
+                } else {
+                    keys.add(keyEntry.getKey());
+                    entries.add(keyEntry.getValue());
+                }
+            }
+        }
+
+        var tempFile = new File(mFile.getParentFile(), mFile.getName() + ".tmp");
+        var rewritten = new LinkedHashMap<String, Entry>();
+        try (var channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).flip());
+            for (int i = 0; i < keys.size(); i++) {
+                var entry = entries.get(i);
+                long offset = channel.position();
+                long from = entry.mOffset + entry.mLength - entry.mRecordLength;
+                long position = from;
+                while (position < from + entry.mRecordLength) {
+                    position += mChannel.transferTo(position, from + entry.mRecordLength - position, channel);
+                }
+                rewritten.put(keys.get(i), new Entry(offset + entry.mRecordLength - entry.mLength, entry.mLength, entry.mTime, entry.mRecordLength));
+            }
+        }
+
+        mChannel.close();
+        Files.move(tempFile.toPath(), mFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mChannel = FileChannel.open(mFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        synchronized (mKeyToEntry) {
+            mKeyToEntry.clear();
+            mLiveBytes = 0;
+            mDeadBytes = 0;
+            rewritten.forEach(this::add);
+        }
+    }
+
+    private void lock() throws IOException {
+        mLockChannel = FileChannel.open(new File(mFile.getPath() + ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            mFileLock = mLockChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            mFileLock = null;
+        }
+
+        if (mFileLock == null) {
+            mLockChannel.close();
+            throw new LockedException(mFile);
+        }
+    }
+
+    /**
+     * Read the index of all records, cutting off a record left incomplete by
+     * an interrupted write.
+     */
+    private void open() throws IOException {
+        mChannel = FileChannel.open(mFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = mChannel.size();
+        var header = ByteBuffer.allocate(Integer.BYTES);
+        if (size < Integer.BYTES || mChannel.read(header, 0) < Integer.BYTES || header.getInt(0) != MAGIC) {
+            mChannel.truncate(0);
+            mChannel.write(header.clear().putInt(MAGIC).flip(), 0);
+            return;
+        }
+
+        var lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        var timeAndLengthBuffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        long position = Integer.BYTES;
+        while (position < size) {
+            lengthBuffer.clear();
+            if (mChannel.read(lengthBuffer, position) < Integer.BYTES) {
+                break;
+            }
+            int keyLength = lengthBuffer.getInt(0);
+            if (keyLength < 0 || keyLength > MAX_KEY_LENGTH || position + recordLength(keyLength, 0) > size) {
+                break;
+            }
+
+            var keyBuffer = ByteBuffer.allocate(keyLength);
+            mChannel.read(keyBuffer, position + Integer.BYTES);
+            timeAndLengthBuffer.clear();
+            mChannel.read(timeAndLengthBuffer, position + Integer.BYTES + keyLength);
+            long time = timeAndLengthBuffer.getLong(0);
+            int dataLength = timeAndLengthBuffer.getInt(Long.BYTES);
+            int recordLength = recordLength(keyLength, dataLength);
+            if (dataLength < 0 || dataLength > MAX_TILE_LENGTH || position + recordLength > size) {
+                break;
+            }
+
+            add(new String(keyBuffer.array(), StandardCharsets.UTF_8), new Entry(position + recordLength - dataLength, dataLength, time, recordLength));
+            position += recordLength;
+        }
+
+        if (position < size) {
+            Logger.getLogger(TileContainer.class.getName()).log(Level.WARNING, "Truncating {0} at {1}", new Object[]{mFile, position});
+            mChannel.truncate(position);
+        }
+
+        //The max size may have been lowered since the file was written
+        if (mLiveBytes + mDeadBytes > mMaxSize) {
+            evict();
+        }
+    }
+
+    private int recordLength(int keyLength, int dataLength) {
+        return Integer.BYTES + keyLength + Long.BYTES + Integer.BYTES + dataLength;
+    }
+
+    private void unlock() throws IOException {
+        if (mFileLock != null) {
+            mFileLock.release();
+            mFileLock = null;
+        }
+
+        if (mLockChannel != null) {
+            mLockChannel.close();
+            mLockChannel = null;
+        }
+    }
+
+    /**
+     * The file is used by another container, in this or another process.
+     */
+    public static class LockedException extends IOException {
+
+        public LockedException(File file) {
+            super("Tile container in use: " + file);
+        }
+    }
+
+    private static class Entry {
+
+        private final int mLength;
+        private final long mOffset;
+        private final int mRecordLength;
+        private final long mTime;
+
+        public Entry(long offset, int length, long time, int recordLength) {
+            mOffset = offset;
+            mLength = length;
+            mTime = time;
+            mRecordLength = recordLength;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.jxmapviewer2;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the container and the cache with in-memory tile bytes.
+ *
+ * @author Patrik Karlström
+ */
+public class TileContainerTest {
+
+    private static final long MAX_AGE = 60_000;
+    private static final long MAX_SIZE = 1 << 20;
+
+    @TempDir
+    File mDir;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        var file = new File(mDir, "tiles.mtc");
+        var uri = URI.create("https://tile.example.com/1/2/3.png");
+        var image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(3, 5, 0xff8800);
+        var output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        //trailing bytes a re-encoded image would not have
+        output.write(new byte[]{1, 2, 3});
+        var bytes = output.toByteArray();
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            var cache = new ContainerTileCache(container, 10);
+            cache.put(uri, bytes, image);
+
+            assertSame(image, cache.get(uri));
+            assertArrayEquals(bytes, container.get(uri.toString()));
+        }
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            assertArrayEquals(bytes, container.get(uri.toString()));
+
+            var decoded = new ContainerTileCache(container, 10).get(uri);
+            assertEquals(8, decoded.getWidth());
+            assertEquals(0xff8800, decoded.getRGB(3, 5) & 0xffffff);
+        }
+    }
+
+    @Test
+    public void testTruncatedLastRecord() throws IOException {
+        var file = new File(mDir, "tiles.mtc");
+        var random = new Random(42);
+        var tiles = new byte[3][];
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = new byte[1000];
+                random.nextBytes(tiles[i]);
+                container.put("k" + i, tiles[i]);
+            }
+        }
+
+        long completeLength;
+        try (var raf = new RandomAccessFile(file, "rw")) {
+            completeLength = raf.length();
+            raf.setLength(completeLength - 10);
+        }
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            assertEquals(2, container.size());
+            assertArrayEquals(tiles[0], container.get("k0"));
+            assertArrayEquals(tiles[1], container.get("k1"));
+            assertNull(container.get("k2"));
+            assertEquals(completeLength - recordLength("k2", tiles[2]), file.length());
+
+            container.put("k2", tiles[2]);
+            assertArrayEquals(tiles[2], container.get("k2"));
+        }
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            assertEquals(3, container.size());
+            assertArrayEquals(tiles[2], container.get("k2"));
+        }
+    }
+
+    @Test
+    public void testEvictionToThreeQuarters() throws IOException {
+        var file = new File(mDir, "tiles.mtc");
+        var data = new byte[1000];
+        var recordLength = recordLength("k0", data);
+        var maxSize = 9L * recordLength + recordLength / 2;
+
+        try (var container = new TileContainer(file, maxSize, MAX_AGE)) {
+            for (int i = 0; i < 9; i++) {
+                container.put("k" + i, data);
+            }
+            assertEquals(9, container.size());
+
+            //k0 becomes the most recently used, k1 the least
+            assertNotNull(container.get("k0"));
+            container.put("k9", data);
+
+            assertTrue(container.getSize() <= maxSize / 4 * 3);
+            assertTrue(container.getSize() > maxSize / 4 * 3 - recordLength);
+            assertEquals(Integer.BYTES + container.getSize(), file.length());
+            assertNotNull(container.get("k0"));
+            assertNotNull(container.get("k9"));
+            assertNull(container.get("k1"));
+            assertNull(container.get("k2"));
+        }
+
+        try (var container = new TileContainer(file, maxSize, MAX_AGE)) {
+            assertEquals(7, container.size());
+            assertNotNull(container.get("k0"));
+            assertNull(container.get("k1"));
+        }
+    }
+
+    @Test
+    public void testExpiry() throws IOException, InterruptedException {
+        var file = new File(mDir, "tiles.mtc");
+        var uri = URI.create("https://tile.example.com/1/2/3.png");
+        var image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        var data = new byte[]{1, 2, 3};
+
+        try (var container = new TileContainer(file, MAX_SIZE, 0)) {
+            var cache = new ContainerTileCache(container, 10);
+            cache.put(uri, data, image);
+            Thread.sleep(10);
+
+            assertNull(cache.get(uri));
+            assertNull(container.get(uri.toString()));
+            //expired tiles are kept until evicted
+            assertEquals(1, container.size());
+        }
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            assertArrayEquals(data, container.get(uri.toString()));
+        }
+    }
+
+    @Test
+    public void testLocked() throws IOException {
+        var file = new File(mDir, "tiles.mtc");
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            container.put("k0", new byte[]{1});
+            assertThrows(TileContainer.LockedException.class, () -> new TileContainer(file, MAX_SIZE, MAX_AGE));
+            assertArrayEquals(new byte[]{1}, container.get("k0"));
+        }
+
+        try (var container = new TileContainer(file, MAX_SIZE, MAX_AGE)) {
+            assertArrayEquals(new byte[]{1}, container.get("k0"));
+        }
+    }
+
+    private int recordLength(String key, byte[] data) {
+        return Integer.BYTES + key.length() + Long.BYTES + Integer.BYTES + data.length;
+    }
+}
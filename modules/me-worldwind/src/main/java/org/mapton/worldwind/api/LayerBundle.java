@@ -18,8 +18,10 @@ package org.mapton.worldwind.api;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.avlist.AVListImpl;
 import gov.nasa.worldwind.drag.Draggable;
+import gov.nasa.worldwind.event.RenderingEvent;
 import gov.nasa.worldwind.event.SelectEvent;
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.layers.AbstractLayer;
 import gov.nasa.worldwind.layers.AnnotationLayer;
 import gov.nasa.worldwind.layers.IconLayer;
@@ -36,8 +38,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
@@ -61,12 +69,14 @@ import se.trixon.almond.util.swing.SwingHelper;
 public abstract class LayerBundle {
 
     public static final int DEFAULT_REPAINT_DELAY = 5000;
+    private static final int KEYED_PATCH_LIMIT = 100;
     private static final Set<Runnable> sActivePaintersSet = Collections.synchronizedSet(new HashSet<>());
     private String mCategory;
     private HashSet<Layer> mChildLayers = new HashSet<>();
     private final AnnotationAttributes mClickAreaAttributes = new AnnotationAttributes();
     private final int mClickAreaSize = SwingHelper.getUIScaled(32);
     private boolean mInitialized = false;
+    private final HashMap<Object, KeyedRenderables> mKeyToRenderables = new HashMap<>();
     private final ObservableList<Layer> mLayers = FXCollections.observableArrayList();
     private final StringProperty mName = new SimpleStringProperty();
     private final HashMap<Object, ArrayList<Renderable>> mObjectToRenderables = new HashMap<>();
@@ -77,6 +87,9 @@ public abstract class LayerBundle {
     private final MTemporalManager mTemporalManager = MTemporalManager.getInstance();
     private MTemporalRange mTemporalRange;
     private ConcurrentHashMap<String, MTemporalRange> mTemporalRanges;
+    private DelayedResetRunner mViewChangeDelayedResetRunner;
+    private boolean mViewListenerAdded;
+    private Sector mViewSector;
 
     public LayerBundle() {
         mClickAreaAttributes.setLeader(AVKey.SHAPE_NONE);
@@ -105,8 +118,7 @@ public abstract class LayerBundle {
     }
 
     public RoundAnnotation addClickArea(Position position, RenderableLayer layer, ArrayList<AVListImpl> mapObjects) {
-        var annotation = new RoundAnnotation(position, mClickAreaSize, mClickAreaAttributes);
-        annotation.setMaxActiveAltitude(1000);
+        var annotation = createClickArea(position);
 
         layer.addRenderable(annotation);
         mapObjects.add(annotation);
@@ -118,6 +130,16 @@ public abstract class LayerBundle {
         layer.setValue(WWHelper.KEY_FAST_OPEN, topComponentID);
     }
 
+    /**
+     * Remove all keyed renderables from their layers and forget them.
+     */
+    public synchronized void clearKeyedRenderables() {
+        var layers = new HashSet<RenderableLayer>();
+        mKeyToRenderables.values().forEach(keyedRenderables -> layers.addAll(keyedRenderables.mLayers));
+        layers.forEach(layer -> layer.removeAllRenderables());
+        mKeyToRenderables.clear();
+    }
+
     public void connectToOtherBundle(Class<? extends LayerBundle> cls, String checkBoxKey) {
         var otherLayerBundle = Lookup.getDefault().lookupAll(cls).stream().findFirst().orElse(null);
         if (otherLayerBundle != null) {
@@ -134,6 +156,13 @@ public abstract class LayerBundle {
         }
     }
 
+    public RoundAnnotation createClickArea(Position position) {
+        var annotation = new RoundAnnotation(position, mClickAreaSize, mClickAreaAttributes);
+        annotation.setMaxActiveAltitude(1000);
+
+        return annotation;
+    }
+
     public String getCategory() {
         return mCategory;
     }
@@ -170,6 +199,14 @@ public abstract class LayerBundle {
         });
     }
 
+    /**
+     * @param key
+     * @return the renderables of key from the last update, or null
+     */
+    public synchronized KeyedRenderables getKeyedRenderables(Object key) {
+        return mKeyToRenderables.get(key);
+    }
+
     public MTemporalManager getTemporalManager() {
         return mTemporalManager;
     }
@@ -182,6 +219,45 @@ public abstract class LayerBundle {
         return mTemporalRanges;
     }
 
+    /**
+     * @return the altitude of the eye, NaN if the map is not initialized
+     */
+    public double getViewAltitude() {
+        try {
+            return LayerBundleManager.getInstance().getWwd().getView().getEyePosition().getAltitude();
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @param margin the share of the span to add on each side
+     * @return the visible sector of the last frame plus the margin, null if
+     * not yet known
+     */
+    public Sector getViewSector(double margin) {
+        addViewListener();
+        try {
+            var sector = LayerBundleManager.getInstance().getWwd().getSceneController().getDrawContext().getVisibleSector();
+            if (sector == null) {
+                return null;
+            }
+
+            var deltaLat = sector.getDeltaLatDegrees() * margin;
+            var deltaLon = sector.getDeltaLonDegrees() * margin;
+
+            return Sector.fromDegrees(
+                    Math.max(-90, sector.getMinLatitude().degrees - deltaLat),
+                    Math.min(90, sector.getMaxLatitude().degrees + deltaLat),
+                    Math.max(-180, sector.getMinLongitude().degrees - deltaLon),
+                    Math.min(180, sector.getMaxLongitude().degrees + deltaLon)
+            );
+        } catch (Exception e) {
+            //nvm Called before map was initialized
+            return null;
+        }
+    }
+
     public boolean isPopulated() {
         return mPopulated;
     }
@@ -225,7 +301,14 @@ public abstract class LayerBundle {
                 });
     }
 
+    /**
+     * Remove the renderables of all layers, keyed renderables included.
+     */
     public void removeAllRenderables() {
+        synchronized (this) {
+            mKeyToRenderables.clear();
+        }
+
         if (mParentLayer instanceof RenderableLayer renderableLayer) {
             renderableLayer.removeAllRenderables();
         }
@@ -381,6 +464,16 @@ public abstract class LayerBundle {
         avListImpl.setValue(MKey.WW_DRAG_OBJECT, object);
     }
 
+    /**
+     * Repaint, debounced, when the visible sector of the map has changed.
+     *
+     * @param delay
+     */
+    public void setRepaintOnViewChange(int delay) {
+        mViewChangeDelayedResetRunner = new DelayedResetRunner(delay, () -> repaint());
+        addViewListener();
+    }
+
     public void setTemporalRange(MTemporalRange temporalRange) {
         this.mTemporalRange = temporalRange;
     }
@@ -389,10 +482,111 @@ public abstract class LayerBundle {
         this.mTemporalRanges = temporalRanges;
     }
 
+    /**
+     * Update the keyed renderables of the items.
+     * <p>
+     * The renderer is only called for items that are new or whose version
+     * changed since the last update, the renderables of all other items are
+     * left in their layers. Renderables of items that are gone are removed,
+     * new ones are inserted at their position in item order.
+     * <p>
+     * The layers used here must not hold any other renderables, they are
+     * rebuilt in item order when a large share of the items changed.
+     *
+     * @param <T>
+     * @param items in draw order
+     * @param keyFunction
+     * @param versionFunction anything with equals that changes when the
+     * renderables of an item would change
+     * @param renderer fills the renderables of an item
+     */
+    public synchronized <T> void updateKeyedRenderables(List<T> items, Function<T, Object> keyFunction, Function<T, Object> versionFunction, BiConsumer<T, KeyedRenderables> renderer) {
+        var keyToRenderables = new LinkedHashMap<Object, KeyedRenderables>();
+        var added = new HashSet<KeyedRenderables>();
+        var removed = new ArrayList<KeyedRenderables>();
+
+        for (var item : items) {
+            var key = keyFunction.apply(item);
+            var version = versionFunction.apply(item);
+            var keyedRenderables = mKeyToRenderables.remove(key);
+
+            if (keyedRenderables == null || !Objects.equals(keyedRenderables.getVersion(), version)) {
+                if (keyedRenderables != null) {
+                    removed.add(keyedRenderables);
+                }
+                keyedRenderables = new KeyedRenderables(version);
+                renderer.accept(item, keyedRenderables);
+                added.add(keyedRenderables);
+            }
+
+            keyToRenderables.put(key, keyedRenderables);
+        }
+        removed.addAll(mKeyToRenderables.values());
+
+        if (added.size() + removed.size() > Math.max(KEYED_PATCH_LIMIT, keyToRenderables.size() / 10)) {
+            var layers = new LinkedHashSet<RenderableLayer>();
+            removed.forEach(keyedRenderables -> layers.addAll(keyedRenderables.mLayers));
+            keyToRenderables.values().forEach(keyedRenderables -> layers.addAll(keyedRenderables.mLayers));
+            layers.forEach(layer -> layer.removeAllRenderables());
+            keyToRenderables.values().forEach(keyedRenderables -> keyedRenderables.addToLayers());
+        } else {
+            removed.forEach(keyedRenderables -> keyedRenderables.removeFromLayers());
+            var layerToIndex = new HashMap<RenderableLayer, Integer>();
+            for (var keyedRenderables : keyToRenderables.values()) {
+                var insert = added.contains(keyedRenderables);
+                for (int i = 0; i < keyedRenderables.mRenderables.size(); i++) {
+                    var layer = keyedRenderables.mLayers.get(i);
+                    int index = layerToIndex.merge(layer, 1, Integer::sum) - 1;
+                    if (insert) {
+                        layer.addRenderable(index, keyedRenderables.mRenderables.get(i));
+                    }
+                }
+            }
+        }
+
+        mKeyToRenderables.clear();
+        mKeyToRenderables.putAll(keyToRenderables);
+    }
+
     public void setVisibleInLayerManager(Layer layer, boolean visibility) {
         layer.setValue(WWHelper.KEY_LAYER_HIDE_FROM_MANAGER, !visibility);
     }
 
+    /**
+     * Called when the visible sector has changed if repainting on view change
+     * is enabled.
+     *
+     * @param sector the visible sector
+     * @return true to repaint
+     */
+    protected boolean isRepaintNeededOnViewChange(Sector sector) {
+        return true;
+    }
+
+    private synchronized void addViewListener() {
+        if (mViewListenerAdded || mViewChangeDelayedResetRunner == null) {
+            return;
+        }
+
+        try {
+            var wwd = LayerBundleManager.getInstance().getWwd();
+            wwd.addRenderingListener(renderingEvent -> {
+                if (RenderingEvent.AFTER_BUFFER_SWAP.equals(renderingEvent.getStage())) {
+                    var sector = wwd.getSceneController().getDrawContext().getVisibleSector();
+                    if (sector != null && !sector.equals(mViewSector)) {
+                        mViewSector = sector;
+                        if (isVisible() && isRepaintNeededOnViewChange(sector)) {
+                            mViewChangeDelayedResetRunner.reset();
+                        }
+                    }
+                }
+            });
+            mViewListenerAdded = true;
+        } catch (Exception e) {
+            //nvm Called before map was initialized, try again on next paint
+        }
+    }
+
     private boolean getChildVisibility(Layer layer) {
         boolean visible = true;
         var visibility = layer.getValue(MKey.LAYER_SUB_VISIBILITY);
@@ -403,6 +597,57 @@ public abstract class LayerBundle {
         return visible;
     }
 
+    /**
+     * The renderables of one keyed item and the layers they belong to.
+     */
+    public static class KeyedRenderables {
+
+        private final ArrayList<RenderableLayer> mLayers = new ArrayList<>();
+        private final ArrayList<Renderable> mRenderables = new ArrayList<>();
+        private final Object mVersion;
+
+        private KeyedRenderables(Object version) {
+            mVersion = version;
+        }
+
+        /**
+         * Add a renderable, it is put in its layer when the update is done.
+         *
+         * @param <R>
+         * @param layer
+         * @param renderable ignored if null
+         * @return renderable
+         */
+        public <R extends Renderable> R add(RenderableLayer layer, R renderable) {
+            if (renderable != null) {
+                mLayers.add(layer);
+                mRenderables.add(renderable);
+            }
+
+            return renderable;
+        }
+
+        public List<Renderable> getRenderables() {
+            return Collections.unmodifiableList(mRenderables);
+        }
+
+        public Object getVersion() {
+            return mVersion;
+        }
+
+        private void addToLayers() {
+            for (int i = 0; i < mRenderables.size(); i++) {
+                mLayers.get(i).addRenderable(mRenderables.get(i));
+            }
+        }
+
+        private void removeFromLayers() {
+            for (int i = 0; i < mRenderables.size(); i++) {
+                mLayers.get(i).removeRenderable(mRenderables.get(i));
+            }
+        }
+    }
+
     private void setDragEnabled(AbstractAirspace abstractAirspace, boolean enabled) {
         //TODO Remove this method once resolved: https://github.com/NASAWorldWind/WorldWindJava/issues/240
         try {
@@ -51,7 +51,7 @@ public class LayerBundleManager {
     }
 
     public WorldWindow getWwd() {
-        return mMap.getWwd();
+        return getMap().getWwd();
     }
 
     public void redraw() {
@@ -20,35 +20,74 @@ import gov.nasa.worldwind.util.BufferWrapper;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 import org.mapton.api.MLatLon;
 import org.mapton.api.MLatLonBox;
 import se.trixon.almond.util.MathHelper;
 
 /**
+ * Values binned in a grid over their bounding box.
+ * <p>
+ * Count, sum, min and max are kept per cell and updated as values are added,
+ * the median is selected from the cell values when asked for. The aggregated
+ * grids are cached until a value is added.
  *
  * @author Patrik Karlström
  */
 public class GridData {
 
+    private final EnumMap<CellAggregate, double[]> mAggregateToGrid = new EnumMap<>(CellAggregate.class);
     private CellAggregate mCellAggregate;
-    private ArrayList<Double>[][] mCellValues;
+    private int[] mCounts;
+    private double[][] mCellValues;
     private int mHeight;
     private MLatLonBox mLatLonBox;
     private double mMax = Double.MIN_VALUE;
+    private double[] mMaxs;
     private double mMin = Double.MAX_VALUE;
+    private double[] mMins;
+    private double[] mSums;
     private List<GridValue> mValues;
     private int mWidth;
 
+    /**
+     * Calculate a grid size with about pointsPerCell values per cell and cells
+     * that are roughly square on the ground.
+     *
+     * @param values
+     * @param pointsPerCell
+     * @param maxSize the max number of columns or rows
+     * @return
+     */
+    public static Dimension getAdaptiveDimension(List<GridValue> values, double pointsPerCell, int maxSize) {
+        if (values.isEmpty()) {
+            return new Dimension(1, 1);
+        }
+
+        var latLonBox = new MLatLonBox(values.stream().map(GridValue::getLatLon).toList());
+        var southWest = latLonBox.getSouthWest();
+        var eastExtent = southWest.distance(new MLatLon(southWest.getLatitude(), latLonBox.getNorthEast().getLongitude()));
+        var northExtent = southWest.distance(new MLatLon(latLonBox.getNorthEast().getLatitude(), southWest.getLongitude()));
+
+        var numOfCells = Math.max(1.0, values.size() / pointsPerCell);
+        var area = Math.max(eastExtent, 1.0) * Math.max(northExtent, 1.0);
+        var cellSize = Math.sqrt(area / numOfCells);
+
+        int width = (int) Math.clamp(Math.ceil(eastExtent / cellSize), 1, maxSize);
+        int height = (int) Math.clamp(Math.ceil(northExtent / cellSize), 1, maxSize);
+
+        return new Dimension(width, height);
+    }
+
     public GridData() {
     }
 
-    @SuppressWarnings("unchecked")
     public GridData(int width, int height, List<GridValue> values, CellAggregate cellAggregate) {
-        //TODO Replace width & height with some calculated resulotion variant...?
         mCellAggregate = cellAggregate;
-        var latLons = new ArrayList<MLatLon>();
+        var latLons = new ArrayList<MLatLon>(values.size());
 
         values.forEach(gridValue -> {
             latLons.add(gridValue.getLatLon());
@@ -62,14 +101,28 @@ public class GridData {
         mWidth = width;
         mHeight = height;
 
-        mCellValues = (ArrayList<Double>[][]) new ArrayList[width][height];
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                mCellValues[x][y] = new ArrayList<>();
-            }
+        setValues(values);
+    }
+
+    /**
+     * Add a value to its cell, a value outside of the box is put in the
+     * nearest edge cell.
+     *
+     * @param value
+     */
+    public synchronized void add(GridValue value) {
+        if (value.getValue() == null) {
+            return;
         }
 
-        setValues(values);
+        var cell = getCellIndex(value.getLatLon());
+        var count = mCounts[cell];
+        if (mCellValues[cell].length == count) {
+            mCellValues[cell] = Arrays.copyOf(mCellValues[cell], Math.max(4, count * 2));
+        }
+        mCellValues[cell][count] = value.getValue();
+        accumulate(cell, value.getValue());
+        mAggregateToGrid.clear();
     }
 
     public CellAggregate getCellAggregate() {
@@ -77,104 +130,89 @@ public class GridData {
     }
 
     public Double getCellAverage(Point p) {
-        return getCellDoubles(p).average().orElse(0);
+        var cell = toCellIndex(p.x, p.y);
+        return mCounts[cell] == 0 ? 0 : mSums[cell] / mCounts[cell];
     }
 
     public int getCellCount(Point p) {
-        return getCellValues(p).size();
+        return mCounts[toCellIndex(p.x, p.y)];
     }
 
     public Double getCellMax(Point p) {
-        return getCellDoubles(p).max().orElse(0);
+        var cell = toCellIndex(p.x, p.y);
+        return mCounts[cell] == 0 ? 0 : mMaxs[cell];
     }
 
     public Double getCellMedian(Point p) {
-        var list = getCellValues(p);
-        if (list.isEmpty()) {
-            return 0d;
-        }
-        var sortedValues = list.stream().mapToDouble(Double::doubleValue).sorted();
-
-        double median = list.size() % 2 == 0
-                ? sortedValues.skip(list.size() / 2 - 1L).limit(2).average().getAsDouble()
-                : sortedValues.skip(list.size() / 2).findFirst().getAsDouble();
-
-        return median;
+        return getMedian(toCellIndex(p.x, p.y));
     }
 
     public Double getCellMin(Point p) {
-        return getCellDoubles(p).min().orElse(0);
+        var cell = toCellIndex(p.x, p.y);
+        return mCounts[cell] == 0 ? 0 : mMins[cell];
     }
 
     public Double getCellSum(Point p) {
-        return getCellDoubles(p).sum();
+        return mSums[toCellIndex(p.x, p.y)];
     }
 
     public ArrayList<Double> getCellValues(Point p) {
-        return mCellValues[p.x][p.y];
+        return getCellValues(p.x, p.y);
     }
 
     public ArrayList<Double> getCellValues(int col, int row) {
-        return mCellValues[col][row];
+        var cell = toCellIndex(col, row);
+        var list = new ArrayList<Double>(mCounts[cell]);
+        for (int i = 0; i < mCounts[cell]; i++) {
+            list.add(mCellValues[cell][i]);
+        }
+
+        return list;
     }
 
     public double[] getGridAggregates() {
         return getGridAggregates(mCellAggregate);
     }
 
-    public double[] getGridAggregates(CellAggregate cellAggregate) {
-        var dimension = new Dimension(mWidth, mHeight);
-        var values = new double[mWidth * mHeight];
-
-        for (int x = 0; x < mWidth; x++) {
-            for (int y = 0; y < mHeight; y++) {
-                int valueIndex = MathHelper.pointToIndex(new Point(x, y), dimension);
-                var cellPoint = new Point(x, mHeight - 1 - y);
-
-                switch (cellAggregate) {
-                    case AVG:
-                        values[valueIndex] = getCellAverage(cellPoint);
-                        break;
-
-                    case COUNT:
-                        values[valueIndex] = getCellCount(cellPoint);
-                        break;
-
-                    case MAX:
-                        values[valueIndex] = getCellMax(cellPoint);
-                        break;
-
-                    case MEDIAN:
-                        values[valueIndex] = getCellMedian(cellPoint);
-                        break;
-
-                    case MIN:
-                        values[valueIndex] = getCellMin(cellPoint);
-                        break;
-
-                    case SUM:
-                        values[valueIndex] = getCellSum(cellPoint);
-                        break;
-
-                    default:
-                        throw new AssertionError();
+    /**
+     * @param cellAggregate
+     * @return the aggregates, row by row from north to south, cached until a
+     * value is added
+     */
+    public synchronized double[] getGridAggregates(CellAggregate cellAggregate) {
+        return mAggregateToGrid.computeIfAbsent(cellAggregate, k -> {
+            var dimension = new Dimension(mWidth, mHeight);
+            var values = new double[mWidth * mHeight];
+
+            for (int x = 0; x < mWidth; x++) {
+                for (int y = 0; y < mHeight; y++) {
+                    int valueIndex = MathHelper.pointToIndex(new Point(x, y), dimension);
+                    int cell = toCellIndex(x, mHeight - 1 - y);
+                    var count = mCounts[cell];
+
+                    values[valueIndex] = switch (cellAggregate) {
+                        case AVG ->
+                            count == 0 ? 0 : mSums[cell] / count;
+                        case COUNT ->
+                            count;
+                        case MAX ->
+                            count == 0 ? 0 : mMaxs[cell];
+                        case MEDIAN ->
+                            getMedian(cell);
+                        case MIN ->
+                            count == 0 ? 0 : mMins[cell];
+                        case SUM ->
+                            mSums[cell];
+                    };
                 }
             }
-        }
 
-        return values;
+            return values;
+        });
     }
 
     public BufferWrapper getGridWrapperAverages() {
-        var dimension = new Dimension(mWidth, mHeight);
-        var values = new double[mWidth * mHeight];
-
-        for (int x = 0; x < mWidth; x++) {
-            for (int y = 0; y < mHeight; y++) {
-                values[MathHelper.pointToIndex(new Point(x, y), dimension)] = getCellAverage(new Point(x, mHeight - 1 - y));
-            }
-        }
-
+        var values = getGridAggregates(CellAggregate.AVG);
         var buffer = new BufferFactory.DoubleBufferFactory().newBuffer(values.length);
         buffer.putDouble(0, values, 0, values.length);
 
@@ -221,20 +259,59 @@ public class GridData {
         mMin = min;
     }
 
-    public void setValues(List<GridValue> values) {
+    /**
+     * Replace the values of the grid, the cells are located in parallel.
+     *
+     * @param values
+     */
+    public synchronized void setValues(List<GridValue> values) {
         mValues = values;
+        var numOfCells = mWidth * mHeight;
+        mCounts = new int[numOfCells];
+        mSums = new double[numOfCells];
+        mMins = new double[numOfCells];
+        mMaxs = new double[numOfCells];
+        mCellValues = new double[numOfCells][];
+        mAggregateToGrid.clear();
+
+        var cellIndices = IntStream.range(0, values.size()).parallel()
+                .map(i -> values.get(i).getValue() == null ? -1 : getCellIndex(values.get(i).getLatLon()))
+                .toArray();
+
+        var capacities = new int[numOfCells];
+        for (var cell : cellIndices) {
+            if (cell >= 0) {
+                capacities[cell]++;
+            }
+        }
+
+        for (int cell = 0; cell < numOfCells; cell++) {
+            mCellValues[cell] = new double[capacities[cell]];
+        }
 
-        for (var value : values) {
-            var p = getCellPoint(value.getLatLon());
-            getCellValues(p).add(value.getValue());
+        for (int i = 0; i < cellIndices.length; i++) {
+            var cell = cellIndices[i];
+            if (cell >= 0) {
+                double value = values.get(i).getValue();
+                mCellValues[cell][mCounts[cell]] = value;
+                accumulate(cell, value);
+            }
         }
     }
 
-    private DoubleStream getCellDoubles(Point p) {
-        return getCellValues(p).stream().mapToDouble(Double::doubleValue);
+    private void accumulate(int cell, double value) {
+        if (mCounts[cell] == 0) {
+            mMins[cell] = value;
+            mMaxs[cell] = value;
+        } else {
+            mMins[cell] = Math.min(mMins[cell], value);
+            mMaxs[cell] = Math.max(mMaxs[cell], value);
+        }
+        mSums[cell] += value;
+        mCounts[cell]++;
     }
 
-    private Point getCellPoint(MLatLon latLon) {
+    private int getCellIndex(MLatLon latLon) {
         double deltaLat = latLon.getLatitude() - mLatLonBox.getSouthWest().getLatitude();
         double deltaLon = latLon.getLongitude() - mLatLonBox.getSouthWest().getLongitude();
 
@@ -247,6 +324,68 @@ public class GridData {
         int x = Math.max(xMax, 0);
         int y = Math.max(yMax, 0);
 
-        return new Point(x, y);
+        return toCellIndex(x, y);
+    }
+
+    private double getMedian(int cell) {
+        var count = mCounts[cell];
+        if (count == 0) {
+            return 0d;
+        }
+
+        var values = Arrays.copyOf(mCellValues[cell], count);
+        var upper = select(values, count / 2);
+        if (count % 2 == 1) {
+            return upper;
+        }
+
+        //The lower middle is the max of the partition left of count / 2
+        var lower = values[0];
+        for (int i = 1; i < count / 2; i++) {
+            lower = Math.max(lower, values[i]);
+        }
+
+        return (lower + upper) / 2.0;
+    }
+
+    /**
+     * Quickselect, leaves the values partitioned around k.
+     */
+    private double select(double[] values, int k) {
+        int left = 0;
+        int right = values.length - 1;
+        while (left < right) {
+            var pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    var tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+
+        return values[k];
+    }
+
+    private int toCellIndex(int x, int y) {
+        return x * mHeight + y;
     }
 }
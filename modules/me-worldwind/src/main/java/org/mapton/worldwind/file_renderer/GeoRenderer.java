@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import javafx.geometry.Point2D;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
@@ -226,7 +227,7 @@ public class GeoRenderer extends CoordinateFileRendererWW {
         var geoPoints = new ArrayList<GeoPoint>();
 
         for (var geoLine : geoLines) {
-            var positions = new ArrayList<Position>();
+            var withinBoundsGeoPoints = new ArrayList<GeoPoint>();
             var ordinaryLine = true;
             BasicShapeAttributes attrs = null;
 
@@ -254,9 +255,8 @@ public class GeoRenderer extends CoordinateFileRendererWW {
                 }
 
                 if (mCooTrans.isWithinProjectedBounds(geoPoint.getX(), geoPoint.getY())) {
-                    var p = mCooTrans.toWgs84(geoPoint.getX(), geoPoint.getY());
+                    withinBoundsGeoPoints.add(geoPoint);
                     elevation = MathHelper.convertDoubleToDouble(geoPoint.getZ());
-                    positions.add(Position.fromDegrees(p.getY(), p.getX(), elevation));
                 }
 
                 if (Strings.CI.equals(geoPoint.getSpecialCode(), "R")) {
@@ -265,6 +265,8 @@ public class GeoRenderer extends CoordinateFileRendererWW {
             }
 
             if (ordinaryLine) {
+                var positions = toPositions(withinBoundsGeoPoints, true);
+                positions.removeIf(Objects::isNull);
                 renderLine(layer, positions, geoLine.isClosedPolygon(), attrs);
             } else {
                 try {
@@ -280,32 +282,60 @@ public class GeoRenderer extends CoordinateFileRendererWW {
     }
 
     private void renderPoints(RenderableLayer layer, List<GeoPoint> geoPoints, BasicAirspaceAttributes circleAttributes) {
-        for (var geoPoint : geoPoints) {
-            if (mCooTrans.isWithinProjectedBounds(geoPoint.getX(), geoPoint.getY())) {
-                var p = mCooTrans.toWgs84(geoPoint.getX(), geoPoint.getY());
-                var position = Position.fromDegrees(p.getY(), p.getX());
+        var withinBoundsGeoPoints = geoPoints.stream()
+                .filter(geoPoint -> mCooTrans.isWithinProjectedBounds(geoPoint.getX(), geoPoint.getY()))
+                .toList();
+        var positions = toPositions(withinBoundsGeoPoints, false);
+
+        for (int i = 0; i < withinBoundsGeoPoints.size(); i++) {
+            var geoPoint = withinBoundsGeoPoints.get(i);
+            var position = positions.get(i);
+            if (position == null) {
+                continue;
+            }
 
-                if (Strings.CI.equals(geoPoint.getSpecialCode(), "C")) {
-                    String remark = Strings.CS.replace(geoPoint.getRemark(), "_", " ");
-                    var raw = StringUtils.split(remark, " ");
-                    var raw2 = Strings.CS.replace(raw[0], ",", ".");
-                    double r = Double.parseDouble(raw2);
-
-                    var cappedCylinder = new CappedCylinder(position, r);
-                    cappedCylinder.setAltitudes(0.0, 0.1);
-                    cappedCylinder.setCenter(position);
-                    cappedCylinder.setRadii(r, r + 0.05);
-                    cappedCylinder.setAttributes(circleAttributes);
-
-                    layer.addRenderable(cappedCylinder);
-                } else {
-                    var pointPlacemark = new PointPlacemark(position);
-                    pointPlacemark.setLabelText(geoPoint.getPointId());
-                    pointPlacemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
-                    pointPlacemark.setEnableLabelPicking(true);
-                    layer.addRenderable(pointPlacemark);
-                }
+            if (Strings.CI.equals(geoPoint.getSpecialCode(), "C")) {
+                String remark = Strings.CS.replace(geoPoint.getRemark(), "_", " ");
+                var raw = StringUtils.split(remark, " ");
+                var raw2 = Strings.CS.replace(raw[0], ",", ".");
+                double r = Double.parseDouble(raw2);
+
+                var cappedCylinder = new CappedCylinder(position, r);
+                cappedCylinder.setAltitudes(0.0, 0.1);
+                cappedCylinder.setCenter(position);
+                cappedCylinder.setRadii(r, r + 0.05);
+                cappedCylinder.setAttributes(circleAttributes);
+
+                layer.addRenderable(cappedCylinder);
+            } else {
+                var pointPlacemark = new PointPlacemark(position);
+                pointPlacemark.setLabelText(geoPoint.getPointId());
+                pointPlacemark.setAltitudeMode(WorldWind.CLAMP_TO_GROUND);
+                pointPlacemark.setEnableLabelPicking(true);
+                layer.addRenderable(pointPlacemark);
             }
         }
     }
+
+    /**
+     * @return positions in the order of the points, null where the point could
+     * not be transformed
+     */
+    private ArrayList<Position> toPositions(List<GeoPoint> geoPoints, boolean withElevation) {
+        var latitudes = geoPoints.stream().mapToDouble(geoPoint -> geoPoint.getX()).toArray();
+        var longitudes = geoPoints.stream().mapToDouble(geoPoint -> geoPoint.getY()).toArray();
+        mCooTrans.toWgs84(latitudes, longitudes, longitudes, latitudes);
+
+        var positions = new ArrayList<Position>(geoPoints.size());
+        for (int i = 0; i < geoPoints.size(); i++) {
+            if (Double.isNaN(latitudes[i]) || Double.isNaN(longitudes[i])) {
+                positions.add(null);
+            } else {
+                var elevation = withElevation ? MathHelper.convertDoubleToDouble(geoPoints.get(i).getZ()) : 0.0;
+                positions.add(Position.fromDegrees(latitudes[i], longitudes[i], elevation));
+            }
+        }
+
+        return positions;
+    }
 }
@@ -17,10 +17,7 @@ package org.mapton.geonames;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.ArrayList;
-import org.mapton.api.MBookmark;
 import org.mapton.api.MContextMenuItem;
-import org.mapton.api.MLatLon;
 import org.mapton.geonames.api.GeonamesManager;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -46,20 +43,9 @@ public class DuckDuckGo extends MContextMenuItem {
 
     @Override
     public String getUrl() {
-        MLatLon hereLatLon = new MLatLon(getLongitude(), getLatitude());
-        MBookmark nearest = new MBookmark();
-        double dist = Double.MAX_VALUE;
-
-        for (MBookmark bookmark : getResults()) {
-            MLatLon bookmarkLatLon = new MLatLon(bookmark.getLongitude(), bookmark.getLatitude());
-            double newDistance = hereLatLon.distance(bookmarkLatLon);
-            if (newDistance < dist) {
-                dist = newDistance;
-                nearest = bookmark;
-                if (dist < 1000) {
-                    break;
-                }
-            }
+        var nearest = GeonamesManager.getInstance().getReverseGeocoder().getNearest(getLatitude(), getLongitude());
+        if (nearest == null) {
+            return null;
         }
 
         try {
@@ -68,20 +54,4 @@ public class DuckDuckGo extends MContextMenuItem {
             return null;
         }
     }
-
-    private ArrayList<MBookmark> getResults() {
-        ArrayList<MBookmark> bookmarks = new ArrayList<>();
-        GeonamesManager.getInstance().getGeonames().stream()
-                .forEachOrdered((g) -> {
-                    MBookmark b = new MBookmark();
-                    b.setName(g.getName());
-                    b.setCategory(g.getCountryCode());
-                    b.setLatitude(g.getLatitude());
-                    b.setLongitude(g.getLongitude());
-                    b.setZoom(0.5);
-                    bookmarks.add(b);
-                });
-
-        return bookmarks;
-    }
 }
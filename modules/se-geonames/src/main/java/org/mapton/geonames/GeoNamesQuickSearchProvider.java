@@ -15,10 +15,8 @@
  */
 package org.mapton.geonames;
 
-import org.apache.commons.lang3.Strings;
 import org.mapton.api.MLatLon;
 import org.mapton.api.Mapton;
-import org.mapton.geonames.api.CountryManager;
 import org.mapton.geonames.api.Geoname;
 import org.mapton.geonames.api.GeonamesManager;
 import org.netbeans.spi.quicksearch.SearchProvider;
@@ -31,15 +29,15 @@ import org.netbeans.spi.quicksearch.SearchResponse;
  */
 public class GeoNamesQuickSearchProvider implements SearchProvider {
 
+    private static final int MAX_RESULTS = 100;
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
-        for (Geoname g : GeonamesManager.getInstance().getGeonames()) {
-            if (Strings.CI.contains(String.join("/", g.getAsciiName(), g.getName(), g.getAlternateNames(), CountryManager.getInstance().getCodeNameMap().getOrDefault(g.getCountryCode(), "")), request.getText())) {
-                if (!response.addResult(() -> {
-                    Mapton.getEngine().panTo(new MLatLon(g.getLatitude(), g.getLongitude()), 0.5);
-                }, g.getName())) {
-                    break;
-                }
+        for (Geoname g : GeonamesManager.getInstance().search(request.getText(), MAX_RESULTS)) {
+            if (!response.addResult(() -> {
+                Mapton.getEngine().panTo(new MLatLon(g.getLatitude(), g.getLongitude()), 0.5);
+            }, g.getName())) {
+                break;
             }
         }
     }
@@ -15,7 +15,6 @@
  */
 package org.mapton.geonames;
 
-import com.google.gson.GsonBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -30,6 +29,7 @@ import org.apache.commons.io.FileUtils;
 import org.mapton.api.MPrint;
 import org.mapton.api.Mapton;
 import org.mapton.geonames.api.Geoname;
+import org.mapton.geonames.api.GeonamesIndex;
 import se.trixon.almond.util.MathHelper;
 
 /**
@@ -59,7 +59,27 @@ public class GeonamesGenerator {
         mCacheDir = new File(Mapton.getCacheDir(), "geonames");
         mCities1000zipFile = new File(mCacheDir, "cities1000.zip");
         mCities1000txtFile = new File(mCacheDir, "cities1000.txt");
-        mSearchEngineFile = new File(mCacheDir, "geonames.json");
+        mSearchEngineFile = new File(mCacheDir, "geonames.bin");
+    }
+
+    /**
+     * Index the extracted cities1000.txt and save it as the search engine
+     * file.
+     *
+     * @return the saved index
+     * @throws IOException
+     */
+    public GeonamesIndex generate() throws IOException {
+        populateCities();
+        var index = GeonamesIndex.create(mGeonames);
+        index.write(mSearchEngineFile);
+        FileUtils.deleteQuietly(new File(mCacheDir, "geonames.json"));
+
+        return index;
+    }
+
+    public File getCities1000txtFile() {
+        return mCities1000txtFile;
     }
 
     public File getCities1000zipFile() {
@@ -77,9 +97,8 @@ public class GeonamesGenerator {
         FileUtils.copyURLToFile(URI.create(url).toURL(), mCities1000zipFile, 5000, 5000);
         mPrint.out("GeoNames: Extract cities1000.txt");
         extractZip();
-        populateCities();
-        mPrint.out("GeoNames: Save geonames.json");
-        saveJson();
+        mPrint.out("GeoNames: Save geonames.bin");
+        generate();
     }
 
     private void extractZip() throws IOException {
@@ -96,10 +115,11 @@ public class GeonamesGenerator {
 
     private void populateCities() throws IOException {
         try (var csvRecords = CSVParser.parse(
-                new File(mCacheDir, "cities1000.txt"),
+                mCities1000txtFile,
                 Charset.forName("utf-8"),
                 CSVFormat.DEFAULT.builder().setHeader().setAllowMissingColumnNames(true).setDelimiter('\t').build()
         )) {
+            mGeonames.clear();
             for (var csvRecord : csvRecords) {
                 String name = csvRecord.get(1);
                 String asciiname = csvRecord.get(2);
@@ -124,18 +144,9 @@ public class GeonamesGenerator {
                 mGeonames.add(geoname);
             }
 
-            mGeonames.sort((Geoname o1, Geoname o2) -> o1.getName().compareTo(o2.getName()));
         }
     }
 
-    private void saveJson() throws IOException {
-        var gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .create();
-
-        FileUtils.write(mSearchEngineFile, gson.toJson(mGeonames), "utf-8");
-    }
-
     private static class Holder {
 
         private static final GeonamesGenerator INSTANCE = new GeonamesGenerator();
@@ -0,0 +1,489 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.geonames.api;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over the words of the names, ascii names, alternate names and
+ * country names of the geonames.
+ * <p>
+ * Geonames are stored in descending population order, so the id of a geoname
+ * is also its rank. Words are accent folded and lower cased, sorted on their
+ * UTF-8 bytes and mapped to the ascending ids of the geonames using them.
+ *
+ * @author Patrik Karlström
+ */
+public class GeonamesIndex {
+
+    private static final int MAGIC = 0x474e4958;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int VERSION = 1;
+    private final int[] mForwardOffsets;
+    private final int[] mForwards;
+    private final ArrayList<Geoname> mGeonames;
+    private final int[] mPostingOffsets;
+    private final int[] mPostings;
+    private final int[] mTokenOffsets;
+    private final byte[] mTokens;
+
+    /**
+     * @param geonames
+     * @return an index of geonames, re-ordered on descending population
+     */
+    public static GeonamesIndex create(List<Geoname> geonames) {
+        var sorted = new ArrayList<>(geonames);
+        sorted.sort(Comparator.comparingInt((Geoname g) -> g.getPopulation() == null ? 0 : g.getPopulation()).reversed()
+                .thenComparing(Geoname::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        var tokenToIds = new HashMap<String, IntList>();
+        for (int id = 0; id < sorted.size(); id++) {
+            var geoname = sorted.get(id);
+            var tokens = new LinkedHashSet<String>();
+            tokenize(geoname.getName(), tokens);
+            tokenize(geoname.getAsciiName(), tokens);
+            tokenize(geoname.getAlternateNames(), tokens);
+            tokenize(geoname.getCountryName(), tokens);
+            for (var token : tokens) {
+                tokenToIds.computeIfAbsent(token, k -> new IntList()).add(id);
+            }
+        }
+
+        var entries = new ArrayList<TokenEntry>(tokenToIds.size());
+        tokenToIds.forEach((token, ids) -> entries.add(new TokenEntry(token.getBytes(StandardCharsets.UTF_8), ids)));
+        entries.sort((o1, o2) -> Arrays.compareUnsigned(o1.bytes(), o2.bytes()));
+
+        var tokenOffsets = new int[entries.size() + 1];
+        var postingOffsets = new int[entries.size() + 1];
+        for (int i = 0; i < entries.size(); i++) {
+            tokenOffsets[i + 1] = tokenOffsets[i] + entries.get(i).bytes().length;
+            postingOffsets[i + 1] = postingOffsets[i] + entries.get(i).ids().size();
+        }
+
+        var tokenBytes = new byte[tokenOffsets[entries.size()]];
+        var postings = new int[postingOffsets[entries.size()]];
+        for (int i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
+            System.arraycopy(entry.bytes(), 0, tokenBytes, tokenOffsets[i], entry.bytes().length);
+            System.arraycopy(entry.ids().mValues, 0, postings, postingOffsets[i], entry.ids().size());
+        }
+
+        return new GeonamesIndex(sorted, tokenBytes, tokenOffsets, postings, postingOffsets);
+    }
+
+    /**
+     * Accent fold and lower case a text, special letters that do not
+     * decompose are replaced with their closest latin spelling.
+     *
+     * @param text
+     * @return
+     */
+    public static String normalize(String text) {
+        var folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        var sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            switch (c) {
+                case 'æ' ->
+                    sb.append("ae");
+                case 'ø' ->
+                    sb.append('o');
+                case 'œ' ->
+                    sb.append("oe");
+                case 'ß' ->
+                    sb.append("ss");
+                case 'ł' ->
+                    sb.append('l');
+                case 'đ', 'ð' ->
+                    sb.append('d');
+                case 'þ' ->
+                    sb.append("th");
+                case 'ı' ->
+                    sb.append('i');
+                default ->
+                    sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * @param file
+     * @return
+     * @throws IOException also if the file is truncated or corrupt
+     */
+    public static GeonamesIndex read(File file) throws IOException {
+        try {
+            return read(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt geonames file: " + file, ex);
+        }
+    }
+
+    private static int checkLength(ByteBuffer buffer, int length, int bytes) {
+        if (length < 0 || (long) length * bytes > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        return length;
+    }
+
+    private static GeonamesIndex read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported geonames file");
+        }
+
+        //Each geoname takes at least four string lengths, two doubles and two ints
+        var size = checkLength(buffer, buffer.getInt(), 6 * Integer.BYTES + 2 * Double.BYTES);
+        var geonames = new ArrayList<Geoname>(size);
+        for (int i = 0; i < size; i++) {
+            var geoname = new Geoname();
+            geoname.setName(readString(buffer));
+            geoname.setAsciiName(readString(buffer));
+            geoname.setAlternateNames(readString(buffer));
+            geoname.setCountryCode(readString(buffer));
+            geoname.setLatitude(buffer.getDouble());
+            geoname.setLongitude(buffer.getDouble());
+            geoname.setPopulation(readInteger(buffer));
+            geoname.setElevation(readInteger(buffer));
+            geonames.add(geoname);
+        }
+
+        var tokenOffsets = readInts(buffer);
+        var tokens = new byte[checkLength(buffer, buffer.getInt(), 1)];
+        buffer.get(tokens);
+        var postingOffsets = readInts(buffer);
+        var postings = readInts(buffer);
+        if (buffer.hasRemaining()
+                || tokenOffsets.length == 0
+                || postingOffsets.length != tokenOffsets.length
+                || tokenOffsets[tokenOffsets.length - 1] != tokens.length
+                || postingOffsets[postingOffsets.length - 1] != postings.length) {
+            throw new IOException("Corrupt geonames file");
+        }
+        for (int i = 1; i < tokenOffsets.length; i++) {
+            if (tokenOffsets[i] < tokenOffsets[i - 1] || postingOffsets[i] < postingOffsets[i - 1]) {
+                throw new IOException("Corrupt geonames file");
+            }
+        }
+        for (var id : postings) {
+            if (id < 0 || id >= size) {
+                throw new IOException("Corrupt geonames file");
+            }
+        }
+
+        return new GeonamesIndex(geonames, tokens, tokenOffsets, postings, postingOffsets);
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        int value = buffer.getInt();
+
+        return value == NULL_INT ? null : value;
+    }
+
+    private static int[] readInts(ByteBuffer buffer) {
+        var values = new int[checkLength(buffer, buffer.getInt(), Integer.BYTES)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        checkLength(buffer, length, 1);
+        var value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+
+        return value;
+    }
+
+    private static void tokenize(String text, LinkedHashSet<String> tokens) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+
+        for (var token : SEPARATOR.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private GeonamesIndex(ArrayList<Geoname> geonames, byte[] tokens, int[] tokenOffsets, int[] postings, int[] postingOffsets) {
+        mGeonames = geonames;
+        mTokens = tokens;
+        mTokenOffsets = tokenOffsets;
+        mPostings = postings;
+        mPostingOffsets = postingOffsets;
+
+        mForwardOffsets = new int[geonames.size() + 1];
+        for (int id : postings) {
+            mForwardOffsets[id + 1]++;
+        }
+        for (int i = 0; i < geonames.size(); i++) {
+            mForwardOffsets[i + 1] += mForwardOffsets[i];
+        }
+
+        mForwards = new int[postings.length];
+        var fill = Arrays.copyOf(mForwardOffsets, geonames.size());
+        for (int token = 0; token < getTokenCount(); token++) {
+            for (int p = postingOffsets[token]; p < postingOffsets[token + 1]; p++) {
+                mForwards[fill[postings[p]]++] = token;
+            }
+        }
+    }
+
+    /**
+     * @return the geonames in descending population order
+     */
+    public ArrayList<Geoname> getGeonames() {
+        return mGeonames;
+    }
+
+    /**
+     * Find the geonames having a word starting with each word of the text.
+     *
+     * @param text
+     * @param limit
+     * @return at most limit geonames, in descending population order
+     */
+    public List<Geoname> search(String text, int limit) {
+        if (text == null || limit <= 0) {
+            return List.of();
+        }
+
+        var terms = new LinkedHashSet<String>();
+        tokenize(text, terms);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        var ranges = new int[terms.size()][];
+        int pivot = 0;
+        int i = 0;
+        for (var term : terms) {
+            var range = getTokenRange(term.getBytes(StandardCharsets.UTF_8));
+            if (range[0] == range[1]) {
+                return List.of();
+            }
+            ranges[i] = range;
+            if (getPostingCount(range) < getPostingCount(ranges[pivot])) {
+                pivot = i;
+            }
+            i++;
+        }
+
+        var best = new int[limit];
+        int count = 0;
+        for (int token = ranges[pivot][0]; token < ranges[pivot][1]; token++) {
+            for (int p = mPostingOffsets[token]; p < mPostingOffsets[token + 1]; p++) {
+                int id = mPostings[p];
+                if (count == limit && id >= best[count - 1]) {
+                    break;
+                }
+
+                int pos = Arrays.binarySearch(best, 0, count, id);
+                if (pos < 0 && matches(id, ranges, pivot)) {
+                    pos = -pos - 1;
+                    int length = Math.min(count, limit - 1) - pos;
+                    System.arraycopy(best, pos, best, pos + 1, length);
+                    best[pos] = id;
+                    count = Math.min(count + 1, limit);
+                }
+            }
+        }
+
+        var result = new ArrayList<Geoname>(count);
+        for (int j = 0; j < count; j++) {
+            result.add(mGeonames.get(best[j]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Write to a temporary file that then replaces file, so a failed write
+     * never leaves a truncated index behind.
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void write(File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        var tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try (var out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(mGeonames.size());
+            for (var geoname : mGeonames) {
+                writeString(out, geoname.getName());
+                writeString(out, geoname.getAsciiName());
+                writeString(out, geoname.getAlternateNames());
+                writeString(out, geoname.getCountryCode());
+                out.writeDouble(geoname.getLatitude() == null ? Double.NaN : geoname.getLatitude());
+                out.writeDouble(geoname.getLongitude() == null ? Double.NaN : geoname.getLongitude());
+                out.writeInt(geoname.getPopulation() == null ? NULL_INT : geoname.getPopulation());
+                out.writeInt(geoname.getElevation() == null ? NULL_INT : geoname.getElevation());
+            }
+
+            writeInts(out, mTokenOffsets);
+            out.writeInt(mTokens.length);
+            out.write(mTokens);
+            writeInts(out, mPostingOffsets);
+            writeInts(out, mPostings);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw ex;
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return negative, zero or positive if the token, cut to the length of
+     * the prefix, is less than, equal to or greater than the prefix
+     */
+    private int compareToPrefix(int token, byte[] prefix) {
+        int from = mTokenOffsets[token];
+        int to = Math.min(mTokenOffsets[token + 1], from + prefix.length);
+
+        return Arrays.compareUnsigned(mTokens, from, to, prefix, 0, prefix.length);
+    }
+
+    private int getPostingCount(int[] range) {
+        return mPostingOffsets[range[1]] - mPostingOffsets[range[0]];
+    }
+
+    private int getTokenCount() {
+        return mTokenOffsets.length - 1;
+    }
+
+    /**
+     * @return [first, last) token starting with prefix
+     */
+    private int[] getTokenRange(byte[] prefix) {
+        int low = 0;
+        int high = getTokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(mid, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int first = low;
+        high = getTokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(mid, prefix) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return new int[]{first, low};
+    }
+
+    private boolean matches(int id, int[][] ranges, int pivot) {
+        for (int r = 0; r < ranges.length; r++) {
+            if (r == pivot) {
+                continue;
+            }
+
+            boolean match = false;
+            for (int f = mForwardOffsets[id]; f < mForwardOffsets[id + 1]; f++) {
+                int token = mForwards[f];
+                if (token >= ranges[r][0] && token < ranges[r][1]) {
+                    match = true;
+                    break;
+                }
+            }
+
+            if (!match) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static class IntList {
+
+        private int mSize;
+        private int[] mValues = new int[4];
+
+        void add(int value) {
+            if (mSize == mValues.length) {
+                mValues = Arrays.copyOf(mValues, mSize * 2);
+            }
+            mValues[mSize++] = value;
+        }
+
+        int size() {
+            return mSize;
+        }
+    }
+
+    private record TokenEntry(byte[] bytes, IntList ids) {
+
+    }
+}
@@ -15,13 +15,10 @@
  */
 package org.mapton.geonames.api;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeMap;
-import org.apache.commons.io.FileUtils;
 import org.mapton.api.MLatLon;
 import org.mapton.api.MLatLonBox;
 import org.mapton.geonames.GeonamesGenerator;
@@ -35,6 +32,8 @@ public class GeonamesManager {
 
     private final GeonamesGenerator mGenerator = GeonamesGenerator.getInstance();
     private ArrayList<Geoname> mGeonames = new ArrayList<>();
+    private GeonamesIndex mIndex;
+    private ReverseGeocoder mReverseGeocoder = new ReverseGeocoder(List.of());
 
     public static GeonamesManager getInstance() {
         return Holder.INSTANCE;
@@ -48,15 +47,34 @@ public class GeonamesManager {
         return mGeonames;
     }
 
+    /**
+     * @return a nearest place lookup over the loaded geonames
+     */
+    public ReverseGeocoder getReverseGeocoder() {
+        return mReverseGeocoder;
+    }
+
     public void init() {
         new Thread(() -> {
-            Gson gson = new GsonBuilder().create();
-
-            if (mGenerator.getSearchEngineFile().isFile()) {
+            if (mGenerator.getSearchEngineFile().isFile() || mGenerator.getCities1000txtFile().isFile()) {
                 try {
-                    String json = FileUtils.readFileToString(mGenerator.getSearchEngineFile(), "utf-8");
-                    mGeonames = gson.fromJson(json, new TypeToken<ArrayList<Geoname>>() {
-                    }.getType());
+                    GeonamesIndex index = null;
+                    if (mGenerator.getSearchEngineFile().isFile()) {
+                        try {
+                            index = GeonamesIndex.read(mGenerator.getSearchEngineFile());
+                        } catch (IOException ex) {
+                            if (!mGenerator.getCities1000txtFile().isFile()) {
+                                throw ex;
+                            }
+                            //Truncated or corrupt, rebuild it
+                        }
+                    }
+                    if (index == null) {
+                        index = mGenerator.generate();
+                    }
+                    mGeonames = index.getGeonames();
+                    mIndex = index;
+                    mReverseGeocoder = new ReverseGeocoder(mGeonames);
 
                     final TreeMap<String, ArrayList<Geoname>> countries = new TreeMap<>();
                     for (Geoname geoname : mGeonames) {
@@ -85,6 +103,18 @@ public class GeonamesManager {
         }, getClass().getCanonicalName()).start();
     }
 
+    /**
+     * @param text words that has to start a word of the name, alternate names
+     * or country name, case and accent insensitive
+     * @param limit
+     * @return the most populated matches
+     */
+    public List<Geoname> search(String text, int limit) {
+        var index = mIndex;
+
+        return index == null ? List.of() : index.search(text, limit);
+    }
+
     private static class Holder {
 
         private static final GeonamesManager INSTANCE = new GeonamesManager();
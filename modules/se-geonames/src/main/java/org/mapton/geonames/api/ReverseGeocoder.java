@@ -0,0 +1,349 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.geonames.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.mapton.api.MLatLon;
+
+/**
+ * Nearest place lookup over geonames.
+ * <p>
+ * The places are kept in a KD-tree on their unit sphere coordinates, where
+ * the straight line (chord) distance grows with the great circle distance.
+ * The tree is implicit: the node of a range is its middle element, split on
+ * the axis of largest spread. Instances are immutable and safe to share
+ * between threads.
+ *
+ * @author Patrik Karlström
+ */
+public class ReverseGeocoder {
+
+    private final byte[] mAxes;
+    private final ArrayList<Geoname> mGeonames;
+    private final int[] mIds;
+    private final double[][] mXyz;
+
+    private static void toXyz(double latitude, double longitude, double[] xyz) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        xyz[0] = cosLat * Math.cos(lon);
+        xyz[1] = cosLat * Math.sin(lon);
+        xyz[2] = Math.sin(lat);
+    }
+
+    public ReverseGeocoder(List<Geoname> geonames) {
+        mGeonames = new ArrayList<>(geonames.size());
+        for (var geoname : geonames) {
+            if (geoname.getLatitude() != null && geoname.getLongitude() != null
+                    && !Double.isNaN(geoname.getLatitude()) && !Double.isNaN(geoname.getLongitude())) {
+                mGeonames.add(geoname);
+            }
+        }
+
+        int n = mGeonames.size();
+        mIds = IntStream.range(0, n).toArray();
+        mAxes = new byte[n];
+        mXyz = new double[3][n];
+        var xyz = new double[3];
+        for (int i = 0; i < n; i++) {
+            var geoname = mGeonames.get(i);
+            toXyz(geoname.getLatitude(), geoname.getLongitude(), xyz);
+            mXyz[0][i] = xyz[0];
+            mXyz[1][i] = xyz[1];
+            mXyz[2][i] = xyz[2];
+        }
+
+        build(0, n);
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @return the nearest place, null if there are none
+     */
+    public Geoname getNearest(double latitude, double longitude) {
+        var nearest = getNearest(latitude, longitude, 1);
+
+        return nearest.isEmpty() ? null : nearest.getFirst();
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @param k
+     * @return the k nearest places, nearest first
+     */
+    public List<Geoname> getNearest(double latitude, double longitude, int k) {
+        if (k <= 0 || mIds.length == 0) {
+            return List.of();
+        }
+
+        var query = new Query(latitude, longitude, Math.min(k, mIds.length), Double.POSITIVE_INFINITY);
+        searchNearest(0, mIds.length, query);
+
+        return query.toList();
+    }
+
+    /**
+     * Bulk lookup, spread over the common pool.
+     *
+     * @param latLons
+     * @param maxDistance in meters, places farther away give null
+     * @return the nearest place of each position, in the same order
+     */
+    public List<Geoname> getNearest(List<MLatLon> latLons, double maxDistance) {
+        var maxChord = toChord(maxDistance);
+        var result = new Geoname[latLons.size()];
+        IntStream.range(0, result.length).parallel().forEach(i -> {
+            var latLon = latLons.get(i);
+            if (latLon != null && mIds.length > 0) {
+                var query = new Query(latLon.getLatitude(), latLon.getLongitude(), 1, maxChord * maxChord);
+                searchNearest(0, mIds.length, query);
+                result[i] = query.mCount == 0 ? null : mGeonames.get(query.mCandidates[0]);
+            }
+        });
+
+        return Arrays.asList(result);
+    }
+
+    /**
+     * @param latitude
+     * @param longitude
+     * @param radius in meters
+     * @return the places within radius, nearest first
+     */
+    public List<Geoname> getWithin(double latitude, double longitude, double radius) {
+        var chord = toChord(radius);
+        var query = new Query(latitude, longitude, Integer.MAX_VALUE, chord * chord);
+        searchWithin(0, mIds.length, query);
+
+        return query.toList();
+    }
+
+    public int size() {
+        return mIds.length;
+    }
+
+    private void build(int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+
+        int axis = 0;
+        double maxSpread = -1;
+        for (int a = 0; a < 3; a++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, mXyz[a][i]);
+                max = Math.max(max, mXyz[a][i]);
+            }
+            if (max - min > maxSpread) {
+                maxSpread = max - min;
+                axis = a;
+            }
+        }
+
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, mXyz[axis]);
+        mAxes[mid] = (byte) axis;
+        build(from, mid);
+        build(mid + 1, to);
+    }
+
+    private double distanceSquared(int i, Query query) {
+        double dx = mXyz[0][i] - query.mPosition[0];
+        double dy = mXyz[1][i] - query.mPosition[1];
+        double dz = mXyz[2][i] - query.mPosition[2];
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void searchNearest(int from, int to, Query query) {
+        if (from >= to) {
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        query.offer(mIds[mid], distanceSquared(mid, query));
+
+        double diff = query.mPosition[mAxes[mid]] - mXyz[mAxes[mid]][mid];
+        if (diff < 0) {
+            searchNearest(from, mid, query);
+            if (diff * diff <= query.getBound()) {
+                searchNearest(mid + 1, to, query);
+            }
+        } else {
+            searchNearest(mid + 1, to, query);
+            if (diff * diff <= query.getBound()) {
+                searchNearest(from, mid, query);
+            }
+        }
+    }
+
+    private void searchWithin(int from, int to, Query query) {
+        if (from >= to) {
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        query.offer(mIds[mid], distanceSquared(mid, query));
+
+        double diff = query.mPosition[mAxes[mid]] - mXyz[mAxes[mid]][mid];
+        if (diff <= 0 || diff * diff <= query.mMaxDistanceSquared) {
+            searchWithin(from, mid, query);
+        }
+        if (diff >= 0 || diff * diff <= query.mMaxDistanceSquared) {
+            searchWithin(mid + 1, to, query);
+        }
+    }
+
+    private void select(int left, int right, int k, double[] values) {
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int id = mIds[i];
+        mIds[i] = mIds[j];
+        mIds[j] = id;
+        for (var values : mXyz) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private double toChord(double meters) {
+        double angle = Math.max(0, meters) / MLatLon.EARTH_RADIUS_METERS;
+
+        return angle >= Math.PI ? 2 : 2 * Math.sin(angle / 2);
+    }
+
+    /**
+     * The best candidates of a search, a max heap on distance when bounded by
+     * k, an unordered list otherwise.
+     */
+    private class Query {
+
+        private int mCount;
+        private double[] mCandidateDistances;
+        private int[] mCandidates;
+        private final int mK;
+        private final double mMaxDistanceSquared;
+        private final double[] mPosition = new double[3];
+
+        Query(double latitude, double longitude, int k, double maxDistanceSquared) {
+            toXyz(latitude, longitude, mPosition);
+            mK = k;
+            mMaxDistanceSquared = maxDistanceSquared;
+            int capacity = Math.min(k, 16);
+            mCandidateDistances = new double[capacity];
+            mCandidates = new int[capacity];
+        }
+
+        double getBound() {
+            return mCount < mK ? mMaxDistanceSquared : mCandidateDistances[0];
+        }
+
+        void offer(int id, double distance) {
+            if (distance > mMaxDistanceSquared) {
+                return;
+            }
+
+            if (mK == Integer.MAX_VALUE) {
+                if (mCount == mCandidates.length) {
+                    mCandidates = Arrays.copyOf(mCandidates, mCount * 2);
+                    mCandidateDistances = Arrays.copyOf(mCandidateDistances, mCount * 2);
+                }
+                mCandidates[mCount] = id;
+                mCandidateDistances[mCount++] = distance;
+            } else if (mCount < mK) {
+                if (mCount == mCandidates.length) {
+                    mCandidates = Arrays.copyOf(mCandidates, Math.min(mK, mCount * 2));
+                    mCandidateDistances = Arrays.copyOf(mCandidateDistances, mCandidates.length);
+                }
+                int i = mCount++;
+                while (i > 0 && mCandidateDistances[(i - 1) / 2] < distance) {
+                    mCandidates[i] = mCandidates[(i - 1) / 2];
+                    mCandidateDistances[i] = mCandidateDistances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                mCandidates[i] = id;
+                mCandidateDistances[i] = distance;
+            } else if (distance < mCandidateDistances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= mCount) {
+                        break;
+                    }
+                    if (child + 1 < mCount && mCandidateDistances[child + 1] > mCandidateDistances[child]) {
+                        child++;
+                    }
+                    if (mCandidateDistances[child] <= distance) {
+                        break;
+                    }
+                    mCandidates[i] = mCandidates[child];
+                    mCandidateDistances[i] = mCandidateDistances[child];
+                    i = child;
+                }
+                mCandidates[i] = id;
+                mCandidateDistances[i] = distance;
+            }
+        }
+
+        List<Geoname> toList() {
+            var order = IntStream.range(0, mCount).boxed()
+                    .sorted((o1, o2) -> Double.compare(mCandidateDistances[o1], mCandidateDistances[o2]))
+                    .toList();
+            var result = new ArrayList<Geoname>(mCount);
+            for (int i : order) {
+                result.add(mGeonames.get(mCandidates[i]));
+            }
+
+            return result;
+        }
+    }
+}
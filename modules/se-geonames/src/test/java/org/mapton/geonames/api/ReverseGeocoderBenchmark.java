@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Patrik Karlström.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.mapton.geonames.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.mapton.api.MLatLon;
+
+/**
+ * Times one million random lookups, one by one and in bulk, and checks a
+ * sample of them against a brute force scan.
+ * <p>
+ * Run with the path of a geonames.bin as argument to use real places,
+ * otherwise 150 000 random places are used.
+ *
+ * @author Patrik Karlström
+ */
+public class ReverseGeocoderBenchmark {
+
+    private static final int NUM_OF_LOOKUPS = 1_000_000;
+    private static final int NUM_OF_PLACES = 150_000;
+    private static final int NUM_OF_VERIFICATIONS = 1_000;
+    private static final int NUM_OF_WARMUPS = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        var random = new Random(42);
+        List<Geoname> geonames;
+        if (args.length > 0) {
+            geonames = GeonamesIndex.read(new File(args[0])).getGeonames();
+        } else {
+            geonames = new ArrayList<>(NUM_OF_PLACES);
+            for (int i = 0; i < NUM_OF_PLACES; i++) {
+                var geoname = new Geoname();
+                geoname.setName("P" + i);
+                geoname.setLatitude(randomLatitude(random));
+                geoname.setLongitude(randomLongitude(random));
+                geonames.add(geoname);
+            }
+        }
+
+        var t0 = System.nanoTime();
+        var reverseGeocoder = new ReverseGeocoder(geonames);
+        System.out.println("Built %d places in %d ms".formatted(reverseGeocoder.size(), (System.nanoTime() - t0) / 1_000_000));
+
+        var latitudes = new double[NUM_OF_LOOKUPS];
+        var longitudes = new double[NUM_OF_LOOKUPS];
+        var latLons = new ArrayList<MLatLon>(NUM_OF_LOOKUPS);
+        for (int i = 0; i < NUM_OF_LOOKUPS; i++) {
+            latitudes[i] = randomLatitude(random);
+            longitudes[i] = randomLongitude(random);
+            latLons.add(new MLatLon(latitudes[i], longitudes[i]));
+        }
+
+        for (int i = 0; i < NUM_OF_WARMUPS; i++) {
+            reverseGeocoder.getNearest(latitudes[i], longitudes[i]);
+        }
+
+        t0 = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < NUM_OF_LOOKUPS; i++) {
+            if (reverseGeocoder.getNearest(latitudes[i], longitudes[i]) != null) {
+                found++;
+            }
+        }
+        var elapsed = System.nanoTime() - t0;
+        System.out.println("Single: %d lookups in %d ms, %.2f us/lookup, %d found".formatted(NUM_OF_LOOKUPS, elapsed / 1_000_000, elapsed / 1000.0 / NUM_OF_LOOKUPS, found));
+
+        t0 = System.nanoTime();
+        var nearest = reverseGeocoder.getNearest(latLons, Double.MAX_VALUE);
+        elapsed = System.nanoTime() - t0;
+        System.out.println("Batch:  %d lookups in %d ms, %.2f us/lookup".formatted(NUM_OF_LOOKUPS, elapsed / 1_000_000, elapsed / 1000.0 / NUM_OF_LOOKUPS));
+
+        int mismatches = 0;
+        for (int i = 0; i < NUM_OF_VERIFICATIONS; i++) {
+            var expected = getNearestBruteForce(geonames, latitudes[i], longitudes[i]);
+            if (Math.abs(getDistance(expected, latitudes[i], longitudes[i]) - getDistance(nearest.get(i), latitudes[i], longitudes[i])) > 1e-12) {
+                mismatches++;
+            }
+        }
+        System.out.println("Verified %d lookups against brute force, %d mismatches".formatted(NUM_OF_VERIFICATIONS, mismatches));
+    }
+
+    private static double getDistance(Geoname geoname, double latitude, double longitude) {
+        var lat1 = Math.toRadians(latitude);
+        var lat2 = Math.toRadians(geoname.getLatitude());
+        var dLon = Math.toRadians(geoname.getLongitude() - longitude);
+
+        return Math.acos(Math.min(1, Math.sin(lat1) * Math.sin(lat2) + Math.cos(lat1) * Math.cos(lat2) * Math.cos(dLon)));
+    }
+
+    private static Geoname getNearestBruteForce(List<Geoname> geonames, double latitude, double longitude) {
+        Geoname nearest = null;
+        var minDistance = Double.MAX_VALUE;
+        for (var geoname : geonames) {
+            var distance = getDistance(geoname, latitude, longitude);
+            if (distance < minDistance) {
+                minDistance = distance;
+                nearest = geoname;
+            }
+        }
+
+        return nearest;
+    }
+
+    private static double randomLatitude(Random random) {
+        return Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+    }
+
+    private static double randomLongitude(Random random) {
+        return random.nextDouble() * 360 - 180;
+    }
+}
@@ -17,7 +17,9 @@ package org.mapton.transformation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.ResourceBundle;
 import javafx.geometry.Pos;
 import javafx.scene.control.ComboBox;
@@ -39,10 +41,9 @@ import org.geotools.api.geometry.MismatchedDimensionException;
 import org.geotools.api.referencing.FactoryException;
 import org.geotools.api.referencing.crs.CoordinateReferenceSystem;
 import org.geotools.api.referencing.operation.MathTransform;
-import org.geotools.api.referencing.operation.TransformException;
-import org.geotools.geometry.Position3D;
 import org.geotools.referencing.CRS;
 import se.trixon.almond.nbp.FileChooserHelper;
+import org.mapton.api.GeoToolsCooTrans;
 import org.mapton.api.MCrsManager;
 import static org.mapton.api.Mapton.getIconSizeToolBarInt;
 import org.openide.filesystems.FileChooserBuilder;
@@ -251,15 +252,13 @@ public class TransformationView extends BorderPane {
             GeoPoint.setDecimalsZ(zValue);
 
             var mathTransform = CRS.findMathTransform(fromCrs, toCrs, false);
+            var points = new ArrayList<GeoPoint>();
             for (var line : mDestGeo.getLines()) {
-                for (var point : line.getPoints()) {
-                    transform(mathTransform, point);
-                }
+                points.addAll(line.getPoints());
             }
+            points.addAll(mDestGeo.getPoints());
 
-            for (var point : mDestGeo.getPoints()) {
-                transform(mathTransform, point);
-            }
+            transform(mathTransform, points);
 
             mDestLogPanel.setText(mDestGeo.toString());
         } catch (FactoryException | MismatchedDimensionException | IOException ex) {
@@ -267,16 +266,31 @@ public class TransformationView extends BorderPane {
         }
     }
 
-    private void transform(MathTransform mathTransform, GeoPoint point) {
-        try {
-            double z = MathHelper.convertDoubleToDouble(point.getZ());
-            var dp = mathTransform.transform(new Position3D(point.getX(), point.getY(), z), null);
-            point.setX(dp.getCoordinate()[0]);
-            point.setY(dp.getCoordinate()[1]);
-        } catch (MismatchedDimensionException | TransformException ex) {
-            Exceptions.printStackTrace(ex);
+    private void transform(MathTransform mathTransform, List<GeoPoint> points) {
+        int sourceDimension = mathTransform.getSourceDimensions();
+        int targetDimension = mathTransform.getTargetDimensions();
+        var source = new double[points.size() * sourceDimension];
+        for (int i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            source[i * sourceDimension] = point.getX();
+            source[i * sourceDimension + 1] = point.getY();
+            if (sourceDimension > 2) {
+                source[i * sourceDimension + 2] = MathHelper.convertDoubleToDouble(point.getZ());
+            }
         }
 
+        var result = new double[points.size() * targetDimension];
+        GeoToolsCooTrans.transform(mathTransform, source, result, points.size());
+
+        for (int i = 0; i < points.size(); i++) {
+            var x = result[i * targetDimension];
+            var y = result[i * targetDimension + 1];
+            //leave points that could not be transformed as they are
+            if (!Double.isNaN(x) && !Double.isNaN(y)) {
+                points.get(i).setX(x);
+                points.get(i).setY(y);
+            }
+        }
     }
 
 }